@@ -3,6 +3,7 @@ plugins {
 	alias(libs.plugins.spring.boot)
 	alias(libs.plugins.spring.dependency.management)
 	id("jacoco")
+	alias(libs.plugins.jmh)
 }
 
 allprojects {
@@ -19,13 +20,20 @@ group = "io.hhplus"
 version = "0.0.1-SNAPSHOT"
 
 java {
-	sourceCompatibility = JavaVersion.VERSION_17
+	toolchain {
+		languageVersion.set(JavaLanguageVersion.of(21))
+	}
 }
 
 with(extensions.getByType(JacocoPluginExtension::class.java)) {
 	toolVersion = "0.8.7"
 }
 
+// 본문에서 쓰지 않는 try-with-resources 자원(admission permit 등)은 경고로 남기지 않고 빌드를 깨뜨린다.
+tasks.withType<JavaCompile> {
+	options.compilerArgs.addAll(listOf("-Xlint:try", "-Werror"))
+}
+
 configurations {
 	compileOnly {
 		extendsFrom(configurations.annotationProcessor.get())
@@ -34,6 +42,8 @@ configurations {
 
 dependencies {
 	implementation(libs.spring.boot.starter.web)
+	implementation(libs.spring.boot.starter.actuator)
+	runtimeOnly(libs.micrometer.registry.prometheus)
 	annotationProcessor(libs.spring.boot.configuration.processor)
 	testImplementation(libs.spring.boot.starter.test)
 
@@ -41,6 +51,15 @@ dependencies {
 	annotationProcessor(libs.lombok)
 }
 
+// benchmark tasks (src/jmh)
+jmh {
+	warmupIterations.set(2)
+	iterations.set(3)
+	fork.set(1)
+	resultFormat.set("JSON")
+	resultsFile.set(layout.buildDirectory.file("reports/jmh/results.json"))
+}
+
 // bundling tasks
 tasks.getByName("bootJar") {
 	enabled = true
@@ -51,5 +70,21 @@ tasks.getByName("jar") {
 // test tasks
 tasks.test {
 	ignoreFailures = true
-	useJUnitPlatform()
+	useJUnitPlatform {
+		excludeTags("load")
+	}
+	// ./gradlew test -Dsimulation.seed=... 로 실패한 시뮬레이션을 같은 seed 로 다시 돌린다.
+	System.getProperties().stringPropertyNames()
+		.filter { it.startsWith("simulation.") }
+		.forEach { systemProperty(it, System.getProperty(it)) }
+}
+tasks.register<Test>("loadTest") {
+	description = "Runs load tests tagged with 'load'."
+	group = "verification"
+	testClassesDirs = sourceSets.test.get().output.classesDirs
+	classpath = sourceSets.test.get().runtimeClasspath
+	maxHeapSize = "3g"
+	useJUnitPlatform {
+		includeTags("load")
+	}
 }
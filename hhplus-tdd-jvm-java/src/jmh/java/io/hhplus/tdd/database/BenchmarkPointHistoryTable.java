@@ -0,0 +1,42 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 여러 스레드에서 동시에 호출해도 안전하고 지연을 끌 수 있는 PointHistoryTable 입니다.
+ */
+public class BenchmarkPointHistoryTable extends PointHistoryTable {
+    private final ConcurrentHashMap<Long, ConcurrentLinkedQueue<PointHistory>> table = new ConcurrentHashMap<>();
+    private final AtomicLong cursor = new AtomicLong(1);
+    private final Throttle throttle;
+
+    public BenchmarkPointHistoryTable(Throttle throttle) {
+        this.throttle = throttle;
+    }
+
+    @Override
+    public PointHistory insert(long userId, long amount, TransactionType type, long updateMillis) {
+        throttle.pause(300L);
+        return append(userId, amount, type, updateMillis);
+    }
+
+    @Override
+    public List<PointHistory> selectAllByUserId(long userId) {
+        return List.copyOf(table.getOrDefault(userId, new ConcurrentLinkedQueue<>()));
+    }
+
+    /**
+     * 지연 없이 내역을 채워 넣습니다.
+     */
+    public PointHistory append(long userId, long amount, TransactionType type, long updateMillis) {
+        PointHistory pointHistory = new PointHistory(cursor.getAndIncrement(), userId, amount, type, updateMillis);
+        table.computeIfAbsent(userId, id -> new ConcurrentLinkedQueue<>()).add(pointHistory);
+        return pointHistory;
+    }
+}
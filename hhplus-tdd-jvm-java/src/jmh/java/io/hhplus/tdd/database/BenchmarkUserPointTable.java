@@ -0,0 +1,38 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.UserPoint;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 여러 스레드에서 동시에 호출해도 안전하고 지연을 끌 수 있는 UserPointTable 입니다.
+ */
+public class BenchmarkUserPointTable extends UserPointTable {
+    private final ConcurrentHashMap<Long, UserPoint> table = new ConcurrentHashMap<>();
+    private final Throttle throttle;
+
+    public BenchmarkUserPointTable(Throttle throttle) {
+        this.throttle = throttle;
+    }
+
+    @Override
+    public UserPoint selectById(Long id) {
+        throttle.pause(200L);
+        return table.getOrDefault(id, UserPoint.empty(id));
+    }
+
+    @Override
+    public UserPoint insertOrUpdate(long id, long amount) {
+        throttle.pause(300L);
+        UserPoint userPoint = new UserPoint(id, amount, System.currentTimeMillis());
+        table.put(id, userPoint);
+        return userPoint;
+    }
+
+    /**
+     * 지연 없이 잔액을 채워 넣습니다.
+     */
+    public void seed(long id, long amount) {
+        table.put(id, new UserPoint(id, amount, System.currentTimeMillis()));
+    }
+}
@@ -0,0 +1,64 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.UserPoint;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 잔액 맵 구현별 동시 조회/쓰기 처리량을 비교합니다.
+ * HashMap 은 여러 스레드에서 쓸 수 없으므로 LockMapStrategy 처럼 ConcurrentHashMap 을 기준으로 삼습니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PointBalanceMapBenchmark {
+
+    public enum Store {
+        CONCURRENT_HASH_MAP,
+        PRIMITIVE,
+    }
+
+    @Param({"CONCURRENT_HASH_MAP", "PRIMITIVE"})
+    public Store store;
+
+    @Param({"100000", "10000000"})
+    public int users;
+
+    private ConcurrentHashMap<Long, UserPoint> map;
+    private PointBalanceMap balances;
+
+    @Setup
+    public void setUp() {
+        if (store == Store.CONCURRENT_HASH_MAP) {
+            map = new ConcurrentHashMap<>(users);
+            for (long id = 0; id < users; id++) {
+                map.put(id, new UserPoint(id, id, id));
+            }
+        } else {
+            balances = new PointBalanceMap(users, 64);
+            for (long id = 0; id < users; id++) {
+                balances.put(id, id, id);
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object get() {
+        long id = ThreadLocalRandom.current().nextInt(users);
+        return store == Store.CONCURRENT_HASH_MAP ? map.get(id) : balances.get(id);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object put() {
+        long id = ThreadLocalRandom.current().nextInt(users);
+        if (store == Store.CONCURRENT_HASH_MAP) {
+            return map.put(id, new UserPoint(id, id, id));
+        }
+        return balances.put(id, id, id);
+    }
+}
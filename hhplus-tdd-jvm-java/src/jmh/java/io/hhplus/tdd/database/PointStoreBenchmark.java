@@ -0,0 +1,90 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.TransactionType;
+import io.hhplus.tdd.point.UserPoint;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BalanceStore/HistoryStore 구현별 동시 조회/쓰기/compare-and-set/내역 추가 처리량을 비교합니다.
+ * TABLE 은 원래 테이블을 여러 스레드에서 쓸 수 없으므로 지연을 끈 벤치마크용 테이블을 어댑터로 감쌉니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PointStoreBenchmark {
+
+    public enum Store {
+        TABLE,
+        MEMORY,
+    }
+
+    @Param({"TABLE", "MEMORY"})
+    public Store store;
+
+    @Param({"100000"})
+    public int users;
+
+    private BalanceStore balanceStore;
+    private HistoryStore historyStore;
+
+    @Setup
+    public void setUp() {
+        balanceStore = store == Store.TABLE
+                ? new TableBalanceStore(new BenchmarkUserPointTable(Throttle.ZERO))
+                : new InMemoryBalanceStore(users);
+        for (long id = 0; id < users; id++) {
+            balanceStore.save(id, id);
+        }
+    }
+
+    /**
+     * 내역은 계속 쌓이므로 iteration 마다 비웁니다.
+     */
+    @Setup(Level.Iteration)
+    public void resetHistory() {
+        historyStore = store == Store.TABLE
+                ? new TableHistoryStore(new BenchmarkPointHistoryTable(Throttle.ZERO))
+                : new InMemoryHistoryStore(users);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object find() {
+        return balanceStore.find(ThreadLocalRandom.current().nextInt(users));
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object save() {
+        long id = ThreadLocalRandom.current().nextInt(users);
+        return balanceStore.save(id, id);
+    }
+
+    /**
+     * 읽은 잔액에 1 을 더해 compare-and-set 하고, 그 사이 다른 쓰기가 있었으면 다시 읽습니다.
+     */
+    @Benchmark
+    @Threads(8)
+    public Object compareAndSet() {
+        long id = ThreadLocalRandom.current().nextInt(users);
+        while (true) {
+            UserPoint current = balanceStore.find(id);
+            UserPoint saved = balanceStore.compareAndSet(id, current.point(), current.point() + 1);
+            if (saved != null) {
+                return saved;
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    @Warmup(time = 1)
+    @Measurement(time = 1)
+    public Object append() {
+        long id = ThreadLocalRandom.current().nextInt(users);
+        return historyStore.append(id, 1L, TransactionType.CHARGE, id);
+    }
+}
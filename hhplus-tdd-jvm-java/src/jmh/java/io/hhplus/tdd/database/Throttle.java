@@ -0,0 +1,23 @@
+package io.hhplus.tdd.database;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 벤치마크용 테이블의 지연 방식입니다. REAL 은 원래 테이블과 같은 범위로 무작위로 쉬고, ZERO 는 쉬지 않습니다.
+ */
+public enum Throttle {
+    REAL,
+    ZERO;
+
+    void pause(long millis) {
+        if (this == ZERO) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(ThreadLocalRandom.current().nextLong(millis));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
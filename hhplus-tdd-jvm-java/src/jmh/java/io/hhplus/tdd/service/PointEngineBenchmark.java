@@ -0,0 +1,75 @@
+package io.hhplus.tdd.service;
+
+import io.hhplus.tdd.config.PointProperties;
+import io.hhplus.tdd.database.BenchmarkPointHistoryTable;
+import io.hhplus.tdd.database.BenchmarkUserPointTable;
+import io.hhplus.tdd.database.PointHistoryIndex;
+import io.hhplus.tdd.database.Throttle;
+import io.hhplus.tdd.database.UserPointCache;
+import io.hhplus.tdd.point.UserPoint;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 락 기반 처리와 shard 엔진의 충전/조회 처리량을 shard 수별로 비교합니다.
+ * engine 은 LOCK 이나 SHARD_{shard 수} 로 지정하고, 코어가 충분한 장비에서 shard 수에 따라 처리량이 늘어나는지 봅니다.
+ * 벤치마크 테이블은 스레드 안전하므로 락으로 감싸지 않습니다. 기본 설정의 원래 테이블은 LockedUserPointTable/LockedPointHistoryTable 이
+ * lock.stripes 만큼 나눠 막으므로, 테이블 모드의 처리량은 shard 수가 아니라 그 stripe 수까지만 늘어납니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(16)
+public class PointEngineBenchmark {
+    private static final long INITIAL_BALANCE = Long.MAX_VALUE / 4;
+
+    @Param({"LOCK", "SHARD_1", "SHARD_2", "SHARD_4", "SHARD_8"})
+    public String engine;
+
+    @Param({"ZERO", "REAL"})
+    public Throttle throttle;
+
+    @Param({"10000"})
+    public int users;
+
+    private PointService pointService;
+    private UserIdDistribution.Sampler sampler;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkUserPointTable userPointTable = new BenchmarkUserPointTable(throttle);
+        BenchmarkPointHistoryTable pointHistoryTable = new BenchmarkPointHistoryTable(throttle);
+        for (long id = 0; id < users; id++) {
+            userPointTable.seed(id, INITIAL_BALANCE);
+        }
+
+        PointProperties properties = new PointProperties();
+        if (engine.startsWith("SHARD_")) {
+            properties.getEngine().setType(PointProperties.EngineType.SHARD);
+            properties.getEngine().setShards(Integer.parseInt(engine.substring("SHARD_".length())));
+        }
+        pointService = new PointService(
+                new UserPointCache(userPointTable, properties.getCache().getCapacity()),
+                new PointHistoryIndex(pointHistoryTable, properties.getHistoryIndex().isEnabled()),
+                new StripedStampedLockStrategy(properties.getLock().getStripes(), properties.getLock().getTimeout().toMillis()),
+                properties
+        );
+        sampler = UserIdDistribution.UNIFORM.sampler(users);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pointService.close();
+    }
+
+    @Benchmark
+    public UserPoint patchCharge() throws InterruptedException {
+        return pointService.patchCharge(sampler.next(), 1L);
+    }
+
+    @Benchmark
+    public UserPoint getPoint() throws InterruptedException {
+        return pointService.getPoint(sampler.next());
+    }
+}
@@ -0,0 +1,65 @@
+package io.hhplus.tdd.service;
+
+import io.hhplus.tdd.config.PointProperties;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 유저 단위 동시성 제어 전략별 read/write 처리량을 비교합니다.
+ * 락 안의 작업은 비워 두어 락 자체의 비용과 경합만 측정합니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PointLockStrategyBenchmark {
+
+    @Param({"LOCK_MAP", "STRIPED", "OPTIMISTIC"})
+    public PointProperties.LockStrategyType strategy;
+
+    @Param({"1", "100000"})
+    public int users;
+
+    private PointLockStrategy lockStrategy;
+
+    @Setup
+    public void setUp() {
+        lockStrategy = switch (strategy) {
+            case LOCK_MAP -> new LockMapStrategy(5_000L);
+            case STRIPED -> new StripedStampedLockStrategy(1024, 5_000L);
+            case OPTIMISTIC -> new OptimisticVersionStrategy(1024, 5_000L);
+        };
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object read() throws InterruptedException {
+        return lockStrategy.read(nextUser(), () -> Boolean.TRUE);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object write() throws InterruptedException {
+        return lockStrategy.write(nextUser(), () -> Boolean.TRUE);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(6)
+    public void mixedRead(Blackhole blackhole) throws InterruptedException {
+        blackhole.consume(lockStrategy.read(nextUser(), () -> Boolean.TRUE));
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(2)
+    public void mixedWrite(Blackhole blackhole) throws InterruptedException {
+        blackhole.consume(lockStrategy.write(nextUser(), () -> Boolean.TRUE));
+    }
+
+    private long nextUser() {
+        return ThreadLocalRandom.current().nextInt(users);
+    }
+}
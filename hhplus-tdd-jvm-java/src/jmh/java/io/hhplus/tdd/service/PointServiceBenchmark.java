@@ -0,0 +1,84 @@
+package io.hhplus.tdd.service;
+
+import io.hhplus.tdd.config.PointProperties;
+import io.hhplus.tdd.database.BenchmarkPointHistoryTable;
+import io.hhplus.tdd.database.BenchmarkUserPointTable;
+import io.hhplus.tdd.database.PointHistoryIndex;
+import io.hhplus.tdd.database.Throttle;
+import io.hhplus.tdd.database.UserPointCache;
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+import io.hhplus.tdd.point.UserPoint;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PointService 의 조회/충전/사용/내역 조회 처리량을 유저 분포와 테이블 지연 여부별로 측정합니다.
+ * <p>
+ * ./gradlew jmh 로 실행하며 결과는 build/reports/jmh/results.json 에 남습니다.
+ * 지연이 있는 REAL 모드는 오래 걸리므로 필요하면 jmh { includes } 로 범위를 좁혀 실행합니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(8)
+public class PointServiceBenchmark {
+    private static final long INITIAL_BALANCE = Long.MAX_VALUE / 4;
+    private static final int HISTORY_PER_USER = 20;
+
+    @Param({"ZERO", "REAL"})
+    public Throttle throttle;
+
+    @Param({"SINGLE", "UNIFORM", "ZIPFIAN"})
+    public UserIdDistribution distribution;
+
+    @Param({"10000"})
+    public int users;
+
+    private PointService pointService;
+    private UserIdDistribution.Sampler sampler;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkUserPointTable userPointTable = new BenchmarkUserPointTable(throttle);
+        BenchmarkPointHistoryTable pointHistoryTable = new BenchmarkPointHistoryTable(throttle);
+        long now = System.currentTimeMillis();
+        for (long id = 0; id < users; id++) {
+            userPointTable.seed(id, INITIAL_BALANCE);
+            for (int i = 0; i < HISTORY_PER_USER; i++) {
+                pointHistoryTable.append(id, 1L, TransactionType.CHARGE, now);
+            }
+        }
+
+        PointProperties properties = new PointProperties();
+        pointService = new PointService(
+                new UserPointCache(userPointTable, properties.getCache().getCapacity()),
+                new PointHistoryIndex(pointHistoryTable, properties.getHistoryIndex().isEnabled()),
+                new StripedStampedLockStrategy(properties.getLock().getStripes(), properties.getLock().getTimeout().toMillis()),
+                properties
+        );
+        sampler = distribution.sampler(users);
+    }
+
+    @Benchmark
+    public UserPoint getPoint() throws InterruptedException {
+        return pointService.getPoint(sampler.next());
+    }
+
+    @Benchmark
+    public UserPoint patchCharge() throws InterruptedException {
+        return pointService.patchCharge(sampler.next(), 1L);
+    }
+
+    @Benchmark
+    public UserPoint patchUse() throws InterruptedException {
+        return pointService.patchUse(sampler.next(), -1L);
+    }
+
+    @Benchmark
+    public List<PointHistory> getHistory() throws InterruptedException {
+        return pointService.getHistory(sampler.next());
+    }
+}
@@ -0,0 +1,54 @@
+package io.hhplus.tdd.service;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 벤치마크에서 요청할 userId 를 고르는 방식입니다.
+ */
+public enum UserIdDistribution {
+    /** 모든 요청이 한 유저에 몰리는 경우 */
+    SINGLE,
+    /** N 명에게 고르게 퍼지는 경우 */
+    UNIFORM,
+    /** 소수의 유저에게 요청이 몰리는 Zipf(s=1) 분포 */
+    ZIPFIAN;
+
+    public Sampler sampler(int users) {
+        return switch (this) {
+            case SINGLE -> () -> 0L;
+            case UNIFORM -> () -> ThreadLocalRandom.current().nextInt(users);
+            case ZIPFIAN -> new ZipfianSampler(users, 1.0);
+        };
+    }
+
+    @FunctionalInterface
+    public interface Sampler {
+        long next();
+    }
+
+    /**
+     * 누적 분포를 미리 계산해 두고 이진 탐색으로 순위를 뽑습니다. 순위 0 이 가장 자주 뽑힙니다.
+     */
+    static final class ZipfianSampler implements Sampler {
+        private final double[] cumulative;
+
+        ZipfianSampler(int users, double exponent) {
+            cumulative = new double[users];
+            double sum = 0;
+            for (int rank = 0; rank < users; rank++) {
+                sum += 1.0 / Math.pow(rank + 1, exponent);
+                cumulative[rank] = sum;
+            }
+            for (int rank = 0; rank < users; rank++) {
+                cumulative[rank] /= sum;
+            }
+        }
+
+        @Override
+        public long next() {
+            int index = Arrays.binarySearch(cumulative, ThreadLocalRandom.current().nextDouble());
+            return index >= 0 ? index : Math.min(-index - 1, cumulative.length - 1);
+        }
+    }
+}
@@ -1,17 +1,31 @@
 package io.hhplus.tdd;
 
+import io.hhplus.tdd.config.PointProperties;
+import io.hhplus.tdd.exception.HistoryQueueFullException;
+import io.hhplus.tdd.exception.IdempotencyKeyReusedException;
+import io.hhplus.tdd.exception.LockTimeoutException;
+import io.hhplus.tdd.exception.RequestTimeoutException;
+import io.hhplus.tdd.exception.TooManyRequestsException;
 import io.hhplus.tdd.exception.UserNotFoundException;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
 @Slf4j
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class ApiControllerAdvice extends ResponseEntityExceptionHandler {
+    private final PointProperties pointProperties;
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleException(Exception e) {
         log.error("error: ", e);
@@ -27,4 +41,56 @@ public class ApiControllerAdvice extends ResponseEntityExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
     }
 
+    @ExceptionHandler(HistoryQueueFullException.class)
+    public ResponseEntity<ErrorResponse> handleHistoryQueueFullException(HistoryQueueFullException e){
+        log.warn("History queue is full: {}", e.getMessage());
+        ErrorResponse errorResponse = new ErrorResponse("503", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyKeyReusedException(IdempotencyKeyReusedException e){
+        log.warn("Idempotency key reused: {}", e.getMessage());
+        ErrorResponse errorResponse = new ErrorResponse("422", e.getMessage());
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(errorResponse);
+    }
+
+    /**
+     * 요청 한도를 넘었거나 유저 락을 얻지 못한 요청은 서버 오류가 아니므로 429 와 함께 다시 시도할 시점을 알려줍니다.
+     */
+    @ExceptionHandler({TooManyRequestsException.class, LockTimeoutException.class})
+    public ResponseEntity<ErrorResponse> handleTooManyRequestsException(RuntimeException e){
+        log.warn("Too many requests: {}", e.getMessage());
+        ErrorResponse errorResponse = new ErrorResponse("429", e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds())
+                .body(errorResponse);
+    }
+
+    /**
+     * 비동기 요청이 제한 시간 안에 처리를 시작하지 못했거나 응답을 만들지 못했으면 503 과 함께 다시 시도할 시점을 알려줍니다.
+     */
+    @ExceptionHandler(RequestTimeoutException.class)
+    public ResponseEntity<ErrorResponse> handleRequestTimeoutException(RequestTimeoutException e){
+        log.warn("Request timed out: {}", e.getMessage());
+        ErrorResponse errorResponse = new ErrorResponse("503", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds())
+                .body(errorResponse);
+    }
+
+    @Override
+    protected ResponseEntity<Object> handleAsyncRequestTimeoutException(AsyncRequestTimeoutException e, HttpHeaders headers,
+                                                                        HttpStatusCode status, WebRequest request) {
+        log.warn("Async request timed out");
+        ErrorResponse errorResponse = new ErrorResponse("503", "Request timed out");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds())
+                .body(errorResponse);
+    }
+
+    private String retryAfterSeconds() {
+        return Long.toString(Math.max(1L, (pointProperties.getAdmission().getRetryAfter().toMillis() + 999L) / 1_000L));
+    }
+
 }
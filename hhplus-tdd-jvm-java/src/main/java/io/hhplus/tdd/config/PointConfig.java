@@ -0,0 +1,215 @@
+package io.hhplus.tdd.config;
+
+import io.hhplus.tdd.database.ColumnarPointHistoryTable;
+import io.hhplus.tdd.database.DurablePointHistoryTable;
+import io.hhplus.tdd.database.DurablePointStore;
+import io.hhplus.tdd.database.DurableUserPointTable;
+import io.hhplus.tdd.database.ArchivedPointHistoryTable;
+import io.hhplus.tdd.database.BalanceStore;
+import io.hhplus.tdd.database.HistoryStore;
+import io.hhplus.tdd.database.InMemoryBalanceStore;
+import io.hhplus.tdd.database.InMemoryHistoryStore;
+import io.hhplus.tdd.database.LockedPointHistoryTable;
+import io.hhplus.tdd.database.LockedUserPointTable;
+import io.hhplus.tdd.database.PointBalanceMap;
+import io.hhplus.tdd.database.PointHistoryAggregates;
+import io.hhplus.tdd.database.PointHistoryAppender;
+import io.hhplus.tdd.database.PointHistoryArchive;
+import io.hhplus.tdd.database.PointHistoryIndex;
+import io.hhplus.tdd.database.PointHistorySegments;
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.database.PrimitiveUserPointTable;
+import io.hhplus.tdd.database.TableBalanceStore;
+import io.hhplus.tdd.database.TableHistoryStore;
+import io.hhplus.tdd.database.TimedPointHistoryTable;
+import io.hhplus.tdd.database.TimedUserPointTable;
+import io.hhplus.tdd.database.UserPointCache;
+import io.hhplus.tdd.database.UserPointTable;
+import io.hhplus.tdd.service.InstrumentedLockStrategy;
+import io.hhplus.tdd.service.PointChangeFeed;
+import io.hhplus.tdd.service.LockMapStrategy;
+import io.hhplus.tdd.service.OptimisticVersionStrategy;
+import io.hhplus.tdd.service.PointLockStrategy;
+import io.hhplus.tdd.service.StripedStampedLockStrategy;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.ZoneId;
+
+@Configuration
+@EnableConfigurationProperties(PointProperties.class)
+public class PointConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "point.storage", name = "enabled", havingValue = "true")
+    public DurablePointStore durablePointStore(PointProperties properties) throws IOException {
+        PointProperties.Storage storage = properties.getStorage();
+        return new DurablePointStore(Path.of(storage.getDirectory()), storage.getFsync(),
+                storage.getFsyncInterval().toMillis(), storage.getSnapshotInterval().toMillis(), aggregates(properties));
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "point.history-store", name = "type", havingValue = "columnar")
+    public PointHistorySegments pointHistorySegments(PointProperties properties) throws IOException {
+        PointProperties.HistoryStore historyStore = properties.getHistoryStore();
+        Path directory = historyStore.getDirectory().isBlank() ? null : Path.of(historyStore.getDirectory());
+        return new PointHistorySegments(directory, historyStore.getSegmentRows());
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "point.retention", name = "enabled", havingValue = "true")
+    public PointHistoryArchive pointHistoryArchive(PointProperties properties) throws IOException {
+        // 아카이브는 재시작하면 세그먼트를 버리고, 다른 내역 저장소가 켜져 있으면 조회를 넘겨받지 못한다. 조용히 꺼지지 않도록 시작을 막는다.
+        if (properties.getStorage().isEnabled()) {
+            throw new IllegalStateException("point.retention.enabled cannot be combined with point.storage.enabled");
+        }
+        if (properties.getHistoryStore().getType() != PointProperties.HistoryStoreType.LIST) {
+            throw new IllegalStateException("point.retention.enabled requires point.history-store.type=list, but was "
+                    + properties.getHistoryStore().getType());
+        }
+        PointProperties.Retention retention = properties.getRetention();
+        return new PointHistoryArchive(Path.of(retention.getDirectory()), retention.getMaxAge().toMillis(),
+                retention.getInterval().toMillis(), retention.getMaxRowsPerSegment());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "point.balance-store", name = "type", havingValue = "primitive")
+    public PointBalanceMap pointBalanceMap(PointProperties properties) {
+        PointProperties.BalanceStore balanceStore = properties.getBalanceStore();
+        return new PointBalanceMap(balanceStore.getExpectedUsers(), balanceStore.getSegments());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "point.store", name = "type", havingValue = "memory")
+    public BalanceStore inMemoryBalanceStore(PointProperties properties) {
+        checkMemoryStore(properties);
+        return new InMemoryBalanceStore(properties.getStore().getExpectedUsers());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "point.store", name = "type", havingValue = "memory")
+    public HistoryStore inMemoryHistoryStore(PointProperties properties) {
+        checkMemoryStore(properties);
+        return new InMemoryHistoryStore(properties.getStore().getExpectedHistoryUsers());
+    }
+
+    /**
+     * MEMORY 저장소는 테이블을 고르는 설정과 함께 쓸 수 없으므로, 한쪽이 조용히 무시되지 않도록 시작을 막는다.
+     */
+    private static void checkMemoryStore(PointProperties properties) {
+        if (properties.getStorage().isEnabled()
+                || properties.getBalanceStore().getType() != PointProperties.BalanceStoreType.MAP
+                || properties.getHistoryStore().getType() != PointProperties.HistoryStoreType.LIST) {
+            throw new IllegalStateException("point.store.type=memory cannot be combined with point.storage.enabled, "
+                    + "point.balance-store.type or point.history-store.type");
+        }
+    }
+
+    @Bean
+    public UserPointCache userPointCache(ObjectProvider<DurablePointStore> durablePointStore,
+                                         ObjectProvider<PointBalanceMap> pointBalanceMap,
+                                         ObjectProvider<BalanceStore> balanceStore,
+                                         PointProperties properties,
+                                         MeterRegistry registry) {
+        DurablePointStore store = durablePointStore.getIfAvailable();
+        PointBalanceMap balances = pointBalanceMap.getIfAvailable();
+        BalanceStore custom = balanceStore.getIfAvailable();
+        int capacity = properties.getCache().getCapacity();
+        if (store == null && balances == null && custom != null) {
+            // 저장소가 지연 없이 읽히므로 캐시를 앞에 두지 않는다.
+            return new UserPointCache(custom, 0);
+        }
+        UserPointTable table;
+        if (store != null) {
+            table = new DurableUserPointTable(store);
+            // 잔액은 내역 레코드가 로그에 남은 뒤에야 바뀌므로, 저장 결과를 먼저 들고 있는 캐시를 앞에 두지 않는다.
+            capacity = 0;
+        } else if (balances != null) {
+            table = new PrimitiveUserPointTable(balances);
+            // 맵 자체가 지연 없이 읽히므로 UserPoint 객체를 들고 있는 캐시를 앞에 두지 않는다.
+            capacity = 0;
+        } else {
+            // 원래 테이블은 여러 스레드에서 쓸 수 없으므로, 유저 락과 같은 수의 stripe 로 나눠 stripe 마다 테이블을 따로 두고 감싼다.
+            table = new LockedUserPointTable(UserPointTable::new, properties.getLock().getStripes());
+        }
+        return new UserPointCache(new TableBalanceStore(new TimedUserPointTable(table, registry)), capacity);
+    }
+
+    @Bean
+    public PointHistoryIndex pointHistoryIndex(ObjectProvider<DurablePointStore> durablePointStore,
+                                               ObjectProvider<PointHistorySegments> pointHistorySegments,
+                                               ObjectProvider<PointHistoryArchive> pointHistoryArchive,
+                                               ObjectProvider<HistoryStore> historyStore,
+                                               PointProperties properties,
+                                               MeterRegistry registry) {
+        DurablePointStore store = durablePointStore.getIfAvailable();
+        PointHistorySegments segments = pointHistorySegments.getIfAvailable();
+        HistoryStore custom = historyStore.getIfAvailable();
+        // 아카이브는 다른 내역 저장소와 함께 켤 수 없지만(pointHistoryArchive), 직접 등록한 HistoryStore 가 있으면 그쪽이 우선한다.
+        PointHistoryArchive archive = store == null && segments == null && custom == null ? pointHistoryArchive.getIfAvailable() : null;
+        PointHistoryTable table = null;
+        boolean indexed = properties.getHistoryIndex().isEnabled();
+        if (store != null) {
+            table = new DurablePointHistoryTable(store);
+        } else if (segments != null) {
+            table = new ColumnarPointHistoryTable(segments);
+            // 인덱스는 내역 객체를 힙에 들고 있으므로, 컬럼 저장소에서는 저장소가 유저별 조회를 맡는다.
+            indexed = false;
+        } else if (custom != null) {
+            // 저장소가 유저별로 내역을 따로 들고 있으므로 인덱스를 겹쳐 두지 않는다.
+            indexed = false;
+        } else if (archive != null) {
+            table = new ArchivedPointHistoryTable(archive);
+            // 인덱스가 옮겨진 내역까지 힙에 붙잡아 두지 않도록 아카이브가 유저별 조회를 맡는다.
+            indexed = false;
+        } else {
+            table = new LockedPointHistoryTable(PointHistoryTable::new, properties.getLock().getStripes());
+        }
+        HistoryStore history = table == null ? custom : new TableHistoryStore(new TimedPointHistoryTable(table, registry));
+        // storage 는 집계를 스냅샷에 함께 남기고 스냅샷 뒤의 로그만 다시 더해 두므로, 그 집계를 이어서 쓴다.
+        PointHistoryAggregates aggregates = store != null ? store.aggregates() : aggregates(properties);
+        return new PointHistoryIndex(history, indexed, aggregates, archive);
+    }
+
+    private static PointHistoryAggregates aggregates(PointProperties properties) {
+        PointProperties.Summary summary = properties.getSummary();
+        return new PointHistoryAggregates(ZoneId.of(summary.getZone()), summary.getRetainedDays());
+    }
+
+    @Bean
+    public PointHistoryAppender pointHistoryAppender(PointHistoryIndex pointHistoryIndex, PointProperties properties) {
+        PointProperties.HistoryAppender appender = properties.getHistoryAppender();
+        // storage 에서는 내역 레코드가 잔액 변경을 디스크에 남기므로, 응답 전에 내역을 기록해야 한다.
+        boolean async = appender.isEnabled() && !properties.getStorage().isEnabled();
+        return new PointHistoryAppender(pointHistoryIndex, async, appender.getCapacity(),
+                appender.getMaxBatchSize(), appender.getOverflow(), appender.getTimeout().toMillis(),
+                appender.getShutdownTimeout().toMillis());
+    }
+
+    @Bean(destroyMethod = "close")
+    public PointChangeFeed pointChangeFeed(PointHistoryIndex pointHistoryIndex, PointProperties properties) {
+        PointProperties.ChangeFeed changeFeed = properties.getChangeFeed();
+        PointChangeFeed feed = new PointChangeFeed(changeFeed.getBufferSize(), changeFeed.getSubscriberCapacity(),
+                changeFeed.getReorderWindow().toMillis(), changeFeed.getHeartbeat().toMillis());
+        pointHistoryIndex.addListener(feed::publish);
+        return feed;
+    }
+
+    @Bean
+    public PointLockStrategy pointLockStrategy(PointProperties properties, MeterRegistry registry) {
+        PointProperties.Lock lock = properties.getLock();
+        long timeoutMillis = lock.getTimeout().toMillis();
+        PointLockStrategy strategy = switch (lock.getStrategy()) {
+            case LOCK_MAP -> new LockMapStrategy(timeoutMillis);
+            case STRIPED -> new StripedStampedLockStrategy(lock.getStripes(), timeoutMillis);
+            case OPTIMISTIC -> new OptimisticVersionStrategy(lock.getStripes(), timeoutMillis);
+        };
+        return new InstrumentedLockStrategy(strategy, registry, lock.getStrategy().name().toLowerCase());
+    }
+}
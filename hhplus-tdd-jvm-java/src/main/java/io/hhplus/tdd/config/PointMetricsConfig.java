@@ -0,0 +1,197 @@
+package io.hhplus.tdd.config;
+
+import io.hhplus.tdd.database.PointBalanceMap;
+import io.hhplus.tdd.database.PointHistoryAppender;
+import io.hhplus.tdd.database.PointHistoryArchive;
+import io.hhplus.tdd.database.PointHistoryIndex;
+import io.hhplus.tdd.database.PointHistorySegments;
+import io.hhplus.tdd.database.UserPointCache;
+import io.hhplus.tdd.service.PointChangeFeed;
+import io.hhplus.tdd.service.PointService;
+import io.hhplus.tdd.service.SingleFlight;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 캐시, 내역 인덱스, 내역 파이프라인, 멱등성 키 저장소, 요청 한도, 비동기 처리, shard 엔진, single-flight, 변경 피드, 컬럼 내역 저장소, 내역 아카이브, 잔액 맵의 stats() 를 Micrometer 게이지/카운터로 노출합니다.
+ * 값은 스크레이프할 때마다 stats() 를 다시 호출해 읽습니다.
+ */
+@Configuration
+public class PointMetricsConfig {
+
+    @Bean
+    public MeterBinder userPointCacheMetrics(UserPointCache cache) {
+        return registry -> {
+            Gauge.builder("point.cache.size", cache, c -> c.stats().size()).register(registry);
+            Gauge.builder("point.cache.capacity", cache, c -> c.stats().capacity()).register(registry);
+            FunctionCounter.builder("point.cache.hits", cache, c -> c.stats().hits()).register(registry);
+            FunctionCounter.builder("point.cache.misses", cache, c -> c.stats().misses()).register(registry);
+            FunctionCounter.builder("point.cache.evictions", cache, c -> c.stats().evictions()).register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder pointHistoryIndexMetrics(PointHistoryIndex index) {
+        return registry -> {
+            Gauge.builder("point.history.index.users", index, i -> i.stats().users()).register(registry);
+            Gauge.builder("point.history.index.entries", index, i -> i.stats().entries()).register(registry);
+            Gauge.builder("point.history.index.estimated", index, i -> i.stats().estimatedBytes())
+                    .baseUnit("bytes")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder pointHistoryAppenderMetrics(PointHistoryAppender appender) {
+        return registry -> {
+            Gauge.builder("point.history.appender.queue.depth", appender, a -> a.stats().queueDepth()).register(registry);
+            Gauge.builder("point.history.appender.queue.capacity", appender, a -> a.stats().capacity()).register(registry);
+            TimeGauge.builder("point.history.appender.lag", appender, TimeUnit.MILLISECONDS, a -> a.stats().lagMillis())
+                    .description("Age of the oldest history row still waiting in the queue")
+                    .register(registry);
+            FunctionCounter.builder("point.history.appender.appended", appender, a -> a.stats().appended()).register(registry);
+            FunctionCounter.builder("point.history.appender.dropped", appender, a -> a.stats().dropped()).register(registry);
+            FunctionCounter.builder("point.history.appender.failed", appender, a -> a.stats().failed()).register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder idempotencyStoreMetrics(PointService pointService) {
+        return registry -> {
+            Gauge.builder("point.idempotency.size", pointService, p -> p.idempotencyStats().size()).register(registry);
+            Gauge.builder("point.idempotency.capacity", pointService, p -> p.idempotencyStats().capacity()).register(registry);
+            FunctionCounter.builder("point.idempotency.replays", pointService, p -> p.idempotencyStats().replays()).register(registry);
+            FunctionCounter.builder("point.idempotency.expirations", pointService, p -> p.idempotencyStats().expirations()).register(registry);
+            FunctionCounter.builder("point.idempotency.evictions", pointService, p -> p.idempotencyStats().evictions()).register(registry);
+            FunctionCounter.builder("point.idempotency.rejected", pointService, p -> p.idempotencyStats().rejections()).register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder pointAdmissionMetrics(PointService pointService) {
+        return registry -> {
+            Gauge.builder("point.admission.in.flight", pointService, p -> p.admissionStats().inFlight()).register(registry);
+            Gauge.builder("point.admission.users", pointService, p -> p.admissionStats().users()).register(registry);
+            Gauge.builder("point.admission.limit", pointService, p -> p.admissionStats().globalLimit())
+                    .tag("scope", "global")
+                    .register(registry);
+            Gauge.builder("point.admission.limit", pointService, p -> p.admissionStats().perUserLimit())
+                    .tag("scope", "user")
+                    .register(registry);
+            FunctionCounter.builder("point.admission.rejected", pointService, p -> p.admissionStats().globalRejections())
+                    .tag("scope", "global")
+                    .register(registry);
+            FunctionCounter.builder("point.admission.rejected", pointService, p -> p.admissionStats().userRejections())
+                    .tag("scope", "user")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder pointAsyncMetrics(PointService pointService) {
+        return registry -> {
+            Gauge.builder("point.async.active", pointService, p -> p.asyncStats().active()).register(registry);
+            Gauge.builder("point.async.queued", pointService, p -> p.asyncStats().queued()).register(registry);
+            FunctionCounter.builder("point.async.rejected", pointService, p -> p.asyncStats().rejections()).register(registry);
+            FunctionCounter.builder("point.async.timeouts", pointService, p -> p.asyncStats().timeouts()).register(registry);
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "point.single-flight", name = "enabled", havingValue = "true")
+    public MeterBinder singleFlightMetrics(PointService pointService) {
+        return registry -> {
+            bindSingleFlight(registry, "point", pointService, PointService::pointReadStats);
+            bindSingleFlight(registry, "history", pointService, PointService::historyReadStats);
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "point.engine", name = "type", havingValue = "shard")
+    public MeterBinder pointShardEngineMetrics(PointService pointService) {
+        return registry -> {
+            Gauge.builder("point.shard.count", pointService, p -> p.shardEngineStats().shards()).register(registry);
+            Gauge.builder("point.shard.queued", pointService, p -> p.shardEngineStats().queued()).register(registry);
+            Gauge.builder("point.shard.users", pointService, p -> p.shardEngineStats().users()).register(registry);
+            FunctionCounter.builder("point.shard.batches", pointService, p -> p.shardEngineStats().batches()).register(registry);
+            FunctionCounter.builder("point.shard.messages", pointService, p -> p.shardEngineStats().messages()).register(registry);
+            FunctionCounter.builder("point.shard.rejected", pointService, p -> p.shardEngineStats().rejections()).register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder pointChangeFeedMetrics(PointChangeFeed feed) {
+        return registry -> {
+            Gauge.builder("point.change.feed.subscribers", feed, f -> f.stats().subscribers()).register(registry);
+            Gauge.builder("point.change.feed.buffered", feed, f -> f.stats().buffered()).register(registry);
+            Gauge.builder("point.change.feed.pending", feed, f -> f.stats().pending()).register(registry);
+            FunctionCounter.builder("point.change.feed.published", feed, f -> f.stats().published()).register(registry);
+            FunctionCounter.builder("point.change.feed.overflows", feed, f -> f.stats().overflows()).register(registry);
+            FunctionCounter.builder("point.change.feed.skipped", feed, f -> f.stats().skippedIds()).register(registry);
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "point.history-store", name = "type", havingValue = "columnar")
+    public MeterBinder pointHistorySegmentsMetrics(PointHistorySegments segments) {
+        return registry -> {
+            Gauge.builder("point.history.store.rows", segments, s -> s.stats().rows()).register(registry);
+            Gauge.builder("point.history.store.users", segments, s -> s.stats().users()).register(registry);
+            Gauge.builder("point.history.store.segments", segments, s -> s.stats().segments()).register(registry);
+            Gauge.builder("point.history.store.off.heap", segments, s -> s.stats().offHeapBytes())
+                    .baseUnit("bytes")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "point.retention", name = "enabled", havingValue = "true")
+    public MeterBinder pointHistoryArchiveMetrics(PointHistoryArchive archive) {
+        return registry -> {
+            Gauge.builder("point.history.archive.hot.rows", archive, a -> a.stats().hotRows()).register(registry);
+            Gauge.builder("point.history.archive.hot.users", archive, a -> a.stats().hotUsers()).register(registry);
+            Gauge.builder("point.history.archive.segments", archive, a -> a.stats().segments()).register(registry);
+            Gauge.builder("point.history.archive.rows", archive, a -> a.stats().archivedRows()).register(registry);
+            Gauge.builder("point.history.archive.size", archive, a -> a.stats().archivedBytes())
+                    .baseUnit("bytes")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "point.balance-store", name = "type", havingValue = "primitive")
+    public MeterBinder pointBalanceMapMetrics(PointBalanceMap balances) {
+        return registry -> {
+            Gauge.builder("point.balance.map.size", balances, b -> b.stats().size()).register(registry);
+            Gauge.builder("point.balance.map.slots", balances, b -> b.stats().slots()).register(registry);
+            Gauge.builder("point.balance.map.allocated", balances, b -> b.stats().bytes())
+                    .baseUnit("bytes")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * SHARD 엔진과 함께 켜면 single-flight 를 쓰지 않으므로 통계가 null 이고 0 으로 보고합니다.
+     */
+    private static void bindSingleFlight(MeterRegistry registry, String read, PointService pointService,
+                                         Function<PointService, SingleFlight.FlightStats> stats) {
+        Gauge.builder("point.single.flight.in.flight", pointService, p -> stats.apply(p) == null ? 0 : stats.apply(p).inFlight())
+                .tag("read", read)
+                .register(registry);
+        FunctionCounter.builder("point.single.flight.issued", pointService, p -> stats.apply(p) == null ? 0 : stats.apply(p).issued())
+                .tag("read", read)
+                .register(registry);
+        FunctionCounter.builder("point.single.flight.coalesced", pointService, p -> stats.apply(p) == null ? 0 : stats.apply(p).coalesced())
+                .tag("read", read)
+                .register(registry);
+    }
+}
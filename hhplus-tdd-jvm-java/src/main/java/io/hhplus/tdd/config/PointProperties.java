@@ -0,0 +1,318 @@
+package io.hhplus.tdd.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * application.properties 의 point.* 설정을 바인딩합니다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "point")
+public class PointProperties {
+    private final GroupCommit groupCommit = new GroupCommit();
+    private final Cache cache = new Cache();
+    private final HistoryIndex historyIndex = new HistoryIndex();
+    private final Lock lock = new Lock();
+    private final HistoryAppender historyAppender = new HistoryAppender();
+    private final Batch batch = new Batch();
+    private final Bulk bulk = new Bulk();
+    private final Storage storage = new Storage();
+    private final HistoryStore historyStore = new HistoryStore();
+    private final BalanceStore balanceStore = new BalanceStore();
+    private final Store store = new Store();
+    private final Idempotency idempotency = new Idempotency();
+    private final Summary summary = new Summary();
+    private final Admission admission = new Admission();
+    private final Retention retention = new Retention();
+    private final ChangeFeed changeFeed = new ChangeFeed();
+    private final Engine engine = new Engine();
+    private final Async async = new Async();
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    /**
+     * 같은 유저의 동시 충전/사용 요청을 하나의 배치로 묶어 반영하는 모드
+     */
+    @Getter
+    @Setter
+    public static class GroupCommit {
+        private boolean enabled = false;
+        private int maxBatchSize = 64;
+    }
+
+    /**
+     * UserPointTable 앞단 잔액 캐시. capacity 가 0 이면 캐시를 사용하지 않습니다.
+     */
+    @Getter
+    @Setter
+    public static class Cache {
+        private int capacity = 10_000;
+    }
+
+    /**
+     * PointHistoryTable 옆의 유저별 내역 인덱스
+     */
+    @Getter
+    @Setter
+    public static class HistoryIndex {
+        private boolean enabled = true;
+    }
+
+    /**
+     * 유저 단위 동시성 제어 방식. 원래 테이블을 쓸 때는 테이블도 stripes 만큼 나눠 stripe 마다 따로 막습니다.
+     */
+    @Getter
+    @Setter
+    public static class Lock {
+        private LockStrategyType strategy = LockStrategyType.STRIPED;
+        private int stripes = 1024;
+        private Duration timeout = Duration.ofSeconds(5);
+    }
+
+    /**
+     * 내역 저장을 요청 경로 밖의 단일 writer 로 넘기는 비동기 파이프라인.
+     * timeout 은 BLOCK 정책의 대기 시간이자 내역 조회 전 밀린 내역을 기다리는 시간입니다.
+     */
+    @Getter
+    @Setter
+    public static class HistoryAppender {
+        private boolean enabled = false;
+        private int capacity = 10_000;
+        private int maxBatchSize = 256;
+        private HistoryOverflowPolicy overflow = HistoryOverflowPolicy.BLOCK;
+        private Duration timeout = Duration.ofSeconds(5);
+        private Duration shutdownTimeout = Duration.ofSeconds(30);
+    }
+
+    /**
+     * 여러 유저의 잔액을 한 번에 조회할 때 한 요청에 담을 수 있는 id 수와 동시에 테이블을 조회할 스레드 수
+     */
+    @Getter
+    @Setter
+    public static class Batch {
+        private int maxIds = 1_000;
+        private int parallelism = 32;
+    }
+
+    /**
+     * 대량 충전/사용 요청 하나가 쓸 worker 수와 worker 마다 쌓아둘 수 있는 줄 수. workers 가 0 이면 코어 수만큼 둡니다.
+     */
+    @Getter
+    @Setter
+    public static class Bulk {
+        private int workers = 0;
+        private int queueCapacity = 1_024;
+    }
+
+    /**
+     * 잔액과 내역을 write-ahead log, 내역 세그먼트, 잔액 스냅샷으로 디스크에 남기는 저장소.
+     * 켜면 UserPointTable/PointHistoryTable 대신 이 저장소를 사용하고, 내역이 남은 뒤에 응답하도록 비동기 내역 파이프라인은 끕니다.
+     * 잔액은 로그에 남은 뒤에만 바뀌므로 잔액 캐시도 쓰지 않습니다.
+     */
+    @Getter
+    @Setter
+    public static class Storage {
+        private boolean enabled = false;
+        private String directory = "data";
+        private FsyncPolicy fsync = FsyncPolicy.GROUP;
+        private Duration fsyncInterval = Duration.ofMillis(50);
+        private Duration snapshotInterval = Duration.ofMinutes(5);
+    }
+
+    /**
+     * 내역을 담는 방식. COLUMNAR 는 내역을 힙 밖의 고정 길이 컬럼에 담고, directory 가 비어 있으면 direct buffer 를 씁니다.
+     * storage 가 켜져 있으면 그쪽이 우선하고, COLUMNAR 에서는 내역 인덱스를 쓰지 않습니다.
+     */
+    @Getter
+    @Setter
+    public static class HistoryStore {
+        private HistoryStoreType type = HistoryStoreType.LIST;
+        private String directory = "";
+        private int segmentRows = 1 << 20;
+    }
+
+    /**
+     * 잔액을 담는 방식. PRIMITIVE 는 userId 를 long 그대로 키로 쓰는 open addressing 맵에 잔액을 담습니다.
+     * storage 가 켜져 있으면 그쪽이 우선하고, PRIMITIVE 에서는 잔액 캐시를 쓰지 않습니다.
+     */
+    @Getter
+    @Setter
+    public static class BalanceStore {
+        private BalanceStoreType type = BalanceStoreType.MAP;
+        private int expectedUsers = 100_000;
+        private int segments = 64;
+    }
+
+    /**
+     * 잔액/내역 저장소(BalanceStore, HistoryStore) 구현. TABLE 은 위의 balance-store, history-store 설정대로 테이블을 씁니다.
+     * MEMORY 는 InMemoryBalanceStore 와 InMemoryHistoryStore 를 쓰며, 잔액 캐시와 내역 인덱스를 쓰지 않습니다.
+     * expectedUsers 와 expectedHistoryUsers 는 각 저장소의 초기 크기입니다.
+     */
+    @Getter
+    @Setter
+    public static class Store {
+        private StoreType type = StoreType.TABLE;
+        private int expectedUsers = 100_000;
+        private int expectedHistoryUsers = 100_000;
+    }
+
+    /**
+     * Idempotency-Key 로 처리한 충전/사용 결과를 기억해 둘 최대 키 수와 기간
+     */
+    @Getter
+    @Setter
+    public static class Idempotency {
+        private int capacity = 100_000;
+        private Duration ttl = Duration.ofHours(1);
+    }
+
+    /**
+     * 유저별 충전/사용 집계. 일별 합계는 zone 기준 날짜로 나누고 가장 최근 날짜부터 retainedDays 일만 남깁니다.
+     */
+    @Getter
+    @Setter
+    public static class Summary {
+        private String zone = "Asia/Seoul";
+        private int retainedDays = 90;
+    }
+
+    /**
+     * 전체와 유저별로 동시에 처리할 수 있는 요청 수. 한도를 넘는 요청은 기다리지 않고 429 와 Retry-After 로 거절합니다.
+     * perUserLimit 은 한 유저의 락 앞에 줄 설 수 있는 요청 수이고, 락 타임아웃도 같은 Retry-After 로 응답합니다.
+     */
+    @Getter
+    @Setter
+    public static class Admission {
+        private boolean enabled = false;
+        private int globalLimit = 256;
+        private int perUserLimit = 8;
+        private Duration retryAfter = Duration.ofSeconds(1);
+    }
+
+    /**
+     * maxAge 보다 오래된 내역을 interval 마다 directory 의 압축 세그먼트로 옮기고 힙에는 최근 내역만 남깁니다.
+     * interval 마다 옮긴 뒤 이어진 작은 세그먼트를 maxRowsPerSegment 안에서 하나로 합칩니다.
+     * 세그먼트는 재시작하면 지우므로 storage 나 LIST 가 아닌 내역 저장소와 함께 켜면 시작하지 않고, 켜면 내역 인덱스를 쓰지 않습니다.
+     */
+    @Getter
+    @Setter
+    public static class Retention {
+        private boolean enabled = false;
+        private Duration maxAge = Duration.ofDays(30);
+        private Duration interval = Duration.ofDays(1);
+        private String directory = "archive";
+        private int maxRowsPerSegment = 1 << 20;
+    }
+
+    /**
+     * 충전/사용 내역 변경 피드. 최근 bufferSize 개는 다시 연결한 구독자가 이어 받을 수 있도록 남기고,
+     * 구독자 큐가 subscriberCapacity 를 넘으면 그 구독자를 끊습니다.
+     * 순서가 어긋난 id 는 reorderWindow 만큼 기다려 맞추고, 연결이 살아 있는지 heartbeat 마다 확인합니다.
+     */
+    @Getter
+    @Setter
+    public static class ChangeFeed {
+        private int bufferSize = 10_000;
+        private int subscriberCapacity = 1_024;
+        private Duration reorderWindow = Duration.ofMillis(50);
+        private Duration heartbeat = Duration.ofSeconds(15);
+        private Duration timeout = Duration.ofMinutes(30);
+    }
+
+    /**
+     * 충전/사용과 잔액 조회를 처리하는 방식. SHARD 는 userId 를 shards 개로 나눠 shard 마다 스레드 하나가 락 없이 처리하고,
+     * shards 가 0 이면 코어 수만큼 둡니다. lock.timeout 안에 처리되지 않은 요청은 락 타임아웃과 같이 거절합니다.
+     * SHARD 에서는 group commit 을 쓰지 않습니다.
+     */
+    @Getter
+    @Setter
+    public static class Engine {
+        private EngineType type = EngineType.LOCK;
+        private int shards = 0;
+        private int queueCapacity = 10_000;
+        private int maxBatchSize = 256;
+        private int cachedUsers = 100_000;
+    }
+
+    /**
+     * 비동기 API 를 처리할 스레드 수와 대기열 크기. 대기열이 가득 차면 429 로 거절하고,
+     * timeout 안에 처리를 시작하지 못한 요청은 반영하지 않고 503 으로 응답합니다.
+     */
+    @Getter
+    @Setter
+    public static class Async {
+        private int threads = 64;
+        private int queueCapacity = 1_000;
+        private Duration timeout = Duration.ofSeconds(5);
+    }
+
+    /**
+     * 같은 유저의 동시 잔액/내역 조회를 테이블 조회 한 번으로 묶는 모드. SHARD 엔진에서는 shard 가 조회를 모아 처리하므로 쓰지 않습니다.
+     */
+    @Getter
+    @Setter
+    public static class SingleFlight {
+        private boolean enabled = false;
+    }
+
+    public enum EngineType {
+        // 유저 락을 잡고 요청 스레드에서 처리
+        LOCK,
+        // PointShardEngine 의 shard 스레드에서 처리
+        SHARD,
+    }
+
+    public enum LockStrategyType {
+        LOCK_MAP,
+        STRIPED,
+        OPTIMISTIC,
+    }
+
+    /**
+     * 내역 큐가 가득 찼을 때의 처리 방식
+     */
+    public enum HistoryOverflowPolicy {
+        // 자리가 날 때까지 timeout 만큼 기다리고, 그래도 없으면 요청을 거절
+        BLOCK,
+        // 잔액은 반영하고 내역은 버린 뒤 dropped 로 집계
+        DROP,
+        // 기다리지 않고 바로 요청을 거절
+        FAIL,
+    }
+
+    public enum HistoryStoreType {
+        // PointHistoryTable 의 ArrayList
+        LIST,
+        // PointHistorySegments 의 힙 밖 세그먼트
+        COLUMNAR,
+    }
+
+    public enum BalanceStoreType {
+        // UserPointTable 의 HashMap
+        MAP,
+        // PointBalanceMap 의 long 배열
+        PRIMITIVE,
+    }
+
+    public enum StoreType {
+        // balance-store, history-store 설정으로 고른 테이블
+        TABLE,
+        // InMemoryBalanceStore 의 ConcurrentHashMap 과 InMemoryHistoryStore 의 유저별 lock-free 큐
+        MEMORY,
+    }
+
+    /**
+     * write-ahead log 를 디스크에 반영하는 시점
+     */
+    public enum FsyncPolicy {
+        // 쓰기마다 반영될 때까지 기다리되, 동시에 기다리는 쓰기들이 fsync 한 번을 나눠 씀
+        GROUP,
+        // fsync-interval 마다 백그라운드에서 반영
+        INTERVAL,
+        // 종료하거나 스냅샷을 남길 때만 반영
+        NONE,
+    }
+}
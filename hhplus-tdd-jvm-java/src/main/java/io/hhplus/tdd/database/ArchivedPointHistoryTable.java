@@ -0,0 +1,28 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+
+import java.util.List;
+
+/**
+ * PointHistoryTable 대신 PointHistoryArchive 에 내역을 읽고 씁니다.
+ * 원래 테이블을 고치지 않으려고 상속만 하고, 상위 클래스의 저장소는 쓰지 않습니다.
+ */
+public class ArchivedPointHistoryTable extends PointHistoryTable {
+    private final PointHistoryArchive archive;
+
+    public ArchivedPointHistoryTable(PointHistoryArchive archive) {
+        this.archive = archive;
+    }
+
+    @Override
+    public PointHistory insert(long userId, long amount, TransactionType type, long updateMillis) {
+        return archive.append(userId, amount, type, updateMillis);
+    }
+
+    @Override
+    public List<PointHistory> selectAllByUserId(long userId) {
+        return archive.historyOf(userId);
+    }
+}
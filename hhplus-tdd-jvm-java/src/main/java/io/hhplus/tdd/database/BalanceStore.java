@@ -0,0 +1,29 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.UserPoint;
+
+/**
+ * 잔액 저장소 SPI 입니다. 없는 유저는 잔액 0 으로 봅니다.
+ * <p>
+ * UserPointCache 아래에 놓여, PointService 는 유저의 write 락(또는 shard 스레드) 안에서 이 저장소로 잔액을 읽고 save 로 씁니다.
+ * compareAndSet 은 그런 락 없이 쓰는 호출자를 위한 것입니다.
+ * 테이블은 TableBalanceStore 로 감싸 씁니다.
+ */
+public interface BalanceStore {
+
+    /**
+     * 잔액을 반환합니다. 없는 유저면 잔액 0 인 UserPoint 를 반환합니다.
+     */
+    UserPoint find(long userId);
+
+    /**
+     * 잔액을 덮어쓰고 저장된 값을 반환합니다.
+     */
+    UserPoint save(long userId, long point);
+
+    /**
+     * 현재 잔액이 expectedPoint 일 때만 point 로 바꿉니다.
+     * 성공하면 저장된 값을, 잔액이 달라 실패하면 null 을 반환합니다.
+     */
+    UserPoint compareAndSet(long userId, long expectedPoint, long point);
+}
@@ -0,0 +1,28 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+
+import java.util.List;
+
+/**
+ * PointHistoryTable 대신 PointHistorySegments 에 내역을 읽고 씁니다.
+ * 원래 테이블을 고치지 않으려고 상속만 하고, 상위 클래스의 저장소는 쓰지 않습니다.
+ */
+public class ColumnarPointHistoryTable extends PointHistoryTable {
+    private final PointHistorySegments segments;
+
+    public ColumnarPointHistoryTable(PointHistorySegments segments) {
+        this.segments = segments;
+    }
+
+    @Override
+    public PointHistory insert(long userId, long amount, TransactionType type, long updateMillis) {
+        return segments.append(userId, amount, type, updateMillis);
+    }
+
+    @Override
+    public List<PointHistory> selectAllByUserId(long userId) {
+        return segments.historyOf(userId);
+    }
+}
@@ -0,0 +1,29 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+
+import java.util.List;
+
+/**
+ * PointHistoryTable 대신 DurablePointStore 에 내역을 읽고 씁니다.
+ * 원래 테이블을 고치지 않으려고 상속만 하고, 상위 클래스의 저장소는 쓰지 않습니다.
+ * insert 는 내역과 결과 잔액을 트랜잭션 레코드 하나로 남기고, 디스크에 반영된 뒤에 반환합니다.
+ */
+public class DurablePointHistoryTable extends PointHistoryTable {
+    private final DurablePointStore store;
+
+    public DurablePointHistoryTable(DurablePointStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public PointHistory insert(long userId, long amount, TransactionType type, long updateMillis) {
+        return store.appendHistory(userId, amount, type, updateMillis);
+    }
+
+    @Override
+    public List<PointHistory> selectAllByUserId(long userId) {
+        return store.historyOf(userId);
+    }
+}
@@ -0,0 +1,428 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.config.PointProperties.FsyncPolicy;
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+import io.hhplus.tdd.point.UserPoint;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * 잔액과 내역을 write-ahead log, 내역 세그먼트, 잔액 스냅샷으로 디스크에 남기는 저장소입니다.
+ * <p>
+ * 충전/사용 한 건은 내역 id, 변화량, 결과 잔액을 담은 트랜잭션 레코드 하나로 로그에 남으므로, 멈춘 뒤에도 잔액과 내역이 어긋나지 않습니다.
+ * 조회에는 로그에 남은 잔액만 보이므로, 로그에 남기지 못한 잔액을 돌려줬다가 다시 열 때 잃는 일이 없습니다.
+ * 스냅샷은 로그를 새 파일로 넘기고, 넘긴 로그의 내역을 유저별로 묶은 세그먼트 파일로, 잔액을 스냅샷 파일로 남긴 뒤 넘긴 로그를 지웁니다.
+ * 시작할 때는 스냅샷의 잔액을 읽고 스냅샷 뒤의 로그만 다시 적용하므로, 복구 시간은 전체 내역이 아니라 마지막 스냅샷 뒤의 쓰기에 비례합니다.
+ * 유저별 내역 집계(PointHistoryAggregates)도 로그에 쓰는 락 안에서 더하고 스냅샷에 함께 남기므로, 집계를 채우려고 전체 내역을 훑지 않습니다.
+ * <p>
+ * 세그먼트로 옮긴 내역은 힙에 두지 않고 조회할 때 세그먼트마다 그 유저의 블록만 읽습니다.
+ */
+@Slf4j
+public class DurablePointStore implements Closeable {
+    static final String LEGACY_LOG_FILE = "point.wal";
+    static final String LOG_PREFIX = "point-";
+    static final String LOG_SUFFIX = ".wal";
+    static final String SEGMENT_PREFIX = "history-";
+    static final String SEGMENT_SUFFIX = ".seg";
+    static final String SNAPSHOT_FILE = "balances.snapshot";
+
+    private final Path directory;
+    private final Path snapshotPath;
+    private final FsyncPolicy fsync;
+    private final long fsyncIntervalMillis;
+    // 로그에 남은 트랜잭션까지의 잔액. 조회, 다음 레코드의 결과 잔액, 스냅샷 모두 이쪽에서 구한다.
+    private final ConcurrentHashMap<Long, UserPoint> committed = new ConcurrentHashMap<>();
+    // 로그에 쓰는 순서와 메모리에 반영하는 순서를 맞추고, 로그를 넘기는 동안 쓰기를 막는다.
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private final ScheduledExecutorService snapshotter;
+    private final RecoveryStats recoveryStats;
+    private final PointHistoryAggregates aggregates;
+    private PointWriteAheadLog wal;
+    private long logSequence;
+    private long nextHistoryId = 1L;
+    // 아직 세그먼트로 옮기지 않은 로그의 내역
+    private Map<Long, List<PointHistory>> recent = new HashMap<>();
+    // 세그먼트 파일을 쓰는 중인 내역. 세그먼트를 등록할 때까지 조회에 보인다.
+    private Map<Long, List<PointHistory>> sealing = Map.of();
+    private List<PointHistorySegmentFile> segments;
+
+    public DurablePointStore(Path directory, FsyncPolicy fsync, long fsyncIntervalMillis, long snapshotIntervalMillis) throws IOException {
+        this(directory, fsync, fsyncIntervalMillis, snapshotIntervalMillis, new PointHistoryAggregates(ZoneId.systemDefault(), 90));
+    }
+
+    public DurablePointStore(Path directory, FsyncPolicy fsync, long fsyncIntervalMillis, long snapshotIntervalMillis,
+                             PointHistoryAggregates aggregates) throws IOException {
+        Files.createDirectories(directory);
+        if (Files.exists(directory.resolve(LEGACY_LOG_FILE))) {
+            throw new IllegalStateException("Unsupported write-ahead log format: " + directory.resolve(LEGACY_LOG_FILE));
+        }
+        this.directory = directory;
+        this.snapshotPath = directory.resolve(SNAPSHOT_FILE);
+        this.fsync = fsync;
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+        this.aggregates = aggregates;
+
+        long started = System.nanoTime();
+        PointBalanceSnapshot snapshot = PointBalanceSnapshot.read(snapshotPath);
+        long firstLog = 0L;
+        if (snapshot != null) {
+            firstLog = snapshot.logSequence();
+            nextHistoryId = snapshot.nextHistoryId();
+            snapshot.balances().forEach(userPoint -> committed.put(userPoint.id(), userPoint));
+            if (snapshot.aggregates() != null) {
+                snapshot.aggregates().forEach(aggregates::restore);
+            }
+        }
+        this.segments = openSegments(snapshot, firstLog);
+        if (snapshot != null && snapshot.aggregates() == null) {
+            // 집계를 담기 전 형식의 스냅샷이면 세그먼트를 한 번만 훑어 채우고, 다음 스냅샷부터 함께 남긴다.
+            segments.forEach(segment -> segment.forEach(aggregates::record));
+        }
+        long[] replayed = new long[1];
+        // 스냅샷의 집계에 이미 더한 내역은 id 로 건너뛰므로 스냅샷 뒤의 로그를 그대로 다시 더한다.
+        PointWriteAheadLog.Replayer replayer = (id, userId, amount, type, balance, updateMillis) -> {
+            PointHistory pointHistory = new PointHistory(id, userId, amount, type, updateMillis);
+            committed.put(userId, new UserPoint(userId, balance, updateMillis));
+            recent.computeIfAbsent(userId, key -> new ArrayList<>()).add(pointHistory);
+            aggregates.record(pointHistory);
+            nextHistoryId = Math.max(nextHistoryId, id + 1);
+            replayed[0]++;
+        };
+        this.logSequence = replayLogs(firstLog, replayer);
+        this.wal = PointWriteAheadLog.open(logPath(logSequence), fsync, fsyncIntervalMillis, replayer);
+        StorageFiles.syncDirectory(directory);
+        this.recoveryStats = new RecoveryStats(committed.size(), segments.size(), replayed[0],
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        log.info("Recovered point storage: {}", recoveryStats);
+
+        if (snapshotIntervalMillis > 0L) {
+            this.snapshotter = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("point-snapshot").daemon().factory());
+            snapshotter.scheduleWithFixedDelay(this::snapshotQuietly, snapshotIntervalMillis, snapshotIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.snapshotter = null;
+        }
+    }
+
+    /**
+     * 스냅샷과 로그에서 되살린 뒤 쓰기마다 더하는 유저별 내역 집계
+     */
+    public PointHistoryAggregates aggregates() {
+        return aggregates;
+    }
+
+    public UserPoint selectById(long id) {
+        return committed.getOrDefault(id, UserPoint.empty(id));
+    }
+
+    /**
+     * 저장될 잔액을 돌려주기만 하고 잔액은 바꾸지 않습니다. 잔액은 이어지는 appendHistory 가 결과 잔액과 함께
+     * 한 레코드로 로그에 남긴 뒤에 바뀌므로, 내역을 남기지 못한 잔액은 조회에도 다시 열 때도 보이지 않습니다.
+     */
+    public UserPoint saveBalance(long id, long point) {
+        return new UserPoint(id, point, System.currentTimeMillis());
+    }
+
+    /**
+     * 로그에 남은 잔액에 amount 를 더한 결과 잔액을 내역과 함께 트랜잭션 레코드 하나로 남기고, 남긴 뒤에 조회에 보이게 합니다.
+     * 같은 유저의 내역은 잔액을 바꾼 순서대로 들어오므로, 한 유저의 내역이 모두 남으면 잔액이 saveBalance 의 잔액과 같아집니다.
+     * 로그에 쓰지 못하면 잔액도 내역도 바뀌지 않습니다.
+     */
+    public PointHistory appendHistory(long userId, long amount, TransactionType type, long updateMillis) {
+        PointHistory pointHistory;
+        PointWriteAheadLog target;
+        long position;
+        lock.writeLock().lock();
+        try {
+            long balance = committed.getOrDefault(userId, UserPoint.empty(userId)).point() + amount;
+            pointHistory = new PointHistory(nextHistoryId, userId, amount, type, updateMillis);
+            target = wal;
+            position = target.append(pointHistory.id(), userId, amount, type, balance, updateMillis);
+            nextHistoryId++;
+            committed.put(userId, new UserPoint(userId, balance, updateMillis));
+            recent.computeIfAbsent(userId, key -> new ArrayList<>()).add(pointHistory);
+            // 로그를 넘기기 전에 더해 두어야 넘긴 로그의 내역이 모두 스냅샷의 집계에 들어간다.
+            aggregates.record(pointHistory);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        target.sync(position);
+        return pointHistory;
+    }
+
+    /**
+     * 세그먼트, 세그먼트로 옮기는 중인 내역, 최근 내역을 id 순으로 이어 붙입니다.
+     */
+    public List<PointHistory> historyOf(long userId) {
+        List<PointHistorySegmentFile> sealed;
+        List<PointHistory> tail = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            sealed = segments;
+            tail.addAll(sealing.getOrDefault(userId, List.of()));
+            tail.addAll(recent.getOrDefault(userId, List.of()));
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (sealed.isEmpty()) {
+            return Collections.unmodifiableList(tail);
+        }
+        List<PointHistory> rows = new ArrayList<>();
+        for (PointHistorySegmentFile segment : sealed) {
+            rows.addAll(segment.read(userId));
+        }
+        rows.addAll(tail);
+        return Collections.unmodifiableList(rows);
+    }
+
+    /**
+     * 세그먼트와 힙에 남은 모든 내역을 넘깁니다.
+     */
+    public void forEachHistory(Consumer<PointHistory> action) {
+        List<PointHistorySegmentFile> sealed;
+        List<PointHistory> tail = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            sealed = segments;
+            sealing.values().forEach(tail::addAll);
+            recent.values().forEach(tail::addAll);
+        } finally {
+            lock.readLock().unlock();
+        }
+        for (PointHistorySegmentFile segment : sealed) {
+            segment.forEach(action);
+        }
+        tail.forEach(action);
+    }
+
+    /**
+     * 로그를 새 파일로 넘기고, 넘긴 로그의 내역을 세그먼트로, 잔액을 스냅샷으로 남긴 뒤 넘긴 로그 파일을 지웁니다.
+     * <p>
+     * 새 로그는 이전 로그를 디스크에 반영한 뒤에 받으므로 로그 사이에 빈 곳이 생기지 않습니다.
+     * 잔액은 로그를 넘긴 뒤에 복사하므로 새 로그의 쓰기가 섞여 들어갈 수 있지만,
+     * 레코드가 결과 잔액을 그대로 담고 있어 새 로그를 처음부터 다시 적용하면 같은 결과가 됩니다.
+     * 집계도 같은 식으로 복사하고, 다시 적용할 때 이미 더한 내역은 id 로 건너뜁니다.
+     * 세그먼트는 스냅샷이 가리키는 로그 번호보다 앞선 것만 유효하므로, 스냅샷을 쓰기 전에 멈추면 세그먼트는 버리고 로그를 다시 읽습니다.
+     */
+    public void snapshot() throws IOException {
+        snapshotLock.lock();
+        try {
+            PointWriteAheadLog sealedLog;
+            long sealedSequence;
+            long nextId;
+            Map<Long, List<PointHistory>> sealedRows;
+            lock.writeLock().lock();
+            try {
+                if (wal.position() == 0L && recent.isEmpty()) {
+                    return;
+                }
+                sealedLog = wal;
+                sealedSequence = logSequence;
+                sealedLog.forceAll();
+                wal = PointWriteAheadLog.open(logPath(sealedSequence + 1), fsync, fsyncIntervalMillis, (id, userId, amount, type, balance, updateMillis) -> {
+                });
+                StorageFiles.syncDirectory(directory);
+                logSequence = sealedSequence + 1;
+                nextId = nextHistoryId;
+                sealedRows = recent;
+                sealing = sealedRows;
+                recent = new HashMap<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            sealedLog.close();
+
+            PointHistorySegmentFile segment = null;
+            try {
+                if (!sealedRows.isEmpty()) {
+                    segment = PointHistorySegmentFile.write(segmentPath(sealedSequence), new TreeMap<>(sealedRows));
+                }
+                PointBalanceSnapshot.write(snapshotPath, sealedSequence + 1, nextId, new ArrayList<>(committed.values()),
+                        aggregates.export());
+            } catch (IOException | RuntimeException e) {
+                if (segment != null) {
+                    Files.deleteIfExists(segment.path());
+                }
+                restore(sealedRows);
+                throw e;
+            }
+
+            lock.writeLock().lock();
+            try {
+                if (segment != null) {
+                    List<PointHistorySegmentFile> next = new ArrayList<>(segments);
+                    next.add(segment);
+                    segments = List.copyOf(next);
+                }
+                sealing = Map.of();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            for (long sequence : sequences(LOG_PREFIX, LOG_SUFFIX)) {
+                if (sequence <= sealedSequence) {
+                    Files.deleteIfExists(logPath(sequence));
+                }
+            }
+            StorageFiles.syncDirectory(directory);
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    public RecoveryStats recoveryStats() {
+        return recoveryStats;
+    }
+
+    @Override
+    public void close() throws IOException {
+        stopSnapshotter();
+        try {
+            snapshot();
+        } finally {
+            wal.close();
+        }
+    }
+
+    /**
+     * 스냅샷 없이 로그만 닫습니다. 테스트에서 프로세스가 멈춘 상황을 만들 때 씁니다.
+     */
+    void closeWithoutSnapshot() throws IOException {
+        stopSnapshotter();
+        wal.close();
+    }
+
+    /**
+     * 세그먼트를 쓰지 못했으면 옮기려던 내역을 최근 내역 앞에 되돌려, 다음 스냅샷이 넘긴 로그와 함께 다시 옮기게 합니다.
+     */
+    private void restore(Map<Long, List<PointHistory>> sealedRows) {
+        lock.writeLock().lock();
+        try {
+            sealedRows.forEach((userId, rows) -> {
+                List<PointHistory> merged = new ArrayList<>(rows);
+                merged.addAll(recent.getOrDefault(userId, List.of()));
+                recent.put(userId, merged);
+            });
+            sealing = Map.of();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 스냅샷 앞의 세그먼트만 엽니다. 그 뒤 번호의 세그먼트는 스냅샷을 쓰기 전에 멈춘 흔적이고, 같은 내역이 아직 로그에 있습니다.
+     */
+    private List<PointHistorySegmentFile> openSegments(PointBalanceSnapshot snapshot, long firstLog) throws IOException {
+        List<PointHistorySegmentFile> opened = new ArrayList<>();
+        for (long sequence : sequences(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            Path path = segmentPath(sequence);
+            if (snapshot == null) {
+                // 스냅샷 없이 세그먼트만 있으면 세그먼트로 옮긴 뒤 지운 로그의 잔액을 되살릴 수 없다.
+                throw new IllegalStateException("Balance snapshot is missing but history segments exist: " + path);
+            }
+            if (sequence < firstLog) {
+                opened.add(PointHistorySegmentFile.open(path));
+            } else {
+                Files.delete(path);
+            }
+        }
+        return List.copyOf(opened);
+    }
+
+    /**
+     * 스냅샷 뒤의 로그를 번호 순으로 다시 적용하고, 이어서 쓸 마지막 로그 번호를 반환합니다. 마지막 로그는 호출한 쪽이 엽니다.
+     */
+    private long replayLogs(long firstLog, PointWriteAheadLog.Replayer replayer) throws IOException {
+        long expected = firstLog;
+        for (long sequence : sequences(LOG_PREFIX, LOG_SUFFIX)) {
+            if (sequence < firstLog) {
+                // 스냅샷을 쓴 뒤 지우기 전에 멈춘 로그다.
+                Files.delete(logPath(sequence));
+                continue;
+            }
+            if (sequence != expected) {
+                throw new IllegalStateException("Missing write-ahead log segment: " + logPath(expected));
+            }
+            expected++;
+        }
+        long last = Math.max(firstLog, expected - 1);
+        for (long sequence = firstLog; sequence < last; sequence++) {
+            PointWriteAheadLog.replay(logPath(sequence), replayer);
+        }
+        return last;
+    }
+
+    private List<Long> sequences(String prefix, String suffix) throws IOException {
+        List<Long> sequences = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*" + suffix)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    sequences.add(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())));
+                } catch (NumberFormatException ignored) {
+                    // 이 저장소가 만든 파일이 아니다.
+                }
+            }
+        }
+        Collections.sort(sequences);
+        return sequences;
+    }
+
+    private Path logPath(long sequence) {
+        return directory.resolve(String.format("%s%06d%s", LOG_PREFIX, sequence, LOG_SUFFIX));
+    }
+
+    private Path segmentPath(long sequence) {
+        return directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+    }
+
+    private void stopSnapshotter() {
+        if (snapshotter != null) {
+            snapshotter.shutdownNow();
+            try {
+                snapshotter.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Failed to write balance snapshot", e);
+        }
+    }
+
+    /**
+     * 시작할 때 스냅샷과 로그에서 되살린 양과 걸린 시간
+     */
+    public record RecoveryStats(
+            long users,
+            long segments,
+            long transactionRecords,
+            long elapsedMillis
+    ) {
+    }
+}
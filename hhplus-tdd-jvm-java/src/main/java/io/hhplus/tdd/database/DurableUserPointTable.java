@@ -0,0 +1,26 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.UserPoint;
+
+/**
+ * UserPointTable 대신 DurablePointStore 에 잔액을 읽고 씁니다.
+ * 원래 테이블을 고치지 않으려고 상속만 하고, 상위 클래스의 저장소는 쓰지 않습니다.
+ * 잔액은 이어지는 내역 insert 가 같은 레코드로 디스크에 남긴 뒤에 바뀝니다.
+ */
+public class DurableUserPointTable extends UserPointTable {
+    private final DurablePointStore store;
+
+    public DurableUserPointTable(DurablePointStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public UserPoint selectById(Long id) {
+        return store.selectById(id);
+    }
+
+    @Override
+    public UserPoint insertOrUpdate(long id, long amount) {
+        return store.saveBalance(id, amount);
+    }
+}
@@ -0,0 +1,21 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+
+import java.util.List;
+
+/**
+ * 내역 저장소 SPI 입니다. 내역은 추가만 하고, id 는 저장소가 겹치지 않게 1부터 매깁니다.
+ * <p>
+ * PointHistoryIndex 아래에 놓여, PointService 는 이 저장소에 내역을 추가하고 읽습니다. 테이블은 TableHistoryStore 로 감싸 씁니다.
+ */
+public interface HistoryStore {
+
+    PointHistory append(long userId, long amount, TransactionType type, long updateMillis);
+
+    /**
+     * 유저의 내역을 추가된 순서대로 반환합니다.
+     */
+    List<PointHistory> findAllByUserId(long userId);
+}
@@ -0,0 +1,54 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.UserPoint;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 지연 없이 여러 스레드에서 쓸 수 있는 잔액 저장소입니다.
+ * <p>
+ * 유저마다 변하지 않는 UserPoint 하나를 ConcurrentHashMap 에 두고, compareAndSet 은 읽은 UserPoint 를
+ * replace(id, 읽은 값, 새 값) 으로 바꿔 끼웁니다. 그 사이 다른 쓰기가 있었다면 다시 읽어 잔액부터 비교합니다.
+ */
+public class InMemoryBalanceStore implements BalanceStore {
+    private final ConcurrentHashMap<Long, UserPoint> balances;
+
+    public InMemoryBalanceStore(int expectedUsers) {
+        this.balances = new ConcurrentHashMap<>(expectedUsers);
+    }
+
+    @Override
+    public UserPoint find(long userId) {
+        UserPoint userPoint = balances.get(userId);
+        return userPoint == null ? UserPoint.empty(userId) : userPoint;
+    }
+
+    @Override
+    public UserPoint save(long userId, long point) {
+        UserPoint userPoint = new UserPoint(userId, point, System.currentTimeMillis());
+        balances.put(userId, userPoint);
+        return userPoint;
+    }
+
+    @Override
+    public UserPoint compareAndSet(long userId, long expectedPoint, long point) {
+        while (true) {
+            UserPoint current = balances.get(userId);
+            long currentPoint = current == null ? 0L : current.point();
+            if (currentPoint != expectedPoint) {
+                return null;
+            }
+            UserPoint next = new UserPoint(userId, point, System.currentTimeMillis());
+            boolean swapped = current == null
+                    ? balances.putIfAbsent(userId, next) == null
+                    : balances.replace(userId, current, next);
+            if (swapped) {
+                return next;
+            }
+        }
+    }
+
+    public int size() {
+        return balances.size();
+    }
+}
@@ -0,0 +1,44 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 지연 없이 여러 스레드에서 쓸 수 있는 내역 저장소입니다.
+ * <p>
+ * id 는 AtomicLong 으로 매기고, 내역은 유저마다 lock-free 큐(ConcurrentLinkedQueue)에 이어 붙이므로 추가할 때 락을 잡지 않습니다.
+ * 같은 유저의 추가가 동시에 일어나면 id 순서와 큐 순서가 어긋날 수 있지만, PointService 는 유저 락 안에서 순서대로 추가합니다.
+ */
+public class InMemoryHistoryStore implements HistoryStore {
+    private final ConcurrentHashMap<Long, ConcurrentLinkedQueue<PointHistory>> logs;
+    private final AtomicLong cursor = new AtomicLong(1);
+
+    public InMemoryHistoryStore(int expectedUsers) {
+        this.logs = new ConcurrentHashMap<>(expectedUsers);
+    }
+
+    @Override
+    public PointHistory append(long userId, long amount, TransactionType type, long updateMillis) {
+        PointHistory pointHistory = new PointHistory(cursor.getAndIncrement(), userId, amount, type, updateMillis);
+        logs.computeIfAbsent(userId, id -> new ConcurrentLinkedQueue<>()).add(pointHistory);
+        return pointHistory;
+    }
+
+    @Override
+    public List<PointHistory> findAllByUserId(long userId) {
+        ConcurrentLinkedQueue<PointHistory> log = logs.get(userId);
+        return log == null ? List.of() : List.copyOf(log);
+    }
+
+    /**
+     * 지금까지 추가된 내역 수
+     */
+    public long size() {
+        return cursor.get() - 1;
+    }
+}
@@ -0,0 +1,110 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * 여러 스레드에서 쓸 수 없는 PointHistoryTable(ArrayList, cursor++)을 userId 로 나눈 stripe 마다 따로 두고 read-write 락으로 감쌉니다.
+ * <p>
+ * 같은 stripe 의 내역 추가는 한 번에 하나씩 하고, 조회는 추가 중인 목록을 훑지 않도록 그 stripe 의 추가가 끝나기를 기다립니다.
+ * stripe 마다 테이블의 cursor 가 따로 움직이므로, id 는 추가가 끝난 순서대로 전체에서 하나씩 올려 다시 붙입니다.
+ * 같은 유저의 내역은 한 stripe 에서 차례로 추가되므로 유저 안에서는 id 가 기록 순서대로 커집니다.
+ * 원래 테이블을 고치지 않으려고 상속만 하고, 상위 클래스의 저장소는 쓰지 않습니다.
+ */
+public class LockedPointHistoryTable extends PointHistoryTable {
+    private final Stripe[] stripes;
+    private final int mask;
+    private final AtomicLong lastId = new AtomicLong();
+
+    public LockedPointHistoryTable(PointHistoryTable delegate) {
+        this(() -> delegate, 1);
+    }
+
+    /**
+     * stripeCount 는 2의 거듭제곱으로 올림하고, stripe 마다 tables 로 새 테이블을 만듭니다.
+     */
+    public LockedPointHistoryTable(Supplier<PointHistoryTable> tables, int stripeCount) {
+        int size = stripeCount <= 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new Stripe(tables.get());
+        }
+        this.mask = size - 1;
+    }
+
+    @Override
+    public PointHistory insert(long userId, long amount, TransactionType type, long updateMillis) {
+        Stripe stripe = stripeOf(userId);
+        stripe.lock.writeLock().lock();
+        try {
+            PointHistory inserted = stripe.table.insert(userId, amount, type, updateMillis);
+            long id = lastId.incrementAndGet();
+            stripe.ids.computeIfAbsent(userId, key -> new Ids()).add(id);
+            return new PointHistory(id, inserted.userId(), inserted.amount(), inserted.type(), inserted.updateMillis());
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<PointHistory> selectAllByUserId(long userId) {
+        Stripe stripe = stripeOf(userId);
+        stripe.lock.readLock().lock();
+        try {
+            List<PointHistory> rows = stripe.table.selectAllByUserId(userId);
+            Ids ids = stripe.ids.get(userId);
+            if (ids == null) {
+                return rows;
+            }
+            List<PointHistory> renumbered = new ArrayList<>(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                PointHistory row = rows.get(i);
+                renumbered.add(new PointHistory(ids.values[i], row.userId(), row.amount(), row.type(), row.updateMillis()));
+            }
+            return renumbered;
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+    }
+
+    int stripeCount() {
+        return stripes.length;
+    }
+
+    private Stripe stripeOf(long userId) {
+        long h = userId * 0x9E3779B97F4A7C15L;
+        return stripes[(int) (h ^ (h >>> 32)) & mask];
+    }
+
+    private static final class Stripe {
+        private final PointHistoryTable table;
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        // 유저마다 테이블에 추가한 순서대로 붙인 id
+        private final Map<Long, Ids> ids = new HashMap<>();
+
+        private Stripe(PointHistoryTable table) {
+            this.table = table;
+        }
+    }
+
+    private static final class Ids {
+        private long[] values = new long[4];
+        private int size;
+
+        private void add(long id) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size << 1);
+            }
+            values[size++] = id;
+        }
+    }
+}
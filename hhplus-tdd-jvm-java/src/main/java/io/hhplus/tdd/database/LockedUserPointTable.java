@@ -0,0 +1,68 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.UserPoint;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * 여러 스레드에서 쓸 수 없는 UserPointTable(HashMap)을 userId 로 나눈 stripe 마다 따로 두고 read-write 락으로 감쌉니다.
+ * <p>
+ * 유저 락은 같은 유저끼리만 막으므로, 다른 유저의 쓰기가 동시에 같은 HashMap 을 고치지 않도록 쓰기는 그 유저의 stripe 를 막고
+ * 조회끼리는 함께 진행합니다. 락은 테이블의 지연 동안에도 잡혀 있으므로 쓰기 처리량은 stripe 수만큼의 테이블 속도로 묶입니다.
+ * 원래 테이블을 고치지 않으려고 상속만 하고, 상위 클래스의 저장소는 쓰지 않습니다.
+ */
+public class LockedUserPointTable extends UserPointTable {
+    private final UserPointTable[] tables;
+    private final ReentrantReadWriteLock[] locks;
+    private final int mask;
+
+    public LockedUserPointTable(UserPointTable delegate) {
+        this(() -> delegate, 1);
+    }
+
+    /**
+     * stripeCount 는 2의 거듭제곱으로 올림하고, stripe 마다 tables 로 새 테이블을 만듭니다.
+     */
+    public LockedUserPointTable(Supplier<UserPointTable> tables, int stripeCount) {
+        int size = stripeCount <= 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+        this.tables = new UserPointTable[size];
+        this.locks = new ReentrantReadWriteLock[size];
+        for (int i = 0; i < size; i++) {
+            this.tables[i] = tables.get();
+            this.locks[i] = new ReentrantReadWriteLock();
+        }
+        this.mask = size - 1;
+    }
+
+    @Override
+    public UserPoint selectById(Long id) {
+        int stripe = stripeOf(id);
+        locks[stripe].readLock().lock();
+        try {
+            return tables[stripe].selectById(id);
+        } finally {
+            locks[stripe].readLock().unlock();
+        }
+    }
+
+    @Override
+    public UserPoint insertOrUpdate(long id, long amount) {
+        int stripe = stripeOf(id);
+        locks[stripe].writeLock().lock();
+        try {
+            return tables[stripe].insertOrUpdate(id, amount);
+        } finally {
+            locks[stripe].writeLock().unlock();
+        }
+    }
+
+    int stripeCount() {
+        return tables.length;
+    }
+
+    private int stripeOf(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
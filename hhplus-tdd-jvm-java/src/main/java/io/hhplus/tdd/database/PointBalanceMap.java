@@ -0,0 +1,233 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.UserPoint;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * userId 를 long 그대로 키로 쓰는 open addressing 잔액 맵입니다.
+ * <p>
+ * 유저 하나는 long 배열 안의 연속된 4칸 [userId][point][updateMillis][version] 에 담기고,
+ * Long 키, 맵 엔트리, UserPoint 객체를 따로 만들지 않습니다. version 은 쓸 때마다 1씩 올라가며 0 이면 빈 칸입니다.
+ * <p>
+ * 전체를 segment 로 나누고 segment 마다 StampedLock 을 두어, 쓰기와 크기 늘리기는 그 segment 만 막고
+ * 읽기는 optimistic read 로 락 없이 읽은 뒤 그 사이 쓰기가 있었을 때만 읽기 락으로 다시 읽습니다.
+ */
+public class PointBalanceMap {
+    // 한 유저가 차지하는 long 칸 수
+    static final int STRIDE = 4;
+    private static final int POINT = 1;
+    private static final int UPDATE_MILLIS = 2;
+    private static final int VERSION = 3;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final Segment[] segments;
+    private final int segmentMask;
+
+    public PointBalanceMap(int expectedUsers, int segmentCount) {
+        if (expectedUsers < 0 || segmentCount <= 0) {
+            throw new IllegalArgumentException("Expected users must not be negative and segment count must be positive");
+        }
+        int size = Integer.highestOneBit(Math.max(1, segmentCount - 1)) << 1;
+        this.segments = new Segment[size];
+        this.segmentMask = size - 1;
+        int perSegment = (int) Math.min(1 << 28, (long) (expectedUsers / LOAD_FACTOR) / size + 1);
+        for (int i = 0; i < size; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+    }
+
+    /**
+     * 잔액을 반환하고, 없으면 null 을 반환합니다.
+     */
+    public UserPoint get(long userId) {
+        long hash = mix(userId);
+        return segmentOf(hash).get(userId, hash);
+    }
+
+    /**
+     * 잔액을 덮어쓰고 올라간 version 을 반환합니다.
+     */
+    public long put(long userId, long point, long updateMillis) {
+        long hash = mix(userId);
+        return segmentOf(hash).put(userId, hash, point, updateMillis, -1L);
+    }
+
+    /**
+     * 현재 version 이 expectedVersion 일 때만 잔액을 덮어씁니다. 아직 없는 유저의 version 은 0 입니다.
+     * 성공하면 올라간 version 을, 실패하면 -1 을 반환합니다.
+     */
+    public long compareAndPut(long userId, long expectedVersion, long point, long updateMillis) {
+        long hash = mix(userId);
+        return segmentOf(hash).put(userId, hash, point, updateMillis, expectedVersion);
+    }
+
+    /**
+     * 현재 version 을 반환하고, 없는 유저면 0 을 반환합니다.
+     */
+    public long version(long userId) {
+        long hash = mix(userId);
+        return segmentOf(hash).version(userId, hash);
+    }
+
+    public MapStats stats() {
+        long size = 0L;
+        long slots = 0L;
+        for (Segment segment : segments) {
+            long stamp = segment.lock.readLock();
+            try {
+                size += segment.size;
+                slots += segment.table.length / STRIDE;
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        return new MapStats(size, slots, slots * STRIDE * Long.BYTES);
+    }
+
+    private Segment segmentOf(long hash) {
+        return segments[(int) (hash >>> 40) & segmentMask];
+    }
+
+    /**
+     * 연속된 userId 가 한쪽에 몰리지 않도록 비트를 섞습니다. 위쪽 비트는 segment, 아래쪽 비트는 칸을 고르는 데 씁니다.
+     */
+    private static long mix(long userId) {
+        long h = userId * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    private static final class Segment {
+        private final StampedLock lock = new StampedLock();
+        private long[] table;
+        private int size;
+        private int threshold;
+
+        Segment(int capacity) {
+            int slots = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+            this.table = new long[slots * STRIDE];
+            this.threshold = (int) (slots * LOAD_FACTOR);
+        }
+
+        UserPoint get(long userId, long hash) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0L) {
+                long[] current = table;
+                int base = find(current, userId, hash);
+                long point = base < 0 ? 0L : current[base + POINT];
+                long updateMillis = base < 0 ? 0L : current[base + UPDATE_MILLIS];
+                if (lock.validate(stamp)) {
+                    return base < 0 ? null : new UserPoint(userId, point, updateMillis);
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                int base = find(table, userId, hash);
+                return base < 0 ? null : new UserPoint(userId, table[base + POINT], table[base + UPDATE_MILLIS]);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        long version(long userId, long hash) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0L) {
+                long[] current = table;
+                int base = find(current, userId, hash);
+                long version = base < 0 ? 0L : current[base + VERSION];
+                if (lock.validate(stamp)) {
+                    return version;
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                int base = find(table, userId, hash);
+                return base < 0 ? 0L : table[base + VERSION];
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        /**
+         * expectedVersion 이 음수면 version 을 확인하지 않습니다.
+         */
+        long put(long userId, long hash, long point, long updateMillis, long expectedVersion) {
+            long stamp = lock.writeLock();
+            try {
+                int base = find(table, userId, hash);
+                if (base < 0) {
+                    if (expectedVersion > 0L) {
+                        return -1L;
+                    }
+                    if (size >= threshold) {
+                        resize();
+                    }
+                    base = emptySlot(table, hash);
+                    table[base] = userId;
+                    size++;
+                } else if (expectedVersion >= 0L && table[base + VERSION] != expectedVersion) {
+                    return -1L;
+                }
+                long version = table[base + VERSION] + 1L;
+                table[base + POINT] = point;
+                table[base + UPDATE_MILLIS] = updateMillis;
+                table[base + VERSION] = version;
+                return version;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * userId 가 있는 칸의 시작 위치를 반환하고, 없으면 -1 을 반환합니다.
+         * optimistic read 중에는 배열이 바뀌고 있을 수 있으므로 빈 칸을 만나지 못해도 한 바퀴를 돌면 멈춥니다.
+         */
+        private static int find(long[] table, long userId, long hash) {
+            int mask = table.length / STRIDE - 1;
+            int slot = (int) hash & mask;
+            for (int probe = 0; probe <= mask; probe++) {
+                int base = slot * STRIDE;
+                if (table[base + VERSION] == 0L) {
+                    return -1;
+                }
+                if (table[base] == userId) {
+                    return base;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private static int emptySlot(long[] table, long hash) {
+            int mask = table.length / STRIDE - 1;
+            int slot = (int) hash & mask;
+            while (table[slot * STRIDE + VERSION] != 0L) {
+                slot = (slot + 1) & mask;
+            }
+            return slot * STRIDE;
+        }
+
+        private void resize() {
+            long[] old = table;
+            if (old.length >= 1 << 30) {
+                throw new IllegalStateException("Balance map segment is full");
+            }
+            long[] resized = new long[old.length * 2];
+            for (int base = 0; base < old.length; base += STRIDE) {
+                if (old[base + VERSION] != 0L) {
+                    int target = emptySlot(resized, mix(old[base]));
+                    System.arraycopy(old, base, resized, target, STRIDE);
+                }
+            }
+            table = resized;
+            threshold = (int) (resized.length / STRIDE * LOAD_FACTOR);
+        }
+    }
+
+    public record MapStats(
+            long size,
+            long slots,
+            long bytes
+    ) {
+    }
+}
@@ -0,0 +1,174 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.UserPoint;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * 어느 로그 세그먼트 앞까지의 잔액, 다음 내역 id, 유저별 내역 집계를 한 파일로 저장합니다.
+ * <p>
+ * [magic][version][다음 로그 세그먼트][다음 내역 id][유저 수][(userId, point, updateMillis) ...]
+ * [집계 유저 수][(userId, charged, used, count, lastActivityMillis, lastHistoryId, 일 수, (epochDay, charged, used, count) ...) ...][CRC32C] 순서로 쓰고,
+ * 임시 파일에 다 쓴 뒤 fsync 하고 이름을 바꾼 다음 디렉터리까지 fsync 하므로
+ * 읽는 쪽은 항상 이전 스냅샷이나 새 스냅샷 중 하나를 온전히 봅니다.
+ */
+public final class PointBalanceSnapshot {
+    private static final int MAGIC = 0x50545353;
+    private static final int VERSION = 3;
+    // 집계 없이 잔액만 담던 형식. 읽을 수는 있고 집계는 null 로 돌려준다.
+    private static final int BALANCES_ONLY_VERSION = 2;
+
+    private final long logSequence;
+    private final long nextHistoryId;
+    private final List<UserPoint> balances;
+    private final List<PointHistoryAggregates.UserState> aggregates;
+
+    private PointBalanceSnapshot(long logSequence, long nextHistoryId, List<UserPoint> balances,
+                                 List<PointHistoryAggregates.UserState> aggregates) {
+        this.logSequence = logSequence;
+        this.nextHistoryId = nextHistoryId;
+        this.balances = balances;
+        this.aggregates = aggregates;
+    }
+
+    /**
+     * 이 스냅샷에 담기지 않은 첫 로그 세그먼트 번호. 그 앞의 세그먼트는 다시 읽을 필요가 없습니다.
+     */
+    public long logSequence() {
+        return logSequence;
+    }
+
+    public long nextHistoryId() {
+        return nextHistoryId;
+    }
+
+    public List<UserPoint> balances() {
+        return balances;
+    }
+
+    /**
+     * 유저별 내역 집계. 집계를 담기 전 형식의 스냅샷이면 null 을 반환합니다.
+     */
+    List<PointHistoryAggregates.UserState> aggregates() {
+        return aggregates;
+    }
+
+    public static void write(Path path, long logSequence, long nextHistoryId, Collection<UserPoint> balances,
+                             Collection<PointHistoryAggregates.UserState> aggregates) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        CRC32C crc = new CRC32C();
+        try (BufferedOutputStream raw = new BufferedOutputStream(Files.newOutputStream(temp))) {
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(raw, crc));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(logSequence);
+            out.writeLong(nextHistoryId);
+            out.writeInt(balances.size());
+            for (UserPoint userPoint : balances) {
+                out.writeLong(userPoint.id());
+                out.writeLong(userPoint.point());
+                out.writeLong(userPoint.updateMillis());
+            }
+            out.writeInt(aggregates.size());
+            for (PointHistoryAggregates.UserState state : aggregates) {
+                out.writeLong(state.userId());
+                out.writeLong(state.charged());
+                out.writeLong(state.used());
+                out.writeLong(state.count());
+                out.writeLong(state.lastActivityMillis());
+                out.writeLong(state.lastHistoryId());
+                out.writeInt(state.days().length / 4);
+                for (long value : state.days()) {
+                    out.writeLong(value);
+                }
+            }
+            out.flush();
+            // 체크섬 자체는 체크섬 계산에 넣지 않도록 원래 스트림에 쓴다.
+            DataOutputStream trailer = new DataOutputStream(raw);
+            trailer.writeInt((int) crc.getValue());
+            trailer.flush();
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        StorageFiles.replace(temp, path);
+    }
+
+    /**
+     * 스냅샷이 없거나 손상되었으면 null 을 반환합니다.
+     */
+    public static PointBalanceSnapshot read(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        CRC32C crc = new CRC32C();
+        try (BufferedInputStream raw = new BufferedInputStream(Files.newInputStream(path))) {
+            DataInputStream in = new DataInputStream(new CheckedInputStream(raw, crc));
+            if (in.readInt() != MAGIC) {
+                return null;
+            }
+            int version = in.readInt();
+            if (version != VERSION && version != BALANCES_ONLY_VERSION) {
+                return null;
+            }
+            long logSequence = in.readLong();
+            long nextHistoryId = in.readLong();
+            int count = in.readInt();
+            if (count < 0) {
+                return null;
+            }
+            List<UserPoint> balances = new ArrayList<>(Math.min(count, 1 << 16));
+            for (int i = 0; i < count; i++) {
+                balances.add(new UserPoint(in.readLong(), in.readLong(), in.readLong()));
+            }
+            List<PointHistoryAggregates.UserState> aggregates = null;
+            if (version == VERSION) {
+                int users = in.readInt();
+                if (users < 0) {
+                    return null;
+                }
+                aggregates = new ArrayList<>(Math.min(users, 1 << 16));
+                for (int i = 0; i < users; i++) {
+                    long userId = in.readLong();
+                    long charged = in.readLong();
+                    long used = in.readLong();
+                    long rows = in.readLong();
+                    long lastActivityMillis = in.readLong();
+                    long lastHistoryId = in.readLong();
+                    int dayCount = in.readInt();
+                    if (dayCount < 0 || dayCount > Integer.MAX_VALUE / 4) {
+                        return null;
+                    }
+                    // 손상된 길이로 큰 배열을 먼저 잡지 않도록, 읽은 만큼 늘려 간다.
+                    long[] days = new long[Math.min(dayCount, 1 << 10) * 4];
+                    for (int j = 0; j < dayCount * 4; j++) {
+                        if (j == days.length) {
+                            days = Arrays.copyOf(days, (int) Math.min((long) days.length * 2, dayCount * 4));
+                        }
+                        days[j] = in.readLong();
+                    }
+                    aggregates.add(new PointHistoryAggregates.UserState(userId, charged, used, rows, lastActivityMillis,
+                            lastHistoryId, days));
+                }
+            }
+            int expected = (int) crc.getValue();
+            if (new DataInputStream(raw).readInt() != expected) {
+                return null;
+            }
+            return new PointBalanceSnapshot(logSequence, nextHistoryId, balances, aggregates);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+}
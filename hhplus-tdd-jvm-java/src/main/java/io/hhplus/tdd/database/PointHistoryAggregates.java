@@ -0,0 +1,184 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.DailyPointSummary;
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointSummary;
+import io.hhplus.tdd.point.TransactionType;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 유저별 충전/사용 합계, 건수, 마지막 활동 시각과 일별 합계를 내역이 추가될 때마다 갱신해 둡니다.
+ * <p>
+ * 모든 insert 결과를 더하므로 조회는 내역 수와 상관없고 테이블을 읽지 않습니다.
+ * 같은 유저의 내역은 id 순으로 들어오므로 이미 더한 id 이하의 내역은 건너뜁니다. 그래서 DurablePointStore 는
+ * 집계를 잔액 스냅샷에 함께 남기고, 시작할 때 스냅샷 뒤의 로그를 다시 더해도 두 번 세지 않습니다.
+ * 일별 합계는 가장 최근 날짜로부터 retainedDays 일 만큼만 남기고, 전체 합계에는 지워진 날짜도 포함됩니다.
+ */
+public class PointHistoryAggregates {
+    private final ZoneId zone;
+    private final int retainedDays;
+    private final ConcurrentHashMap<Long, UserAggregate> aggregates = new ConcurrentHashMap<>();
+
+    public PointHistoryAggregates(ZoneId zone, int retainedDays) {
+        if (retainedDays <= 0) {
+            throw new IllegalArgumentException("Retained days must be positive");
+        }
+        this.zone = zone;
+        this.retainedDays = retainedDays;
+    }
+
+    /**
+     * 추가된 내역을 유저의 집계에 더합니다.
+     */
+    public void record(PointHistory pointHistory) {
+        aggregates.computeIfAbsent(pointHistory.userId(), key -> new UserAggregate())
+                .record(pointHistory, epochDay(pointHistory.updateMillis()), retainedDays);
+    }
+
+    /**
+     * 전체 합계와 from ~ to (포함) 사이의 일별 합계를 반환합니다. from/to 가 모두 없으면 일별 합계는 비어 있습니다.
+     */
+    public PointSummary summary(long userId, LocalDate from, LocalDate to) {
+        UserAggregate aggregate = aggregates.get(userId);
+        if (aggregate == null) {
+            return new PointSummary(userId, 0L, 0L, 0L, 0L, List.of());
+        }
+        return aggregate.summary(userId, from == null ? null : from.toEpochDay(), to == null ? null : to.toEpochDay());
+    }
+
+    /**
+     * 유저별 집계를 복사합니다. 유저마다 그 유저의 락 안에서 복사하므로 한 유저의 집계는 어느 내역까지 더한 상태로 온전합니다.
+     */
+    List<UserState> export() {
+        List<UserState> states = new ArrayList<>(aggregates.size());
+        aggregates.forEach((userId, aggregate) -> states.add(aggregate.export(userId)));
+        return states;
+    }
+
+    /**
+     * export 로 복사한 유저의 집계를 되살립니다. 요청을 받기 전, 로그를 다시 더하기 전에 부릅니다.
+     */
+    void restore(UserState state) {
+        aggregates.put(state.userId(), new UserAggregate(state));
+    }
+
+    private long epochDay(long millis) {
+        return LocalDate.ofInstant(Instant.ofEpochMilli(millis), zone).toEpochDay();
+    }
+
+    private static final class UserAggregate {
+        private final ReentrantLock lock = new ReentrantLock();
+        // 일별 [충전 합계, 사용 합계, 건수]
+        private final TreeMap<Long, long[]> daily = new TreeMap<>();
+        private long charged;
+        private long used;
+        private long count;
+        private long lastActivityMillis;
+        private long lastHistoryId = Long.MIN_VALUE;
+
+        UserAggregate() {
+        }
+
+        UserAggregate(UserState state) {
+            charged = state.charged();
+            used = state.used();
+            count = state.count();
+            lastActivityMillis = state.lastActivityMillis();
+            lastHistoryId = state.lastHistoryId();
+            long[] days = state.days();
+            for (int i = 0; i < days.length; i += 4) {
+                daily.put(days[i], new long[]{days[i + 1], days[i + 2], days[i + 3]});
+            }
+        }
+
+        void record(PointHistory pointHistory, long epochDay, int retainedDays) {
+            lock.lock();
+            try {
+                if (pointHistory.id() <= lastHistoryId) {
+                    return;
+                }
+                lastHistoryId = pointHistory.id();
+                add(pointHistory, epochDay, retainedDays);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        UserState export(long userId) {
+            lock.lock();
+            try {
+                long[] days = new long[daily.size() * 4];
+                int i = 0;
+                for (Map.Entry<Long, long[]> entry : daily.entrySet()) {
+                    days[i++] = entry.getKey();
+                    days[i++] = entry.getValue()[0];
+                    days[i++] = entry.getValue()[1];
+                    days[i++] = entry.getValue()[2];
+                }
+                return new UserState(userId, charged, used, count, lastActivityMillis, lastHistoryId, days);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        PointSummary summary(long userId, Long fromDay, Long toDay) {
+            lock.lock();
+            try {
+                List<DailyPointSummary> days = new ArrayList<>();
+                if (fromDay != null || toDay != null) {
+                    long from = fromDay == null ? Long.MIN_VALUE : fromDay;
+                    long to = toDay == null ? Long.MAX_VALUE : toDay;
+                    for (Map.Entry<Long, long[]> entry : daily.subMap(from, true, to, true).entrySet()) {
+                        long[] totals = entry.getValue();
+                        days.add(new DailyPointSummary(LocalDate.ofEpochDay(entry.getKey()), totals[0], totals[1], totals[2]));
+                    }
+                }
+                return new PointSummary(userId, charged, used, count, lastActivityMillis, days);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void add(PointHistory pointHistory, long epochDay, int retainedDays) {
+            long[] totals = daily.computeIfAbsent(epochDay, key -> new long[3]);
+            if (pointHistory.type() == TransactionType.CHARGE) {
+                charged += pointHistory.amount();
+                totals[0] += pointHistory.amount();
+            } else {
+                // 사용 내역의 amount 는 음수로 남으므로 부호를 바꿔 더한다.
+                used -= pointHistory.amount();
+                totals[1] -= pointHistory.amount();
+            }
+            count++;
+            totals[2]++;
+            lastActivityMillis = Math.max(lastActivityMillis, pointHistory.updateMillis());
+            long oldest = daily.lastKey() - retainedDays + 1;
+            while (daily.firstKey() < oldest) {
+                daily.pollFirstEntry();
+            }
+        }
+    }
+
+    /**
+     * 스냅샷에 남기는 유저 한 명의 집계. days 는 (epochDay, 충전 합계, 사용 합계, 건수) 를 이어 붙인 배열입니다.
+     */
+    record UserState(
+            long userId,
+            long charged,
+            long used,
+            long count,
+            long lastActivityMillis,
+            long lastHistoryId,
+            long[] days
+    ) {
+    }
+}
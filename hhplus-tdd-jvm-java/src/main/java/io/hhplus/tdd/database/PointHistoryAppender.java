@@ -0,0 +1,336 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.config.PointProperties.HistoryOverflowPolicy;
+import io.hhplus.tdd.exception.HistoryQueueFullException;
+import io.hhplus.tdd.point.TransactionType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 내역 저장을 요청 경로에서 떼어내 writer 스레드 하나가 큐에서 모아 기록하도록 합니다.
+ * <p>
+ * PointHistoryTable.insert 는 최대 300ms 를 쉬고 스레드 안전하지도 않으므로 writer 는 하나만 둡니다.
+ * 큐 자리는 잔액을 저장하기 전에 reserve 로 확보하므로, 큐가 가득 차서 요청을 거절할 때는 잔액도 바뀌지 않습니다.
+ * enabled 가 false 이거나 writer 가 돌고 있지 않으면 호출한 스레드에서 바로 기록합니다.
+ * 이때 원래 테이블은 LockedPointHistoryTable 로 감싸 두므로 여러 요청 스레드의 기록이 겹치지 않습니다.
+ */
+@Slf4j
+public class PointHistoryAppender implements SmartLifecycle {
+    // 웹 서버가 요청을 다 받아낸 뒤에 멈추도록 웹 서버보다 낮은 phase 를 쓴다.
+    static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+    private static final long POLL_MILLIS = 100L;
+
+    private final PointHistoryIndex pointHistoryIndex;
+    private final boolean enabled;
+    private final int capacity;
+    private final int maxBatchSize;
+    private final HistoryOverflowPolicy overflow;
+    private final long timeoutMillis;
+    private final long shutdownTimeoutMillis;
+
+    private final Semaphore permits;
+    private final LinkedBlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    // 유저별로 마지막에 넣은 내역과 마지막으로 기록된 내역의 순번. 밀린 내역이 없으면 엔트리를 지운다.
+    private final ConcurrentHashMap<Long, Progress> progress = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Condition flushed = flushLock.newCondition();
+    // running 을 바꾸는 동안 큐에 새 내역이 들어오지 않도록 막는다.
+    private final ReentrantReadWriteLock lifecycle = new ReentrantReadWriteLock();
+    private volatile boolean running;
+    private Thread writer;
+
+    public PointHistoryAppender(PointHistoryIndex pointHistoryIndex) {
+        this(pointHistoryIndex, false, 1, 1, HistoryOverflowPolicy.BLOCK, 0L, 0L);
+    }
+
+    public PointHistoryAppender(PointHistoryIndex pointHistoryIndex,
+                                boolean enabled,
+                                int capacity,
+                                int maxBatchSize,
+                                HistoryOverflowPolicy overflow,
+                                long timeoutMillis,
+                                long shutdownTimeoutMillis) {
+        if (capacity < 1 || maxBatchSize < 1) {
+            throw new IllegalArgumentException("capacity and maxBatchSize must be at least 1");
+        }
+        this.pointHistoryIndex = pointHistoryIndex;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.maxBatchSize = maxBatchSize;
+        this.overflow = overflow;
+        this.timeoutMillis = timeoutMillis;
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+        this.permits = new Semaphore(capacity);
+    }
+
+    /**
+     * 내역 count 건을 넣을 큐 자리를 확보합니다.
+     * 자리가 없으면 BLOCK 은 timeout 만큼 기다린 뒤, FAIL 은 바로 HistoryQueueFullException 을 던지고,
+     * DROP 은 기록하지 않을 Reservation 을 반환합니다.
+     */
+    public Reservation reserve(int count) {
+        if (!enabled || !running) {
+            return new Reservation(count, 0, false);
+        }
+        boolean acquired = switch (overflow) {
+            case BLOCK -> tryAcquire(count);
+            case DROP, FAIL -> permits.tryAcquire(count);
+        };
+        if (acquired) {
+            return new Reservation(count, count, false);
+        }
+        if (overflow == HistoryOverflowPolicy.DROP) {
+            return new Reservation(count, 0, true);
+        }
+        throw new HistoryQueueFullException(capacity);
+    }
+
+    /**
+     * 유저의 밀린 내역이 모두 기록될 때까지 최대 timeout 만큼 기다립니다. 기록되었으면 true 를 반환합니다.
+     * 같은 유저의 내역은 유저 락 안에서 순서대로 들어오므로, 호출 시점에 마지막으로 들어온 내역까지만 기다립니다.
+     */
+    public boolean awaitFlushed(long userId) {
+        Progress target = progress.get(userId);
+        if (target == null) {
+            return true;
+        }
+        long enqueued = target.enqueued;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        flushLock.lock();
+        try {
+            while (progress.get(userId) == target && target.appended < enqueued) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0L) {
+                    return false;
+                }
+                flushed.awaitNanos(remaining);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public AppenderStats stats() {
+        Entry oldest = queue.peek();
+        long lagMillis = oldest == null ? 0L : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest.enqueuedNanos);
+        return new AppenderStats(queue.size(), capacity, appended.get(), dropped.get(), failed.get(), lagMillis);
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        lifecycle.writeLock().lock();
+        try {
+            if (running) {
+                return;
+            }
+            running = true;
+            writer = new Thread(this::drainLoop, "point-history-appender");
+            writer.start();
+        } finally {
+            lifecycle.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 새 내역을 받지 않도록 한 뒤 큐에 남은 내역을 모두 기록하고 writer 를 멈춥니다.
+     */
+    @Override
+    public void stop() {
+        Thread stopping;
+        lifecycle.writeLock().lock();
+        try {
+            if (!running) {
+                return;
+            }
+            running = false;
+            stopping = writer;
+            writer = null;
+        } finally {
+            lifecycle.writeLock().unlock();
+        }
+        try {
+            stopping.join(shutdownTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (stopping.isAlive()) {
+            log.warn("History appender did not flush in time. pending: {}", queue.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private boolean tryAcquire(int count) {
+        try {
+            return permits.tryAcquire(count, timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void enqueue(Entry entry) {
+        lifecycle.readLock().lock();
+        try {
+            if (running) {
+                progress.compute(entry.userId, (id, current) -> {
+                    Progress next = current == null ? new Progress() : current;
+                    next.enqueued = entry.sequence;
+                    return next;
+                });
+                queue.add(entry);
+                return;
+            }
+        } finally {
+            lifecycle.readLock().unlock();
+        }
+        // 예약 이후 writer 가 멈췄으면 직접 기록한다.
+        write(entry);
+    }
+
+    private void drainLoop() {
+        List<Entry> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            Entry first;
+            try {
+                first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                continue;
+            }
+            if (first == null) {
+                continue;
+            }
+            batch.add(first);
+            queue.drainTo(batch, maxBatchSize - 1);
+            for (Entry entry : batch) {
+                write(entry);
+                progress.computeIfPresent(entry.userId, (id, current) -> {
+                    current.appended = entry.sequence;
+                    return current.appended >= current.enqueued ? null : current;
+                });
+            }
+            batch.clear();
+            signalFlushed();
+        }
+    }
+
+    private void write(Entry entry) {
+        try {
+            pointHistoryIndex.insert(entry.userId, entry.amount, entry.type, entry.updateMillis);
+            appended.incrementAndGet();
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            log.error("Failed to append history for user: {}", entry.userId, e);
+        } finally {
+            if (entry.holdsPermit) {
+                permits.release();
+            }
+        }
+    }
+
+    private void signalFlushed() {
+        flushLock.lock();
+        try {
+            flushed.signalAll();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * reserve 로 확보한 자리. append 한 만큼 자리를 쓰고, 쓰지 않은 자리는 release 로 돌려줍니다.
+     */
+    public final class Reservation {
+        private int remaining;
+        private int permitsHeld;
+        private final boolean dropping;
+
+        private Reservation(int remaining, int permitsHeld, boolean dropping) {
+            this.remaining = remaining;
+            this.permitsHeld = permitsHeld;
+            this.dropping = dropping;
+        }
+
+        public void append(long userId, long amount, TransactionType type, long updateMillis) {
+            if (remaining == 0) {
+                throw new IllegalStateException("No reserved slot left");
+            }
+            remaining--;
+            if (dropping) {
+                dropped.incrementAndGet();
+                return;
+            }
+            if (permitsHeld == 0) {
+                // 비활성화되어 있거나 writer 가 돌지 않을 때는 예외를 호출자에게 그대로 전달한다.
+                pointHistoryIndex.insert(userId, amount, type, updateMillis);
+                return;
+            }
+            permitsHeld--;
+            enqueue(new Entry(sequence.incrementAndGet(), userId, amount, type, updateMillis, System.nanoTime(), true));
+        }
+
+        public void release() {
+            if (permitsHeld > 0) {
+                permits.release(permitsHeld);
+                permitsHeld = 0;
+            }
+            remaining = 0;
+        }
+    }
+
+    private record Entry(
+            long sequence,
+            long userId,
+            long amount,
+            TransactionType type,
+            long updateMillis,
+            long enqueuedNanos,
+            boolean holdsPermit
+    ) {
+    }
+
+    private static final class Progress {
+        private volatile long enqueued;
+        private volatile long appended;
+    }
+
+    public record AppenderStats(
+            int queueDepth,
+            int capacity,
+            long appended,
+            long dropped,
+            long failed,
+            long lagMillis
+    ) {
+    }
+}
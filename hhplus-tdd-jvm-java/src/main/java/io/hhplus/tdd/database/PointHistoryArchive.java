@@ -0,0 +1,337 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointHistoryQuery;
+import io.hhplus.tdd.point.TransactionType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * 최근 maxAge 동안의 내역만 힙에 두고, 그보다 오래된 내역은 압축한 아카이브 세그먼트 파일로 옮깁니다.
+ * <p>
+ * 힙에는 유저별로 id 순서의 최근 내역만 남습니다. 백그라운드 archiver 가 interval 마다 유저별로 maxAge 보다 오래된
+ * 앞부분을 모아 세그먼트 파일 하나에 쓰고, 파일을 등록한 뒤에 힙에서 지웁니다. 쓰기는 유저 하나의 짧은 구간만 막습니다.
+ * <p>
+ * 세그먼트 파일(PointHistorySegmentFile)은 유저 하나를 읽을 때 그 유저의 블록만 풉니다.
+ * 조회 조건의 기간이나 cursor 에 걸리지 않거나, userId 범위와 bloom filter 로 보아 유저가 없는 세그먼트는 열어보지 않습니다.
+ * <p>
+ * interval 마다 세그먼트가 하나씩 생기므로, archiver 는 옮긴 뒤에 이어진 작은 세그먼트들을 maxRowsPerSegment 안에서 하나로 합칩니다.
+ * 합쳐진 파일은 그 전에 목록을 읽어 간 조회가 끝나도록 다음 주기에 지웁니다.
+ * <p>
+ * 최근 내역과 id 는 힙에만 있으므로 세그먼트 파일은 이 프로세스의 내역을 힙 밖에 두기 위한 것입니다.
+ * 다시 시작하면 이어 쓸 수 없어 시작할 때 남아 있던 파일을 지우고 close 할 때도 지웁니다.
+ * 재시작 뒤에도 내역이 남아야 하면 storage 를 쓰고, 둘을 함께 켜면 시작하지 않습니다 (PointConfig).
+ */
+@Slf4j
+public class PointHistoryArchive implements Closeable {
+    static final String SEGMENT_PREFIX = "archive-";
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+    private final long maxAgeMillis;
+    private final int maxRowsPerSegment;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<Long, HotRows> hot = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1L);
+    private final AtomicLong hotRowCount = new AtomicLong();
+    // 읽는 쪽은 잠그지 않도록 세그먼트 목록은 통째로 바꿔 끼운다.
+    private volatile List<PointHistorySegmentFile> segments = List.of();
+    private final ReentrantLock archiveLock = new ReentrantLock();
+    private final ScheduledExecutorService archiver;
+    private int nextSegment;
+    // 합쳐져 목록에서 빠졌지만 아직 지우지 않은 파일. archiveLock 으로 지킨다.
+    private final List<Path> retired = new ArrayList<>();
+
+    public PointHistoryArchive(Path directory, long maxAgeMillis, long intervalMillis, int maxRowsPerSegment) throws IOException {
+        this(directory, maxAgeMillis, intervalMillis, maxRowsPerSegment, System::currentTimeMillis);
+    }
+
+    /**
+     * @param intervalMillis 0 이면 archiver 를 띄우지 않고 archive() 를 직접 부를 때만 옮깁니다.
+     */
+    PointHistoryArchive(Path directory, long maxAgeMillis, long intervalMillis, int maxRowsPerSegment,
+                        LongSupplier clock) throws IOException {
+        if (maxAgeMillis <= 0L || maxRowsPerSegment <= 0) {
+            throw new IllegalArgumentException("Max age and rows per segment must be positive");
+        }
+        this.directory = directory;
+        this.maxAgeMillis = maxAgeMillis;
+        this.maxRowsPerSegment = maxRowsPerSegment;
+        this.clock = clock;
+        Files.createDirectories(directory);
+        deleteSegmentFiles();
+        if (intervalMillis > 0L) {
+            this.archiver = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("point-history-archiver").daemon().factory());
+            archiver.scheduleWithFixedDelay(this::archiveQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.archiver = null;
+        }
+    }
+
+    /**
+     * id 는 유저의 내역 목록 안에서 정해지므로 같은 유저의 내역은 항상 id 순서로 쌓입니다.
+     */
+    public PointHistory append(long userId, long amount, TransactionType type, long updateMillis) {
+        PointHistory[] appended = new PointHistory[1];
+        hot.compute(userId, (id, rows) -> {
+            HotRows target = rows == null ? new HotRows() : rows;
+            appended[0] = new PointHistory(nextId.getAndIncrement(), userId, amount, type, updateMillis);
+            target.add(appended[0]);
+            return target;
+        });
+        hotRowCount.incrementAndGet();
+        return appended[0];
+    }
+
+    public List<PointHistory> historyOf(long userId) {
+        return stream(userId, PointHistoryQuery.all()).toList();
+    }
+
+    /**
+     * 아카이브와 힙의 내역을 id 순으로 이어서 흘려보냅니다. 조건에 걸리지 않는 세그먼트는 읽지 않습니다.
+     * <p>
+     * 힙을 먼저 복사하고 세그먼트 목록을 나중에 읽으므로, 그 사이 옮겨진 내역은 세그먼트 쪽에서 보입니다.
+     * 양쪽에 모두 있는 내역은 아카이브에서 마지막으로 읽은 id 보다 큰 것만 힙에서 이어 붙여 거릅니다.
+     */
+    public Stream<PointHistory> stream(long userId, PointHistoryQuery query) {
+        HotRows rows = hot.get(userId);
+        List<PointHistory> recent = rows == null ? List.of() : rows.snapshot();
+        List<PointHistorySegmentFile> archived = segments;
+        long[] lastArchivedId = {0L};
+        Stream<PointHistory> cold = archived.stream()
+                .filter(segment -> segment.overlaps(query) && segment.mayContain(userId))
+                .flatMap(segment -> segment.read(userId).stream())
+                .peek(row -> lastArchivedId[0] = row.id());
+        Stream<PointHistory> warm = recent.stream().filter(row -> row.id() > lastArchivedId[0]);
+        return Stream.concat(cold, warm).filter(query::matches).limit(query.limit());
+    }
+
+    /**
+     * maxAge 보다 오래된 내역을 세그먼트로 옮기고 옮긴 행 수를 반환합니다. 한 번에 maxRowsPerSegment 개까지 옮깁니다.
+     */
+    public int archive() throws IOException {
+        archiveLock.lock();
+        try {
+            long cutoff = clock.getAsLong() - maxAgeMillis;
+            TreeMap<Long, List<PointHistory>> byUser = new TreeMap<>();
+            int budget = maxRowsPerSegment;
+            for (Map.Entry<Long, HotRows> entry : hot.entrySet()) {
+                if (budget == 0) {
+                    break;
+                }
+                List<PointHistory> expired = entry.getValue().olderThan(cutoff, budget);
+                if (!expired.isEmpty()) {
+                    byUser.put(entry.getKey(), expired);
+                    budget -= expired.size();
+                }
+            }
+            if (byUser.isEmpty()) {
+                return 0;
+            }
+
+            PointHistorySegmentFile segment = PointHistorySegmentFile.write(segmentPath(nextSegment++), byUser);
+            List<PointHistorySegmentFile> next = new ArrayList<>(segments);
+            next.add(segment);
+            segments = List.copyOf(next);
+
+            for (Map.Entry<Long, List<PointHistory>> entry : byUser.entrySet()) {
+                List<PointHistory> expired = entry.getValue();
+                long lastId = expired.get(expired.size() - 1).id();
+                hot.computeIfPresent(entry.getKey(), (id, rows) -> {
+                    rows.removeThrough(lastId);
+                    return rows.isEmpty() ? null : rows;
+                });
+            }
+            int moved = maxRowsPerSegment - budget;
+            hotRowCount.addAndGet(-moved);
+            return moved;
+        } finally {
+            archiveLock.unlock();
+        }
+    }
+
+    /**
+     * 이어진 세그먼트 중 행 수를 더해도 maxRowsPerSegment 를 넘지 않는 가장 앞의 묶음을 하나로 합치고,
+     * 줄어든 세그먼트 수를 반환합니다. 유저마다 앞 세그먼트의 내역이 더 오래됐으므로 차례로 이으면 id 순서가 유지됩니다.
+     */
+    public int merge() throws IOException {
+        archiveLock.lock();
+        try {
+            List<PointHistorySegmentFile> current = segments;
+            int start = 0;
+            while (start < current.size()) {
+                long rows = current.get(start).rows();
+                int end = start + 1;
+                while (end < current.size() && rows + current.get(end).rows() <= maxRowsPerSegment) {
+                    rows += current.get(end).rows();
+                    end++;
+                }
+                if (end - start >= 2) {
+                    return merge(current, start, end);
+                }
+                start = end;
+            }
+            return 0;
+        } finally {
+            archiveLock.unlock();
+        }
+    }
+
+    private int merge(List<PointHistorySegmentFile> current, int start, int end) throws IOException {
+        List<PointHistorySegmentFile> run = current.subList(start, end);
+        TreeMap<Long, List<PointHistory>> byUser = new TreeMap<>();
+        for (PointHistorySegmentFile segment : run) {
+            segment.forEach(row -> byUser.computeIfAbsent(row.userId(), id -> new ArrayList<>()).add(row));
+        }
+        PointHistorySegmentFile merged = PointHistorySegmentFile.write(segmentPath(nextSegment++), byUser);
+        List<PointHistorySegmentFile> next = new ArrayList<>(current.subList(0, start));
+        next.add(merged);
+        next.addAll(current.subList(end, current.size()));
+        segments = List.copyOf(next);
+        for (PointHistorySegmentFile segment : run) {
+            retired.add(segment.path());
+        }
+        return run.size() - 1;
+    }
+
+    public ArchiveStats stats() {
+        List<PointHistorySegmentFile> archived = segments;
+        long rows = 0L;
+        long bytes = 0L;
+        for (PointHistorySegmentFile segment : archived) {
+            rows += segment.rows();
+            bytes += segment.bytes();
+        }
+        return new ArchiveStats(hotRowCount.get(), hot.size(), archived.size(), rows, bytes);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (archiver != null) {
+            archiver.shutdownNow();
+            try {
+                archiver.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        archiveLock.lock();
+        try {
+            segments = List.of();
+            retired.clear();
+            hot.clear();
+            hotRowCount.set(0L);
+            deleteSegmentFiles();
+        } finally {
+            archiveLock.unlock();
+        }
+    }
+
+    private void archiveQuietly() {
+        try {
+            deleteRetired();
+            int moved;
+            do {
+                moved = archive();
+            } while (moved == maxRowsPerSegment);
+            int merged;
+            do {
+                merged = merge();
+            } while (merged > 0);
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Failed to archive point history", e);
+        }
+    }
+
+    private void deleteRetired() throws IOException {
+        archiveLock.lock();
+        try {
+            for (Path path : retired) {
+                Files.deleteIfExists(path);
+            }
+            retired.clear();
+        } finally {
+            archiveLock.unlock();
+        }
+    }
+
+    private Path segmentPath(int index) {
+        return directory.resolve(String.format("%s%05d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    private void deleteSegmentFiles() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * 한 유저의 힙에 남은 내역. 쓰기는 맵의 compute 안에서만 일어나고, 읽기는 복사본을 가져갑니다.
+     */
+    private static final class HotRows {
+        private final ArrayList<PointHistory> rows = new ArrayList<>();
+
+        synchronized void add(PointHistory pointHistory) {
+            rows.add(pointHistory);
+        }
+
+        synchronized List<PointHistory> snapshot() {
+            return List.copyOf(rows);
+        }
+
+        synchronized boolean isEmpty() {
+            return rows.isEmpty();
+        }
+
+        /**
+         * 앞에서부터 cutoff 보다 오래된 내역을 최대 limit 개 복사합니다. 옮긴 뒤에도 남은 내역이 id 순서를 유지하도록 앞부분만 고릅니다.
+         */
+        synchronized List<PointHistory> olderThan(long cutoff, int limit) {
+            int count = 0;
+            while (count < rows.size() && count < limit && rows.get(count).updateMillis() < cutoff) {
+                count++;
+            }
+            return List.copyOf(rows.subList(0, count));
+        }
+
+        synchronized void removeThrough(long lastId) {
+            int count = 0;
+            while (count < rows.size() && rows.get(count).id() <= lastId) {
+                count++;
+            }
+            rows.subList(0, count).clear();
+            if (rows.isEmpty()) {
+                rows.trimToSize();
+            }
+        }
+    }
+
+    public record ArchiveStats(
+            long hotRows,
+            long hotUsers,
+            long segments,
+            long archivedRows,
+            long archivedBytes
+    ) {
+    }
+}
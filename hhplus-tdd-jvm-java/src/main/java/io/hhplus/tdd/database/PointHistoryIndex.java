@@ -0,0 +1,280 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointHistoryQuery;
+import io.hhplus.tdd.point.PointSummary;
+import io.hhplus.tdd.point.TransactionType;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * HistoryStore 옆에 유저별 내역 인덱스를 두어 selectAllByUserId 를 해당 유저의 내역 수만큼만 읽도록 합니다.
+ * <p>
+ * 유저의 인덱스는 처음 조회될 때 저장소에서 한 번 채우고, 이후에는 insert 결과를 id 순서대로 덧붙입니다.
+ * 내역 객체는 저장소와 공유하므로 인덱스가 추가로 쓰는 메모리는 유저별 목록과 참조뿐입니다.
+ * PointHistoryTable 을 넘기면 TableHistoryStore 로 감쌉니다.
+ */
+public class PointHistoryIndex {
+    // 유저 하나당 맵 엔트리, Long 키, 목록/락 객체가 차지하는 대략적인 크기
+    static final long BYTES_PER_USER = 160L;
+    // 내역 하나당 목록 안의 참조 크기 (compressed oops 기준, 여유 용량 포함)
+    static final long BYTES_PER_ENTRY = 6L;
+    // stream() 이 한 번에 복사해오는 내역 수
+    static final int CHUNK_SIZE = 256;
+
+    private final HistoryStore historyStore;
+    private final boolean enabled;
+    private final PointHistoryAggregates aggregates;
+    private final PointHistoryArchive archive;
+    private final List<Consumer<PointHistory>> listeners = new CopyOnWriteArrayList<>();
+    private final ConcurrentHashMap<Long, UserHistory> index = new ConcurrentHashMap<>();
+    private final AtomicLong entries = new AtomicLong();
+
+    public PointHistoryIndex(PointHistoryTable pointHistoryTable, boolean enabled) {
+        this(pointHistoryTable, enabled, new PointHistoryAggregates(ZoneId.systemDefault(), 90));
+    }
+
+    public PointHistoryIndex(HistoryStore historyStore, boolean enabled) {
+        this(historyStore, enabled, new PointHistoryAggregates(ZoneId.systemDefault(), 90), null);
+    }
+
+    public PointHistoryIndex(PointHistoryTable pointHistoryTable, boolean enabled, PointHistoryAggregates aggregates) {
+        this(pointHistoryTable, enabled, aggregates, null);
+    }
+
+    /**
+     * @param archive 내역을 아카이브와 나눠 담는 경우 stream() 이 조회 조건에 걸리는 아카이브만 읽도록 넘겨받습니다.
+     */
+    public PointHistoryIndex(PointHistoryTable pointHistoryTable, boolean enabled, PointHistoryAggregates aggregates,
+                             PointHistoryArchive archive) {
+        this(new TableHistoryStore(pointHistoryTable), enabled, aggregates, archive);
+    }
+
+    public PointHistoryIndex(HistoryStore historyStore, boolean enabled, PointHistoryAggregates aggregates,
+                             PointHistoryArchive archive) {
+        this.historyStore = historyStore;
+        this.enabled = enabled;
+        this.aggregates = aggregates;
+        this.archive = archive;
+    }
+
+    public PointHistory insert(long userId, long amount, TransactionType type, long updateMillis) {
+        PointHistory pointHistory = historyStore.append(userId, amount, type, updateMillis);
+        if (pointHistory != null) {
+            aggregates.record(pointHistory);
+            for (Consumer<PointHistory> listener : listeners) {
+                listener.accept(pointHistory);
+            }
+        }
+        if (enabled && pointHistory != null) {
+            // 아직 인덱스가 없는 유저는 첫 조회 때 저장소에서 채우므로 여기서 만들지 않는다.
+            UserHistory history = index.get(userId);
+            if (history != null && history.add(pointHistory)) {
+                entries.incrementAndGet();
+            }
+        }
+        return pointHistory;
+    }
+
+    /**
+     * 내역이 저장소에 기록될 때마다 호출할 listener 를 등록합니다. listener 는 기록하는 스레드에서 불리므로 막히지 않아야 합니다.
+     */
+    public void addListener(Consumer<PointHistory> listener) {
+        listeners.add(listener);
+    }
+
+    public List<PointHistory> selectAllByUserId(long userId) {
+        if (!enabled) {
+            return historyStore.findAllByUserId(userId);
+        }
+        return historyOf(userId).snapshot();
+    }
+
+    /**
+     * 조건에 맞는 내역을 id 순으로 흘려보냅니다.
+     * 인덱스를 쓰는 경우 CHUNK_SIZE 만큼씩만 복사해오므로 유저의 전체 내역을 한 번에 들고 있지 않습니다.
+     */
+    public Stream<PointHistory> stream(long userId, PointHistoryQuery query) {
+        Stream<PointHistory> rows;
+        if (enabled) {
+            UserHistory history = historyOf(userId);
+            rows = Stream.iterate(
+                    history.after(query.afterId(), CHUNK_SIZE),
+                    chunk -> !chunk.isEmpty(),
+                    chunk -> history.after(chunk.get(chunk.size() - 1).id(), CHUNK_SIZE)
+            ).flatMap(List::stream);
+        } else if (archive != null) {
+            return archive.stream(userId, query);
+        } else {
+            rows = historyStore.findAllByUserId(userId).stream();
+        }
+        return rows.filter(query::matches).limit(query.limit());
+    }
+
+    /**
+     * 유저의 충전/사용 합계와 from ~ to 의 일별 합계를 반환합니다. 인덱스 사용 여부와 상관없이 집계는 항상 유지합니다.
+     */
+    public PointSummary summary(long userId, LocalDate from, LocalDate to) {
+        return aggregates.summary(userId, from, to);
+    }
+
+    public IndexStats stats() {
+        long users = index.size();
+        long total = entries.get();
+        return new IndexStats(users, total, users * BYTES_PER_USER + total * BYTES_PER_ENTRY);
+    }
+
+    /**
+     * 유저의 인덱스를 반환하고, 없으면 저장소에서 채웁니다.
+     * <p>
+     * 맵의 compute 안에서 저장소를 읽으면 같은 bin 을 쓰는 다른 유저까지 synchronized 로 막히고
+     * 가상 스레드가 carrier 에 고정되므로, 빈 인덱스를 먼저 등록한 뒤 밖에서 채웁니다.
+     * 그 사이 들어온 insert 는 등록된 인덱스에 바로 붙고, 저장소에서 읽은 내역과 겹치는 것은 id 로 걸러집니다.
+     */
+    private UserHistory historyOf(long userId) {
+        while (true) {
+            UserHistory history = index.get(userId);
+            if (history == null) {
+                UserHistory created = new UserHistory();
+                history = index.putIfAbsent(userId, created);
+                if (history == null) {
+                    load(userId, created);
+                    return created;
+                }
+            }
+            if (history.awaitLoaded()) {
+                return history;
+            }
+        }
+    }
+
+    private void load(long userId, UserHistory history) {
+        try {
+            List<PointHistory> rows = historyStore.findAllByUserId(userId);
+            if (rows != null) {
+                for (PointHistory row : rows) {
+                    if (history.add(row)) {
+                        entries.incrementAndGet();
+                    }
+                }
+            }
+            history.markLoaded(true);
+        } catch (RuntimeException e) {
+            index.remove(userId, history);
+            entries.addAndGet(-history.size());
+            history.markLoaded(false);
+            throw e;
+        }
+    }
+
+    /**
+     * 한 유저의 내역을 id 오름차순으로 보관합니다.
+     */
+    static final class UserHistory {
+        private final ArrayList<PointHistory> rows = new ArrayList<>();
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final CountDownLatch loaded = new CountDownLatch(1);
+        private volatile boolean loadSucceeded;
+
+        void markLoaded(boolean succeeded) {
+            loadSucceeded = succeeded;
+            loaded.countDown();
+        }
+
+        /**
+         * 저장소에서 채우는 중이면 끝날 때까지 기다립니다. 채우기에 실패한 인덱스면 false 를 반환합니다.
+         */
+        boolean awaitLoaded() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    loaded.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            return loadSucceeded;
+        }
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return rows.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * 이미 같은 id 가 있으면 false 를 반환합니다. 대부분 맨 뒤에 붙으므로 뒤에서부터 자리를 찾습니다.
+         */
+        boolean add(PointHistory pointHistory) {
+            lock.writeLock().lock();
+            try {
+                int position = rows.size();
+                while (position > 0 && rows.get(position - 1).id() >= pointHistory.id()) {
+                    if (rows.get(position - 1).id() == pointHistory.id()) {
+                        return false;
+                    }
+                    position--;
+                }
+                rows.add(position, pointHistory);
+                return true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * afterId 보다 큰 id 를 가진 내역을 최대 limit 개 복사합니다.
+         */
+        List<PointHistory> after(long afterId, int limit) {
+            lock.readLock().lock();
+            try {
+                int low = 0;
+                int high = rows.size();
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+                    if (rows.get(mid).id() <= afterId) {
+                        low = mid + 1;
+                    } else {
+                        high = mid;
+                    }
+                }
+                return List.copyOf(rows.subList(low, Math.min(rows.size(), low + limit)));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        List<PointHistory> snapshot() {
+            lock.readLock().lock();
+            try {
+                return List.copyOf(rows);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+
+    public record IndexStats(
+            long users,
+            long entries,
+            long estimatedBytes
+    ) {
+    }
+}
@@ -0,0 +1,328 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointHistoryQuery;
+import io.hhplus.tdd.point.TransactionType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.function.Consumer;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * 내역을 유저별로 따로 압축한 블록과 userId 순으로 정렬한 고정 길이 목차로 담는 읽기 전용 세그먼트 파일입니다.
+ * <p>
+ * 유저 하나를 읽을 때는 목차를 이진 탐색해 그 유저의 블록만 풉니다. 목차는 힙에 올리지 않고,
+ * 세그먼트가 계속 늘어나도 파일 디스크립터를 붙잡지 않도록 읽을 때만 파일을 엽니다.
+ * <p>
+ * 목차 뒤에는 userId 의 bloom filter 를 두고, 열 때 userId 범위와 함께 힙에 올립니다 (유저 한 명당 1바이트).
+ * 범위 밖이거나 filter 가 없다고 답하는 유저는 파일을 열지 않고 건너뜁니다. filter 가 없는 이전 형식(V1)도 읽습니다.
+ */
+final class PointHistorySegmentFile {
+    private static final int MAGIC_V1 = 0x50484131;
+    private static final int MAGIC = 0x50484132;
+    // 목차 한 줄: userId, 블록 위치, 블록 길이, 행 수
+    private static final int ENTRY_BYTES = Long.BYTES * 2 + Integer.BYTES * 2;
+    // V1 파일 끝: 유저 수, 행 수, 최소/최대 id, 최소/최대 updateMillis, 목차 위치, magic
+    private static final int TRAILER_V1_BYTES = Integer.BYTES + Long.BYTES * 6 + Integer.BYTES;
+    // 파일 끝: 유저 수, 행 수, 최소/최대 id, 최소/최대 updateMillis, 최소/최대 userId, 목차 위치, filter 길이(long 개수), magic
+    private static final int TRAILER_BYTES = Integer.BYTES + Long.BYTES * 8 + Integer.BYTES * 2;
+    // 한 행: id, amount, updateMillis, type
+    private static final int ROW_BYTES = Long.BYTES * 3 + 1;
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private final Path path;
+    private final int users;
+    private final long rows;
+    private final long minId;
+    private final long maxId;
+    private final long minMillis;
+    private final long maxMillis;
+    private final long minUser;
+    private final long maxUser;
+    // V1 파일은 filter 가 없어 null 이다.
+    private final PointHistoryUserFilter filter;
+    private final long entriesPosition;
+    private final long bytes;
+
+    private PointHistorySegmentFile(Path path, int users, long rows, long minId, long maxId, long minMillis, long maxMillis,
+                                    long minUser, long maxUser, PointHistoryUserFilter filter, long entriesPosition, long bytes) {
+        this.path = path;
+        this.users = users;
+        this.rows = rows;
+        this.minId = minId;
+        this.maxId = maxId;
+        this.minMillis = minMillis;
+        this.maxMillis = maxMillis;
+        this.minUser = minUser;
+        this.maxUser = maxUser;
+        this.filter = filter;
+        this.entriesPosition = entriesPosition;
+        this.bytes = bytes;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    long rows() {
+        return rows;
+    }
+
+    long bytes() {
+        return bytes;
+    }
+
+    /**
+     * 임시 파일에 블록, 목차, filter, 끝 정보를 차례로 쓰고 디스크에 반영한 뒤 이름을 바꿉니다. 유저별 내역은 id 순이어야 합니다.
+     */
+    static PointHistorySegmentFile write(Path path, SortedMap<Long, List<PointHistory>> byUser) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        ByteBuffer entries = ByteBuffer.allocate(byUser.size() * ENTRY_BYTES);
+        PointHistoryUserFilter filter = PointHistoryUserFilter.forUsers(byUser.size());
+        long rows = 0L;
+        long minId = Long.MAX_VALUE;
+        long maxId = Long.MIN_VALUE;
+        long minMillis = Long.MAX_VALUE;
+        long maxMillis = Long.MIN_VALUE;
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long position = 0L;
+            for (Map.Entry<Long, List<PointHistory>> entry : byUser.entrySet()) {
+                List<PointHistory> userRows = entry.getValue();
+                byte[] block = compress(userRows);
+                position += writeFully(channel, ByteBuffer.wrap(block));
+                entries.putLong(entry.getKey())
+                        .putLong(position - block.length)
+                        .putInt(block.length)
+                        .putInt(userRows.size());
+                filter.add(entry.getKey());
+                for (PointHistory row : userRows) {
+                    minId = Math.min(minId, row.id());
+                    maxId = Math.max(maxId, row.id());
+                    minMillis = Math.min(minMillis, row.updateMillis());
+                    maxMillis = Math.max(maxMillis, row.updateMillis());
+                }
+                rows += userRows.size();
+            }
+            long entriesPosition = position;
+            position += writeFully(channel, entries.flip());
+            position += writeFully(channel, filter.toBuffer());
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_BYTES)
+                    .putInt(byUser.size())
+                    .putLong(rows)
+                    .putLong(minId)
+                    .putLong(maxId)
+                    .putLong(minMillis)
+                    .putLong(maxMillis)
+                    .putLong(byUser.firstKey())
+                    .putLong(byUser.lastKey())
+                    .putLong(entriesPosition)
+                    .putInt(filter.words())
+                    .putInt(MAGIC);
+            position += writeFully(channel, trailer.flip());
+            channel.force(true);
+            StorageFiles.replace(temporary, path);
+            return new PointHistorySegmentFile(path, byUser.size(), rows, minId, maxId, minMillis, maxMillis,
+                    byUser.firstKey(), byUser.lastKey(), filter, entriesPosition, position);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+    }
+
+    /**
+     * 이미 있는 세그먼트 파일의 끝 정보와 filter 만 읽어 엽니다.
+     */
+    static PointHistorySegmentFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < TRAILER_V1_BYTES) {
+                throw new IOException("Truncated history segment: " + path);
+            }
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+            readFully(channel, magic, size - Integer.BYTES);
+            int version = magic.getInt();
+            if (version == MAGIC_V1) {
+                return openV1(channel, path, size);
+            }
+            if (version != MAGIC || size < TRAILER_BYTES) {
+                throw new IOException("Corrupt history segment: " + path);
+            }
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_BYTES);
+            readFully(channel, trailer, size - TRAILER_BYTES);
+            int users = trailer.getInt();
+            long rows = trailer.getLong();
+            long minId = trailer.getLong();
+            long maxId = trailer.getLong();
+            long minMillis = trailer.getLong();
+            long maxMillis = trailer.getLong();
+            long minUser = trailer.getLong();
+            long maxUser = trailer.getLong();
+            long entriesPosition = trailer.getLong();
+            int filterWords = trailer.getInt();
+            long filterPosition = entriesPosition + (long) users * ENTRY_BYTES;
+            if (users <= 0 || filterWords <= 0 || filterPosition + (long) filterWords * Long.BYTES + TRAILER_BYTES != size) {
+                throw new IOException("Corrupt history segment: " + path);
+            }
+            ByteBuffer filterBytes = ByteBuffer.allocate(filterWords * Long.BYTES);
+            readFully(channel, filterBytes, filterPosition);
+            PointHistoryUserFilter filter = PointHistoryUserFilter.read(filterBytes, filterWords);
+            return new PointHistorySegmentFile(path, users, rows, minId, maxId, minMillis, maxMillis,
+                    minUser, maxUser, filter, entriesPosition, size);
+        }
+    }
+
+    /**
+     * filter 가 없는 V1 파일은 userId 범위만 목차의 첫 줄과 끝 줄에서 읽습니다.
+     */
+    private static PointHistorySegmentFile openV1(FileChannel channel, Path path, long size) throws IOException {
+        ByteBuffer trailer = ByteBuffer.allocate(TRAILER_V1_BYTES);
+        readFully(channel, trailer, size - TRAILER_V1_BYTES);
+        int users = trailer.getInt();
+        long rows = trailer.getLong();
+        long minId = trailer.getLong();
+        long maxId = trailer.getLong();
+        long minMillis = trailer.getLong();
+        long maxMillis = trailer.getLong();
+        long entriesPosition = trailer.getLong();
+        if (users <= 0 || entriesPosition + (long) users * ENTRY_BYTES + TRAILER_V1_BYTES != size) {
+            throw new IOException("Corrupt history segment: " + path);
+        }
+        ByteBuffer userId = ByteBuffer.allocate(Long.BYTES);
+        readFully(channel, userId, entriesPosition);
+        long minUser = userId.getLong();
+        readFully(channel, userId.clear(), entriesPosition + (long) (users - 1) * ENTRY_BYTES);
+        long maxUser = userId.getLong();
+        return new PointHistorySegmentFile(path, users, rows, minId, maxId, minMillis, maxMillis,
+                minUser, maxUser, null, entriesPosition, size);
+    }
+
+    boolean overlaps(PointHistoryQuery query) {
+        return maxId > query.afterId()
+                && (query.from() == null || maxMillis >= query.from())
+                && (query.to() == null || minMillis < query.to());
+    }
+
+    /**
+     * false 면 이 세그먼트에는 유저의 내역이 없습니다. true 여도 없을 수 있습니다.
+     */
+    boolean mayContain(long userId) {
+        return userId >= minUser && userId <= maxUser && (filter == null || filter.mightContain(userId));
+    }
+
+    /**
+     * 목차를 이진 탐색해 유저의 블록만 읽어 풉니다.
+     */
+    List<PointHistory> read(long userId) {
+        if (!mayContain(userId)) {
+            return List.of();
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer entry = ByteBuffer.allocate(ENTRY_BYTES);
+            int low = 0;
+            int high = users - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                entry.clear();
+                readFully(channel, entry, entriesPosition + (long) mid * ENTRY_BYTES);
+                long found = entry.getLong();
+                if (found < userId) {
+                    low = mid + 1;
+                } else if (found > userId) {
+                    high = mid - 1;
+                } else {
+                    return decompress(channel, userId, entry.getLong(), entry.getInt(), entry.getInt());
+                }
+            }
+            return List.of();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read history segment of user " + userId, e);
+        }
+    }
+
+    /**
+     * 목차를 순서대로 훑어 모든 유저의 내역을 넘깁니다. 유저 안에서는 id 순입니다.
+     */
+    void forEach(Consumer<PointHistory> action) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer entries = ByteBuffer.allocate(users * ENTRY_BYTES);
+            readFully(channel, entries, entriesPosition);
+            for (int i = 0; i < users; i++) {
+                long userId = entries.getLong();
+                decompress(channel, userId, entries.getLong(), entries.getInt(), entries.getInt()).forEach(action);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read history segment " + path, e);
+        }
+    }
+
+    private static byte[] compress(List<PointHistory> rows) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(rows.size() * ROW_BYTES / 2 + 16);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes, deflater))) {
+            for (PointHistory row : rows) {
+                out.writeLong(row.id());
+                out.writeLong(row.amount());
+                out.writeLong(row.updateMillis());
+                out.writeByte(row.type().ordinal());
+            }
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<PointHistory> decompress(FileChannel channel, long userId, long position, int length, int count)
+            throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(length);
+        readFully(channel, block, position);
+        Inflater inflater = new Inflater();
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(
+                new ByteArrayInputStream(block.array()), inflater))) {
+            PointHistory[] result = new PointHistory[count];
+            for (int i = 0; i < count; i++) {
+                long id = in.readLong();
+                long amount = in.readLong();
+                long updateMillis = in.readLong();
+                result[i] = new PointHistory(id, userId, amount, TYPES[in.readByte()], updateMillis);
+            }
+            return List.of(result);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static int writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        int written = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        return written;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of history segment");
+            }
+        }
+        buffer.flip();
+    }
+}
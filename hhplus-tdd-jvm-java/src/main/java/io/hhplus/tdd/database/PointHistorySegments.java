@@ -0,0 +1,203 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 내역을 PointHistory 객체 대신 힙 밖의 고정 길이 컬럼에 저장합니다.
+ * <p>
+ * 내역은 segmentRows 개씩 세그먼트에 담기고, 세그먼트 하나는 [userId][amount][updateMillis][이전 행][type]
+ * 컬럼을 차례로 붙인 버퍼 하나입니다. id 는 행 번호 + 1 이라 따로 저장하지 않습니다.
+ * directory 가 있으면 세그먼트를 파일에 memory-map 하고, 없으면 direct ByteBuffer 를 씁니다.
+ * 세그먼트 파일은 힙 밖에 두기 위한 공간일 뿐이라 시작할 때 새로 만들고 close 할 때 지웁니다.
+ * <p>
+ * 같은 유저의 행은 "이전 행" 컬럼으로 이어져 있어 selectAllByUserId 는 그 유저의 행만 거꾸로 따라가며 읽고,
+ * 그때 처음 PointHistory 를 만듭니다. 힙에는 유저별 마지막 행과 행 수만 남습니다.
+ */
+public class PointHistorySegments implements Closeable {
+    // 한 행이 차지하는 크기: long 컬럼 4개 + type 1byte
+    static final int ROW_BYTES = 4 * Long.BYTES + 1;
+    private static final long NONE = -1L;
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private final Path directory;
+    private final int segmentRows;
+    private final List<Segment> segments = new ArrayList<>();
+    private final Map<Long, UserRows> users = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private long rows;
+
+    /**
+     * @param directory 세그먼트 파일을 둘 디렉터리. null 이면 direct ByteBuffer 를 씁니다.
+     */
+    public PointHistorySegments(Path directory, int segmentRows) throws IOException {
+        if (segmentRows <= 0 || (long) segmentRows * ROW_BYTES > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment rows must be between 1 and " + Integer.MAX_VALUE / ROW_BYTES);
+        }
+        this.directory = directory;
+        this.segmentRows = segmentRows;
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+    }
+
+    /**
+     * 반환하는 PointHistory 는 호출한 쪽에 돌려주기 위해 만든 것이고, 저장소는 들고 있지 않습니다.
+     */
+    public PointHistory append(long userId, long amount, TransactionType type, long updateMillis) {
+        lock.writeLock().lock();
+        try {
+            long row = rows;
+            int slot = (int) (row % segmentRows);
+            if (slot == 0) {
+                segments.add(allocate(segments.size()));
+            }
+            UserRows user = users.computeIfAbsent(userId, key -> new UserRows());
+            segments.get(segments.size() - 1).put(slot, userId, amount, type, updateMillis, user.last);
+            user.last = row;
+            user.count++;
+            rows++;
+            return new PointHistory(row + 1, userId, amount, type, updateMillis);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<PointHistory> historyOf(long userId) {
+        lock.readLock().lock();
+        try {
+            UserRows user = users.get(userId);
+            if (user == null) {
+                return List.of();
+            }
+            PointHistory[] result = new PointHistory[user.count];
+            long row = user.last;
+            for (int i = result.length - 1; i >= 0; i--) {
+                Segment segment = segments.get((int) (row / segmentRows));
+                int slot = (int) (row % segmentRows);
+                result[i] = segment.get(slot, row + 1);
+                row = segment.previous(slot);
+            }
+            return List.of(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public StoreStats stats() {
+        lock.readLock().lock();
+        try {
+            return new StoreStats(rows, users.size(), segments.size(), (long) segments.size() * segmentRows * ROW_BYTES);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 세그먼트를 놓고 세그먼트 파일을 지웁니다. 매핑은 버퍼가 GC 될 때 풀립니다.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            int count = segments.size();
+            segments.clear();
+            users.clear();
+            rows = 0L;
+            if (directory != null) {
+                for (int i = 0; i < count; i++) {
+                    Files.deleteIfExists(segmentPath(i));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Segment allocate(int index) {
+        int bytes = segmentRows * ROW_BYTES;
+        if (directory == null) {
+            return new Segment(ByteBuffer.allocateDirect(bytes), segmentRows);
+        }
+        try (FileChannel channel = FileChannel.open(segmentPath(index), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new Segment(channel.map(FileChannel.MapMode.READ_WRITE, 0L, bytes), segmentRows);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map history segment " + index, e);
+        }
+    }
+
+    private Path segmentPath(int index) {
+        return directory.resolve("history-%05d.seg".formatted(index));
+    }
+
+    /**
+     * 한 세그먼트의 컬럼들. 컬럼마다 시작 위치를 두고 절대 위치로만 읽고 씁니다.
+     */
+    private static final class Segment {
+        private final ByteBuffer buffer;
+        private final int userIds;
+        private final int amounts;
+        private final int updateMillis;
+        private final int previousRows;
+        private final int types;
+
+        Segment(ByteBuffer buffer, int rows) {
+            this.buffer = buffer;
+            this.userIds = 0;
+            this.amounts = rows * Long.BYTES;
+            this.updateMillis = amounts + rows * Long.BYTES;
+            this.previousRows = updateMillis + rows * Long.BYTES;
+            this.types = previousRows + rows * Long.BYTES;
+        }
+
+        void put(int slot, long userId, long amount, TransactionType type, long millis, long previousRow) {
+            int offset = slot * Long.BYTES;
+            buffer.putLong(userIds + offset, userId);
+            buffer.putLong(amounts + offset, amount);
+            buffer.putLong(updateMillis + offset, millis);
+            buffer.putLong(previousRows + offset, previousRow);
+            buffer.put(types + slot, (byte) type.ordinal());
+        }
+
+        PointHistory get(int slot, long id) {
+            int offset = slot * Long.BYTES;
+            return new PointHistory(id, buffer.getLong(userIds + offset), buffer.getLong(amounts + offset),
+                    TYPES[buffer.get(types + slot)], buffer.getLong(updateMillis + offset));
+        }
+
+        long previous(int slot) {
+            return buffer.getLong(previousRows + slot * Long.BYTES);
+        }
+    }
+
+    /**
+     * 유저의 마지막 행 번호와 행 수
+     */
+    private static final class UserRows {
+        private long last = NONE;
+        private int count;
+    }
+
+    public record StoreStats(
+            long rows,
+            long users,
+            long segments,
+            long offHeapBytes
+    ) {
+    }
+}
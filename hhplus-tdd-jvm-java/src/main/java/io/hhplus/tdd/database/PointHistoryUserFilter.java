@@ -0,0 +1,77 @@
+package io.hhplus.tdd.database;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 세그먼트에 든 userId 의 bloom filter 입니다. 유저 한 명당 8비트, 해시 5개로 없는 유저를 약 98% 걸러냅니다.
+ * <p>
+ * 없다고 답하면 그 유저의 내역은 세그먼트에 없으므로, 목차를 이진 탐색하려고 파일을 열지 않아도 됩니다.
+ */
+final class PointHistoryUserFilter {
+    private static final int BITS_PER_USER = 8;
+    private static final int HASHES = 5;
+
+    private final long[] words;
+
+    private PointHistoryUserFilter(long[] words) {
+        this.words = words;
+    }
+
+    static PointHistoryUserFilter forUsers(int users) {
+        return new PointHistoryUserFilter(new long[(int) Math.max(1L, ((long) users * BITS_PER_USER + 63) / 64)]);
+    }
+
+    static PointHistoryUserFilter read(ByteBuffer buffer, int words) {
+        long[] read = new long[words];
+        buffer.asLongBuffer().get(read);
+        buffer.position(buffer.position() + words * Long.BYTES);
+        return new PointHistoryUserFilter(read);
+    }
+
+    void add(long userId) {
+        long hash = mix(userId);
+        for (int i = 0; i < HASHES; i++) {
+            long bit = bit(hash, i);
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(long userId) {
+        long hash = mix(userId);
+        for (int i = 0; i < HASHES; i++) {
+            long bit = bit(hash, i);
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int words() {
+        return words.length;
+    }
+
+    ByteBuffer toBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocate(words.length * Long.BYTES);
+        buffer.asLongBuffer().put(words);
+        return buffer;
+    }
+
+    /**
+     * 해시 하나의 위아래 32비트로 해시 여러 개를 만듭니다 (Kirsch-Mitzenmacher).
+     */
+    private long bit(long hash, int i) {
+        long combined = (int) hash + (long) i * (int) (hash >>> 32);
+        return Math.floorMod(combined, (long) words.length * 64);
+    }
+
+    // MurmurHash3 fmix64
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
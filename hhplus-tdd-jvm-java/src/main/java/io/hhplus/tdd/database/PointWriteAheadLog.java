@@ -0,0 +1,227 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.config.PointProperties.FsyncPolicy;
+import io.hhplus.tdd.point.TransactionType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * 충전/사용 한 건을 고정 길이 트랜잭션 레코드 하나로 덧붙이는 write-ahead log 입니다.
+ * <p>
+ * 레코드는 [충전/사용 1byte][내역 id][userId][변화량][결과 잔액][updateMillis][CRC32C 4byte] 로 이루어지고,
+ * 잔액과 내역이 한 레코드에 함께 있으므로 어느 한쪽만 남는 일이 없습니다. 파일을 열 때 처음부터 읽어 되살립니다.
+ * 끝에서 잘렸거나 CRC 가 맞지 않는 레코드를 만나면 그 앞까지만 유효한 것으로 보고 나머지를 잘라냅니다.
+ * <p>
+ * fsync 는 정책에 따라 GROUP 이면 sync 를 부른 쓰기마다 디스크에 반영될 때까지 기다리되 동시에 기다리는 쓰기들이
+ * force 한 번을 나눠 쓰고, INTERVAL 이면 백그라운드에서 주기적으로, NONE 이면 close 할 때만 반영합니다.
+ */
+public class PointWriteAheadLog implements Closeable {
+    static final int RECORD_SIZE = 1 + 5 * Long.BYTES + Integer.BYTES;
+    private static final int PAYLOAD_SIZE = RECORD_SIZE - Integer.BYTES;
+    private static final int REPLAY_BUFFER_RECORDS = 8_192;
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private final FileChannel channel;
+    private final FsyncPolicy fsync;
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_SIZE);
+    private final CRC32C crc = new CRC32C();
+    private final ScheduledExecutorService flusher;
+    private volatile long written;
+    private volatile long synced;
+
+    private PointWriteAheadLog(FileChannel channel, long end, FsyncPolicy fsync, long intervalMillis) {
+        this.channel = channel;
+        this.fsync = fsync;
+        this.written = end;
+        this.synced = end;
+        if (fsync == FsyncPolicy.INTERVAL) {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("point-wal-fsync").daemon().factory());
+            flusher.scheduleWithFixedDelay(this::forceQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.flusher = null;
+        }
+    }
+
+    /**
+     * 로그 파일을 열고 유효한 레코드를 모두 replayer 로 넘긴 뒤, 이어서 쓸 수 있는 상태로 반환합니다.
+     */
+    public static PointWriteAheadLog open(Path path, FsyncPolicy fsync, long intervalMillis, Replayer replayer) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long end = replay(channel, replayer);
+            if (end < channel.size()) {
+                channel.truncate(end);
+                channel.force(true);
+            }
+            return new PointWriteAheadLog(channel, end, fsync, intervalMillis);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 이미 다 쓴 로그 파일의 유효한 레코드를 replayer 로 넘기기만 하고 파일은 고치지 않습니다. 유효한 끝 위치를 반환합니다.
+     */
+    public static long replay(Path path, Replayer replayer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return replay(channel, replayer);
+        }
+    }
+
+    /**
+     * 트랜잭션 레코드를 덧붙이고 레코드가 끝나는 위치를 반환합니다. 디스크 반영은 sync 로 기다립니다.
+     */
+    public long append(long id, long userId, long amount, TransactionType type, long balance, long updateMillis) {
+        return appendRecord((byte) type.ordinal(), id, userId, amount, balance, updateMillis);
+    }
+
+    /**
+     * GROUP 정책이면 position 까지 디스크에 반영될 때까지 기다립니다.
+     * 먼저 락을 잡은 쓰기가 그때까지 쓰인 레코드를 한꺼번에 force 하므로 나머지는 락을 얻은 뒤 바로 돌아갑니다.
+     */
+    public void sync(long position) {
+        if (fsync != FsyncPolicy.GROUP || synced >= position) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if (synced < position) {
+                force();
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * 정책과 상관없이 지금까지 쓴 레코드를 모두 디스크에 반영합니다.
+     */
+    public void forceAll() {
+        syncLock.lock();
+        try {
+            force();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    public long position() {
+        return written;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        forceAll();
+        channel.close();
+    }
+
+    private long appendRecord(byte kind, long a, long b, long c, long d, long e) {
+        appendLock.lock();
+        try {
+            buffer.clear();
+            buffer.put(kind).putLong(a).putLong(b).putLong(c).putLong(d).putLong(e);
+            buffer.flip();
+            crc.reset();
+            crc.update(buffer);
+            buffer.limit(RECORD_SIZE);
+            buffer.putInt(PAYLOAD_SIZE, (int) crc.getValue());
+            buffer.position(0);
+            long position = written;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            written = position;
+            return position;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to append to write-ahead log", ex);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void force() {
+        long target = written;
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to fsync write-ahead log", e);
+        }
+        synced = target;
+    }
+
+    private void forceQuietly() {
+        if (synced < written) {
+            try {
+                forceAll();
+            } catch (UncheckedIOException ignored) {
+                // 다음 주기나 close 에서 다시 시도한다.
+            }
+        }
+    }
+
+    private static long replay(FileChannel channel, Replayer replayer) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocateDirect(RECORD_SIZE * REPLAY_BUFFER_RECORDS);
+        CRC32C check = new CRC32C();
+        long position = 0L;
+        while (true) {
+            chunk.clear();
+            int read = 0;
+            while (chunk.hasRemaining()) {
+                int n = channel.read(chunk, position + read);
+                if (n < 0) {
+                    break;
+                }
+                read += n;
+            }
+            chunk.flip();
+            while (chunk.remaining() >= RECORD_SIZE) {
+                int start = chunk.position();
+                check.reset();
+                check.update(chunk.slice(start, PAYLOAD_SIZE));
+                if ((int) check.getValue() != chunk.getInt(start + PAYLOAD_SIZE)) {
+                    return position;
+                }
+                int kind = chunk.get();
+                long a = chunk.getLong();
+                long b = chunk.getLong();
+                long c = chunk.getLong();
+                long d = chunk.getLong();
+                long e = chunk.getLong();
+                chunk.getInt();
+                position += RECORD_SIZE;
+                if (kind < 0 || kind >= TYPES.length) {
+                    return position - RECORD_SIZE;
+                }
+                replayer.transaction(a, b, c, TYPES[kind], d, e);
+            }
+            if (read < chunk.capacity()) {
+                return position;
+            }
+        }
+    }
+
+    /**
+     * 파일을 열 때 되살린 레코드를 쓴 순서대로 받습니다.
+     */
+    @FunctionalInterface
+    public interface Replayer {
+        void transaction(long id, long userId, long amount, TransactionType type, long balance, long updateMillis);
+    }
+}
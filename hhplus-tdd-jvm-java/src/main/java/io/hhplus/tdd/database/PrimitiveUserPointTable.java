@@ -0,0 +1,28 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.UserPoint;
+
+/**
+ * UserPointTable 대신 PointBalanceMap 에 잔액을 읽고 씁니다.
+ * 원래 테이블을 고치지 않으려고 상속만 하고, 상위 클래스의 저장소는 쓰지 않습니다.
+ */
+public class PrimitiveUserPointTable extends UserPointTable {
+    private final PointBalanceMap balances;
+
+    public PrimitiveUserPointTable(PointBalanceMap balances) {
+        this.balances = balances;
+    }
+
+    @Override
+    public UserPoint selectById(Long id) {
+        UserPoint userPoint = balances.get(id);
+        return userPoint == null ? UserPoint.empty(id) : userPoint;
+    }
+
+    @Override
+    public UserPoint insertOrUpdate(long id, long amount) {
+        UserPoint userPoint = new UserPoint(id, amount, System.currentTimeMillis());
+        balances.put(id, amount, userPoint.updateMillis());
+        return userPoint;
+    }
+}
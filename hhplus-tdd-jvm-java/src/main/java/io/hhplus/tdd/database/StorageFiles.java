@@ -0,0 +1,39 @@
+package io.hhplus.tdd.database;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 저장소 파일을 바꿔 끼우거나 지운 결과가 전원이 꺼져도 남도록 디렉터리까지 fsync 합니다.
+ */
+final class StorageFiles {
+    private StorageFiles() {
+    }
+
+    /**
+     * 다 쓰고 fsync 한 임시 파일의 이름을 target 으로 바꾸고, 바뀐 이름이 남도록 디렉터리를 fsync 합니다.
+     */
+    static void replace(Path temporary, Path target) throws IOException {
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory(target.toAbsolutePath().getParent());
+    }
+
+    /**
+     * 디렉터리를 열어 fsync 할 수 없는 플랫폼(Windows 등)에서는 건너뜁니다.
+     */
+    static void syncDirectory(Path directory) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException | UnsupportedOperationException e) {
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.UserPoint;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * UserPointTable 을 BalanceStore 로 씁니다.
+ * <p>
+ * 테이블에는 compare-and-set 이 없으므로 userId 로 고른 stripe 의 락 안에서 다시 읽고 비교한 뒤 씁니다.
+ * 같은 stripe 의 save 도 같은 락을 잡으므로 비교와 쓰기 사이에 다른 쓰기가 끼어들지 않습니다.
+ * 테이블 I/O 동안 락을 잡고 있으므로 가상 스레드가 carrier 에 고정되지 않도록 ReentrantLock 을 씁니다.
+ * 테이블에 없는 유저(null)는 잔액 0 으로 비교합니다. 여러 스레드에서 쓸 수 있는지는 감싼 테이블에 따릅니다.
+ * 비교하려고 테이블을 한 번 더 읽으므로, PointService 처럼 유저 락 안에서 쓰는 쪽은 save 를 씁니다.
+ */
+public class TableBalanceStore implements BalanceStore {
+    private static final int STRIPES = 1024;
+
+    private final UserPointTable userPointTable;
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    public TableBalanceStore(UserPointTable userPointTable) {
+        this.userPointTable = userPointTable;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public UserPoint find(long userId) {
+        return userPointTable.selectById(userId);
+    }
+
+    @Override
+    public UserPoint save(long userId, long point) {
+        ReentrantLock lock = stripeOf(userId);
+        lock.lock();
+        try {
+            return userPointTable.insertOrUpdate(userId, point);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public UserPoint compareAndSet(long userId, long expectedPoint, long point) {
+        ReentrantLock lock = stripeOf(userId);
+        lock.lock();
+        try {
+            UserPoint current = userPointTable.selectById(userId);
+            if ((current == null ? 0L : current.point()) != expectedPoint) {
+                return null;
+            }
+            UserPoint saved = userPointTable.insertOrUpdate(userId, point);
+            // null 은 비교 실패를 뜻하므로, 저장 결과를 돌려주지 않는 테이블이면 저장한 값으로 대신한다.
+            return saved != null ? saved : new UserPoint(userId, point, System.currentTimeMillis());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock stripeOf(long userId) {
+        long h = userId * 0x9E3779B97F4A7C15L;
+        return stripes[(int) (h ^ (h >>> 32)) & (STRIPES - 1)];
+    }
+}
@@ -0,0 +1,27 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+
+import java.util.List;
+
+/**
+ * PointHistoryTable 을 HistoryStore 로 씁니다. 여러 스레드에서 쓸 수 있는지는 감싼 테이블에 따릅니다.
+ */
+public class TableHistoryStore implements HistoryStore {
+    private final PointHistoryTable pointHistoryTable;
+
+    public TableHistoryStore(PointHistoryTable pointHistoryTable) {
+        this.pointHistoryTable = pointHistoryTable;
+    }
+
+    @Override
+    public PointHistory append(long userId, long amount, TransactionType type, long updateMillis) {
+        return pointHistoryTable.insert(userId, amount, type, updateMillis);
+    }
+
+    @Override
+    public List<PointHistory> findAllByUserId(long userId) {
+        return pointHistoryTable.selectAllByUserId(userId);
+    }
+}
@@ -0,0 +1,16 @@
+package io.hhplus.tdd.database;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+final class TableTimers {
+    private TableTimers() {
+    }
+
+    static Timer of(MeterRegistry registry, String table, String method) {
+        return Timer.builder("point.table.calls")
+                .description("Latency of calls into the in-memory tables, including their simulated I/O delay")
+                .tags("table", table, "method", method)
+                .register(registry);
+    }
+}
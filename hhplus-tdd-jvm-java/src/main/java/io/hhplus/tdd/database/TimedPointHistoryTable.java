@@ -0,0 +1,34 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.List;
+
+/**
+ * PointHistoryTable 호출을 그대로 위임하면서 메서드별 호출 시간을 point.table.calls 로 기록합니다.
+ * 원래 테이블을 고치지 않으려고 상속만 하고, 상위 클래스의 저장소는 쓰지 않습니다.
+ */
+public class TimedPointHistoryTable extends PointHistoryTable {
+    private final PointHistoryTable delegate;
+    private final Timer insert;
+    private final Timer selectAllByUserId;
+
+    public TimedPointHistoryTable(PointHistoryTable delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.insert = TableTimers.of(registry, "point_history", "insert");
+        this.selectAllByUserId = TableTimers.of(registry, "point_history", "selectAllByUserId");
+    }
+
+    @Override
+    public PointHistory insert(long userId, long amount, TransactionType type, long updateMillis) {
+        return insert.record(() -> delegate.insert(userId, amount, type, updateMillis));
+    }
+
+    @Override
+    public List<PointHistory> selectAllByUserId(long userId) {
+        return selectAllByUserId.record(() -> delegate.selectAllByUserId(userId));
+    }
+}
@@ -0,0 +1,31 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.UserPoint;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * UserPointTable 호출을 그대로 위임하면서 메서드별 호출 시간을 point.table.calls 로 기록합니다.
+ * 원래 테이블을 고치지 않으려고 상속만 하고, 상위 클래스의 저장소는 쓰지 않습니다.
+ */
+public class TimedUserPointTable extends UserPointTable {
+    private final UserPointTable delegate;
+    private final Timer selectById;
+    private final Timer insertOrUpdate;
+
+    public TimedUserPointTable(UserPointTable delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.selectById = TableTimers.of(registry, "user_point", "selectById");
+        this.insertOrUpdate = TableTimers.of(registry, "user_point", "insertOrUpdate");
+    }
+
+    @Override
+    public UserPoint selectById(Long id) {
+        return selectById.record(() -> delegate.selectById(id));
+    }
+
+    @Override
+    public UserPoint insertOrUpdate(long id, long amount) {
+        return insertOrUpdate.record(() -> delegate.insertOrUpdate(id, amount));
+    }
+}
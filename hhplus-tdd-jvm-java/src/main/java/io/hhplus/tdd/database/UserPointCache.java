@@ -0,0 +1,194 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.UserPoint;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
+
+/**
+ * BalanceStore 앞단의 write-through 잔액 캐시입니다.
+ * <p>
+ * 잔액은 PointService 를 통해서만 변경되므로 insertOrUpdate 결과를 그대로 캐시에 반영하고,
+ * 용량을 넘으면 가장 오래 사용되지 않은 유저부터 제거합니다. capacity 가 0 이면 캐시 없이 저장소를 그대로 호출합니다.
+ * UserPointTable 을 넘기면 TableBalanceStore 로 감쌉니다.
+ * <p>
+ * 이 캐시를 거친 쓰기와 무효화는 capacity 와 상관없이 write listener 에 userId 로 알립니다.
+ * PointShardEngine 처럼 잔액을 따로 들고 있는 쪽이 다른 경로의 쓰기로 오래된 값을 버리는 데 씁니다.
+ */
+public class UserPointCache {
+    private final BalanceStore balanceStore;
+    private final int capacity;
+    private final LinkedHashMap<Long, UserPoint> cache;
+    // 유저를 나눠 담은 stripe 마다의 쓰기 횟수. 다른 유저의 쓰기가 조회 결과를 버리게 하지 않도록 stripe 별로 센다.
+    private static final int SEQUENCE_STRIPES = 1024;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLongArray writeSequences = new AtomicLongArray(SEQUENCE_STRIPES);
+    private final List<LongConsumer> writeListeners = new CopyOnWriteArrayList<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public UserPointCache(UserPointTable userPointTable, int capacity) {
+        this(new TableBalanceStore(userPointTable), capacity);
+    }
+
+    public UserPointCache(BalanceStore balanceStore, int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative");
+        }
+        this.balanceStore = balanceStore;
+        this.capacity = capacity;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, UserPoint> eldest) {
+                if (size() > UserPointCache.this.capacity) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public UserPoint selectById(long id) {
+        if (capacity == 0) {
+            return balanceStore.find(id);
+        }
+        UserPoint cached = get(id);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        // 조회하는 동안 같은 stripe 에 쓰기가 있었다면 읽어온 값이 이미 오래된 값일 수 있으므로 캐시에 넣지 않는다.
+        int stripe = stripeOf(id);
+        long sequence = writeSequences.get(stripe);
+        UserPoint loaded = balanceStore.find(id);
+        if (loaded != null) {
+            lock.lock();
+            try {
+                if (writeSequences.get(stripe) == sequence) {
+                    cache.putIfAbsent(id, loaded);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * 캐시에 있는 값만 반환하고, 없으면 테이블을 조회하지 않고 null 을 반환합니다.
+     */
+    public UserPoint peek(long id) {
+        if (capacity == 0) {
+            return null;
+        }
+        UserPoint cached = get(id);
+        if (cached != null) {
+            hits.increment();
+        }
+        return cached;
+    }
+
+    /**
+     * 쓰기가 끝난 뒤(실패한 쓰기 포함) 쓴 스레드에서 listener 를 부릅니다. listener 는 오래 걸리지 않아야 합니다.
+     */
+    public UserPoint insertOrUpdate(long id, long amount) {
+        if (capacity == 0) {
+            try {
+                return balanceStore.save(id, amount);
+            } finally {
+                notifyWrite(id);
+            }
+        }
+        int stripe = stripeOf(id);
+        writeSequences.incrementAndGet(stripe);
+        UserPoint saved;
+        try {
+            saved = balanceStore.save(id, amount);
+        } catch (RuntimeException e) {
+            invalidate(id);
+            throw e;
+        } finally {
+            writeSequences.incrementAndGet(stripe);
+        }
+        lock.lock();
+        try {
+            if (saved != null) {
+                cache.put(id, saved);
+            } else {
+                cache.remove(id);
+            }
+        } finally {
+            lock.unlock();
+        }
+        notifyWrite(id);
+        return saved;
+    }
+
+    public void invalidate(long id) {
+        lock.lock();
+        try {
+            cache.remove(id);
+        } finally {
+            lock.unlock();
+        }
+        notifyWrite(id);
+    }
+
+    public void addWriteListener(LongConsumer listener) {
+        writeListeners.add(listener);
+    }
+
+    public void removeWriteListener(LongConsumer listener) {
+        writeListeners.remove(listener);
+    }
+
+    public CacheStats stats() {
+        lock.lock();
+        try {
+            return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), cache.size(), capacity);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void notifyWrite(long id) {
+        for (LongConsumer listener : writeListeners) {
+            listener.accept(id);
+        }
+    }
+
+    private UserPoint get(long id) {
+        lock.lock();
+        try {
+            return cache.get(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static int stripeOf(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & (SEQUENCE_STRIPES - 1);
+    }
+
+    public record CacheStats(
+            long hits,
+            long misses,
+            long evictions,
+            int size,
+            int capacity
+    ) {
+    }
+}
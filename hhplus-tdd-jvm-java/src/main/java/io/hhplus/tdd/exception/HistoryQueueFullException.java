@@ -0,0 +1,7 @@
+package io.hhplus.tdd.exception;
+
+public class HistoryQueueFullException extends RuntimeException {
+    public HistoryQueueFullException(int capacity) {
+        super("History queue is full. capacity: " + capacity);
+    }
+}
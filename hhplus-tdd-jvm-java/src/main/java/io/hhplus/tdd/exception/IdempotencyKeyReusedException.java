@@ -0,0 +1,7 @@
+package io.hhplus.tdd.exception;
+
+public class IdempotencyKeyReusedException extends RuntimeException {
+    public IdempotencyKeyReusedException(String key) {
+        super("Idempotency key was already used for a different request: " + key);
+    }
+}
@@ -0,0 +1,7 @@
+package io.hhplus.tdd.exception;
+
+public class LockTimeoutException extends RuntimeException {
+    public LockTimeoutException(long userId) {
+        super("TimeOut! Failed to acquire lock for user: " + userId);
+    }
+}
@@ -0,0 +1,7 @@
+package io.hhplus.tdd.exception;
+
+public class PointWriteIncompleteException extends RuntimeException {
+    public PointWriteIncompleteException(long userId, Throwable cause) {
+        super("Balance was saved but its history could not be recorded for user: " + userId, cause);
+    }
+}
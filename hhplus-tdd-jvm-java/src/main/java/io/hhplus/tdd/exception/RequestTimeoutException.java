@@ -0,0 +1,7 @@
+package io.hhplus.tdd.exception;
+
+public class RequestTimeoutException extends RuntimeException {
+    public RequestTimeoutException(String message) {
+        super(message);
+    }
+}
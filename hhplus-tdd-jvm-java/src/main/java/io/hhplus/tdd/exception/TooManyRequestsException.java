@@ -0,0 +1,7 @@
+package io.hhplus.tdd.exception;
+
+public class TooManyRequestsException extends RuntimeException {
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package io.hhplus.tdd.point;
+
+import java.time.LocalDate;
+
+public record DailyPointSummary(
+        LocalDate date,
+        long charged,
+        long used,
+        long count
+) {
+}
@@ -0,0 +1,31 @@
+package io.hhplus.tdd.point;
+
+/**
+ * 대량 충전/사용 요청 한 줄의 처리 결과입니다.
+ *
+ * @param line    요청 본문에서의 줄 번호 (1부터)
+ * @param userId  유저 id. 줄을 해석하지 못했으면 null
+ * @param status  OK 또는 ERROR
+ * @param point   반영 후 잔액. 실패했으면 null
+ * @param message 실패 사유
+ */
+public record PointBulkResult(
+        long line,
+        Long userId,
+        Status status,
+        Long point,
+        String message
+) {
+    public enum Status {
+        OK,
+        ERROR,
+    }
+
+    public static PointBulkResult ok(long line, UserPoint userPoint) {
+        return new PointBulkResult(line, userPoint.id(), Status.OK, userPoint.point(), null);
+    }
+
+    public static PointBulkResult error(long line, Long userId, String message) {
+        return new PointBulkResult(line, userId, Status.ERROR, null, message);
+    }
+}
@@ -0,0 +1,11 @@
+package io.hhplus.tdd.point;
+
+/**
+ * 대량 충전/사용 요청의 한 줄입니다. amount 부호 규칙은 patchCharge/patchUse 와 같습니다.
+ */
+public record PointBulkRow(
+        Long userId,
+        Long amount,
+        TransactionType type
+) {
+}
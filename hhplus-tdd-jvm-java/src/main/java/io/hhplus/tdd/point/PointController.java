@@ -1,26 +1,51 @@
 package io.hhplus.tdd.point;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.hhplus.tdd.config.PointProperties;
 import io.hhplus.tdd.database.PointHistoryTable;
 import io.hhplus.tdd.database.UserPointTable;
 import io.hhplus.tdd.exception.UserNotFoundException;
+import io.hhplus.tdd.service.PointBulkIngester;
+import io.hhplus.tdd.service.PointChangeFeed;
 import io.hhplus.tdd.service.PointService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 @Slf4j
 @RequestMapping("/point")
 @AllArgsConstructor
 @RestController
 public class PointController {
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+
     private final UserPointTable userPointTable;
     private final PointHistoryTable pointHistoryTable;
     private final PointService pointService;
+    private final PointBulkIngester pointBulkIngester;
+    private final PointChangeFeed pointChangeFeed;
+    private final ObjectMapper objectMapper;
+    private final PointProperties pointProperties;
 
 //    @Autowired
 //    public PointController(
@@ -39,27 +64,208 @@ public class PointController {
         return pointService.getPoint(id);
     }
 
+    /**
+     * 여러 유저의 포인트를 한 번에 조회합니다. 요청 본문은 유저 id 배열이고 응답은 id 별 포인트입니다.
+     */
+    @PostMapping("batch")
+    public Map<Long, UserPoint> points(@RequestBody List<Long> ids) throws InterruptedException {
+        return pointService.getPoints(ids);
+    }
+
     /**
      * TODO - 특정 유저의 포인트 충전/이용 내역을 조회하는 기능을 작성해주세요.
+     * cursor(이전 페이지의 마지막 id), from/to(updateMillis), type, size 로 범위를 좁힐 수 있고
+     * 응답은 JSON 배열을 한 건씩 써내려가므로 전체 내역을 메모리에 올리지 않습니다.
      */
     @GetMapping("{id}/histories")
-    public List<PointHistory> history(@PathVariable Long id) throws InterruptedException {
-        return pointService.getHistory(id);
+    public ResponseEntity<StreamingResponseBody> history(
+            @PathVariable Long id,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to,
+            @RequestParam(required = false) TransactionType type,
+            @RequestParam(required = false) Integer size
+    ) throws InterruptedException {
+        Stream<PointHistory> histories = pointService.getHistory(id, new PointHistoryQuery(cursor, from, to, type, size));
+        StreamingResponseBody body = outputStream -> {
+            // 아카이브 세그먼트 파일을 열고 있을 수 있으므로 다 쓰거나 실패하면 스트림을 닫는다.
+            try (Stream<PointHistory> rows = histories;
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                Iterator<PointHistory> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    generator.writeObject(iterator.next());
+                }
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * 유저의 충전/사용 합계, 건수, 마지막 활동 시각을 반환합니다.
+     * from/to(yyyy-MM-dd) 를 주면 그 기간의 일별 합계도 함께 반환합니다.
+     */
+    @GetMapping("{id}/summary")
+    public PointSummary summary(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) throws InterruptedException {
+        return pointService.getSummary(id, from, to);
     }
 
     /**
      * TODO - 특정 유저의 포인트를 충전하는 기능을 작성해주세요.
+     * Idempotency-Key 헤더를 보내면 같은 키로 다시 온 요청은 처음 결과를 그대로 반환합니다.
      */
     @PatchMapping("{id}/charge")
-    public UserPoint charge(@PathVariable Long id, @RequestBody Long amount) throws InterruptedException {
-        return pointService.patchCharge(id, amount);
+    public UserPoint charge(
+            @PathVariable Long id,
+            @RequestBody Long amount,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey
+    ) throws InterruptedException {
+        return pointService.patchCharge(id, amount, idempotencyKey);
     }
 
     /**
      * TODO - 특정 유저의 포인트를 사용하는 기능을 작성해주세요.
+     * Idempotency-Key 헤더를 보내면 같은 키로 다시 온 요청은 처음 결과를 그대로 반환합니다.
      */
     @PatchMapping("{id}/use")
-    public UserPoint use(@PathVariable Long id, @RequestBody Long amount) {
-        return pointService.patchUse(id, amount);
+    public UserPoint use(
+            @PathVariable Long id,
+            @RequestBody Long amount,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey
+    ) throws InterruptedException {
+        return pointService.patchUse(id, amount, idempotencyKey);
+    }
+
+    /**
+     * 아래 async/** 는 위 조회/충전/사용과 같은 동작을 비동기로 처리합니다.
+     * 서블릿 스레드는 요청을 넘기고 바로 돌아가고, 응답은 결과가 나오면 처리 스레드에서 씁니다.
+     */
+    @GetMapping("async/{id}")
+    public CompletableFuture<UserPoint> pointAsync(@PathVariable Long id) {
+        return pointService.getPointAsync(id);
+    }
+
+    @GetMapping("async/{id}/histories")
+    public CompletableFuture<List<PointHistory>> historyAsync(@PathVariable Long id) {
+        return pointService.getHistoryAsync(id);
+    }
+
+    @PatchMapping("async/{id}/charge")
+    public CompletableFuture<UserPoint> chargeAsync(
+            @PathVariable Long id,
+            @RequestBody Long amount,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey
+    ) {
+        return pointService.chargeAsync(id, amount, idempotencyKey);
+    }
+
+    @PatchMapping("async/{id}/use")
+    public CompletableFuture<UserPoint> useAsync(
+            @PathVariable Long id,
+            @RequestBody Long amount,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey
+    ) {
+        return pointService.useAsync(id, amount, idempotencyKey);
+    }
+
+    /**
+     * 여러 유저의 충전/사용을 한 번에 반영합니다.
+     * 본문은 {"userId":1,"amount":100,"type":"CHARGE"} 형태의 NDJSON 이나 userId,amount,type 형태의 CSV 이고,
+     * 응답은 줄마다의 처리 결과를 처리가 끝난 순서대로 NDJSON 으로 흘려보냅니다.
+     */
+    @PostMapping(value = "bulk", consumes = {"application/x-ndjson", "text/csv"}, produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> bulk(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            HttpServletRequest request
+    ) {
+        PointBulkIngester.Format format = MediaType.valueOf("text/csv").includes(contentType)
+                ? PointBulkIngester.Format.CSV
+                : PointBulkIngester.Format.NDJSON;
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+                PointBulkIngester.BulkSummary summary = pointBulkIngester.ingest(request.getInputStream(), format, result -> {
+                    generator.writeObject(result);
+                    generator.flush();
+                });
+                generator.writeRaw('\n');
+                log.info("bulk ingestion finished: {}", summary);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while ingesting bulk rows", e);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+    }
+
+    /**
+     * 모든 유저의 충전/사용 내역을 기록되는 대로 server-sent events 로 흘려보냅니다. 이벤트 id 는 내역 id 입니다.
+     * Last-Event-ID 헤더나 lastEventId 로 마지막으로 받은 id 를 주면 최근 내역 버퍼에 남아 있는 만큼 이어서 받습니다.
+     */
+    @GetMapping(value = "changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter changes(
+            @RequestHeader(value = LAST_EVENT_ID, required = false) Long lastEventIdHeader,
+            @RequestParam(required = false) Long lastEventId
+    ) {
+        return subscribe(null, lastEventIdHeader != null ? lastEventIdHeader : lastEventId, null);
+    }
+
+    /**
+     * 특정 유저의 충전/사용 내역을 기록되는 대로 server-sent events 로 흘려보냅니다.
+     * 마지막으로 받은 id 를 주면 그 사이의 내역은 저장된 내역에서 읽어와 빠짐없이 이어서 받습니다.
+     */
+    @GetMapping(value = "{id}/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter userChanges(
+            @PathVariable Long id,
+            @RequestHeader(value = LAST_EVENT_ID, required = false) Long lastEventIdHeader,
+            @RequestParam(required = false) Long lastEventId
+    ) throws InterruptedException {
+        pointService.getPoint(id);
+        return subscribe(id, lastEventIdHeader != null ? lastEventIdHeader : lastEventId,
+                afterId -> pointService.getHistory(id, new PointHistoryQuery(afterId, null, null, null, null)));
+    }
+
+    private SseEmitter subscribe(Long userId, Long lastEventId, PointChangeFeed.Backfill backfill) {
+        SseEmitter emitter = new SseEmitter(pointProperties.getChangeFeed().getTimeout().toMillis());
+        PointChangeFeed.Subscription subscription = pointChangeFeed.subscribe(userId, lastEventId, backfill, new PointChangeFeed.Sink() {
+            @Override
+            public void send(PointHistory pointHistory) throws IOException {
+                emitter.send(SseEmitter.event()
+                        .id(Long.toString(pointHistory.id()))
+                        .name("point")
+                        .data(pointHistory, MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void heartbeat() throws IOException {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            }
+
+            @Override
+            public void gap(long oldestId) throws IOException {
+                emitter.send(SseEmitter.event().name("gap").data(oldestId));
+            }
+
+            @Override
+            public void close(boolean overflowed) {
+                if (overflowed) {
+                    try {
+                        emitter.send(SseEmitter.event().name("overflow").data("Subscriber fell behind. Reconnect with Last-Event-ID."));
+                    } catch (IOException | IllegalStateException ignored) {
+                        // 이미 끊긴 연결이면 알릴 곳이 없다.
+                    }
+                }
+                emitter.complete();
+            }
+        });
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(e -> subscription.cancel());
+        return emitter;
     }
 }
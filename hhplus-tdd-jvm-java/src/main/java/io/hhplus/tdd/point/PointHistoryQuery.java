@@ -0,0 +1,46 @@
+package io.hhplus.tdd.point;
+
+/**
+ * 포인트 내역 조회 조건입니다. 모든 값은 생략할 수 있습니다.
+ *
+ * @param cursor 이 id 보다 큰 내역부터 조회 (이전 페이지의 마지막 id)
+ * @param from   updateMillis 시작 (포함)
+ * @param to     updateMillis 끝 (미포함)
+ * @param type   충전/사용 구분
+ * @param size   최대 건수
+ */
+public record PointHistoryQuery(
+        Long cursor,
+        Long from,
+        Long to,
+        TransactionType type,
+        Integer size
+) {
+    public PointHistoryQuery {
+        if (size != null && size <= 0) {
+            throw new IllegalArgumentException("Size must be a positive number.");
+        }
+        if (from != null && to != null && from > to) {
+            throw new IllegalArgumentException("From must not be after to.");
+        }
+    }
+
+    public static PointHistoryQuery all() {
+        return new PointHistoryQuery(null, null, null, null, null);
+    }
+
+    public long afterId() {
+        return cursor == null ? 0L : cursor;
+    }
+
+    public long limit() {
+        return size == null ? Long.MAX_VALUE : size;
+    }
+
+    public boolean matches(PointHistory pointHistory) {
+        return pointHistory.id() > afterId()
+                && (from == null || pointHistory.updateMillis() >= from)
+                && (to == null || pointHistory.updateMillis() < to)
+                && (type == null || pointHistory.type() == type);
+    }
+}
@@ -0,0 +1,16 @@
+package io.hhplus.tdd.point;
+
+import java.util.List;
+
+/**
+ * 유저의 전체 충전/사용 합계와 요청한 기간의 일별 합계입니다. used 는 사용한 포인트를 양수로 나타냅니다.
+ */
+public record PointSummary(
+        long userId,
+        long charged,
+        long used,
+        long count,
+        long lastActivityMillis,
+        List<DailyPointSummary> daily
+) {
+}
@@ -0,0 +1,215 @@
+package io.hhplus.tdd.service;
+
+import io.hhplus.tdd.exception.IdempotencyKeyReusedException;
+import io.hhplus.tdd.exception.LockTimeoutException;
+import io.hhplus.tdd.exception.PointWriteIncompleteException;
+import io.hhplus.tdd.exception.TooManyRequestsException;
+import io.hhplus.tdd.point.TransactionType;
+import io.hhplus.tdd.point.UserPoint;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Idempotency-Key 별로 충전/사용 결과를 기억해 같은 요청이 다시 오면 처음 결과를 그대로 돌려줍니다.
+ * <p>
+ * 키는 유저별로 구분하고, 처음 온 요청이 키를 선점한 뒤 작업을 수행합니다. 그 사이 같은 키로 온 요청은
+ * 처음 요청의 결과를 기다렸다가 같은 결과를 받습니다. 처음 요청이 실패하면 키를 지우므로,
+ * 기다리던 요청이나 이후의 재시도가 키를 다시 선점해 작업을 수행합니다.
+ * 다만 잔액이 바뀐 뒤 실패했으면(PointWriteIncompleteException) 다시 수행하면 금액이 두 번 반영되므로,
+ * 키를 남겨 두고 재시도에 같은 실패를 돌려줍니다.
+ * <p>
+ * 모든 키의 보관 시간이 같아 먼저 넣은 키가 먼저 만료되므로, 넣은 순서를 유지하는 LinkedHashMap 의 앞에서부터
+ * 만료된 키를 지우고 capacity 가 차면 가장 오래된 키를 버립니다. 다만 작업 중인 키를 버리면 재시도가 같은 작업을
+ * 한 번 더 수행하므로 결과가 나온 키만 버리고, 모든 키가 작업 중이면 새 키를 TooManyRequestsException 으로 거절합니다.
+ */
+public class IdempotencyStore {
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final int capacity;
+    private final long ttlMillis;
+    private final long waitTimeoutMillis;
+    private final LongSupplier clock;
+    private final LinkedHashMap<Key, Entry> entries;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final LongAdder replays = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    public IdempotencyStore(int capacity, long ttlMillis, long waitTimeoutMillis) {
+        this(capacity, ttlMillis, waitTimeoutMillis, System::currentTimeMillis);
+    }
+
+    IdempotencyStore(int capacity, long ttlMillis, long waitTimeoutMillis, LongSupplier clock) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.ttlMillis = ttlMillis;
+        this.waitTimeoutMillis = waitTimeoutMillis;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>();
+    }
+
+    /**
+     * 처음 보는 키면 operation 을 수행하고 결과를 기억합니다. 이미 본 키면 operation 을 수행하지 않고 처음 결과를 반환합니다.
+     * 같은 키로 다른 요청(금액이나 종류가 다른 요청)을 보내면 IdempotencyKeyReusedException 을 던집니다.
+     */
+    public UserPoint execute(long userId, String key, long amount, TransactionType type, Operation operation)
+            throws InterruptedException {
+        if (key.isBlank()) {
+            throw new IllegalArgumentException("Idempotency key must not be blank");
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        Key id = new Key(userId, key);
+        while (true) {
+            Entry entry;
+            boolean owner = false;
+            lock.lock();
+            try {
+                long now = clock.getAsLong();
+                expire(now);
+                entry = entries.get(id);
+                if (entry == null) {
+                    if (entries.size() >= capacity && !evictCompleted()) {
+                        rejections.increment();
+                        throw new TooManyRequestsException("Too many idempotent requests in flight. capacity: " + capacity);
+                    }
+                    entry = new Entry(amount, type, now + ttlMillis);
+                    entries.put(id, entry);
+                    owner = true;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (owner) {
+                return run(id, entry, operation);
+            }
+            if (entry.amount != amount || entry.type != type) {
+                throw new IdempotencyKeyReusedException(key);
+            }
+            try {
+                UserPoint result = entry.result.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+                replays.increment();
+                return result;
+            } catch (TimeoutException e) {
+                throw new LockTimeoutException(userId);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof PointWriteIncompleteException incomplete) {
+                    replays.increment();
+                    throw incomplete;
+                }
+                // 처음 요청이 실패해 키가 지워졌으므로 다시 선점해 직접 수행한다.
+            }
+        }
+    }
+
+    public IdempotencyStats stats() {
+        lock.lock();
+        try {
+            return new IdempotencyStats(entries.size(), capacity, replays.sum(), expirations.sum(), evictions.sum(),
+                    rejections.sum());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private UserPoint run(Key id, Entry entry, Operation operation) throws InterruptedException {
+        boolean completed = false;
+        try {
+            UserPoint result = operation.run();
+            entry.result.complete(result);
+            completed = true;
+            return result;
+        } catch (PointWriteIncompleteException e) {
+            entry.result.completeExceptionally(e);
+            completed = true;
+            throw e;
+        } finally {
+            if (!completed) {
+                lock.lock();
+                try {
+                    entries.remove(id, entry);
+                } finally {
+                    lock.unlock();
+                }
+                entry.result.completeExceptionally(new IllegalStateException("Original request failed"));
+            }
+        }
+    }
+
+    /**
+     * 앞에서부터 만료된 키를 지웁니다. 만료됐어도 작업 중인 키는 결과가 나올 때까지 남겨 둡니다.
+     */
+    private void expire(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.expiresAt > now) {
+                return;
+            }
+            if (entry.result.isDone()) {
+                iterator.remove();
+                expirations.increment();
+            }
+        }
+    }
+
+    /**
+     * 결과가 나온 키 중 가장 오래된 것을 버립니다. 작업 중인 키는 동시에 처리 중인 요청 수만큼만 있으므로 훑는 양은 그만큼입니다.
+     */
+    private boolean evictCompleted() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().result.isDone()) {
+                iterator.remove();
+                evictions.increment();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @FunctionalInterface
+    public interface Operation {
+        UserPoint run() throws InterruptedException;
+    }
+
+    private record Key(long userId, String key) {
+    }
+
+    private static final class Entry {
+        private final long amount;
+        private final TransactionType type;
+        private final long expiresAt;
+        private final CompletableFuture<UserPoint> result = new CompletableFuture<>();
+
+        Entry(long amount, TransactionType type, long expiresAt) {
+            this.amount = amount;
+            this.type = type;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    public record IdempotencyStats(
+            int size,
+            int capacity,
+            long replays,
+            long expirations,
+            long evictions,
+            long rejections
+    ) {
+    }
+}
@@ -0,0 +1,78 @@
+package io.hhplus.tdd.service;
+
+import io.hhplus.tdd.exception.LockTimeoutException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 다른 PointLockStrategy 를 감싸 락 대기 시간, 락을 잡고 있던 시간, 타임아웃 횟수를 기록합니다.
+ * <p>
+ * 대기 시간은 호출부터 작업이 시작될 때까지, 보유 시간은 작업이 끝날 때까지로 잽니다.
+ * 락 없이 읽는 전략의 read 는 대기 시간이 거의 0 으로 기록되고, 다시 읽은 만큼 여러 번 기록됩니다.
+ */
+public class InstrumentedLockStrategy implements PointLockStrategy {
+    private final PointLockStrategy delegate;
+    private final Meters read;
+    private final Meters write;
+
+    public InstrumentedLockStrategy(PointLockStrategy delegate, MeterRegistry registry, String strategy) {
+        this.delegate = delegate;
+        this.read = new Meters(registry, strategy, "read");
+        this.write = new Meters(registry, strategy, "write");
+    }
+
+    @Override
+    public <T> T read(long userId, Supplier<T> reader) throws InterruptedException {
+        return record(read, userId, reader, true);
+    }
+
+    @Override
+    public <T> T write(long userId, Supplier<T> writer) throws InterruptedException {
+        return record(write, userId, writer, false);
+    }
+
+    private <T> T record(Meters meters, long userId, Supplier<T> task, boolean reading) throws InterruptedException {
+        long started = System.nanoTime();
+        Supplier<T> timed = () -> {
+            long acquired = System.nanoTime();
+            meters.waiting.record(acquired - started, TimeUnit.NANOSECONDS);
+            try {
+                return task.get();
+            } finally {
+                meters.holding.record(System.nanoTime() - acquired, TimeUnit.NANOSECONDS);
+            }
+        };
+        try {
+            return reading ? delegate.read(userId, timed) : delegate.write(userId, timed);
+        } catch (LockTimeoutException e) {
+            meters.timeouts.increment();
+            meters.waiting.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private static final class Meters {
+        private final Timer waiting;
+        private final Timer holding;
+        private final Counter timeouts;
+
+        private Meters(MeterRegistry registry, String strategy, String operation) {
+            this.waiting = Timer.builder("point.lock.wait")
+                    .description("Time spent waiting to acquire a user lock")
+                    .tags("strategy", strategy, "operation", operation)
+                    .register(registry);
+            this.holding = Timer.builder("point.lock.hold")
+                    .description("Time a user lock was held")
+                    .tags("strategy", strategy, "operation", operation)
+                    .register(registry);
+            this.timeouts = Counter.builder("point.lock.timeouts")
+                    .description("Lock acquisitions that gave up after the configured timeout")
+                    .tags("strategy", strategy, "operation", operation)
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package io.hhplus.tdd.service;
+
+import io.hhplus.tdd.exception.LockTimeoutException;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 유저마다 ReentrantLock 을 하나씩 만들어 읽기와 쓰기를 모두 배타적으로 처리하는 기존 방식입니다.
+ * 한 번 본 유저의 락은 지우지 않으므로 유저 수만큼 메모리가 늘어납니다.
+ */
+public class LockMapStrategy implements PointLockStrategy {
+    private final ConcurrentHashMap<Long, Lock> lockMap = new ConcurrentHashMap<>();
+    private final long timeoutMillis;
+
+    public LockMapStrategy(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public <T> T read(long userId, Supplier<T> reader) throws InterruptedException {
+        return write(userId, reader);
+    }
+
+    @Override
+    public <T> T write(long userId, Supplier<T> writer) throws InterruptedException {
+        Lock lock = lockMap.computeIfAbsent(userId, key -> new ReentrantLock());
+        if (!lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+            throw new LockTimeoutException(userId);
+        }
+        try {
+            return writer.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
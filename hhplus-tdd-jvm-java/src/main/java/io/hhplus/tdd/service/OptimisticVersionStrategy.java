@@ -0,0 +1,92 @@
+package io.hhplus.tdd.service;
+
+import io.hhplus.tdd.exception.LockTimeoutException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * stripe 마다 버전 번호 하나만 두고 CAS 로 쓰기를 직렬화하는 방식입니다 (seqlock).
+ * <p>
+ * 버전이 짝수이면 쓰기가 없는 상태이고, 쓰기는 짝수 → 홀수로 CAS 한 뒤 작업을 마치면 다시 짝수로 올립니다.
+ * 읽기는 먼저 버전만 확인하고 락 없이 읽습니다. 읽기 전에 쓰기가 진행 중이었거나 읽는 동안 버전이 바뀌어 검증에 실패하면
+ * 쓰기와 같이 stripe 를 잡고 다시 읽으므로, 검증되지 않은 결과는 돌려주지 않습니다.
+ */
+public class OptimisticVersionStrategy implements PointLockStrategy {
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AtomicLongArray versions;
+    private final int mask;
+    private final long timeoutMillis;
+
+    public OptimisticVersionStrategy(int stripeCount, long timeoutMillis) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.versions = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public <T> T read(long userId, Supplier<T> reader) {
+        int stripe = Stripes.indexOf(userId, mask);
+        long before = versions.get(stripe);
+        if ((before & 1L) == 0L) {
+            T result = reader.get();
+            // 읽는 동안 버전이 바뀌지 않았다면 그 사이 시작하거나 끝난 쓰기가 없다.
+            if (versions.get(stripe) == before) {
+                return result;
+            }
+        }
+        // 읽기만 하므로 풀 때는 버전을 올리지 않고 잡기 전 값으로 되돌린다.
+        long version = lockForRead(stripe);
+        try {
+            return reader.get();
+        } finally {
+            versions.set(stripe, version);
+        }
+    }
+
+    @Override
+    public <T> T write(long userId, Supplier<T> writer) throws InterruptedException {
+        int stripe = Stripes.indexOf(userId, mask);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        long backoff = 1_000L;
+        long version;
+        while (true) {
+            version = versions.get(stripe);
+            if ((version & 1L) == 0L && versions.compareAndSet(stripe, version, version + 1)) {
+                break;
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                throw new LockTimeoutException(userId);
+            }
+            LockSupport.parkNanos(backoff);
+            backoff = Math.min(backoff << 1, MAX_BACKOFF_NANOS);
+        }
+        try {
+            return writer.get();
+        } finally {
+            versions.set(stripe, version + 2);
+        }
+    }
+
+    /**
+     * read lock 처럼 제한 시간 없이 stripe 를 잡고, 잡기 전 버전을 반환합니다. 쓰기는 모두 제한 시간 안에 끝납니다.
+     */
+    private long lockForRead(int stripe) {
+        long backoff = 1_000L;
+        while (true) {
+            long version = versions.get(stripe);
+            if ((version & 1L) == 0L && versions.compareAndSet(stripe, version, version + 1)) {
+                return version;
+            }
+            LockSupport.parkNanos(backoff);
+            backoff = Math.min(backoff << 1, MAX_BACKOFF_NANOS);
+        }
+    }
+}
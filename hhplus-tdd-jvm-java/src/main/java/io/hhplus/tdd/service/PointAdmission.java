@@ -0,0 +1,99 @@
+package io.hhplus.tdd.service;
+
+import io.hhplus.tdd.exception.TooManyRequestsException;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 전체와 유저별로 동시에 처리 중인 요청 수를 세고, 한도를 넘는 요청은 기다리지 않고 바로 거절합니다.
+ * <p>
+ * 유저 한도는 한 유저의 락 앞에 줄 설 수 있는 요청 수이므로, 한 유저에게 요청이 몰려도
+ * 락 타임아웃만큼 기다리는 요청이 perUserLimit 개를 넘지 않고 나머지 유저의 요청 스레드를 잡아두지 않습니다.
+ * 유저별 카운트는 0 이 되면 지우므로 맵에는 지금 요청이 있는 유저만 남습니다.
+ */
+public class PointAdmission {
+    private static final Permit NO_OP = () -> {
+    };
+
+    private final boolean enabled;
+    private final int globalLimit;
+    private final int perUserLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ConcurrentHashMap<Long, Integer> inFlightByUser = new ConcurrentHashMap<>();
+    private final LongAdder globalRejections = new LongAdder();
+    private final LongAdder userRejections = new LongAdder();
+
+    public PointAdmission(boolean enabled, int globalLimit, int perUserLimit) {
+        if (enabled && (globalLimit <= 0 || perUserLimit <= 0)) {
+            throw new IllegalArgumentException("Admission limits must be positive");
+        }
+        this.enabled = enabled;
+        this.globalLimit = globalLimit;
+        this.perUserLimit = perUserLimit;
+    }
+
+    /**
+     * 요청 하나를 받아들이고, 처리가 끝나면 닫아야 하는 Permit 을 반환합니다. Permit 은 여러 번 닫아도 됩니다.
+     * 한도를 넘으면 TooManyRequestsException 을 던집니다.
+     */
+    public Permit admit(long userId) {
+        if (!enabled) {
+            return NO_OP;
+        }
+        if (inFlight.incrementAndGet() > globalLimit) {
+            inFlight.decrementAndGet();
+            globalRejections.increment();
+            throw new TooManyRequestsException("Too many requests in flight. limit: " + globalLimit);
+        }
+        boolean[] admitted = new boolean[1];
+        inFlightByUser.compute(userId, (id, count) -> {
+            int current = count == null ? 0 : count;
+            if (current >= perUserLimit) {
+                return count;
+            }
+            admitted[0] = true;
+            return current + 1;
+        });
+        if (!admitted[0]) {
+            inFlight.decrementAndGet();
+            userRejections.increment();
+            throw new TooManyRequestsException("Too many requests for user: " + userId + ". limit: " + perUserLimit);
+        }
+        // 같은 Permit 을 두 번 닫아도 자리는 한 번만 돌려준다.
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                release(userId);
+            }
+        };
+    }
+
+    public AdmissionStats stats() {
+        return new AdmissionStats(inFlight.get(), inFlightByUser.size(), globalLimit, perUserLimit,
+                globalRejections.sum(), userRejections.sum());
+    }
+
+    private void release(long userId) {
+        inFlightByUser.computeIfPresent(userId, (id, count) -> count == 1 ? null : count - 1);
+        inFlight.decrementAndGet();
+    }
+
+    @FunctionalInterface
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    public record AdmissionStats(
+            int inFlight,
+            int users,
+            int globalLimit,
+            int perUserLimit,
+            long globalRejections,
+            long userRejections
+    ) {
+    }
+}
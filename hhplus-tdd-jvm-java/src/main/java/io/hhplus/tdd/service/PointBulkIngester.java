@@ -0,0 +1,290 @@
+package io.hhplus.tdd.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.hhplus.tdd.config.PointProperties;
+import io.hhplus.tdd.point.PointBulkResult;
+import io.hhplus.tdd.point.PointBulkRow;
+import io.hhplus.tdd.point.TransactionType;
+import io.hhplus.tdd.point.UserPoint;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * 대량 충전/사용 요청 본문을 한 줄씩 읽어 worker 들에게 나눠 반영합니다.
+ * <p>
+ * 줄은 userId 로 worker 를 정하므로 같은 유저의 줄은 한 worker 가 들어온 순서대로 처리하고,
+ * 다른 유저의 줄은 worker 수만큼 동시에 처리됩니다. worker 는 큐에 쌓인 줄을 한꺼번에 꺼내 유저별로 묶고,
+ * PointService.applyAll 로 유저마다 락 한 번, 저장 한 번, reserve(n) 한 번에 반영합니다. SHARD 엔진에서는 유저의 shard 를 거칩니다.
+ * worker 는 요청마다 따로 만들므로 한 요청이 오래 걸려도 다른 요청이 그 뒤에서 기다리지 않습니다.
+ * worker 큐가 가득 차면 본문 읽기를 멈추므로 본문 전체를 메모리에 올리지 않습니다.
+ */
+@Service
+public class PointBulkIngester {
+    private static final long POLL_MILLIS = 10L;
+
+    private final PointService pointService;
+    private final ObjectMapper objectMapper;
+    private final int workers;
+    private final int queueCapacity;
+    private final ThreadFactory threadFactory;
+    private final Set<ExecutorService> running = ConcurrentHashMap.newKeySet();
+
+    public PointBulkIngester(PointService pointService, ObjectMapper objectMapper, PointProperties properties) {
+        this(pointService, objectMapper, properties, false);
+    }
+
+    /**
+     * worker 는 웹 컨테이너와 같이 spring.threads.virtual.enabled 를 따라 가상 스레드나 플랫폼 스레드를 씁니다.
+     */
+    @Autowired
+    public PointBulkIngester(PointService pointService, ObjectMapper objectMapper, PointProperties properties,
+                             Environment environment) {
+        this(pointService, objectMapper, properties, Threading.VIRTUAL.isActive(environment));
+    }
+
+    public PointBulkIngester(PointService pointService, ObjectMapper objectMapper, PointProperties properties,
+                             boolean virtualThreads) {
+        PointProperties.Bulk bulk = properties.getBulk();
+        this.pointService = pointService;
+        this.objectMapper = objectMapper;
+        this.workers = bulk.getWorkers() > 0 ? bulk.getWorkers() : Runtime.getRuntime().availableProcessors();
+        this.queueCapacity = bulk.getQueueCapacity();
+        this.threadFactory = PointThreads.factory(virtualThreads, "point-bulk-");
+    }
+
+    @PreDestroy
+    public void close() {
+        running.forEach(ExecutorService::shutdownNow);
+    }
+
+    /**
+     * body 를 끝까지 처리하고, 줄마다 처리가 끝난 순서대로 결과를 sink 로 넘깁니다.
+     * sink 는 호출한 스레드에서만 불립니다.
+     */
+    public BulkSummary ingest(InputStream body, Format format, ResultSink sink) throws IOException, InterruptedException {
+        LinkedBlockingQueue<PointBulkResult> results = new LinkedBlockingQueue<>();
+        // 요청마다 worker 를 workers 개만 띄운다.
+        ExecutorService executor = Executors.newThreadPerTaskExecutor(threadFactory);
+        running.add(executor);
+        List<Partition> partitions = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            BlockingQueue<Task> queue = new ArrayBlockingQueue<>(queueCapacity);
+            partitions.add(new Partition(queue, executor.submit(() -> {
+                work(queue, results);
+                return null;
+            })));
+        }
+
+        Counter counter = new Counter();
+        boolean completed = false;
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+            long line = 0L;
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank() || (format == Format.CSV && line == 1L && isCsvHeader(text))) {
+                    continue;
+                }
+                PointBulkRow row;
+                try {
+                    row = parse(text, format);
+                } catch (IllegalArgumentException e) {
+                    emit(PointBulkResult.error(line, null, e.getMessage()), sink, counter);
+                    continue;
+                }
+                dispatch(partitions.get(partitionOf(row.userId())), new Task(line, row), results, sink, counter);
+            }
+            for (Partition partition : partitions) {
+                dispatch(partition, Task.END, results, sink, counter);
+            }
+            while (!allDone(partitions) || !results.isEmpty()) {
+                PointBulkResult result = results.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (result != null) {
+                    emit(result, sink, counter);
+                }
+            }
+            completed = true;
+            return new BulkSummary(counter.succeeded + counter.failed, counter.succeeded, counter.failed);
+        } finally {
+            running.remove(executor);
+            if (completed) {
+                executor.shutdown();
+            } else {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * worker 큐에 자리가 날 때까지 그 사이 끝난 결과를 sink 로 흘려보냅니다.
+     */
+    private void dispatch(Partition partition, Task task, BlockingQueue<PointBulkResult> results,
+                          ResultSink sink, Counter counter) throws IOException, InterruptedException {
+        while (!partition.queue.offer(task, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (partition.future.isDone()) {
+                throw new IllegalStateException("Bulk worker stopped before the body was consumed");
+            }
+            drain(results, sink, counter);
+        }
+        drain(results, sink, counter);
+    }
+
+    private void drain(BlockingQueue<PointBulkResult> results, ResultSink sink, Counter counter) throws IOException {
+        PointBulkResult result;
+        while ((result = results.poll()) != null) {
+            emit(result, sink, counter);
+        }
+    }
+
+    private void emit(PointBulkResult result, ResultSink sink, Counter counter) throws IOException {
+        if (result.status() == PointBulkResult.Status.OK) {
+            counter.succeeded++;
+        } else {
+            counter.failed++;
+        }
+        sink.accept(result);
+    }
+
+    /**
+     * 큐에 쌓인 줄을 END 전까지 한꺼번에 꺼내 유저별로 묶어 반영합니다.
+     * 다음 묶음은 앞 묶음의 결과가 모두 나온 뒤에 반영하므로 같은 유저의 줄은 들어온 순서를 지킵니다.
+     */
+    private void work(BlockingQueue<Task> queue, BlockingQueue<PointBulkResult> results) throws InterruptedException {
+        List<Task> tasks = new ArrayList<>(queueCapacity);
+        while (true) {
+            tasks.add(queue.take());
+            queue.drainTo(tasks);
+            Map<Long, List<Task>> byUser = new LinkedHashMap<>();
+            boolean end = false;
+            for (Task task : tasks) {
+                if (task == Task.END) {
+                    end = true;
+                    break;
+                }
+                byUser.computeIfAbsent(task.row.userId(), id -> new ArrayList<>()).add(task);
+            }
+            tasks.clear();
+            for (Map.Entry<Long, List<Task>> entry : byUser.entrySet()) {
+                apply(entry.getKey(), entry.getValue(), results);
+            }
+            if (end) {
+                return;
+            }
+        }
+    }
+
+    private void apply(long userId, List<Task> tasks, BlockingQueue<PointBulkResult> results) {
+        List<CompletableFuture<UserPoint>> applied;
+        try {
+            applied = pointService.applyAll(userId, tasks.stream().map(Task::row).toList());
+        } catch (RuntimeException e) {
+            tasks.forEach(task -> results.add(PointBulkResult.error(task.line, userId, e.getMessage())));
+            return;
+        }
+        for (int i = 0; i < tasks.size(); i++) {
+            long line = tasks.get(i).line;
+            results.add(applied.get(i).handle((userPoint, e) -> e == null
+                    ? PointBulkResult.ok(line, userPoint)
+                    : PointBulkResult.error(line, userId, (e instanceof CompletionException ? e.getCause() : e).getMessage())
+            ).join());
+        }
+    }
+
+    private PointBulkRow parse(String text, Format format) {
+        PointBulkRow row = switch (format) {
+            case NDJSON -> parseJson(text);
+            case CSV -> parseCsv(text);
+        };
+        if (row.userId() == null || row.amount() == null || row.type() == null) {
+            throw new IllegalArgumentException("userId, amount and type must be provided");
+        }
+        return row;
+    }
+
+    private PointBulkRow parseJson(String text) {
+        try {
+            return objectMapper.readValue(text, PointBulkRow.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed row: " + e.getOriginalMessage());
+        }
+    }
+
+    private PointBulkRow parseCsv(String text) {
+        String[] columns = text.split(",", -1);
+        if (columns.length != 3) {
+            throw new IllegalArgumentException("Malformed row: expected userId,amount,type");
+        }
+        try {
+            return new PointBulkRow(
+                    Long.parseLong(columns[0].trim()),
+                    Long.parseLong(columns[1].trim()),
+                    TransactionType.valueOf(columns[2].trim().toUpperCase())
+            );
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed row: " + e.getMessage());
+        }
+    }
+
+    private boolean isCsvHeader(String text) {
+        return text.trim().toLowerCase().startsWith("userid");
+    }
+
+    private int partitionOf(long userId) {
+        return Stripes.indexOf(userId, Integer.MAX_VALUE) % workers;
+    }
+
+    private boolean allDone(List<Partition> partitions) {
+        for (Partition partition : partitions) {
+            if (!partition.future.isDone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public enum Format {
+        NDJSON,
+        CSV,
+    }
+
+    @FunctionalInterface
+    public interface ResultSink {
+        void accept(PointBulkResult result) throws IOException;
+    }
+
+    public record BulkSummary(
+            long rows,
+            long succeeded,
+            long failed
+    ) {
+    }
+
+    private record Partition(BlockingQueue<Task> queue, Future<?> future) {
+    }
+
+    private record Task(long line, PointBulkRow row) {
+        private static final Task END = new Task(0L, null);
+    }
+
+    private static final class Counter {
+        private long succeeded;
+        private long failed;
+    }
+}
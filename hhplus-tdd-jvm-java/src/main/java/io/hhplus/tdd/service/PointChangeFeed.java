@@ -0,0 +1,312 @@
+package io.hhplus.tdd.service;
+
+import io.hhplus.tdd.point.PointHistory;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * 기록된 충전/사용 내역을 구독자에게 흘려보내는 프로세스 안의 변경 피드입니다.
+ * <p>
+ * 내역은 PointHistoryIndex 에 기록된 직후 publish 되고, 최근 bufferSize 개는 다시 연결한 구독자가
+ * 마지막으로 받은 id 다음부터 이어 받을 수 있도록 링 버퍼에 남습니다.
+ * 서로 다른 유저의 내역은 id 를 받은 순서와 publish 되는 순서가 어긋날 수 있어, 비어 있는 id 를 reorderWindow 만큼
+ * 기다렸다가 id 순서대로 내보냅니다. 그래도 오지 않는 id 는 건너뜁니다.
+ * <p>
+ * 구독자마다 정해진 크기의 큐를 두고 publish 는 큐에 넣기만 하므로 느린 구독자가 쓰기를 막지 않습니다.
+ * 큐가 가득 찬 구독자는 끊고, 구독자는 마지막으로 받은 id 로 다시 연결해 이어 받습니다.
+ */
+@Slf4j
+public class PointChangeFeed implements Closeable {
+    private final PointHistory[] ring;
+    private final int subscriberCapacity;
+    private final long reorderWindowMillis;
+    private final long heartbeatMillis;
+    private final LongSupplier clock;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final TreeMap<Long, PointHistory> pending = new TreeMap<>();
+    private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService reorderer;
+    // 지금까지 링 버퍼에 넣은 내역 수
+    private long sequence;
+    // 다음에 내보낼 id. 0 이면 아직 받은 내역이 없다.
+    private long expectedId;
+    private long gapSinceMillis;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder overflows = new LongAdder();
+    private final LongAdder skippedIds = new LongAdder();
+
+    public PointChangeFeed(int bufferSize, int subscriberCapacity, long reorderWindowMillis, long heartbeatMillis) {
+        this(bufferSize, subscriberCapacity, reorderWindowMillis, heartbeatMillis, System::currentTimeMillis, true);
+    }
+
+    /**
+     * @param scheduled false 면 비어 있는 id 를 건너뛰는 작업을 띄우지 않고 skipExpiredGaps() 를 직접 부를 때만 건너뜁니다.
+     */
+    PointChangeFeed(int bufferSize, int subscriberCapacity, long reorderWindowMillis, long heartbeatMillis,
+                    LongSupplier clock, boolean scheduled) {
+        if (bufferSize <= 0 || subscriberCapacity <= 0 || heartbeatMillis <= 0L || reorderWindowMillis < 0L) {
+            throw new IllegalArgumentException("Change feed sizes and heartbeat must be positive");
+        }
+        this.ring = new PointHistory[bufferSize];
+        this.subscriberCapacity = subscriberCapacity;
+        this.reorderWindowMillis = reorderWindowMillis;
+        this.heartbeatMillis = heartbeatMillis;
+        this.clock = clock;
+        if (scheduled && reorderWindowMillis > 0L) {
+            this.reorderer = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("point-change-feed").daemon().factory());
+            reorderer.scheduleWithFixedDelay(this::skipExpiredGaps, reorderWindowMillis, reorderWindowMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.reorderer = null;
+        }
+    }
+
+    /**
+     * 기록된 내역을 내보냅니다. 구독자 큐에 넣기만 하고 기다리지 않습니다.
+     */
+    public void publish(PointHistory pointHistory) {
+        lock.lock();
+        try {
+            if (reorderWindowMillis == 0L) {
+                deliver(pointHistory);
+                return;
+            }
+            if (expectedId == 0L) {
+                expectedId = pointHistory.id();
+            }
+            if (pointHistory.id() < expectedId || pending.containsKey(pointHistory.id())) {
+                // 이미 건너뛴 id 가 늦게 왔거나 같은 id 가 두 번 왔으면 순서를 맞출 수 없으므로 바로 내보낸다.
+                deliver(pointHistory);
+                return;
+            }
+            pending.put(pointHistory.id(), pointHistory);
+            drainPending();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * reorderWindow 보다 오래 비어 있는 id 를 건너뛰고 기다리던 내역을 내보냅니다.
+     */
+    void skipExpiredGaps() {
+        lock.lock();
+        try {
+            if (!pending.isEmpty() && clock.getAsLong() - gapSinceMillis >= reorderWindowMillis) {
+                long next = pending.firstKey();
+                skippedIds.add(next - expectedId);
+                expectedId = next;
+                drainPending();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 구독을 시작합니다. userId 가 null 이면 모든 유저의 내역을 받습니다.
+     * <p>
+     * afterId 가 있으면 그 다음 내역부터 이어 받습니다. 유저 구독은 backfill 로 빠진 내역을 저장소에서 읽어오고,
+     * 전체 구독은 링 버퍼에 남아 있는 만큼만 이어 받으며 그보다 앞선 내역이 있었다면 sink.gap() 으로 알립니다.
+     */
+    public Subscription subscribe(Long userId, Long afterId, Backfill backfill, Sink sink) {
+        Subscription subscription = new Subscription(userId, sink);
+        lock.lock();
+        try {
+            if (afterId != null) {
+                if (userId != null && backfill != null) {
+                    subscription.backfill = backfill;
+                    subscription.lastSentId = afterId;
+                } else {
+                    subscription.replay = replayAfter(afterId, subscription);
+                }
+            }
+            subscriptions.add(subscription);
+        } finally {
+            lock.unlock();
+        }
+        subscription.drainer = Thread.ofVirtual().name("point-change-subscriber").start(subscription::run);
+        return subscription;
+    }
+
+    public FeedStats stats() {
+        lock.lock();
+        try {
+            return new FeedStats(subscriptions.size(), (int) Math.min(sequence, ring.length), pending.size(),
+                    published.sum(), overflows.sum(), skippedIds.sum());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (reorderer != null) {
+            reorderer.shutdownNow();
+        }
+        for (Subscription subscription : subscriptions) {
+            subscription.cancel();
+        }
+    }
+
+    private void drainPending() {
+        boolean progressed = false;
+        while (!pending.isEmpty() && pending.firstKey() == expectedId) {
+            deliver(pending.pollFirstEntry().getValue());
+            expectedId++;
+            progressed = true;
+        }
+        if (pending.isEmpty()) {
+            gapSinceMillis = 0L;
+        } else if (progressed || gapSinceMillis == 0L) {
+            gapSinceMillis = clock.getAsLong();
+        }
+    }
+
+    private void deliver(PointHistory pointHistory) {
+        ring[(int) (sequence % ring.length)] = pointHistory;
+        sequence++;
+        published.increment();
+        for (Subscription subscription : subscriptions) {
+            if (subscription.matches(pointHistory) && !subscription.queue.offer(pointHistory)) {
+                // 큐가 가득 찬 구독자는 더 기다려주지 않고 끊는다.
+                subscription.overflowed = true;
+                subscriptions.remove(subscription);
+                overflows.increment();
+            }
+        }
+    }
+
+    private List<PointHistory> replayAfter(long afterId, Subscription subscription) {
+        long first = Math.max(0L, sequence - ring.length);
+        List<PointHistory> replay = new ArrayList<>();
+        long oldestId = Long.MAX_VALUE;
+        for (long i = first; i < sequence; i++) {
+            PointHistory pointHistory = ring[(int) (i % ring.length)];
+            oldestId = Math.min(oldestId, pointHistory.id());
+            if (pointHistory.id() > afterId && subscription.matches(pointHistory)) {
+                replay.add(pointHistory);
+            }
+        }
+        if (first > 0L && oldestId > afterId + 1) {
+            subscription.gapBefore = oldestId;
+        }
+        return replay;
+    }
+
+    /**
+     * 유저 구독이 이어 받을 때 afterId 다음 내역을 저장소에서 읽어옵니다.
+     */
+    @FunctionalInterface
+    public interface Backfill {
+        Stream<PointHistory> after(long afterId) throws InterruptedException;
+    }
+
+    /**
+     * 구독자에게 내역을 써보내는 쪽. 구독자마다 가상 스레드 하나가 차례로 호출합니다.
+     */
+    public interface Sink {
+        void send(PointHistory pointHistory) throws IOException;
+
+        void heartbeat() throws IOException;
+
+        /**
+         * 이어 받으려던 내역 중 oldestId 보다 앞선 것은 이미 링 버퍼에서 밀려나 보낼 수 없습니다.
+         */
+        void gap(long oldestId) throws IOException;
+
+        /**
+         * 구독이 끝났습니다. overflowed 면 큐가 가득 차서 끊긴 것입니다.
+         */
+        void close(boolean overflowed);
+    }
+
+    public final class Subscription {
+        private final Long userId;
+        private final Sink sink;
+        private final ArrayBlockingQueue<PointHistory> queue = new ArrayBlockingQueue<>(subscriberCapacity);
+        private volatile boolean overflowed;
+        private volatile boolean cancelled;
+        private List<PointHistory> replay = List.of();
+        private Backfill backfill;
+        private long gapBefore;
+        private long lastSentId;
+        private volatile Thread drainer;
+
+        private Subscription(Long userId, Sink sink) {
+            this.userId = userId;
+            this.sink = sink;
+        }
+
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+            if (drainer != null) {
+                drainer.interrupt();
+            }
+        }
+
+        private boolean matches(PointHistory pointHistory) {
+            return userId == null || userId == pointHistory.userId();
+        }
+
+        private void run() {
+            try {
+                if (gapBefore > 0L) {
+                    sink.gap(gapBefore);
+                }
+                for (PointHistory pointHistory : replay) {
+                    sink.send(pointHistory);
+                }
+                if (backfill != null) {
+                    try (Stream<PointHistory> rows = backfill.after(lastSentId)) {
+                        for (PointHistory pointHistory : (Iterable<PointHistory>) rows::iterator) {
+                            sink.send(pointHistory);
+                            lastSentId = pointHistory.id();
+                        }
+                    }
+                }
+                while (!cancelled && !overflowed) {
+                    PointHistory pointHistory = queue.poll(heartbeatMillis, TimeUnit.MILLISECONDS);
+                    if (pointHistory == null) {
+                        sink.heartbeat();
+                    } else if (backfill == null || pointHistory.id() > lastSentId) {
+                        // 유저 구독은 저장소에서 읽은 내역과 큐에 쌓인 내역이 겹칠 수 있어 id 로 거른다.
+                        sink.send(pointHistory);
+                    }
+                }
+            } catch (InterruptedException e) {
+                // 구독이 취소됐다.
+            } catch (IOException | RuntimeException e) {
+                log.debug("Change feed subscriber stopped: {}", e.getMessage());
+            } finally {
+                subscriptions.remove(this);
+                sink.close(overflowed);
+            }
+        }
+    }
+
+    public record FeedStats(
+            int subscribers,
+            int buffered,
+            int pending,
+            long published,
+            long overflows,
+            long skippedIds
+    ) {
+    }
+}
@@ -0,0 +1,303 @@
+package io.hhplus.tdd.service;
+
+import io.hhplus.tdd.database.PointHistoryAppender;
+import io.hhplus.tdd.database.UserPointCache;
+import io.hhplus.tdd.exception.LockTimeoutException;
+import io.hhplus.tdd.exception.PointWriteIncompleteException;
+import io.hhplus.tdd.exception.UserNotFoundException;
+import io.hhplus.tdd.point.PointBulkRow;
+import io.hhplus.tdd.point.TransactionType;
+import io.hhplus.tdd.point.UserPoint;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 같은 유저에 대한 동시 충전/사용 요청을 큐에 모아 한 번의 조회/저장으로 반영합니다.
+ * <p>
+ * 큐가 비어 있을 때 들어온 요청이 리더가 되어 큐 앞쪽의 배치 하나를 처리하고, 남은 요청이 있으면 맨 앞 요청에게 리더를 넘긴 뒤 돌아갑니다.
+ * 나머지 요청은 결과가 채워지거나 리더를 넘겨받을 때까지 lock.timeout 만큼 기다리고, 그때까지 배치에 들어가지 못했으면
+ * 큐에서 빠지고 LockTimeoutException 으로 거절됩니다.
+ * 배치 안에서는 도착 순서대로 잔액을 계산하므로 잔액이 음수가 되는 사용 요청만 개별적으로 거절됩니다.
+ * commitAll 은 큐를 거치지 않고 호출자가 이미 모아 온 요청들을 한 배치로 반영합니다.
+ */
+public class PointGroupCommitter {
+    private final UserPointCache userPointCache;
+    private final PointHistoryAppender pointHistoryAppender;
+    private final PointLockStrategy lockStrategy;
+    private final int maxBatchSize;
+    private final long timeoutMillis;
+    private final ConcurrentHashMap<Long, List<Command>> queues = new ConcurrentHashMap<>();
+
+    public PointGroupCommitter(UserPointCache userPointCache,
+                               PointHistoryAppender pointHistoryAppender,
+                               PointLockStrategy lockStrategy,
+                               int maxBatchSize,
+                               long timeoutMillis) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be at least 1");
+        }
+        this.userPointCache = userPointCache;
+        this.pointHistoryAppender = pointHistoryAppender;
+        this.lockStrategy = lockStrategy;
+        this.maxBatchSize = maxBatchSize;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public UserPoint submit(long userId, long amount, TransactionType type) throws InterruptedException {
+        Command command = new Command(amount, type);
+        boolean[] leader = {false};
+        queues.compute(userId, (id, queue) -> {
+            if (queue == null) {
+                queue = new ArrayList<>();
+                leader[0] = true;
+            }
+            queue.add(command);
+            return queue;
+        });
+
+        if (leader[0] || awaitTurn(userId, command)) {
+            lead(userId);
+        }
+        return await(command.result);
+    }
+
+    /**
+     * 한 유저의 rows 를 큐를 거치지 않고 하나의 배치로 바로 반영하고, rows 순서대로 결과를 반환합니다.
+     * 큐의 배치와 같은 유저 락 안에서 반영하므로 submit 과 섞여도 순서가 꼬이지 않습니다.
+     */
+    public List<CompletableFuture<UserPoint>> commitAll(long userId, List<PointBulkRow> rows) {
+        List<Command> batch = new ArrayList<>(rows.size());
+        for (PointBulkRow row : rows) {
+            batch.add(new Command(row.amount(), row.type()));
+        }
+        if (commit(userId, batch)) {
+            Thread.currentThread().interrupt();
+        }
+        List<CompletableFuture<UserPoint>> results = new ArrayList<>(batch.size());
+        for (Command command : batch) {
+            results.add(command.result);
+        }
+        return results;
+    }
+
+    /**
+     * 결과가 채워지거나 리더를 넘겨받을 때까지 기다립니다. 리더가 되었으면 true 를 반환합니다.
+     * 기다리는 동안 제한 시간이 지나거나 인터럽트되면 큐에서 빠지는데, 이미 배치에 들어갔다면 그 배치의 결과를 받습니다.
+     */
+    private boolean awaitTurn(long userId, Command command) throws InterruptedException {
+        try {
+            CompletableFuture.anyOf(command.result, command.turn).get(timeoutMillis, TimeUnit.MILLISECONDS);
+            return !command.result.isDone();
+        } catch (ExecutionException e) {
+            return false;
+        } catch (TimeoutException e) {
+            return switch (withdraw(userId, command)) {
+                case REMOVED -> throw new LockTimeoutException(userId);
+                case PROMOTED -> true;
+                case DRAINED -> false;
+            };
+        } catch (InterruptedException e) {
+            switch (withdraw(userId, command)) {
+                case REMOVED -> throw e;
+                // 넘겨받은 리더 역할은 끝까지 하고 인터럽트 상태는 넘긴 뒤에 되돌린다.
+                case PROMOTED -> lead(userId);
+                case DRAINED -> command.result.exceptionally(error -> null).join();
+            }
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 아직 배치에 들어가지 않았으면 큐에서 뺍니다. 리더를 넘겨받았거나 이미 배치에 들어갔으면 그대로 둡니다.
+     */
+    private Withdrawal withdraw(long userId, Command command) {
+        Withdrawal[] withdrawal = {Withdrawal.DRAINED};
+        queues.computeIfPresent(userId, (id, queue) -> {
+            if (command.turn.isDone()) {
+                withdrawal[0] = Withdrawal.PROMOTED;
+            } else if (queue.remove(command)) {
+                withdrawal[0] = Withdrawal.REMOVED;
+            }
+            return queue;
+        });
+        return withdrawal[0];
+    }
+
+    /**
+     * 큐 앞쪽의 배치 하나를 처리하고 리더를 넘깁니다. 리더의 요청은 항상 큐 맨 앞에 있으므로 이 배치에 들어갑니다.
+     */
+    private void lead(long userId) {
+        boolean interrupted = false;
+        try {
+            interrupted = commit(userId, drain(userId));
+        } finally {
+            handOff(userId);
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 큐에서 최대 maxBatchSize 개의 요청을 꺼냅니다.
+     */
+    private List<Command> drain(long userId) {
+        List<Command> batch = new ArrayList<>();
+        queues.computeIfPresent(userId, (id, queue) -> {
+            List<Command> head = queue.subList(0, Math.min(maxBatchSize, queue.size()));
+            batch.addAll(head);
+            head.clear();
+            return queue;
+        });
+        return batch;
+    }
+
+    /**
+     * 남은 요청이 있으면 맨 앞 요청에게 리더를 넘기고, 없으면 큐를 제거합니다.
+     */
+    private void handOff(long userId) {
+        queues.computeIfPresent(userId, (id, queue) -> {
+            if (queue.isEmpty()) {
+                return null;
+            }
+            queue.get(0).turn.complete(null);
+            return queue;
+        });
+    }
+
+    /**
+     * 배치를 반영하고, 락을 기다리다 인터럽트되었으면 true 를 반환합니다.
+     */
+    private boolean commit(long userId, List<Command> batch) {
+        try {
+            lockStrategy.write(userId, () -> {
+                apply(userId, batch);
+                return null;
+            });
+            return false;
+        } catch (InterruptedException e) {
+            failAll(batch, new RuntimeException("Interrupted while acquiring lock for user: " + userId, e));
+            return true;
+        } catch (RuntimeException e) {
+            failAll(batch, e);
+            return false;
+        } catch (Error e) {
+            failAll(batch, new RuntimeException("Group commit failed for user: " + userId, e));
+            throw e;
+        }
+    }
+
+    private void apply(long userId, List<Command> batch) {
+        UserPoint current = userPointCache.selectById(userId);
+        if (current == null) {
+            throw new UserNotFoundException("User not found");
+        }
+
+        long balance = current.point();
+        List<Command> accepted = new ArrayList<>(batch.size());
+        List<Command> rejected = new ArrayList<>();
+        for (Command command : batch) {
+            if (balance + command.amount < 0) {
+                rejected.add(command);
+                continue;
+            }
+            balance += command.amount;
+            command.balance = balance;
+            accepted.add(command);
+        }
+        if (accepted.isEmpty()) {
+            reject(rejected);
+            return;
+        }
+
+        PointHistoryAppender.Reservation reservation = pointHistoryAppender.reserve(accepted.size());
+        long updateMillis;
+        try {
+            UserPoint saved;
+            try {
+                saved = userPointCache.insertOrUpdate(userId, balance);
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Database connection error", e);
+            }
+            updateMillis = saved == null ? System.currentTimeMillis() : saved.updateMillis();
+            appendAll(reservation, userId, current, accepted, updateMillis);
+        } finally {
+            reservation.release();
+        }
+        for (Command command : accepted) {
+            command.result.complete(new UserPoint(userId, command.balance, updateMillis));
+        }
+        reject(rejected);
+    }
+
+    /**
+     * 첫 내역부터 남기지 못했으면 잔액을 되돌립니다. 앞선 내역이 이미 남았으면 되돌릴 수 없으므로 반영되었지만 끝나지 않은 쓰기로 알립니다.
+     */
+    private void appendAll(PointHistoryAppender.Reservation reservation, long userId, UserPoint before,
+                           List<Command> accepted, long updateMillis) {
+        boolean appended = false;
+        try {
+            for (Command command : accepted) {
+                reservation.append(userId, command.amount, command.type, updateMillis);
+                appended = true;
+            }
+        } catch (RuntimeException e) {
+            throw appended ? new PointWriteIncompleteException(userId, e) : PointService.rollback(userPointCache, before, e);
+        }
+    }
+
+    /**
+     * 거절은 앞선 요청이 반영된 잔액을 보고 정한 것이므로, 그 잔액이 저장된 뒤에 알립니다.
+     * 먼저 알리면 거절을 받은 뒤의 조회가 아직 저장 전 잔액을 읽을 수 있습니다.
+     */
+    private void reject(List<Command> rejected) {
+        for (Command command : rejected) {
+            command.result.completeExceptionally(new IllegalArgumentException("You can't deduct more points than you own."));
+        }
+    }
+
+    private void failAll(List<Command> batch, RuntimeException e) {
+        for (Command command : batch) {
+            command.result.completeExceptionally(e);
+        }
+    }
+
+    private UserPoint await(CompletableFuture<UserPoint> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private enum Withdrawal {
+        REMOVED,
+        PROMOTED,
+        DRAINED,
+    }
+
+    private static final class Command {
+        private final long amount;
+        private final TransactionType type;
+        private final CompletableFuture<UserPoint> result = new CompletableFuture<>();
+        // 리더를 넘겨받으면 완료
+        private final CompletableFuture<Void> turn = new CompletableFuture<>();
+        private long balance;
+
+        private Command(long amount, TransactionType type) {
+            this.amount = amount;
+            this.type = type;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package io.hhplus.tdd.service;
+
+import java.util.function.Supplier;
+
+/**
+ * PointService 가 유저 단위로 읽기/쓰기를 직렬화하는 방식입니다.
+ * <p>
+ * write 는 같은 유저의 다른 write 와 겹치지 않음을 보장하고, 락을 얻지 못하면 LockTimeoutException 을 던집니다.
+ * read 가 write 를 기다리는지는 구현마다 다릅니다.
+ */
+public interface PointLockStrategy {
+
+    <T> T read(long userId, Supplier<T> reader) throws InterruptedException;
+
+    <T> T write(long userId, Supplier<T> writer) throws InterruptedException;
+}
@@ -1,108 +1,689 @@
 package io.hhplus.tdd.service;
 
+import io.hhplus.tdd.config.PointProperties;
+import io.hhplus.tdd.database.BalanceStore;
+import io.hhplus.tdd.database.HistoryStore;
+import io.hhplus.tdd.database.PointHistoryAppender;
+import io.hhplus.tdd.database.PointHistoryIndex;
 import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.database.TableBalanceStore;
+import io.hhplus.tdd.database.TableHistoryStore;
+import io.hhplus.tdd.database.UserPointCache;
 import io.hhplus.tdd.database.UserPointTable;
+import io.hhplus.tdd.exception.LockTimeoutException;
+import io.hhplus.tdd.exception.PointWriteIncompleteException;
+import io.hhplus.tdd.exception.RequestTimeoutException;
+import io.hhplus.tdd.exception.TooManyRequestsException;
 import io.hhplus.tdd.exception.UserNotFoundException;
+import io.hhplus.tdd.point.PointBulkRow;
 import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointHistoryQuery;
+import io.hhplus.tdd.point.PointSummary;
 import io.hhplus.tdd.point.TransactionType;
 import io.hhplus.tdd.point.UserPoint;
-import lombok.AllArgsConstructor;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
-@AllArgsConstructor
 public class PointService {
-    private final UserPointTable userPointTable;
-    private final PointHistoryTable pointHistoryTable;
-    private final ConcurrentHashMap<Long, Lock> lockMap = new ConcurrentHashMap<>();
+    private final UserPointCache userPointCache;
+    private final PointHistoryIndex pointHistoryIndex;
+    private final PointHistoryAppender pointHistoryAppender;
+    private final PointLockStrategy lockStrategy;
+    private final PointGroupCommitter groupCommitter;
+    private final PointGroupCommitter bulkCommitter;
+    private final PointShardEngine shardEngine;
+    private final SingleFlight<UserPoint> pointReads;
+    private final SingleFlight<List<PointHistory>> historyReads;
+    private final long engineTimeoutMillis;
+    private final ExecutorService lookupExecutor;
+    private final ThreadPoolExecutor asyncExecutor;
+    private final int asyncQueueCapacity;
+    private final long asyncTimeoutMillis;
+    private final LongAdder asyncRejections = new LongAdder();
+    private final LongAdder asyncTimeouts = new LongAdder();
+    private final int maxBatchIds;
+    private final IdempotencyStore idempotencyStore;
+    private final PointAdmission admission;
     private static final long LOCK_TIMEOUT = 5L;
 
+    public PointService(UserPointTable userPointTable, PointHistoryTable pointHistoryTable) {
+        this(new TableBalanceStore(userPointTable), new TableHistoryStore(pointHistoryTable));
+    }
+
+    /**
+     * 잔액 캐시와 내역 인덱스 없이 저장소를 그대로 읽고 씁니다.
+     */
+    public PointService(BalanceStore balanceStore, HistoryStore historyStore) {
+        this(new UserPointCache(balanceStore, 0), new PointHistoryIndex(historyStore, false),
+                new LockMapStrategy(TimeUnit.SECONDS.toMillis(LOCK_TIMEOUT)), new PointProperties());
+    }
+
+    public PointService(UserPointCache userPointCache,
+                        PointHistoryIndex pointHistoryIndex,
+                        PointLockStrategy lockStrategy,
+                        PointProperties properties) {
+        this(userPointCache, pointHistoryIndex, new PointHistoryAppender(pointHistoryIndex), lockStrategy, properties);
+    }
+
+    public PointService(UserPointCache userPointCache,
+                        PointHistoryIndex pointHistoryIndex,
+                        PointHistoryAppender pointHistoryAppender,
+                        PointLockStrategy lockStrategy,
+                        PointProperties properties) {
+        this(userPointCache, pointHistoryIndex, pointHistoryAppender, lockStrategy, properties, false);
+    }
+
+    /**
+     * 내부 executor 는 웹 컨테이너와 같이 spring.threads.virtual.enabled 를 따라 가상 스레드나 플랫폼 스레드를 씁니다.
+     */
+    @Autowired
+    public PointService(UserPointCache userPointCache,
+                        PointHistoryIndex pointHistoryIndex,
+                        PointHistoryAppender pointHistoryAppender,
+                        PointLockStrategy lockStrategy,
+                        PointProperties properties,
+                        Environment environment) {
+        this(userPointCache, pointHistoryIndex, pointHistoryAppender, lockStrategy, properties,
+                Threading.VIRTUAL.isActive(environment));
+    }
+
+    public PointService(UserPointCache userPointCache,
+                        PointHistoryIndex pointHistoryIndex,
+                        PointHistoryAppender pointHistoryAppender,
+                        PointLockStrategy lockStrategy,
+                        PointProperties properties,
+                        boolean virtualThreads) {
+        this.userPointCache = userPointCache;
+        this.pointHistoryIndex = pointHistoryIndex;
+        this.pointHistoryAppender = pointHistoryAppender;
+        this.lockStrategy = lockStrategy;
+        PointProperties.Engine engine = properties.getEngine();
+        this.shardEngine = engine.getType() == PointProperties.EngineType.SHARD
+                ? new PointShardEngine(userPointCache, pointHistoryAppender,
+                        engine.getShards() > 0 ? engine.getShards() : Runtime.getRuntime().availableProcessors(),
+                        engine.getQueueCapacity(), engine.getMaxBatchSize(), engine.getCachedUsers())
+                : null;
+        this.engineTimeoutMillis = properties.getLock().getTimeout().toMillis();
+        boolean singleFlight = shardEngine == null && properties.getSingleFlight().isEnabled();
+        this.pointReads = singleFlight ? new SingleFlight<>() : null;
+        this.historyReads = singleFlight ? new SingleFlight<>() : null;
+        PointProperties.GroupCommit groupCommit = properties.getGroupCommit();
+        this.groupCommitter = shardEngine == null && groupCommit.isEnabled()
+                ? new PointGroupCommitter(userPointCache, pointHistoryAppender, lockStrategy, groupCommit.getMaxBatchSize(),
+                        properties.getLock().getTimeout().toMillis())
+                : null;
+        // applyAll 은 group commit 설정과 관계없이 호출자가 모아 온 요청을 한 배치로 반영한다.
+        this.bulkCommitter = shardEngine != null || groupCommitter != null
+                ? groupCommitter
+                : new PointGroupCommitter(userPointCache, pointHistoryAppender, lockStrategy, groupCommit.getMaxBatchSize(),
+                        properties.getLock().getTimeout().toMillis());
+        PointProperties.Batch batch = properties.getBatch();
+        this.lookupExecutor = Executors.newFixedThreadPool(batch.getParallelism(),
+                PointThreads.factory(virtualThreads, "point-lookup-"));
+        this.maxBatchIds = batch.getMaxIds();
+        PointProperties.Async async = properties.getAsync();
+        this.asyncExecutor = new ThreadPoolExecutor(async.getThreads(), async.getThreads(), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(async.getQueueCapacity()), PointThreads.factory(virtualThreads, "point-async-"));
+        this.asyncQueueCapacity = async.getQueueCapacity();
+        this.asyncTimeoutMillis = async.getTimeout().toMillis();
+        PointProperties.Idempotency idempotency = properties.getIdempotency();
+        this.idempotencyStore = new IdempotencyStore(idempotency.getCapacity(), idempotency.getTtl().toMillis(),
+                properties.getLock().getTimeout().toMillis());
+        PointProperties.Admission admission = properties.getAdmission();
+        this.admission = new PointAdmission(admission.isEnabled(), admission.getGlobalLimit(), admission.getPerUserLimit());
+    }
+
+    @PreDestroy
+    public void close() {
+        lookupExecutor.shutdownNow();
+        asyncExecutor.shutdownNow();
+        if (shardEngine != null) {
+            shardEngine.close();
+        }
+    }
+
     public UserPoint getPoint(final Long userId) throws InterruptedException {
         if (userId == null){
             throw new IllegalArgumentException("ID must be provided");
         }
-        Lock lock = lockMap.computeIfAbsent(userId, key -> new ReentrantLock());
-        if(!lock.tryLock(LOCK_TIMEOUT, TimeUnit.SECONDS)){
-            throw new RuntimeException("TimeOut! Failed to acquire lock for user: " + userId);
-        } else {
-            try {
-                UserPoint userPoint = userPointTable.selectById(userId);
-                if (userPoint == null) {
-                    throw new UserNotFoundException("User not found");
-                }
-                return userPoint;
-            } finally {
-                lock.unlock();
+        PointAdmission.Permit permit = admission.admit(userId);
+        try {
+            return findUser(userId);
+        } finally {
+            permit.close();
+        }
+    }
+
+    /**
+     * 여러 유저의 잔액을 한 번에 조회합니다. 중복된 id 는 한 번만 조회하고, 캐시에 있는 잔액은 그대로 씁니다.
+     * 캐시에 없는 유저는 lookupExecutor 에서 동시에 조회하므로 전체 지연은 테이블 조회 한 번과 비슷합니다.
+     * 존재하지 않는 유저는 결과에서 빠지고, 결과는 요청한 id 순서를 따릅니다.
+     */
+    public Map<Long, UserPoint> getPoints(final Collection<Long> userIds) throws InterruptedException {
+        if (userIds == null || userIds.isEmpty()) {
+            throw new IllegalArgumentException("IDs must be provided");
+        }
+        Set<Long> ids = new LinkedHashSet<>(userIds);
+        if (ids.contains(null)) {
+            throw new IllegalArgumentException("ID must be provided");
+        }
+        if (ids.size() > maxBatchIds) {
+            throw new IllegalArgumentException("Too many IDs. max: " + maxBatchIds);
+        }
+
+        Map<Long, UserPoint> cached = new HashMap<>();
+        Map<Long, CompletableFuture<UserPoint>> loading = new HashMap<>();
+        for (Long id : ids) {
+            UserPoint userPoint = userPointCache.peek(id);
+            if (userPoint != null) {
+                cached.put(id, userPoint);
+            } else if (shardEngine != null) {
+                loading.put(id, shardEngine.get(id));
+            } else {
+                loading.put(id, CompletableFuture.supplyAsync(() -> readPoint(id), lookupExecutor));
             }
         }
+
+        Map<Long, UserPoint> result = new LinkedHashMap<>();
+        for (Long id : ids) {
+            UserPoint userPoint = cached.containsKey(id) ? cached.get(id) : await(loading.get(id));
+            if (userPoint != null) {
+                result.put(id, userPoint);
+            }
+        }
+        return result;
     }
 
     public List<PointHistory> getHistory(final Long userId) throws InterruptedException {
         if (userId == null){
             throw new IllegalArgumentException("ID must be provided");
         }
-        Lock lock = lockMap.computeIfAbsent(userId, key -> new ReentrantLock());
-        if(!lock.tryLock(LOCK_TIMEOUT, TimeUnit.SECONDS)){
-            throw new RuntimeException("TimeOut! Failed to acquire lock for user: " + userId);
-        } else {
-            try {
-                UserPoint chkUser = userPointTable.selectById(userId);
-                if (chkUser == null){
-                    throw new UserNotFoundException("User not found");
-                }
-                return pointHistoryTable.selectAllByUserId(chkUser.id());
-            } finally {
-                lock.unlock();
+        PointAdmission.Permit permit = admission.admit(userId);
+        try {
+            if (shardEngine != null) {
+                UserPoint chkUser = findUser(userId);
+                pointHistoryAppender.awaitFlushed(chkUser.id());
+                return pointHistoryIndex.selectAllByUserId(chkUser.id());
             }
+            if (historyReads == null) {
+                return lockStrategy.read(userId, () -> selectHistory(userId, () -> {}));
+            }
+            return historyReads.execute(userId, closeFlight -> lockStrategy.read(userId, () -> selectHistory(userId, closeFlight)));
+        } finally {
+            permit.close();
+        }
+    }
+
+    /**
+     * 조건에 맞는 내역을 지연 평가되는 Stream 으로 반환합니다.
+     * 유저 확인만 락 안에서 하고, 내역은 소비하는 쪽에서 읽어가는 만큼만 인덱스에서 가져옵니다.
+     */
+    public Stream<PointHistory> getHistory(final Long userId, final PointHistoryQuery query) throws InterruptedException {
+        if (userId == null){
+            throw new IllegalArgumentException("ID must be provided");
+        }
+        PointAdmission.Permit permit = admission.admit(userId);
+        try {
+            UserPoint chkUser = findUser(userId);
+            pointHistoryAppender.awaitFlushed(chkUser.id());
+            return pointHistoryIndex.stream(chkUser.id(), query);
+        } finally {
+            permit.close();
+        }
+    }
+
+    /**
+     * 유저의 충전/사용 합계와 from ~ to 의 일별 합계를 반환합니다. 미리 집계해 둔 값을 읽으므로 내역 수와 상관없습니다.
+     */
+    public PointSummary getSummary(final Long userId, final LocalDate from, final LocalDate to) throws InterruptedException {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("From must not be after to.");
+        }
+        if (userId == null){
+            throw new IllegalArgumentException("ID must be provided");
+        }
+        PointAdmission.Permit permit = admission.admit(userId);
+        try {
+            UserPoint chkUser = findUser(userId);
+            pointHistoryAppender.awaitFlushed(chkUser.id());
+            return pointHistoryIndex.summary(chkUser.id(), from, to);
+        } finally {
+            permit.close();
         }
     }
 
     public UserPoint patchCharge(final Long userId, final Long amount) throws InterruptedException {
+        return patchCharge(userId, amount, null);
+    }
+
+    /**
+     * idempotencyKey 가 있으면 같은 키로 이미 처리한 충전은 다시 반영하지 않고 처음 결과를 반환합니다.
+     */
+    public UserPoint patchCharge(final Long userId, final Long amount, final String idempotencyKey) throws InterruptedException {
         if (amount < 0L){
             throw new IllegalArgumentException("Amount must be a positive number.");
         }
-        Lock lock = lockMap.computeIfAbsent(userId, key -> new ReentrantLock());
-        if(!lock.tryLock(LOCK_TIMEOUT, TimeUnit.SECONDS)){
-            throw new RuntimeException("TimeOut! Failed to acquire lock for user: " + userId);
+        return applyOnce(userId, amount, TransactionType.CHARGE, idempotencyKey);
+    }
+
+    public UserPoint patchUse(final Long userId, final Long amount) throws InterruptedException {
+        return patchUse(userId, amount, null);
+    }
+
+    /**
+     * idempotencyKey 가 있으면 같은 키로 이미 처리한 사용은 다시 반영하지 않고 처음 결과를 반환합니다.
+     */
+    public UserPoint patchUse(final Long userId, final Long amount, final String idempotencyKey) throws InterruptedException {
+        if (amount > 0L){
+            throw new IllegalArgumentException("Amount must be a negative number.");
+        }
+        return applyOnce(userId, amount, TransactionType.USE, idempotencyKey);
+    }
+
+    /**
+     * 한 유저의 여러 충전/사용을 한 배치로 반영하고 rows 순서대로 결과를 반환합니다.
+     * 순서대로 잔액을 계산해 잔액이 음수가 되는 사용만 개별로 거절하고, 나머지는 유저 락 한 번 안에서 조회/저장 한 번과
+     * reserve(n) 으로 반영합니다. SHARD 엔진에서는 메시지를 한꺼번에 넘기므로 shard 가 같은 배치로 모아 반영합니다.
+     * admission 자리는 배치 하나에 하나만 씁니다.
+     */
+    public List<CompletableFuture<UserPoint>> applyAll(final Long userId, final List<PointBulkRow> rows) {
+        if (userId == null) {
+            throw new IllegalArgumentException("ID must be provided");
+        }
+        List<CompletableFuture<UserPoint>> results = new ArrayList<>(rows.size());
+        List<PointBulkRow> accepted = new ArrayList<>(rows.size());
+        for (PointBulkRow row : rows) {
+            RuntimeException invalid = validate(userId, row);
+            results.add(invalid == null ? null : CompletableFuture.failedFuture(invalid));
+            if (invalid == null) {
+                accepted.add(row);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return results;
+        }
+
+        PointAdmission.Permit permit = admission.admit(userId);
+        List<CompletableFuture<UserPoint>> applied;
+        if (shardEngine == null) {
+            try {
+                applied = bulkCommitter.commitAll(userId, accepted);
+            } finally {
+                permit.close();
+            }
         } else {
+            applied = new ArrayList<>(accepted.size());
+            for (PointBulkRow row : accepted) {
+                applied.add(expire(userId, shardEngine.apply(userId, row.amount(), row.type())));
+            }
+            CompletableFuture.allOf(applied.toArray(CompletableFuture[]::new)).whenComplete((v, e) -> permit.close());
+        }
+        Iterator<CompletableFuture<UserPoint>> next = applied.iterator();
+        results.replaceAll(result -> result == null ? next.next() : result);
+        return results;
+    }
+
+    private static RuntimeException validate(Long userId, PointBulkRow row) {
+        if (!userId.equals(row.userId())) {
+            return new IllegalArgumentException("Row belongs to another user: " + row.userId());
+        }
+        if (row.type() == TransactionType.CHARGE && row.amount() < 0L) {
+            return new IllegalArgumentException("Amount must be a positive number.");
+        }
+        if (row.type() == TransactionType.USE && row.amount() > 0L) {
+            return new IllegalArgumentException("Amount must be a negative number.");
+        }
+        return null;
+    }
+
+    /**
+     * getPoint 를 asyncExecutor 에서 처리합니다. SHARD 엔진이면 스레드를 거치지 않고 shard 의 결과를 그대로 넘깁니다.
+     */
+    public CompletableFuture<UserPoint> getPointAsync(final Long userId) {
+        if (shardEngine == null || userId == null) {
+            return async(() -> getPoint(userId));
+        }
+        return onShard(userId, () -> shardEngine.get(userId)).thenApply(userPoint -> {
+            if (userPoint == null) {
+                throw new UserNotFoundException("User not found");
+            }
+            return userPoint;
+        });
+    }
+
+    public CompletableFuture<List<PointHistory>> getHistoryAsync(final Long userId) {
+        return async(() -> getHistory(userId));
+    }
+
+    /**
+     * patchCharge 를 asyncExecutor 에서 처리합니다. SHARD 엔진이고 idempotencyKey 가 없으면 shard 의 결과를 그대로 넘깁니다.
+     */
+    public CompletableFuture<UserPoint> chargeAsync(final Long userId, final Long amount, final String idempotencyKey) {
+        if (amount < 0L){
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Amount must be a positive number."));
+        }
+        return applyAsync(userId, amount, TransactionType.CHARGE, idempotencyKey);
+    }
+
+    /**
+     * patchUse 를 asyncExecutor 에서 처리합니다. SHARD 엔진이고 idempotencyKey 가 없으면 shard 의 결과를 그대로 넘깁니다.
+     */
+    public CompletableFuture<UserPoint> useAsync(final Long userId, final Long amount, final String idempotencyKey) {
+        if (amount > 0L){
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Amount must be a negative number."));
+        }
+        return applyAsync(userId, amount, TransactionType.USE, idempotencyKey);
+    }
+
+    public IdempotencyStore.IdempotencyStats idempotencyStats() {
+        return idempotencyStore.stats();
+    }
+
+    public PointAdmission.AdmissionStats admissionStats() {
+        return admission.stats();
+    }
+
+    public AsyncStats asyncStats() {
+        return new AsyncStats(asyncExecutor.getActiveCount(), asyncExecutor.getQueue().size(),
+                asyncRejections.sum(), asyncTimeouts.sum());
+    }
+
+    /**
+     * single-flight 를 쓰지 않으면 null 을 반환합니다.
+     */
+    public SingleFlight.FlightStats pointReadStats() {
+        return pointReads == null ? null : pointReads.stats();
+    }
+
+    public SingleFlight.FlightStats historyReadStats() {
+        return historyReads == null ? null : historyReads.stats();
+    }
+
+    /**
+     * SHARD 엔진을 쓰지 않으면 null 을 반환합니다.
+     */
+    public PointShardEngine.EngineStats shardEngineStats() {
+        return shardEngine == null ? null : shardEngine.stats();
+    }
+
+    private CompletableFuture<UserPoint> applyAsync(final Long userId, final long amount, final TransactionType type,
+                                                    final String idempotencyKey) {
+        if (shardEngine == null || userId == null || idempotencyKey != null) {
+            return async(() -> applyOnce(userId, amount, type, idempotencyKey));
+        }
+        return onShard(userId, () -> shardEngine.apply(userId, amount, type));
+    }
+
+    /**
+     * task 를 asyncExecutor 에 넘깁니다. 대기열이 가득 차면 바로 거절하고,
+     * asyncTimeout 안에 시작하지 못한 task 는 실행하지 않고 RequestTimeoutException 으로 끝냅니다.
+     * 시작한 task 는 락 타임아웃 같은 자신의 제한 시간 안에 끝납니다.
+     */
+    private <T> CompletableFuture<T> async(Callable<T> task) {
+        AsyncTask<T> asyncTask = new AsyncTask<>(task);
+        try {
+            asyncExecutor.execute(asyncTask);
+        } catch (RejectedExecutionException e) {
+            asyncRejections.increment();
+            return CompletableFuture.failedFuture(new TooManyRequestsException("Async queue is full. capacity: " + asyncQueueCapacity));
+        }
+        CompletableFuture.delayedExecutor(asyncTimeoutMillis, TimeUnit.MILLISECONDS).execute(() -> {
+            if (asyncTask.started.compareAndSet(false, true)) {
+                asyncTimeouts.increment();
+                asyncTask.result.completeExceptionally(
+                        new RequestTimeoutException("Request was not started within " + asyncTimeoutMillis + "ms"));
+            }
+        });
+        return asyncTask.result;
+    }
+
+    /**
+     * shard 메시지의 결과를 넘기고, 끝나면 admission 자리를 돌려줍니다.
+     */
+    private CompletableFuture<UserPoint> onShard(long userId, Supplier<CompletableFuture<UserPoint>> message) {
+        PointAdmission.Permit permit;
+        try {
+            permit = admission.admit(userId);
+        } catch (TooManyRequestsException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return expire(userId, message.get()).whenComplete((userPoint, e) -> permit.close());
+    }
+
+    /**
+     * lock.timeout 안에 shard 가 꺼내지 못한 메시지는 동기 API 와 같이 취소하고 LockTimeoutException 으로 끝냅니다.
+     */
+    private CompletableFuture<UserPoint> expire(long userId, CompletableFuture<UserPoint> future) {
+        CompletableFuture.delayedExecutor(engineTimeoutMillis, TimeUnit.MILLISECONDS).execute(() -> future.cancel(false));
+        return future.handle((userPoint, e) -> {
+            if (e instanceof CancellationException) {
+                throw new LockTimeoutException(userId);
+            }
+            if (e != null) {
+                throw e instanceof CompletionException completion ? completion : new CompletionException(e);
+            }
+            return userPoint;
+        });
+    }
+
+    /**
+     * 키는 admission 과 유저 락보다 먼저 확인하므로, 다시 온 요청은 한도에 세지 않고 락도 테이블도 거치지 않습니다.
+     * 처음 요청만 자리를 차지하고, 같은 키로 처음 결과를 기다리는 요청은 자리를 쓰지 않습니다.
+     * 자리가 없어 거절되면 아무것도 반영하지 않았으므로 키를 남기지 않습니다.
+     */
+    private UserPoint applyOnce(final Long userId, final long amount, final TransactionType type,
+                                final String idempotencyKey) throws InterruptedException {
+        if (userId == null) {
+            throw new IllegalArgumentException("ID must be provided");
+        }
+        if (idempotencyKey == null) {
+            return admitAndApply(userId, amount, type);
+        }
+        return idempotencyStore.execute(userId, idempotencyKey, amount, type, () -> admitAndApply(userId, amount, type));
+    }
+
+    private UserPoint admitAndApply(final long userId, final long amount, final TransactionType type) throws InterruptedException {
+        PointAdmission.Permit permit = admission.admit(userId);
+        try {
+            return apply(userId, amount, type);
+        } finally {
+            permit.close();
+        }
+    }
+
+    /**
+     * 유저의 write 락 안에서 잔액 확인, 차감/충전, 내역 기록을 한 번에 수행합니다.
+     * 내역에는 결과 잔액이 아니라 이번 요청의 변화량을 남깁니다. 내역을 남기지 못하면 잔액을 되돌립니다.
+     * 비동기 내역 파이프라인을 쓰면 잔액이 저장되는 즉시 반환하고, 내역은 writer 가 이어서 기록합니다.
+     * SHARD 엔진에서는 락 대신 유저의 shard 에 메시지로 넘기고 결과를 기다립니다.
+     */
+    private UserPoint apply(final Long userId, final long amount, final TransactionType type) throws InterruptedException {
+        if (shardEngine != null) {
+            return await(userId, shardEngine.apply(userId, amount, type));
+        }
+        if (groupCommitter != null) {
+            return groupCommitter.submit(userId, amount, type);
+        }
+        return lockStrategy.write(userId, () -> {
+            UserPoint chkUser = userPointCache.selectById(userId);
+            if (chkUser == null) {
+                throw new UserNotFoundException("User not found");
+            }
+            if (chkUser.point() + amount < 0){
+                throw new IllegalArgumentException("You can't deduct more points than you own.");
+            }
+            PointHistoryAppender.Reservation reservation = pointHistoryAppender.reserve(1);
             try {
-                UserPoint chkUser = userPointTable.selectById(userId);
-                if (chkUser == null) {
-                    throw new UserNotFoundException("User not found");
-                }
+                UserPoint saved;
                 try {
-                    return userPointTable.insertOrUpdate(chkUser.id(), chkUser.point() + amount);
+                    saved = userPointCache.insertOrUpdate(chkUser.id(), chkUser.point() + amount);
                 } catch (RuntimeException e){
                     throw new RuntimeException("Database connection error", e);
                 }
+                long updateMillis = saved == null ? System.currentTimeMillis() : saved.updateMillis();
+                try {
+                    reservation.append(chkUser.id(), amount, type, updateMillis);
+                } catch (RuntimeException e) {
+                    throw rollback(userPointCache, chkUser, e);
+                }
+                return saved;
             } finally {
-                lock.unlock();
+                reservation.release();
             }
+        });
+    }
+
+    /**
+     * 내역을 남기지 못한 쓰기의 잔액을 before 로 되돌립니다. 되돌리지도 못했으면 잔액은 이미 바뀐 것이므로,
+     * 같은 멱등 키의 재시도가 다시 반영하지 않도록 PointWriteIncompleteException 을 반환합니다.
+     */
+    static RuntimeException rollback(UserPointCache userPointCache, UserPoint before, RuntimeException failure) {
+        try {
+            userPointCache.insertOrUpdate(before.id(), before.point());
+        } catch (RuntimeException e) {
+            failure.addSuppressed(e);
+            return new PointWriteIncompleteException(before.id(), failure);
         }
+        return new RuntimeException("Database connection error", failure);
     }
 
-    public UserPoint patchUse(final Long userId, final Long amount){
-        if (amount > 0L){
-            throw new IllegalArgumentException("Amount must be a negative number.");
+    private UserPoint findUser(long userId) throws InterruptedException {
+        if (shardEngine != null) {
+            UserPoint userPoint = await(userId, shardEngine.get(userId));
+            if (userPoint == null) {
+                throw new UserNotFoundException("User not found");
+            }
+            return userPoint;
         }
-        UserPoint chkUser = userPointTable.selectById(userId);
-        if (chkUser == null) {
+        UserPoint userPoint = selectPoint(userId);
+        if (userPoint == null) {
             throw new UserNotFoundException("User not found");
         }
-        if (chkUser.point() + amount < 0){
-            throw new IllegalArgumentException("You can't deduct more points than you own.");
+        return userPoint;
+    }
+
+    /**
+     * 유저의 read 락 안에서 잔액을 읽습니다. single-flight 를 쓰면 같은 유저의 동시 조회는 먼저 온 조회의 결과를 나눠 받습니다.
+     */
+    private UserPoint selectPoint(long userId) throws InterruptedException {
+        if (pointReads == null) {
+            return lockStrategy.read(userId, () -> userPointCache.selectById(userId));
+        }
+        return pointReads.execute(userId, closeFlight -> lockStrategy.read(userId, () -> {
+            UserPoint userPoint = userPointCache.selectById(userId);
+            closeFlight.run();
+            return userPoint;
+        }));
+    }
+
+    private List<PointHistory> selectHistory(long userId, Runnable closeFlight) {
+        UserPoint chkUser = userPointCache.selectById(userId);
+        if (chkUser == null){
+            throw new UserNotFoundException("User not found");
+        }
+        pointHistoryAppender.awaitFlushed(chkUser.id());
+        List<PointHistory> histories = pointHistoryIndex.selectAllByUserId(chkUser.id());
+        closeFlight.run();
+        return histories;
+    }
+
+    private UserPoint readPoint(long userId) {
+        try {
+            return selectPoint(userId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * shard 가 lock.timeout 안에 메시지를 꺼내지 못하면 취소하고 락 타임아웃으로 거절합니다.
+     * 이미 처리 중이라 취소할 수 없으면 끝날 때까지 기다립니다.
+     */
+    private UserPoint await(long userId, CompletableFuture<UserPoint> future) throws InterruptedException {
+        try {
+            return future.get(engineTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (future.cancel(false)) {
+                throw new LockTimeoutException(userId);
+            }
+            return await(future);
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new CompletionException(e.getCause());
         }
+    }
+
+    private UserPoint await(CompletableFuture<UserPoint> future) throws InterruptedException {
         try {
-            pointHistoryTable.insert(chkUser.id(), chkUser.point() + amount, TransactionType.USE, System.currentTimeMillis());
-            return userPointTable.selectById(chkUser.id());
-        }catch (RuntimeException e){
-            throw new RuntimeException("Database connection error", e);
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof InterruptedException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
         }
     }
+
+    private static final class AsyncTask<T> implements Runnable {
+        private final Callable<T> task;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        // 실행과 타임아웃 중 먼저 가져간 쪽만 결과를 채운다.
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        private AsyncTask(Callable<T> task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            if (!started.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                result.complete(task.call());
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+
+    public record AsyncStats(
+            int active,
+            int queued,
+            long rejections,
+            long timeouts
+    ) {
+    }
 }
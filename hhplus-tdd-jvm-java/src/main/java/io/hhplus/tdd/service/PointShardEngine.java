@@ -0,0 +1,354 @@
+package io.hhplus.tdd.service;
+
+import io.hhplus.tdd.database.PointHistoryAppender;
+import io.hhplus.tdd.database.UserPointCache;
+import io.hhplus.tdd.exception.PointWriteIncompleteException;
+import io.hhplus.tdd.exception.TooManyRequestsException;
+import io.hhplus.tdd.exception.UserNotFoundException;
+import io.hhplus.tdd.point.TransactionType;
+import io.hhplus.tdd.point.UserPoint;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+
+/**
+ * userId 를 shard 로 나누고 shard 마다 스레드 하나가 그 유저들의 잔액을 혼자 읽고 쓰는 실행 엔진입니다.
+ * <p>
+ * 조회/충전/사용은 shard 큐에 넣는 메시지가 되고 결과는 CompletableFuture 로 돌려받습니다.
+ * shard 스레드는 큐에 쌓인 메시지를 한 번에 꺼내 유저별로 모으고, 유저마다 도착 순서대로 잔액을 계산한 뒤
+ * 저장 한 번과 내역 기록으로 반영하므로 락이 필요 없습니다. 잔액은 shard 안의 맵에 두고 처음 볼 때만 테이블에서 읽습니다.
+ * <p>
+ * 테이블 I/O 는 shard 스레드가 직접 하므로 한 shard 의 처리량은 테이블 지연에 묶이고, 전체 처리량은 shard 수만큼 늘어납니다.
+ * 큐가 가득 찬 shard 로 보낸 메시지는 기다리지 않고 TooManyRequestsException 으로 거절합니다.
+ * <p>
+ * PointService 의 충전/사용(대량 반영 포함)은 모두 shard 를 거치지만, 다른 경로로 UserPointCache 에 쓴 유저는
+ * shard 가 다음 메시지 묶음을 처리하기 전에 들고 있던 잔액을 버리고 테이블에서 다시 읽습니다.
+ * shard 와 동시에 쓰는 경우까지 막지는 않으므로, 잔액은 shard 를 거쳐서만 바꾸는 것이 원칙입니다.
+ */
+public class PointShardEngine implements Closeable {
+    private static final long POLL_MILLIS = 100L;
+
+    private final UserPointCache userPointCache;
+    private final PointHistoryAppender pointHistoryAppender;
+    private final int maxBatchSize;
+    private final Shard[] shards;
+    private final LongConsumer writeListener = this::onWrite;
+    private volatile boolean closed;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder messages = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    /**
+     * @param cachedUsers shard 들이 잔액을 들고 있을 최대 유저 수. 넘치면 가장 오래 안 쓴 유저부터 내려놓고 다음에 테이블에서 다시 읽습니다.
+     */
+    public PointShardEngine(UserPointCache userPointCache,
+                            PointHistoryAppender pointHistoryAppender,
+                            int shardCount,
+                            int queueCapacity,
+                            int maxBatchSize,
+                            int cachedUsers) {
+        if (shardCount < 1 || queueCapacity < 1 || maxBatchSize < 1 || cachedUsers < 1) {
+            throw new IllegalArgumentException("Shard count, queue capacity, batch size and cached users must be at least 1");
+        }
+        this.userPointCache = userPointCache;
+        this.pointHistoryAppender = pointHistoryAppender;
+        this.maxBatchSize = maxBatchSize;
+        this.shards = new Shard[shardCount];
+        int usersPerShard = Math.max(1, cachedUsers / shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(queueCapacity, usersPerShard);
+            shards[i].worker = Thread.ofPlatform().name("point-shard-" + i).daemon().start(shards[i]::run);
+        }
+        userPointCache.addWriteListener(writeListener);
+    }
+
+    /**
+     * 유저의 잔액을 조회합니다. 같은 shard 에 먼저 들어온 충전/사용이 반영된 값을 받고, 없는 유저면 null 을 받습니다.
+     */
+    public CompletableFuture<UserPoint> get(long userId) {
+        return submit(new Message(userId, 0L, null));
+    }
+
+    /**
+     * 충전/사용을 반영하고 반영된 시점의 잔액을 받습니다.
+     * 잔액이 음수가 되면 IllegalArgumentException, 없는 유저면 UserNotFoundException 으로 끝납니다.
+     */
+    public CompletableFuture<UserPoint> apply(long userId, long amount, TransactionType type) {
+        return submit(new Message(userId, amount, type));
+    }
+
+    public EngineStats stats() {
+        int queued = 0;
+        int users = 0;
+        for (Shard shard : shards) {
+            queued += shard.queue.size();
+            users += shard.users;
+        }
+        return new EngineStats(shards.length, queued, users, batches.sum(), messages.sum(), rejections.sum());
+    }
+
+    /**
+     * shard 스레드를 멈추고 아직 처리하지 못한 메시지는 실패로 끝냅니다.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        userPointCache.removeWriteListener(writeListener);
+        for (Shard shard : shards) {
+            try {
+                shard.worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private CompletableFuture<UserPoint> submit(Message message) {
+        Shard shard = shards[shardOf(message.userId)];
+        if (closed) {
+            message.completeExceptionally(new IllegalStateException("Point shard engine is closed"));
+        } else if (!shard.queue.offer(message)) {
+            rejections.increment();
+            message.completeExceptionally(new TooManyRequestsException("Shard queue is full for user: " + message.userId));
+        }
+        return message;
+    }
+
+    /**
+     * shard 스레드가 아닌 곳에서 캐시에 쓴 유저를 표시해 둡니다. shard 스레드 자신의 저장은 들고 있는 잔액과 같으므로 건너뜁니다.
+     */
+    private void onWrite(long userId) {
+        Shard shard = shards[shardOf(userId)];
+        if (Thread.currentThread() != shard.worker) {
+            shard.stale.add(userId);
+        }
+    }
+
+    private int shardOf(long userId) {
+        // 연속된 id 가 한 shard 에 몰리지 않도록 섞은 뒤 나눈다.
+        long mixed = userId * 0x9E3779B97F4A7C15L;
+        return Math.floorMod((int) (mixed ^ (mixed >>> 32)), shards.length);
+    }
+
+    private final class Shard {
+        private final ArrayBlockingQueue<Message> queue;
+        // shard 스레드만 읽고 쓴다.
+        private final LinkedHashMap<Long, UserPoint> balances;
+        // 다른 경로로 쓰여 balances 에서 버려야 하는 유저. 유저마다 한 번만 담기므로 유저 수 이상 늘지 않는다.
+        private final Set<Long> stale = ConcurrentHashMap.newKeySet();
+        private volatile int users;
+        private volatile Thread worker;
+
+        private Shard(int queueCapacity, int maxUsers) {
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.balances = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, UserPoint> eldest) {
+                    return size() > maxUsers;
+                }
+            };
+        }
+
+        private void run() {
+            List<Message> batch = new ArrayList<>(maxBatchSize);
+            while (!closed) {
+                try {
+                    Message first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                } catch (InterruptedException e) {
+                    break;
+                }
+                queue.drainTo(batch, maxBatchSize - 1);
+                process(batch);
+                batch.clear();
+            }
+            queue.drainTo(batch);
+            for (Message message : batch) {
+                message.completeExceptionally(new IllegalStateException("Point shard engine is closed"));
+            }
+        }
+
+        private void process(List<Message> batch) {
+            batches.increment();
+            messages.add(batch.size());
+            // 표시를 먼저 지우고 잔액을 버리므로, 그 사이에 들어온 쓰기는 다음 묶음에서 다시 버린다.
+            for (Iterator<Long> iterator = stale.iterator(); iterator.hasNext(); ) {
+                Long userId = iterator.next();
+                iterator.remove();
+                balances.remove(userId);
+            }
+            Map<Long, List<Message>> byUser = new LinkedHashMap<>();
+            for (Message message : batch) {
+                byUser.computeIfAbsent(message.userId, id -> new ArrayList<>()).add(message);
+            }
+            for (Map.Entry<Long, List<Message>> entry : byUser.entrySet()) {
+                List<Message> claimed = new ArrayList<>(entry.getValue().size());
+                for (Message message : entry.getValue()) {
+                    if (message.claim()) {
+                        claimed.add(message);
+                    }
+                }
+                if (claimed.isEmpty()) {
+                    continue;
+                }
+                try {
+                    applyUser(entry.getKey(), claimed);
+                } catch (RuntimeException e) {
+                    // 테이블에 무엇이 남았는지 알 수 없으므로 다음 메시지는 테이블에서 다시 읽는다.
+                    balances.remove(entry.getKey());
+                    for (Message message : claimed) {
+                        message.completeExceptionally(e);
+                    }
+                }
+            }
+            users = balances.size();
+        }
+
+        /**
+         * 한 유저의 메시지를 도착 순서대로 계산하고 저장 한 번과 내역 기록으로 반영합니다.
+         */
+        private void applyUser(long userId, List<Message> claimed) {
+            UserPoint current = balances.get(userId);
+            if (current == null) {
+                current = userPointCache.selectById(userId);
+                if (current == null) {
+                    for (Message message : claimed) {
+                        if (message.type == null) {
+                            message.complete(null);
+                        } else {
+                            message.completeExceptionally(new UserNotFoundException("User not found"));
+                        }
+                    }
+                    return;
+                }
+                balances.put(userId, current);
+            }
+
+            long balance = current.point();
+            List<Message> accepted = new ArrayList<>(claimed.size());
+            for (Message message : claimed) {
+                if (message.type != null) {
+                    if (balance + message.amount < 0) {
+                        message.completeExceptionally(new IllegalArgumentException("You can't deduct more points than you own."));
+                        continue;
+                    }
+                    balance += message.amount;
+                    accepted.add(message);
+                }
+                message.balance = balance;
+                message.written = !accepted.isEmpty();
+            }
+
+            long updateMillis = current.updateMillis();
+            if (!accepted.isEmpty()) {
+                try {
+                    updateMillis = save(current, balance, accepted);
+                } catch (RuntimeException e) {
+                    balances.remove(userId);
+                    for (Message message : claimed) {
+                        if (message.type == null) {
+                            message.complete(current);
+                        } else {
+                            message.completeExceptionally(e);
+                        }
+                    }
+                    return;
+                }
+                balances.put(userId, new UserPoint(userId, balance, updateMillis));
+            }
+            for (Message message : claimed) {
+                message.complete(message.written
+                        ? new UserPoint(userId, message.balance, updateMillis)
+                        : current);
+            }
+        }
+
+        /**
+         * 첫 내역부터 남기지 못했으면 잔액을 before 로 되돌리고, 앞선 내역이 이미 남았으면 끝나지 않은 쓰기로 알립니다.
+         */
+        private long save(UserPoint before, long balance, List<Message> accepted) {
+            long userId = before.id();
+            PointHistoryAppender.Reservation reservation = pointHistoryAppender.reserve(accepted.size());
+            try {
+                UserPoint saved;
+                try {
+                    saved = userPointCache.insertOrUpdate(userId, balance);
+                } catch (RuntimeException e) {
+                    throw new RuntimeException("Database connection error", e);
+                }
+                long updateMillis = saved == null ? System.currentTimeMillis() : saved.updateMillis();
+                boolean appended = false;
+                try {
+                    for (Message message : accepted) {
+                        reservation.append(userId, message.amount, message.type, updateMillis);
+                        appended = true;
+                    }
+                } catch (RuntimeException e) {
+                    throw appended ? new PointWriteIncompleteException(userId, e) : PointService.rollback(userPointCache, before, e);
+                }
+                return updateMillis;
+            } finally {
+                reservation.release();
+            }
+        }
+    }
+
+    /**
+     * shard 큐에 넣는 메시지이자 그 결과. type 이 null 이면 조회입니다.
+     * shard 가 처리를 시작하기 전에만 cancel 할 수 있으므로, cancel 에 성공한 메시지는 반영되지 않습니다.
+     */
+    private static final class Message extends CompletableFuture<UserPoint> {
+        private static final int QUEUED = 0;
+        private static final int CLAIMED = 1;
+        private static final int CANCELLED = 2;
+
+        private final long userId;
+        private final long amount;
+        private final TransactionType type;
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+        private long balance;
+        private boolean written;
+
+        private Message(long userId, long amount, TransactionType type) {
+            this.userId = userId;
+            this.amount = amount;
+            this.type = type;
+        }
+
+        private boolean claim() {
+            return state.compareAndSet(QUEUED, CLAIMED);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return state.compareAndSet(QUEUED, CANCELLED) && super.cancel(mayInterruptIfRunning);
+        }
+    }
+
+    public record EngineStats(
+            int shards,
+            int queued,
+            int users,
+            long batches,
+            long messages,
+            long rejections
+    ) {
+    }
+}
@@ -0,0 +1,18 @@
+package io.hhplus.tdd.service;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 서비스 내부 executor 의 스레드를 만듭니다. 웹 컨테이너와 같이 spring.threads.virtual.enabled 가 켜져 있으면 가상 스레드를,
+ * 아니면 daemon 플랫폼 스레드를 만듭니다.
+ */
+final class PointThreads {
+    private PointThreads() {
+    }
+
+    static ThreadFactory factory(boolean virtual, String prefix) {
+        return virtual
+                ? Thread.ofVirtual().name(prefix, 0).factory()
+                : Thread.ofPlatform().name(prefix, 0).daemon().factory();
+    }
+}
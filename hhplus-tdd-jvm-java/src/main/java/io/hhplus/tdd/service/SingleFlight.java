@@ -0,0 +1,83 @@
+package io.hhplus.tdd.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 같은 유저에 대한 동시 조회를 하나로 묶습니다 (single-flight).
+ * <p>
+ * 먼저 온 조회가 리더가 되어 실제로 읽고, 그 사이에 온 조회는 리더의 결과나 예외를 그대로 받습니다.
+ * 리더는 유저의 read 락 안에서 결과를 만든 뒤 락을 놓기 전에 closeFlight 를 불러 더는 합류하지 못하게 하므로,
+ * 합류한 조회가 받는 결과에는 합류하기 전에 끝난 쓰기가 모두 반영되어 있습니다.
+ */
+public class SingleFlight<V> {
+    private final ConcurrentHashMap<Long, Flight<V>> flights = new ConcurrentHashMap<>();
+    private final LongAdder issued = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public V execute(long key, Loader<V> loader) throws InterruptedException {
+        while (true) {
+            Flight<V> flight = new Flight<>();
+            Flight<V> inFlight = flights.putIfAbsent(key, flight);
+            if (inFlight == null) {
+                issued.increment();
+                return lead(key, flight, loader);
+            }
+            try {
+                V result = inFlight.result.get();
+                coalesced.increment();
+                return result;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof InterruptedException) {
+                    // 리더 스레드가 인터럽트된 것이므로 이 조회와는 상관없다. 다시 시도한다.
+                    continue;
+                }
+                coalesced.increment();
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new CompletionException(e.getCause());
+            }
+        }
+    }
+
+    public FlightStats stats() {
+        return new FlightStats(flights.size(), issued.sum(), coalesced.sum());
+    }
+
+    private V lead(long key, Flight<V> flight, Loader<V> loader) throws InterruptedException {
+        Runnable closeFlight = () -> flights.remove(key, flight);
+        try {
+            V result = loader.load(closeFlight);
+            closeFlight.run();
+            flight.result.complete(result);
+            return result;
+        } catch (InterruptedException | RuntimeException e) {
+            closeFlight.run();
+            flight.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * 리더가 실제로 읽는 쪽. 결과를 만든 뒤, 읽은 값을 보호하는 락을 놓기 전에 closeFlight 를 불러야 합니다.
+     */
+    @FunctionalInterface
+    public interface Loader<V> {
+        V load(Runnable closeFlight) throws InterruptedException;
+    }
+
+    private static final class Flight<V> {
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+    }
+
+    public record FlightStats(
+            int inFlight,
+            long issued,
+            long coalesced
+    ) {
+    }
+}
@@ -0,0 +1,70 @@
+package io.hhplus.tdd.service;
+
+import io.hhplus.tdd.exception.LockTimeoutException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * 고정 개수의 StampedLock 에 유저를 나눠 담는 방식입니다. 유저 수와 상관없이 락 메모리가 일정합니다.
+ * <p>
+ * 쓰기는 stripe 의 write lock 을 잡고, 읽기는 먼저 락을 잡지 않고 optimistic read 로 수행합니다.
+ * 진행 중인 쓰기가 있거나 읽는 도중 쓰기가 끝나 검증에 실패하면 read lock 을 잡고 다시 읽으므로,
+ * 검증되지 않은 결과는 돌려주지 않습니다.
+ */
+public class StripedStampedLockStrategy implements PointLockStrategy {
+    private final StampedLock[] stripes;
+    private final int mask;
+    private final long timeoutMillis;
+
+    public StripedStampedLockStrategy(int stripeCount, long timeoutMillis) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new StampedLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new StampedLock();
+        }
+        this.mask = size - 1;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public <T> T read(long userId, Supplier<T> reader) {
+        StampedLock lock = stripeOf(userId);
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            T result = reader.get();
+            if (lock.validate(stamp)) {
+                return result;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public <T> T write(long userId, Supplier<T> writer) throws InterruptedException {
+        StampedLock lock = stripeOf(userId);
+        long stamp = lock.tryWriteLock(timeoutMillis, TimeUnit.MILLISECONDS);
+        if (stamp == 0L) {
+            throw new LockTimeoutException(userId);
+        }
+        try {
+            return writer.get();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    int stripeCount() {
+        return stripes.length;
+    }
+
+    private StampedLock stripeOf(long userId) {
+        return stripes[Stripes.indexOf(userId, mask)];
+    }
+}
@@ -0,0 +1,14 @@
+package io.hhplus.tdd.service;
+
+final class Stripes {
+    private Stripes() {
+    }
+
+    /**
+     * 연속된 userId 가 같은 stripe 에 몰리지 않도록 비트를 섞은 뒤 mask 를 적용합니다.
+     */
+    static int indexOf(long userId, int mask) {
+        long h = userId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
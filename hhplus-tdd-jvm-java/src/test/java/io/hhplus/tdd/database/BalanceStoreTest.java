@@ -0,0 +1,116 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.UserPoint;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * BalanceStore 구현이 모두 지켜야 하는 동작을 구현마다 같은 테스트로 확인합니다.
+ */
+public class BalanceStoreTest {
+
+    enum Store {
+        // 원래 테이블과 같은 API 의 스레드 안전한 테이블을 감싼 어댑터
+        TABLE,
+        MEMORY,
+    }
+
+    // 요구사항 분석
+    // - 없는 유저는 잔액 0, 저장한 잔액은 그대로 읽음
+    // - compareAndSet 은 현재 잔액이 기대한 값일 때만 바꾸고, 아니면 null 을 반환하고 그대로 둠
+    // - 여러 스레드가 compareAndSet 으로 같은 유저를 올려도 올린 만큼만 반영됨
+    @ParameterizedTest
+    @EnumSource(Store.class)
+    @DisplayName("없는 유저는 잔액 0 으로 읽고, 저장한 잔액은 그대로 읽는다")
+    void findAndSaveTest(Store type) {
+        // 셋업
+        BalanceStore store = store(type);
+
+        // 실행
+        UserPoint empty = store.find(1L);
+        UserPoint saved = store.save(1L, 100L);
+        store.save(2L, 5L);
+
+        // 검증
+        assertThat(empty.point()).isZero();
+        assertThat(saved.id()).isEqualTo(1L);
+        assertThat(saved.point()).isEqualTo(100L);
+        assertThat(store.find(1L)).isEqualTo(saved);
+        assertThat(store.find(2L).point()).isEqualTo(5L);
+    }
+
+    @ParameterizedTest
+    @EnumSource(Store.class)
+    @DisplayName("compareAndSet 은 현재 잔액이 기대한 값일 때만 바꾸고, 다르면 null 을 반환한다")
+    void compareAndSetTest(Store type) {
+        // 셋업
+        BalanceStore store = store(type);
+
+        // 실행
+        UserPoint created = store.compareAndSet(1L, 0L, 100L);
+        UserPoint stale = store.compareAndSet(1L, 0L, 200L);
+        UserPoint updated = store.compareAndSet(1L, 100L, 70L);
+        UserPoint missing = store.compareAndSet(2L, 10L, 20L);
+
+        // 검증
+        assertThat(created.point()).isEqualTo(100L);
+        assertThat(stale).isNull();
+        assertThat(updated.point()).isEqualTo(70L);
+        assertThat(missing).isNull();
+        assertThat(store.find(1L).point()).isEqualTo(70L);
+        assertThat(store.find(2L).point()).isZero();
+    }
+
+    @ParameterizedTest
+    @EnumSource(Store.class)
+    @DisplayName("16 개 스레드가 compareAndSet 으로 같은 유저의 잔액을 1 씩 올려도 올린 횟수만큼만 반영된다")
+    void concurrentCompareAndSetTest(Store type) throws Exception {
+        // 셋업
+        BalanceStore store = store(type);
+        int threadCount = 16;
+        int incrementsPerThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // 실행
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < incrementsPerThread; i++) {
+                    UserPoint current;
+                    do {
+                        current = store.find(1L);
+                    } while (store.compareAndSet(1L, current.point(), current.point() + 1) == null);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // 검증
+        assertThat(store.find(1L).point()).isEqualTo((long) threadCount * incrementsPerThread);
+    }
+
+    private static BalanceStore store(Store type) {
+        return switch (type) {
+            case TABLE -> new TableBalanceStore(new SimulatedUserPointTable(new SeededThrottle(0L, 0.0)));
+            case MEMORY -> new InMemoryBalanceStore(16);
+        };
+    }
+}
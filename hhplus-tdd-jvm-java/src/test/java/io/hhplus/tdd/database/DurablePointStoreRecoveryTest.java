@@ -0,0 +1,56 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.config.PointProperties.FsyncPolicy;
+import io.hhplus.tdd.point.TransactionType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ./gradlew loadTest 로만 실행되는 복구 시간 측정입니다.
+ * 내역 수는 -Drecovery.rows 로 바꿀 수 있고, 기본 1000만 건은 힙이 2GB 정도 필요합니다.
+ */
+@Tag("load")
+public class DurablePointStoreRecoveryTest {
+    private static final int ROWS = Integer.getInteger("recovery.rows", 10_000_000);
+    private static final int USERS = 100_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("스냅샷 없이 멈춘 로그의 트랜잭션 1000만 건을 수 초 안에 되살리고, 스냅샷 뒤에는 로그를 읽지 않는다")
+    void recoveryTimeTest() throws IOException {
+        // 셋업
+        DurablePointStore crashed = new DurablePointStore(directory, FsyncPolicy.NONE, 0L, 0L);
+        for (int i = 0; i < ROWS; i++) {
+            crashed.appendHistory(i % USERS, 10L, TransactionType.CHARGE, i);
+        }
+        crashed.closeWithoutSnapshot();
+        System.gc();
+
+        // 실행
+        try (DurablePointStore store = new DurablePointStore(directory, FsyncPolicy.NONE, 0L, 0L)) {
+            DurablePointStore.RecoveryStats stats = store.recoveryStats();
+            System.out.printf("recovered %d transaction records, %d users in %d ms%n",
+                    stats.transactionRecords(), stats.users(), stats.elapsedMillis());
+
+            // 검증
+            assertThat(stats.transactionRecords()).isEqualTo(ROWS);
+            assertThat(stats.elapsedMillis()).isLessThan(10_000L);
+        }
+        try (DurablePointStore store = new DurablePointStore(directory, FsyncPolicy.NONE, 0L, 0L)) {
+            DurablePointStore.RecoveryStats stats = store.recoveryStats();
+            System.out.printf("reopened after snapshot: %d users in %d ms%n", stats.users(), stats.elapsedMillis());
+            assertThat(stats.transactionRecords()).isZero();
+            assertThat(store.selectById(0L).point()).isEqualTo(10L * (ROWS / USERS));
+            assertThat(store.aggregates().summary(0L, null, null).count()).isEqualTo(ROWS / USERS);
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.config.PointProperties.FsyncPolicy;
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointSummary;
+import io.hhplus.tdd.point.TransactionType;
+import io.hhplus.tdd.point.UserPoint;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DurablePointStoreTest {
+    @TempDir
+    Path directory;
+
+    // 요구사항 분석
+    // - 재시작해도 잔액과 내역이 남아 있어야 함
+    // - 잔액과 내역은 한 레코드로 남으므로, 내역 없이 잔액만 되살아나지 않아야 함
+    // - 로그 끝이 잘려 있으면 온전한 레코드까지만 되살림
+    // - 잔액은 로그에 남은 뒤에만 조회에 보임
+    // - 내역 집계는 스냅샷에 함께 남고, 다시 열 때 스냅샷 뒤의 로그만 더함
+    // - 스냅샷 뒤에는 로그를 지우고, 다시 열 때 스냅샷 뒤의 로그만 읽음
+    @Test
+    @DisplayName("멈춘 뒤 다시 열면 로그의 트랜잭션 레코드에서 잔액과 내역을 함께 되살린다")
+    void recoverTest() throws IOException {
+        // 셋업
+        DurablePointStore crashed = open();
+        crashed.saveBalance(1L, 100L);
+        crashed.appendHistory(1L, 100L, TransactionType.CHARGE, 10L);
+        crashed.saveBalance(1L, 70L);
+        crashed.appendHistory(1L, -30L, TransactionType.USE, 20L);
+        crashed.saveBalance(2L, 5L);
+        crashed.closeWithoutSnapshot();
+
+        // 실행
+        try (DurablePointStore store = open()) {
+            // 검증
+            assertThat(store.selectById(1L).point()).isEqualTo(70L);
+            assertThat(store.selectById(1L).updateMillis()).isEqualTo(20L);
+            assertThat(store.selectById(2L).point()).isZero();
+            assertThat(store.historyOf(1L)).extracting(PointHistory::amount).containsExactly(100L, -30L);
+            assertThat(store.appendHistory(2L, 5L, TransactionType.CHARGE, 30L).id()).isEqualTo(3L);
+            assertThat(store.recoveryStats().transactionRecords()).isEqualTo(2L);
+        }
+    }
+
+    @Test
+    @DisplayName("내역 레코드를 남기기 전에는 saveBalance 한 잔액이 조회에 보이지 않는다")
+    void unloggedBalanceTest() throws IOException {
+        try (DurablePointStore store = open()) {
+            // 실행
+            UserPoint saved = store.saveBalance(1L, 100L);
+            UserPoint beforeAppend = store.selectById(1L);
+            store.appendHistory(1L, 100L, TransactionType.CHARGE, saved.updateMillis());
+
+            // 검증
+            assertThat(saved.point()).isEqualTo(100L);
+            assertThat(beforeAppend.point()).isZero();
+            assertThat(store.selectById(1L)).isEqualTo(saved);
+        }
+    }
+
+    @Test
+    @DisplayName("로그 끝의 잘린 레코드는 버리고 그 앞까지 되살린다")
+    void tornTailTest() throws IOException {
+        // 셋업
+        DurablePointStore crashed = open();
+        crashed.appendHistory(1L, 100L, TransactionType.CHARGE, 10L);
+        crashed.appendHistory(1L, 100L, TransactionType.CHARGE, 20L);
+        crashed.closeWithoutSnapshot();
+        Path log = single(DurablePointStore.LOG_PREFIX, DurablePointStore.LOG_SUFFIX);
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.truncate(PointWriteAheadLog.RECORD_SIZE * 2L - 3);
+        }
+
+        // 실행
+        try (DurablePointStore store = open()) {
+            // 검증
+            assertThat(store.selectById(1L).point()).isEqualTo(100L);
+            assertThat(store.historyOf(1L)).hasSize(1);
+            assertThat(Files.size(log)).isEqualTo(PointWriteAheadLog.RECORD_SIZE);
+        }
+    }
+
+    @Test
+    @DisplayName("스냅샷은 로그를 내역 세그먼트로 옮기고 지우며, 다시 열 때 스냅샷 뒤의 로그만 읽는다")
+    void snapshotTest() throws IOException {
+        // 셋업
+        DurablePointStore crashed = open();
+        crashed.appendHistory(1L, 100L, TransactionType.CHARGE, 10L);
+        crashed.appendHistory(2L, 200L, TransactionType.CHARGE, 20L);
+        crashed.snapshot();
+        crashed.appendHistory(1L, 50L, TransactionType.CHARGE, 30L);
+        crashed.closeWithoutSnapshot();
+
+        // 실행
+        try (DurablePointStore store = open()) {
+            assertThat(store.recoveryStats().transactionRecords()).isEqualTo(1L);
+            store.appendHistory(3L, 300L, TransactionType.CHARGE, 40L);
+            store.snapshot();
+            store.appendHistory(2L, -50L, TransactionType.USE, 50L);
+        }
+        try (DurablePointStore store = open()) {
+            // 검증
+            assertThat(store.selectById(1L).point()).isEqualTo(150L);
+            assertThat(store.selectById(2L).point()).isEqualTo(150L);
+            assertThat(store.selectById(3L).point()).isEqualTo(300L);
+            assertThat(store.historyOf(1L)).extracting(PointHistory::id).containsExactly(1L, 3L);
+            assertThat(store.historyOf(2L)).extracting(PointHistory::amount).containsExactly(200L, -50L);
+            assertThat(store.recoveryStats().transactionRecords()).isZero();
+            assertThat(store.recoveryStats().segments()).isEqualTo(3L);
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.map(path -> path.getFileName().toString()).filter(name -> name.endsWith(DurablePointStore.LOG_SUFFIX)))
+                    .singleElement()
+                    .satisfies(name -> assertThat(Files.size(directory.resolve(name))).isZero());
+        }
+    }
+
+    @Test
+    @DisplayName("스냅샷을 쓰기 전에 남은 세그먼트는 버리고 로그에서 다시 읽는다")
+    void leftoverSegmentTest() throws IOException {
+        // 셋업
+        DurablePointStore crashed = open();
+        crashed.appendHistory(1L, 100L, TransactionType.CHARGE, 10L);
+        crashed.snapshot();
+        crashed.appendHistory(1L, 20L, TransactionType.CHARGE, 20L);
+        crashed.closeWithoutSnapshot();
+        Path segment = single(DurablePointStore.SEGMENT_PREFIX, DurablePointStore.SEGMENT_SUFFIX);
+        // 다음 로그 번호의 세그먼트를 만들어 세그먼트를 쓴 뒤 스냅샷을 쓰기 전에 멈춘 상황을 흉내낸다.
+        Path leftover = directory.resolve(DurablePointStore.SEGMENT_PREFIX + "000001" + DurablePointStore.SEGMENT_SUFFIX);
+        Files.copy(segment, leftover);
+
+        // 실행
+        try (DurablePointStore store = open()) {
+            // 검증
+            assertThat(store.historyOf(1L)).extracting(PointHistory::amount).containsExactly(100L, 20L);
+            assertThat(store.selectById(1L).point()).isEqualTo(120L);
+        }
+    }
+
+    @Test
+    @DisplayName("세그먼트와 최근 로그의 내역을 모두 한 번씩 훑는다")
+    void forEachHistoryTest() throws IOException {
+        // 셋업
+        try (DurablePointStore store = open()) {
+            store.appendHistory(1L, 100L, TransactionType.CHARGE, 10L);
+            store.appendHistory(2L, 200L, TransactionType.CHARGE, 20L);
+            store.snapshot();
+            store.appendHistory(1L, -30L, TransactionType.USE, 30L);
+
+            // 실행
+            List<PointHistory> rows = new ArrayList<>();
+            store.forEachHistory(rows::add);
+
+            // 검증
+            assertThat(rows).extracting(PointHistory::id).containsExactlyInAnyOrder(1L, 2L, 3L);
+        }
+    }
+
+    @Test
+    @DisplayName("내역 집계는 스냅샷에서 되살리고 스냅샷 뒤의 로그만 한 번씩 더한다")
+    void aggregatesTest() throws IOException {
+        // 셋업
+        DurablePointStore crashed = open();
+        crashed.appendHistory(1L, 100L, TransactionType.CHARGE, 10L);
+        crashed.appendHistory(1L, -30L, TransactionType.USE, 20L);
+        crashed.snapshot();
+        crashed.appendHistory(1L, 50L, TransactionType.CHARGE, 30L);
+        crashed.closeWithoutSnapshot();
+
+        // 실행
+        try (DurablePointStore store = open()) {
+            PointSummary summary = store.aggregates().summary(1L, null, null);
+
+            // 검증
+            assertThat(store.recoveryStats().transactionRecords()).isEqualTo(1L);
+            assertThat(summary.charged()).isEqualTo(150L);
+            assertThat(summary.used()).isEqualTo(30L);
+            assertThat(summary.count()).isEqualTo(3L);
+            assertThat(summary.lastActivityMillis()).isEqualTo(30L);
+        }
+        try (DurablePointStore store = open()) {
+            assertThat(store.aggregates().summary(1L, null, null).count()).isEqualTo(3L);
+        }
+    }
+
+    @Test
+    @DisplayName("스냅샷 없이 내역 세그먼트만 남아 있으면 시작하지 않는다")
+    void missingSnapshotTest() throws IOException {
+        // 셋업
+        try (DurablePointStore store = open()) {
+            store.appendHistory(1L, 100L, TransactionType.CHARGE, 10L);
+        }
+        Files.delete(directory.resolve(DurablePointStore.SNAPSHOT_FILE));
+
+        // 실행 & 검증
+        assertThatThrownBy(this::open).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("여러 스레드가 동시에 쓰는 동안 스냅샷을 찍어도 모든 내역과 잔액이 남는다")
+    void concurrentAppendTest() throws Exception {
+        // 셋업
+        int threadCount = 8;
+        int perThread = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount + 1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+
+        // 실행
+        DurablePointStore crashed = open();
+        Future<?> snapshots = executor.submit(() -> {
+            while (writing.get()) {
+                crashed.snapshot();
+            }
+            return null;
+        });
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            long userId = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 1; i <= perThread; i++) {
+                    crashed.saveBalance(userId, i);
+                    crashed.appendHistory(userId, 1L, TransactionType.CHARGE, i);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        writing.set(false);
+        snapshots.get();
+        for (long userId = 0; userId < threadCount; userId++) {
+            assertThat(crashed.historyOf(userId)).hasSize(perThread);
+        }
+        crashed.closeWithoutSnapshot();
+        executor.shutdown();
+
+        // 검증
+        try (DurablePointStore store = open()) {
+            for (long userId = 0; userId < threadCount; userId++) {
+                assertThat(store.historyOf(userId)).hasSize(perThread)
+                        .extracting(PointHistory::id).isSorted();
+                assertThat(store.selectById(userId).point()).isEqualTo(perThread);
+            }
+        }
+    }
+
+    private Path single(String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> matched = files.filter(path -> path.getFileName().toString().startsWith(prefix)
+                    && path.getFileName().toString().endsWith(suffix)).toList();
+            assertThat(matched).hasSize(1);
+            return matched.get(0);
+        }
+    }
+
+    private DurablePointStore open() throws IOException {
+        return new DurablePointStore(directory, FsyncPolicy.GROUP, 0L, 0L);
+    }
+}
@@ -0,0 +1,109 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * HistoryStore 구현이 모두 지켜야 하는 동작을 구현마다 같은 테스트로 확인합니다.
+ */
+public class HistoryStoreTest {
+
+    enum Store {
+        // 원래 테이블과 같은 API 의 스레드 안전한 테이블을 감싼 어댑터
+        TABLE,
+        MEMORY,
+    }
+
+    // 요구사항 분석
+    // - 추가한 내역에 겹치지 않는 id 를 매기고, 유저별로 추가한 순서대로 읽음
+    // - 없는 유저는 빈 목록
+    // - 여러 스레드가 동시에 추가해도 빠지거나 겹치는 내역이 없음
+    @ParameterizedTest
+    @EnumSource(Store.class)
+    @DisplayName("추가한 내역을 유저별로 추가한 순서대로 읽고, id 는 1 부터 겹치지 않게 늘어난다")
+    void appendAndFindTest(Store type) {
+        // 셋업
+        HistoryStore store = store(type);
+
+        // 실행
+        PointHistory first = store.append(1L, 100L, TransactionType.CHARGE, 10L);
+        PointHistory other = store.append(2L, 50L, TransactionType.CHARGE, 20L);
+        PointHistory second = store.append(1L, -30L, TransactionType.USE, 30L);
+
+        // 검증
+        assertThat(first).isEqualTo(new PointHistory(1L, 1L, 100L, TransactionType.CHARGE, 10L));
+        assertThat(other.id()).isEqualTo(2L);
+        assertThat(second.id()).isEqualTo(3L);
+        assertThat(store.findAllByUserId(1L)).containsExactly(first, second);
+        assertThat(store.findAllByUserId(2L)).containsExactly(other);
+        assertThat(store.findAllByUserId(3L)).isEmpty();
+    }
+
+    @ParameterizedTest
+    @EnumSource(Store.class)
+    @DisplayName("16 개 스레드가 동시에 추가해도 내역이 빠지거나 id 가 겹치지 않고, 스레드별 추가 순서가 유지된다")
+    void concurrentAppendTest(Store type) throws Exception {
+        // 셋업
+        HistoryStore store = store(type);
+        int threadCount = 16;
+        int appendsPerThread = 1_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // 실행
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            long userId = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < appendsPerThread; i++) {
+                    store.append(userId, i, TransactionType.CHARGE, i);
+                    // 모든 스레드가 공유하는 유저
+                    store.append(-1L, 1L, TransactionType.CHARGE, i);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // 검증
+        Set<Long> ids = new HashSet<>();
+        for (long userId = 0; userId < threadCount; userId++) {
+            List<PointHistory> histories = store.findAllByUserId(userId);
+            assertThat(histories).extracting(PointHistory::amount)
+                    .containsExactlyElementsOf(LongStream.range(0, appendsPerThread).boxed().toList());
+            histories.forEach(history -> ids.add(history.id()));
+        }
+        List<PointHistory> shared = store.findAllByUserId(-1L);
+        assertThat(shared).hasSize(threadCount * appendsPerThread);
+        shared.forEach(history -> ids.add(history.id()));
+        assertThat(ids).hasSize(threadCount * appendsPerThread * 2);
+    }
+
+    private static HistoryStore store(Store type) {
+        return switch (type) {
+            case TABLE -> new TableHistoryStore(new SimulatedPointHistoryTable(new SeededThrottle(0L, 0.0)));
+            case MEMORY -> new InMemoryHistoryStore(16);
+        };
+    }
+}
@@ -0,0 +1,206 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+import io.hhplus.tdd.point.UserPoint;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LockedTableTest {
+    private static final int THREAD_COUNT = 16;
+    private static final int OPERATIONS_PER_THREAD = 200;
+
+    // 요구사항 분석
+    // - 다른 유저의 쓰기라도 감싼 테이블에는 한 번에 하나씩만 들어감
+    // - 조회는 쓰기 도중에 들어가지 않음
+    // - 원래 테이블의 결과를 그대로 돌려줌
+    // - stripe 로 나누면 stripe 마다 테이블을 따로 두어 다른 stripe 의 쓰기는 동시에 진행
+    // - 나눈 내역 테이블의 id 는 전체에서 겹치지 않고 유저 안에서는 기록 순서대로 커짐
+    @Test
+    @DisplayName("LockedUserPointTable 은 여러 유저의 쓰기를 하나씩 넘기고, 쓰는 동안 조회를 넘기지 않는다")
+    void userPointTableTest() throws Exception {
+        // 셋업
+        OverlapProbe probe = new OverlapProbe();
+        UserPointTable table = new LockedUserPointTable(new UserPointTable() {
+            @Override
+            public UserPoint selectById(Long id) {
+                probe.read();
+                return UserPoint.empty(id);
+            }
+
+            @Override
+            public UserPoint insertOrUpdate(long id, long amount) {
+                probe.write();
+                return new UserPoint(id, amount, 0L);
+            }
+        });
+
+        // 실행
+        runConcurrently(thread -> {
+            table.insertOrUpdate(thread, thread);
+            table.selectById((long) thread);
+        });
+
+        // 검증
+        assertThat(probe.overlaps.sum()).isZero();
+        assertThat(table.insertOrUpdate(1L, 10L)).isEqualTo(new UserPoint(1L, 10L, 0L));
+    }
+
+    @Test
+    @DisplayName("LockedPointHistoryTable 은 여러 유저의 내역 추가를 하나씩 넘기고, 추가하는 동안 조회를 넘기지 않는다")
+    void pointHistoryTableTest() throws Exception {
+        // 셋업
+        OverlapProbe probe = new OverlapProbe();
+        PointHistoryTable table = new LockedPointHistoryTable(new PointHistoryTable() {
+            @Override
+            public PointHistory insert(long userId, long amount, TransactionType type, long updateMillis) {
+                probe.write();
+                return new PointHistory(0L, userId, amount, type, updateMillis);
+            }
+
+            @Override
+            public List<PointHistory> selectAllByUserId(long userId) {
+                probe.read();
+                return List.of();
+            }
+        });
+
+        // 실행
+        runConcurrently(thread -> {
+            table.insert(thread, 10L, TransactionType.CHARGE, 0L);
+            table.selectAllByUserId(thread);
+        });
+
+        // 검증
+        assertThat(probe.overlaps.sum()).isZero();
+    }
+
+    @Test
+    @DisplayName("stripe 로 나눈 LockedUserPointTable 은 stripe 마다 쓰기를 하나씩 넘기면서 다른 stripe 의 쓰기는 함께 진행한다")
+    void stripedUserPointTableTest() throws Exception {
+        // 셋업
+        List<OverlapProbe> probes = new CopyOnWriteArrayList<>();
+        AtomicInteger writing = new AtomicInteger();
+        AtomicInteger maxWriting = new AtomicInteger();
+        LockedUserPointTable table = new LockedUserPointTable(() -> {
+            OverlapProbe probe = new OverlapProbe();
+            probes.add(probe);
+            return new UserPointTable() {
+                @Override
+                public UserPoint selectById(Long id) {
+                    probe.read();
+                    return UserPoint.empty(id);
+                }
+
+                @Override
+                public UserPoint insertOrUpdate(long id, long amount) {
+                    maxWriting.accumulateAndGet(writing.incrementAndGet(), Math::max);
+                    probe.write();
+                    writing.decrementAndGet();
+                    return new UserPoint(id, amount, 0L);
+                }
+            };
+        }, 10);
+
+        // 실행
+        runConcurrently(thread -> {
+            table.insertOrUpdate(thread, thread);
+            table.selectById((long) thread);
+        });
+
+        // 검증
+        assertThat(table.stripeCount()).isEqualTo(16);
+        assertThat(probes).hasSize(16).allSatisfy(probe -> assertThat(probe.overlaps.sum()).isZero());
+        assertThat(maxWriting.get()).isGreaterThan(1);
+    }
+
+    @Test
+    @DisplayName("stripe 로 나눈 LockedPointHistoryTable 은 id 를 전체에서 겹치지 않게 다시 붙이고 유저별 조회에도 같은 id 를 돌려준다")
+    void stripedPointHistoryTableTest() throws Exception {
+        // 셋업
+        LockedPointHistoryTable table = new LockedPointHistoryTable(PointHistoryTable::new, 4);
+        List<PointHistory> inserted = new CopyOnWriteArrayList<>();
+
+        // 실행
+        runConcurrently(thread -> {
+            if (inserted.size() < 64) {
+                inserted.add(table.insert(thread % 8, 10L, TransactionType.CHARGE, 0L));
+            }
+        });
+
+        // 검증
+        assertThat(inserted).extracting(PointHistory::id).doesNotHaveDuplicates()
+                .allMatch(id -> id >= 1L && id <= inserted.size());
+        for (long userId = 0; userId < 8; userId++) {
+            long user = userId;
+            List<Long> expected = inserted.stream().filter(row -> row.userId() == user).map(PointHistory::id).sorted().toList();
+            assertThat(table.selectAllByUserId(userId)).extracting(PointHistory::id).containsExactlyElementsOf(expected);
+        }
+    }
+
+    private void runConcurrently(ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREAD_COUNT; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    task.run(thread);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask {
+        void run(int thread);
+    }
+
+    /**
+     * 쓰기끼리, 또는 쓰기와 조회가 겹쳐 들어오면 셉니다.
+     */
+    private static final class OverlapProbe {
+        private final AtomicInteger writers = new AtomicInteger();
+        private final AtomicInteger readers = new AtomicInteger();
+        private final LongAdder overlaps = new LongAdder();
+
+        void write() {
+            if (writers.incrementAndGet() > 1 || readers.get() > 0) {
+                overlaps.increment();
+            }
+            LockSupport.parkNanos(10_000L);
+            writers.decrementAndGet();
+        }
+
+        void read() {
+            readers.incrementAndGet();
+            if (writers.get() > 0) {
+                overlaps.increment();
+            }
+            LockSupport.parkNanos(10_000L);
+            readers.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.UserPoint;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ./gradlew loadTest 로만 실행되는 잔액 맵의 힙 사용량과 조회 속도 비교입니다.
+ * UserPointTable 의 HashMap, LockMapStrategy 와 같은 ConcurrentHashMap, PointBalanceMap 에 같은 유저를 채우고
+ * 유저당 힙과 한 스레드의 임의 조회 속도를 출력합니다. 동시 조회 처리량은 PointBalanceMapBenchmark 로 잽니다.
+ * 유저 수는 -Dfootprint.users 로 바꿀 수 있습니다.
+ */
+@Tag("load")
+public class PointBalanceMapFootprintTest {
+    private static final int USERS = Integer.getInteger("footprint.users", 10_000_000);
+    private static final int LOOKUPS = 20_000_000;
+
+    @Test
+    @DisplayName("PointBalanceMap 은 같은 유저를 HashMap 보다 적은 힙으로 담는다")
+    void footprintTest() {
+        // 실행
+        Footprint hashMap = measure("HashMap", () -> {
+            HashMap<Long, UserPoint> map = new HashMap<>();
+            for (long id = 0; id < USERS; id++) {
+                map.put(id, new UserPoint(id, id, id));
+            }
+            return map;
+        }, map -> map::get);
+        Footprint concurrentHashMap = measure("ConcurrentHashMap", () -> {
+            ConcurrentHashMap<Long, UserPoint> map = new ConcurrentHashMap<>();
+            for (long id = 0; id < USERS; id++) {
+                map.put(id, new UserPoint(id, id, id));
+            }
+            return map;
+        }, map -> map::get);
+        Footprint balanceMap = measure("PointBalanceMap", () -> {
+            PointBalanceMap map = new PointBalanceMap(USERS, 64);
+            for (long id = 0; id < USERS; id++) {
+                map.put(id, id, id);
+            }
+            return map;
+        }, map -> map::get);
+
+        // 검증
+        assertThat(balanceMap.bytesPerUser()).isLessThan(hashMap.bytesPerUser() * 0.6);
+        assertThat(balanceMap.bytesPerUser()).isLessThan(concurrentHashMap.bytesPerUser() * 0.6);
+    }
+
+    private <M> Footprint measure(String name, Supplier<M> fill, Function<M, LongFunction<UserPoint>> getter) {
+        long baseline = settledHeap();
+        long started = System.nanoTime();
+        M map = fill.get();
+        long fillMillis = (System.nanoTime() - started) / 1_000_000L;
+        long retained = settledHeap() - baseline;
+
+        LongFunction<UserPoint> get = getter.apply(map);
+        long seed = 42L;
+        long found = 0L;
+        started = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            seed = seed * 6364136223846793005L + 1442695040888963407L;
+            if (get.apply((seed >>> 1) % USERS) != null) {
+                found++;
+            }
+        }
+        long lookupNanos = System.nanoTime() - started;
+
+        Footprint footprint = new Footprint(retained / (double) USERS, fillMillis, LOOKUPS * 1_000.0 / lookupNanos);
+        System.out.printf("%-18s %s%n", name, footprint);
+        assertThat(found).isEqualTo(LOOKUPS);
+        return footprint;
+    }
+
+    private long settledHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private record Footprint(
+            double bytesPerUser,
+            long fillMillis,
+            double lookupsPerMicro
+    ) {
+        @Override
+        public String toString() {
+            return "%.1f bytes/user, fill %d ms, lookup %.1f ops/us".formatted(bytesPerUser, fillMillis, lookupsPerMicro);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.UserPoint;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PointBalanceMapTest {
+
+    // 요구사항 분석
+    // - 저장한 잔액을 그대로 읽음
+    // - 유저가 늘어나면 크기를 늘려도 잔액이 유지됨
+    // - version 이 맞을 때만 덮어쓰는 쓰기 제공
+    @Test
+    @DisplayName("저장한 잔액을 읽고, 없는 유저는 null 을 반환한다")
+    void putAndGetTest() {
+        // 셋업
+        PointBalanceMap balances = new PointBalanceMap(16, 4);
+
+        // 실행
+        balances.put(1L, 100L, 10L);
+        balances.put(0L, 5L, 20L);
+        balances.put(-1L, 7L, 30L);
+        balances.put(1L, 150L, 40L);
+
+        // 검증
+        assertThat(balances.get(1L)).isEqualTo(new UserPoint(1L, 150L, 40L));
+        assertThat(balances.get(0L)).isEqualTo(new UserPoint(0L, 5L, 20L));
+        assertThat(balances.get(-1L)).isEqualTo(new UserPoint(-1L, 7L, 30L));
+        assertThat(balances.get(2L)).isNull();
+        assertThat(balances.version(1L)).isEqualTo(2L);
+        assertThat(balances.stats().size()).isEqualTo(3L);
+    }
+
+    @Test
+    @DisplayName("예상보다 유저가 많아지면 크기를 늘리고 잔액을 그대로 유지한다")
+    void resizeTest() {
+        // 셋업
+        PointBalanceMap balances = new PointBalanceMap(0, 2);
+        long slotsBefore = balances.stats().slots();
+
+        // 실행
+        for (long userId = 1; userId <= 10_000; userId++) {
+            balances.put(userId, userId * 10, userId);
+        }
+
+        // 검증
+        assertThat(balances.stats().size()).isEqualTo(10_000L);
+        assertThat(balances.stats().slots()).isGreaterThan(slotsBefore);
+        for (long userId = 1; userId <= 10_000; userId++) {
+            assertThat(balances.get(userId).point()).isEqualTo(userId * 10);
+        }
+    }
+
+    @Test
+    @DisplayName("version 이 다르면 덮어쓰지 않는다")
+    void compareAndPutTest() {
+        // 셋업
+        PointBalanceMap balances = new PointBalanceMap(16, 1);
+
+        // 실행
+        long created = balances.compareAndPut(1L, 0L, 100L, 10L);
+        long stale = balances.compareAndPut(1L, 0L, 999L, 20L);
+        long updated = balances.compareAndPut(1L, created, 150L, 30L);
+        long missing = balances.compareAndPut(2L, 1L, 50L, 40L);
+
+        // 검증
+        assertThat(created).isEqualTo(1L);
+        assertThat(stale).isEqualTo(-1L);
+        assertThat(updated).isEqualTo(2L);
+        assertThat(missing).isEqualTo(-1L);
+        assertThat(balances.get(1L).point()).isEqualTo(150L);
+        assertThat(balances.get(2L)).isNull();
+    }
+
+    @Test
+    @DisplayName("여러 스레드가 동시에 쓰고 읽어도 마지막 잔액이 남는다")
+    void concurrentPutTest() throws Exception {
+        // 셋업
+        PointBalanceMap balances = new PointBalanceMap(0, 4);
+        int threadCount = 8;
+        int usersPerThread = 2_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+
+        // 실행
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threadCount; t++) {
+                long offset = (long) t * usersPerThread;
+                futures.add(executor.submit(() -> {
+                    for (long i = 0; i < usersPerThread; i++) {
+                        balances.put(offset + i, i, i);
+                        balances.put(offset + i, i + 1, i);
+                        UserPoint read = balances.get(offset + i);
+                        assertThat(read.point()).isEqualTo(i + 1);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // 검증
+        assertThat(balances.stats().size()).isEqualTo((long) threadCount * usersPerThread);
+        for (long userId = 0; userId < (long) threadCount * usersPerThread; userId++) {
+            assertThat(balances.version(userId)).isEqualTo(2L);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.DailyPointSummary;
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointSummary;
+import io.hhplus.tdd.point.TransactionType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PointHistoryAggregatesTest {
+    static final long DAY = 86_400_000L;
+    static final LocalDate EPOCH = LocalDate.ofEpochDay(0);
+
+    PointHistoryAggregates aggregates;
+
+    PointHistoryAggregatesTest() {
+        this.aggregates = new PointHistoryAggregates(ZoneOffset.UTC, 3);
+
+        aggregates.record(new PointHistory(1L, 1L, 100L, TransactionType.CHARGE, 10L));
+        aggregates.record(new PointHistory(2L, 1L, -30L, TransactionType.USE, DAY + 10L));
+    }
+
+    // 요구사항 분석
+    // - 유저별 충전/사용 합계, 건수, 마지막 활동 시각 제공
+    // - 조회한 적 없는 유저도 포함해 모든 내역을 추가될 때 바로 더함
+    // - 일별 합계는 최근 retainedDays 일만 남김
+    // - 이미 더한 id 이하의 내역은 다시 더하지 않음
+    @Test
+    @DisplayName("추가된 내역을 유저별로 더해 전체 합계와 일별 합계를 반환한다")
+    void summaryTest() {
+        // 실행
+        aggregates.record(new PointHistory(3L, 1L, 50L, TransactionType.CHARGE, DAY + 20L));
+        aggregates.record(new PointHistory(4L, 2L, 70L, TransactionType.CHARGE, DAY + 30L));
+        PointSummary summary = aggregates.summary(1L, EPOCH, EPOCH.plusDays(1));
+
+        // 검증
+        assertThat(summary).isEqualTo(new PointSummary(1L, 150L, 30L, 3L, DAY + 20L, List.of(
+                new DailyPointSummary(EPOCH, 100L, 0L, 1L),
+                new DailyPointSummary(EPOCH.plusDays(1), 50L, 30L, 2L)
+        )));
+        assertThat(aggregates.summary(2L, null, null).charged()).isEqualTo(70L);
+    }
+
+    @Test
+    @DisplayName("기간을 주지 않으면 일별 합계 없이 전체 합계만 반환한다")
+    void totalsOnlyTest() {
+        // 실행
+        PointSummary summary = aggregates.summary(1L, null, null);
+
+        // 검증
+        assertThat(summary.charged()).isEqualTo(100L);
+        assertThat(summary.used()).isEqualTo(30L);
+        assertThat(summary.daily()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("오래된 일별 합계는 지우지만 전체 합계에는 남는다")
+    void retentionTest() {
+        // 실행
+        aggregates.record(new PointHistory(3L, 1L, 10L, TransactionType.CHARGE, 3 * DAY));
+        PointSummary summary = aggregates.summary(1L, EPOCH, EPOCH.plusDays(10));
+
+        // 검증
+        assertThat(summary.daily()).extracting(DailyPointSummary::date)
+                .containsExactly(EPOCH.plusDays(1), EPOCH.plusDays(3));
+        assertThat(summary.charged()).isEqualTo(110L);
+        assertThat(summary.count()).isEqualTo(3L);
+    }
+
+    @Test
+    @DisplayName("이미 더한 내역을 다시 넘기면 건너뛰고, 되살린 집계에도 같은 규칙이 적용된다")
+    void duplicateTest() {
+        // 셋업
+        PointHistoryAggregates restored = new PointHistoryAggregates(ZoneOffset.UTC, 3);
+        aggregates.export().forEach(restored::restore);
+
+        // 실행
+        aggregates.record(new PointHistory(2L, 1L, -30L, TransactionType.USE, DAY + 10L));
+        restored.record(new PointHistory(2L, 1L, -30L, TransactionType.USE, DAY + 10L));
+        restored.record(new PointHistory(3L, 1L, 50L, TransactionType.CHARGE, DAY + 20L));
+
+        // 검증
+        assertThat(aggregates.summary(1L, null, null).count()).isEqualTo(2L);
+        assertThat(restored.summary(1L, EPOCH, EPOCH.plusDays(1))).isEqualTo(new PointSummary(1L, 150L, 30L, 3L, DAY + 20L, List.of(
+                new DailyPointSummary(EPOCH, 100L, 0L, 1L),
+                new DailyPointSummary(EPOCH.plusDays(1), 50L, 30L, 2L)
+        )));
+    }
+
+    @Test
+    @DisplayName("내역이 없는 유저는 빈 합계를 반환한다")
+    void emptyTest() {
+        // 실행
+        PointSummary summary = aggregates.summary(3L, EPOCH, EPOCH.plusDays(1));
+
+        // 검증
+        assertThat(summary).isEqualTo(new PointSummary(3L, 0L, 0L, 0L, 0L, List.of()));
+    }
+}
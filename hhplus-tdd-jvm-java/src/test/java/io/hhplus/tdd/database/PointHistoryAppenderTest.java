@@ -0,0 +1,132 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.config.PointProperties.HistoryOverflowPolicy;
+import io.hhplus.tdd.exception.HistoryQueueFullException;
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+public class PointHistoryAppenderTest {
+    PointHistoryTable pointHistoryTable;
+    PointHistoryIndex pointHistoryIndex;
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicLong cursor = new AtomicLong();
+    PointHistoryAppender pointHistoryAppender;
+
+    PointHistoryAppenderTest() {
+        this.pointHistoryTable = mock(PointHistoryTable.class);
+        this.pointHistoryIndex = new PointHistoryIndex(pointHistoryTable, false);
+
+        // release 가 열릴 때까지 insert 가 끝나지 않는 느린 테이블
+        when(pointHistoryTable.insert(anyLong(), anyLong(), any(), anyLong())).thenAnswer(invocation -> {
+            release.await();
+            return new PointHistory(cursor.incrementAndGet(), invocation.getArgument(0), invocation.getArgument(1),
+                    invocation.getArgument(2), invocation.getArgument(3));
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (pointHistoryAppender != null) {
+            pointHistoryAppender.stop();
+        }
+    }
+
+    // 요구사항 분석
+    // - 내역 기록을 기다리지 않고 바로 반환
+    // - 큐가 가득 차면 정책에 따라 거절하거나 버림
+    // - 종료할 때 큐에 남은 내역을 모두 기록
+    @Test
+    @DisplayName("내역 기록이 끝나기 전에 반환하고, 밀린 내역은 writer 가 이어서 기록한다")
+    void asyncAppendTest() {
+        // 셋업
+        pointHistoryAppender = appender(10, HistoryOverflowPolicy.BLOCK);
+
+        // 실행
+        append(1L, 100L);
+        append(1L, -30L);
+        PointHistoryAppender.AppenderStats pending = pointHistoryAppender.stats();
+        release.countDown();
+        boolean flushed = pointHistoryAppender.awaitFlushed(1L);
+
+        // 검증
+        assertThat(pending.appended()).isZero();
+        assertThat(flushed).isTrue();
+        assertThat(pointHistoryAppender.stats().appended()).isEqualTo(2L);
+        assertThat(pointHistoryAppender.stats().queueDepth()).isZero();
+        verify(pointHistoryTable).insert(eq(1L), eq(100L), eq(TransactionType.CHARGE), anyLong());
+        verify(pointHistoryTable).insert(eq(1L), eq(-30L), eq(TransactionType.CHARGE), anyLong());
+    }
+
+    @Test
+    @DisplayName("FAIL 정책에서 큐가 가득 차면 자리를 확보하지 못하고 바로 예외가 발생한다")
+    void failFastTest() {
+        // 셋업
+        pointHistoryAppender = appender(1, HistoryOverflowPolicy.FAIL);
+        append(1L, 100L);
+
+        // 실행 & 검증
+        assertThrows(HistoryQueueFullException.class, () -> pointHistoryAppender.reserve(1));
+    }
+
+    @Test
+    @DisplayName("DROP 정책에서 큐가 가득 차면 내역을 버리고 dropped 로 집계한다")
+    void dropTest() {
+        // 셋업
+        pointHistoryAppender = appender(1, HistoryOverflowPolicy.DROP);
+        append(1L, 100L);
+
+        // 실행
+        append(1L, 200L);
+
+        // 검증
+        assertThat(pointHistoryAppender.stats().dropped()).isEqualTo(1L);
+        release.countDown();
+        pointHistoryAppender.awaitFlushed(1L);
+        verify(pointHistoryTable, never()).insert(eq(1L), eq(200L), any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("종료할 때 큐에 남은 내역을 모두 기록한다")
+    void flushOnStopTest() {
+        // 셋업
+        pointHistoryAppender = appender(10, HistoryOverflowPolicy.BLOCK);
+        for (long i = 1; i <= 5; i++) {
+            append(i, i);
+        }
+
+        // 실행
+        release.countDown();
+        pointHistoryAppender.stop();
+
+        // 검증
+        assertThat(pointHistoryAppender.isRunning()).isFalse();
+        assertThat(pointHistoryAppender.stats().appended()).isEqualTo(5L);
+        verify(pointHistoryTable, times(5)).insert(anyLong(), anyLong(), any(), anyLong());
+    }
+
+    private PointHistoryAppender appender(int capacity, HistoryOverflowPolicy overflow) {
+        PointHistoryAppender appender = new PointHistoryAppender(pointHistoryIndex, true, capacity, 16, overflow, 5_000L, 5_000L);
+        appender.start();
+        return appender;
+    }
+
+    private void append(long userId, long amount) {
+        PointHistoryAppender.Reservation reservation = pointHistoryAppender.reserve(1);
+        try {
+            reservation.append(userId, amount, TransactionType.CHARGE, System.currentTimeMillis());
+        } finally {
+            reservation.release();
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointHistoryQuery;
+import io.hhplus.tdd.point.TransactionType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PointHistoryArchiveTest {
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    @TempDir
+    Path directory;
+    AtomicLong now = new AtomicLong(100 * DAY);
+
+    // 요구사항 분석
+    // - maxAge 보다 오래된 내역은 세그먼트 파일로 옮기고 힙에서 지움
+    // - 옮긴 내역도 조회 조건에 걸리면 최근 내역과 id 순으로 이어서 읽음
+    // - 옮기는 동안 들어온 쓰기와 조회는 빠지거나 겹치지 않음
+    // - 오래 돌아도 힙에 남는 내역 수는 maxAge 만큼으로 일정
+    // - 이어진 작은 세그먼트는 maxRowsPerSegment 안에서 하나로 합침
+    // - 세그먼트에 없는 유저는 userId 범위와 bloom filter 로 걸러 파일을 열지 않음
+    @Test
+    @DisplayName("오래된 내역은 세그먼트로 옮기고 전체 조회는 옮긴 내역과 최근 내역을 id 순으로 이어서 반환한다")
+    void archiveTest() throws IOException {
+        // 셋업
+        try (PointHistoryArchive archive = archive(7 * DAY, 1_000)) {
+            archive.append(1L, 100L, TransactionType.CHARGE, now.get() - 10 * DAY);
+            archive.append(2L, 50L, TransactionType.CHARGE, now.get() - 9 * DAY);
+            archive.append(1L, -30L, TransactionType.USE, now.get() - 8 * DAY);
+            archive.append(1L, 20L, TransactionType.CHARGE, now.get() - DAY);
+
+            // 실행
+            int moved = archive.archive();
+
+            // 검증
+            assertThat(moved).isEqualTo(3);
+            assertThat(archive.historyOf(1L)).extracting(PointHistory::id).containsExactly(1L, 3L, 4L);
+            assertThat(archive.historyOf(1L).get(1)).isEqualTo(new PointHistory(3L, 1L, -30L, TransactionType.USE, now.get() - 8 * DAY));
+            assertThat(archive.historyOf(2L)).extracting(PointHistory::id).containsExactly(2L);
+            assertThat(archive.historyOf(3L)).isEmpty();
+            PointHistoryArchive.ArchiveStats stats = archive.stats();
+            assertThat(stats.hotRows()).isEqualTo(1L);
+            assertThat(stats.hotUsers()).isEqualTo(1L);
+            assertThat(stats.segments()).isEqualTo(1L);
+            assertThat(stats.archivedRows()).isEqualTo(3L);
+            assertThat(archive.archive()).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("기간, cursor, 건수 조건은 세그먼트와 최근 내역을 가로질러 적용된다")
+    void queryAcrossTiersTest() throws IOException {
+        // 셋업
+        try (PointHistoryArchive archive = archive(DAY, 1_000)) {
+            for (int day = 10; day >= 1; day--) {
+                archive.append(1L, day, TransactionType.CHARGE, now.get() - day * DAY + 1);
+                if (day % 3 == 0) {
+                    archive.archive();
+                }
+            }
+            archive.archive();
+
+            // 실행
+            List<PointHistory> range = archive.stream(1L,
+                    new PointHistoryQuery(null, now.get() - 6 * DAY, now.get() - 2 * DAY, null, null)).toList();
+            List<PointHistory> page = archive.stream(1L,
+                    new PointHistoryQuery(4L, null, null, null, 3)).toList();
+
+            // 검증
+            assertThat(archive.stats().segments()).isEqualTo(4L);
+            assertThat(range).extracting(PointHistory::amount).containsExactly(6L, 5L, 4L, 3L);
+            assertThat(page).extracting(PointHistory::id).containsExactly(5L, 6L, 7L);
+            assertThat(archive.historyOf(1L)).extracting(PointHistory::id).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L);
+        }
+    }
+
+    @Test
+    @DisplayName("옮기는 동안 쓰고 읽어도 내역이 빠지거나 겹치지 않는다")
+    void concurrentArchiveTest() throws Exception {
+        // 셋업
+        int users = 8;
+        int rowsPerUser = 2_000;
+        ExecutorService executor = Executors.newFixedThreadPool(users + 1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try (PointHistoryArchive archive = archive(1L, 500)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (long user = 1; user <= users; user++) {
+                long userId = user;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < rowsPerUser; i++) {
+                        archive.append(userId, 1L, TransactionType.CHARGE, now.getAndIncrement());
+                        if (i % 100 == 0) {
+                            assertIdsAscending(archive.historyOf(userId));
+                        }
+                    }
+                }));
+            }
+            Future<?> archiver = executor.submit(() -> {
+                while (writing.get()) {
+                    archive.archive();
+                }
+                return null;
+            });
+
+            // 실행
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            writing.set(false);
+            archiver.get(30, TimeUnit.SECONDS);
+
+            // 검증
+            for (long user = 1; user <= users; user++) {
+                List<PointHistory> history = archive.historyOf(user);
+                assertThat(history).hasSize(rowsPerUser);
+                assertIdsAscending(history);
+            }
+            assertThat(archive.stats().segments()).isPositive();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("오래 돌아도 힙에 남는 내역은 maxAge 만큼으로 일정하다")
+    void flatHotTierTest() throws IOException {
+        // 셋업
+        int rowsPerDay = 1_000;
+        try (PointHistoryArchive archive = archive(7 * DAY, 1 << 20)) {
+            long maxHotRows = 0L;
+
+            // 실행: 1년 동안 하루 1,000 건을 쓰고 하루에 한 번 옮긴다.
+            for (int day = 0; day < 365; day++) {
+                for (int i = 0; i < rowsPerDay; i++) {
+                    archive.append(i % 100, 1L, TransactionType.CHARGE, now.get() + (long) i * DAY / rowsPerDay);
+                }
+                now.addAndGet(DAY);
+                archive.archive();
+                maxHotRows = Math.max(maxHotRows, archive.stats().hotRows());
+            }
+
+            // 검증
+            PointHistoryArchive.ArchiveStats stats = archive.stats();
+            assertThat(maxHotRows).isLessThanOrEqualTo(8L * rowsPerDay);
+            assertThat(stats.hotRows() + stats.archivedRows()).isEqualTo(365L * rowsPerDay);
+            assertThat(stats.archivedBytes()).isLessThan(stats.archivedRows() * 25L);
+            assertThat(archive.historyOf(0L)).hasSize(365 * 10);
+        }
+    }
+
+    @Test
+    @DisplayName("이어진 작은 세그먼트는 maxRowsPerSegment 를 넘지 않게 합치고, 합친 뒤에도 내역은 id 순으로 그대로다")
+    void mergeTest() throws IOException {
+        // 셋업: 3건짜리 세그먼트 다섯 개를 만든다.
+        try (PointHistoryArchive archive = archive(DAY, 10)) {
+            for (int pass = 0; pass < 5; pass++) {
+                archive.append(1L, 1L, TransactionType.CHARGE, now.get() - 2 * DAY);
+                archive.append(2L, 2L, TransactionType.CHARGE, now.get() - 2 * DAY);
+                archive.append(1L, 3L, TransactionType.CHARGE, now.get() - 2 * DAY);
+                archive.archive();
+            }
+            archive.append(1L, 4L, TransactionType.CHARGE, now.get());
+            List<PointHistory> before = archive.historyOf(1L);
+
+            // 실행
+            int first = archive.merge();
+            int second = archive.merge();
+            int third = archive.merge();
+
+            // 검증: 앞의 세 개(9건)를 합치고, 남은 두 개(6건)는 9건 세그먼트와 합치면 10건을 넘으므로 따로 합친다.
+            assertThat(first).isEqualTo(2);
+            assertThat(second).isEqualTo(1);
+            assertThat(third).isZero();
+            PointHistoryArchive.ArchiveStats stats = archive.stats();
+            assertThat(stats.segments()).isEqualTo(2L);
+            assertThat(stats.archivedRows()).isEqualTo(15L);
+            assertThat(archive.historyOf(1L)).isEqualTo(before);
+            assertIdsAscending(archive.historyOf(2L));
+            assertThat(archive.historyOf(2L)).hasSize(5);
+            assertThat(archive.stream(1L, new PointHistoryQuery(6L, null, null, null, 3)).toList())
+                    .extracting(PointHistory::id).containsExactly(7L, 9L, 10L);
+        }
+    }
+
+    @Test
+    @DisplayName("세그먼트에 없는 유저는 userId 범위와 filter 로 거의 다 걸러낸다")
+    void userFilterTest() throws IOException {
+        // 셋업: 짝수 유저만 옮긴다.
+        try (PointHistoryArchive archive = archive(DAY, 100_000)) {
+            for (long userId = 0; userId < 20_000; userId += 2) {
+                archive.append(userId, 1L, TransactionType.CHARGE, 0L);
+            }
+            archive.archive();
+            PointHistorySegmentFile segment = PointHistorySegmentFile.open(single(segmentFiles()));
+
+            // 실행
+            int falsePositives = 0;
+            for (long userId = 1; userId < 20_000; userId += 2) {
+                if (segment.mayContain(userId)) {
+                    falsePositives++;
+                }
+            }
+
+            // 검증
+            for (long userId = 0; userId < 20_000; userId += 2) {
+                assertThat(segment.mayContain(userId)).isTrue();
+            }
+            assertThat(segment.mayContain(-1L)).isFalse();
+            assertThat(segment.mayContain(20_000L)).isFalse();
+            assertThat(falsePositives).isLessThan(500);
+            assertThat(archive.historyOf(1L)).isEmpty();
+            assertThat(archive.historyOf(2L)).hasSize(1);
+        }
+    }
+
+    @Test
+    @DisplayName("close 하면 세그먼트 파일을 지운다")
+    void closeTest() throws IOException {
+        // 셋업
+        PointHistoryArchive archive = archive(DAY, 1_000);
+        archive.append(1L, 100L, TransactionType.CHARGE, 0L);
+        archive.archive();
+        assertThat(segmentFiles()).hasSize(1);
+
+        // 실행
+        archive.close();
+
+        // 검증
+        assertThat(segmentFiles()).isEmpty();
+    }
+
+    private PointHistoryArchive archive(long maxAgeMillis, int maxRowsPerSegment) throws IOException {
+        return new PointHistoryArchive(directory, maxAgeMillis, 0L, maxRowsPerSegment, now::get);
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.toList();
+        }
+    }
+
+    private static Path single(List<Path> files) {
+        assertThat(files).hasSize(1);
+        return files.get(0);
+    }
+
+    private static void assertIdsAscending(List<PointHistory> history) {
+        for (int i = 1; i < history.size(); i++) {
+            assertThat(history.get(i).id()).isGreaterThan(history.get(i - 1).id());
+        }
+    }
+}
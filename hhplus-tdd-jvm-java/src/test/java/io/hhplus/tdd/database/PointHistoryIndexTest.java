@@ -0,0 +1,104 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointHistoryQuery;
+import io.hhplus.tdd.point.TransactionType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class PointHistoryIndexTest {
+    PointHistoryTable pointHistoryTable;
+    PointHistoryIndex pointHistoryIndex;
+
+    PointHistoryIndexTest() {
+        this.pointHistoryTable = mock(PointHistoryTable.class);
+        this.pointHistoryIndex = new PointHistoryIndex(pointHistoryTable, true);
+
+        when(pointHistoryTable.selectAllByUserId(1L)).thenReturn(List.of(
+                new PointHistory(1L, 1L, 100L, TransactionType.CHARGE, 1L)
+        ));
+    }
+
+    // 요구사항 분석
+    // - 유저의 인덱스는 첫 조회 때 한 번만 테이블에서 채움
+    // - 이후 insert 는 테이블 스캔 없이 인덱스에 덧붙음
+    // - 인덱스가 쓰는 메모리를 보고함
+    @Test
+    @DisplayName("첫 조회 이후에는 테이블을 스캔하지 않고 인덱스에서 내역을 반환한다")
+    void indexLookupTest() {
+        // 셋업
+        when(pointHistoryTable.insert(1L, -30L, TransactionType.USE, 2L))
+                .thenReturn(new PointHistory(2L, 1L, -30L, TransactionType.USE, 2L));
+
+        // 실행
+        pointHistoryIndex.selectAllByUserId(1L);
+        pointHistoryIndex.insert(1L, -30L, TransactionType.USE, 2L);
+        List<PointHistory> result = pointHistoryIndex.selectAllByUserId(1L);
+
+        // 검증
+        assertThat(result).extracting(PointHistory::id).containsExactly(1L, 2L);
+        verify(pointHistoryTable, times(1)).selectAllByUserId(1L);
+    }
+
+    @Test
+    @DisplayName("순서가 뒤바뀌어 들어온 내역도 id 순으로 정렬되고 중복은 무시된다")
+    void outOfOrderInsertTest() {
+        // 셋업
+        when(pointHistoryTable.insert(1L, 10L, TransactionType.CHARGE, 3L))
+                .thenReturn(new PointHistory(3L, 1L, 10L, TransactionType.CHARGE, 3L));
+        when(pointHistoryTable.insert(1L, 20L, TransactionType.CHARGE, 2L))
+                .thenReturn(new PointHistory(2L, 1L, 20L, TransactionType.CHARGE, 2L));
+        pointHistoryIndex.selectAllByUserId(1L);
+
+        // 실행
+        pointHistoryIndex.insert(1L, 10L, TransactionType.CHARGE, 3L);
+        pointHistoryIndex.insert(1L, 20L, TransactionType.CHARGE, 2L);
+        pointHistoryIndex.insert(1L, 20L, TransactionType.CHARGE, 2L);
+
+        // 검증
+        assertThat(pointHistoryIndex.selectAllByUserId(1L)).extracting(PointHistory::id).containsExactly(1L, 2L, 3L);
+        assertThat(pointHistoryIndex.stats().entries()).isEqualTo(3L);
+    }
+
+    @Test
+    @DisplayName("인덱스가 사용하는 메모리를 보고한다")
+    void statsTest() {
+        // 실행
+        pointHistoryIndex.selectAllByUserId(1L);
+        pointHistoryIndex.selectAllByUserId(2L);
+
+        // 검증
+        PointHistoryIndex.IndexStats stats = pointHistoryIndex.stats();
+        assertThat(stats.users()).isEqualTo(2L);
+        assertThat(stats.entries()).isEqualTo(1L);
+        assertThat(stats.estimatedBytes())
+                .isEqualTo(2 * PointHistoryIndex.BYTES_PER_USER + PointHistoryIndex.BYTES_PER_ENTRY);
+    }
+
+    @Test
+    @DisplayName("cursor 와 size 로 청크 경계를 넘어 페이지를 나눠 조회한다")
+    void cursorPaginationTest() {
+        // 셋업
+        List<PointHistory> rows = new ArrayList<>();
+        for (long id = 1; id <= 600; id++) {
+            rows.add(new PointHistory(id, 2L, id, id % 2 == 0 ? TransactionType.USE : TransactionType.CHARGE, id * 10));
+        }
+        when(pointHistoryTable.selectAllByUserId(2L)).thenReturn(rows);
+
+        // 실행
+        List<PointHistory> firstPage = pointHistoryIndex.stream(2L, new PointHistoryQuery(250L, null, null, null, 10)).toList();
+        List<PointHistory> lastPage = pointHistoryIndex.stream(2L, new PointHistoryQuery(595L, null, null, null, 10)).toList();
+        List<PointHistory> ranged = pointHistoryIndex.stream(2L, new PointHistoryQuery(null, 1000L, 1100L, TransactionType.USE, null)).toList();
+
+        // 검증
+        assertThat(firstPage).extracting(PointHistory::id).containsExactly(251L, 252L, 253L, 254L, 255L, 256L, 257L, 258L, 259L, 260L);
+        assertThat(lastPage).extracting(PointHistory::id).containsExactly(596L, 597L, 598L, 599L, 600L);
+        assertThat(ranged).extracting(PointHistory::id).containsExactly(100L, 102L, 104L, 106L, 108L);
+    }
+}
@@ -0,0 +1,106 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ./gradlew loadTest 로만 실행되는 힙 사용량과 GC 시간 비교입니다.
+ * 같은 내역을 PointHistoryTable 처럼 ArrayList 에 PointHistory 로 담았을 때와 PointHistorySegments 에 담았을 때,
+ * 채우는 동안의 GC 시간, 채운 뒤 남는 힙, 그 상태에서 full GC 한 번에 걸리는 시간을 출력합니다.
+ * 내역 수는 -Dfootprint.rows 로 바꿀 수 있습니다.
+ */
+@Tag("load")
+public class PointHistorySegmentsFootprintTest {
+    private static final int ROWS = Integer.getInteger("footprint.rows", 10_000_000);
+    private static final int USERS = 100_000;
+
+    @Test
+    @DisplayName("컬럼 저장소는 같은 내역을 ArrayList 보다 훨씬 적은 힙으로 담는다")
+    void footprintTest() throws IOException {
+        // 셋업
+        long baseline = settledHeap();
+
+        // 실행
+        Footprint list = measure(baseline, () -> {
+            // PointHistoryTable 이 내부에 들고 있는 것과 같은 구조 (insert 지연만 뺌)
+            List<PointHistory> table = new ArrayList<>();
+            for (int i = 0; i < ROWS; i++) {
+                table.add(new PointHistory(i + 1L, i % USERS, 10L, TransactionType.CHARGE, i));
+            }
+            return table;
+        });
+        Footprint columnar;
+        try (PointHistorySegments segments = new PointHistorySegments(null, 1 << 20)) {
+            columnar = measure(baseline, () -> {
+                for (int i = 0; i < ROWS; i++) {
+                    segments.append(i % USERS, 10L, TransactionType.CHARGE, i);
+                }
+                return segments;
+            });
+            System.out.printf("columnar off-heap: %d MB%n", segments.stats().offHeapBytes() >> 20);
+        }
+        System.out.printf("list:     %s%ncolumnar: %s%n", list, columnar);
+
+        // 검증
+        assertThat(columnar.retainedBytes()).isLessThan(list.retainedBytes() / 4);
+    }
+
+    private Footprint measure(long baseline, Fill fill) {
+        long gcBefore = gcMillis();
+        long started = System.nanoTime();
+        Object retained = fill.run();
+        long fillMillis = (System.nanoTime() - started) / 1_000_000L;
+        long fillGcMillis = gcMillis() - gcBefore;
+
+        long fullGcStarted = System.nanoTime();
+        long retainedBytes = settledHeap() - baseline;
+        long fullGcMillis = (System.nanoTime() - fullGcStarted) / 1_000_000L;
+        // 측정이 끝날 때까지 채운 내역이 수거되지 않도록 붙잡아 둔다.
+        assertThat(retained).isNotNull();
+        return new Footprint(retainedBytes, fillMillis, fillGcMillis, fullGcMillis);
+    }
+
+    private long settledHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private long gcMillis() {
+        long total = 0L;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0L, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    @FunctionalInterface
+    private interface Fill {
+        Object run();
+    }
+
+    private record Footprint(
+            long retainedBytes,
+            long fillMillis,
+            long fillGcMillis,
+            long fullGcMillis
+    ) {
+        @Override
+        public String toString() {
+            return "heap %d MB, fill %d ms (gc %d ms), full gc %d ms"
+                    .formatted(retainedBytes >> 20, fillMillis, fillGcMillis, fullGcMillis);
+        }
+    }
+}
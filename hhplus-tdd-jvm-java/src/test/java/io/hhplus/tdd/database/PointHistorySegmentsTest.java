@@ -0,0 +1,128 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PointHistorySegmentsTest {
+    @TempDir
+    Path directory;
+
+    // 요구사항 분석
+    // - 유저의 내역을 id 순서대로 반환
+    // - 세그먼트가 가득 차면 다음 세그먼트에 이어서 저장
+    // - 세그먼트 파일은 close 할 때 지움
+    @Test
+    @DisplayName("유저의 내역만 id 순서대로 되돌려준다")
+    void historyOfTest() throws IOException {
+        // 셋업
+        try (PointHistorySegments segments = new PointHistorySegments(null, 16)) {
+            segments.append(1L, 100L, TransactionType.CHARGE, 10L);
+            segments.append(2L, 50L, TransactionType.CHARGE, 20L);
+            segments.append(1L, -30L, TransactionType.USE, 30L);
+
+            // 실행
+            List<PointHistory> history = segments.historyOf(1L);
+
+            // 검증
+            assertThat(history).containsExactly(
+                    new PointHistory(1L, 1L, 100L, TransactionType.CHARGE, 10L),
+                    new PointHistory(3L, 1L, -30L, TransactionType.USE, 30L)
+            );
+            assertThat(segments.historyOf(3L)).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("세그먼트를 넘어가는 내역도 이어서 읽는다")
+    void segmentRolloverTest() throws IOException {
+        // 셋업
+        try (PointHistorySegments segments = new PointHistorySegments(null, 4)) {
+            for (long i = 1; i <= 10; i++) {
+                segments.append(i % 2, i, TransactionType.CHARGE, i);
+            }
+
+            // 실행
+            List<PointHistory> history = segments.historyOf(1L);
+
+            // 검증
+            assertThat(history).extracting(PointHistory::id).containsExactly(1L, 3L, 5L, 7L, 9L);
+            assertThat(segments.stats().segments()).isEqualTo(3L);
+            assertThat(segments.stats().offHeapBytes()).isEqualTo(3L * 4 * PointHistorySegments.ROW_BYTES);
+        }
+    }
+
+    @Test
+    @DisplayName("디렉터리를 주면 세그먼트를 파일에 매핑하고, close 할 때 지운다")
+    void mappedSegmentTest() throws IOException {
+        // 셋업
+        PointHistorySegments segments = new PointHistorySegments(directory, 2);
+        segments.append(1L, 100L, TransactionType.CHARGE, 10L);
+        segments.append(1L, 200L, TransactionType.CHARGE, 20L);
+        segments.append(1L, -50L, TransactionType.USE, 30L);
+
+        // 실행
+        List<PointHistory> history = segments.historyOf(1L);
+        long files;
+        try (var list = Files.list(directory)) {
+            files = list.count();
+        }
+        segments.close();
+
+        // 검증
+        assertThat(history).extracting(PointHistory::amount).containsExactly(100L, 200L, -50L);
+        assertThat(files).isEqualTo(2L);
+        try (var list = Files.list(directory)) {
+            assertThat(list).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("여러 스레드가 동시에 써도 모든 내역이 남는다")
+    void concurrentAppendTest() throws Exception {
+        // 셋업
+        int threadCount = 8;
+        int perThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+
+        // 실행
+        try (PointHistorySegments segments = new PointHistorySegments(null, 64)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threadCount; t++) {
+                long userId = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 1; i <= perThread; i++) {
+                        segments.append(userId, i, TransactionType.CHARGE, i);
+                        segments.historyOf(userId);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            // 검증
+            for (long userId = 0; userId < threadCount; userId++) {
+                List<PointHistory> history = segments.historyOf(userId);
+                assertThat(history).hasSize(perThread);
+                assertThat(history).extracting(PointHistory::amount).isSorted();
+                assertThat(history).extracting(PointHistory::id).isSorted();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
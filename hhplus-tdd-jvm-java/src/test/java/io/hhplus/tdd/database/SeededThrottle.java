@@ -0,0 +1,34 @@
+package io.hhplus.tdd.database;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 시뮬레이션용 테이블의 지연입니다. k 번째 호출의 지연은 seed 와 k 로만 정해지므로 같은 seed 면 같은 지연 순서가 나옵니다.
+ * scale 은 원래 테이블의 최대 지연(200ms/300ms)에 곱하는 비율이고, 0 이면 쉬지 않습니다.
+ */
+public class SeededThrottle {
+    private final long seed;
+    private final double scale;
+    private final AtomicLong calls = new AtomicLong();
+
+    public SeededThrottle(long seed, double scale) {
+        this.seed = seed;
+        this.scale = scale;
+    }
+
+    void pause(long maxMillis) {
+        long maxNanos = (long) (maxMillis * 1_000_000L * scale);
+        if (maxNanos <= 0L) {
+            return;
+        }
+        long random = mix(seed + calls.getAndIncrement() * 0x9E3779B97F4A7C15L);
+        LockSupport.parkNanos(Math.floorMod(random, maxNanos));
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,38 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * PointHistoryTable 과 같은 API 와 지연 범위를 갖되, 여러 스레드에서 호출해도 안전하고 지연을 seed 로 재현할 수 있는 테이블입니다.
+ */
+public class SimulatedPointHistoryTable extends PointHistoryTable {
+    private final ConcurrentLinkedQueue<PointHistory> table = new ConcurrentLinkedQueue<>();
+    private final AtomicLong cursor = new AtomicLong(1);
+    private final SeededThrottle throttle;
+
+    public SimulatedPointHistoryTable(SeededThrottle throttle) {
+        this.throttle = throttle;
+    }
+
+    @Override
+    public PointHistory insert(long userId, long amount, TransactionType type, long updateMillis) {
+        throttle.pause(300L);
+        PointHistory pointHistory = new PointHistory(cursor.getAndIncrement(), userId, amount, type, updateMillis);
+        table.add(pointHistory);
+        return pointHistory;
+    }
+
+    @Override
+    public List<PointHistory> selectAllByUserId(long userId) {
+        return table.stream().filter(pointHistory -> pointHistory.userId() == userId).toList();
+    }
+
+    public List<PointHistory> selectAll() {
+        return List.copyOf(table);
+    }
+}
@@ -0,0 +1,46 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.UserPoint;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * UserPointTable 과 같은 API 와 지연 범위를 갖되, 여러 스레드에서 호출해도 안전하고 지연을 seed 로 재현할 수 있는 테이블입니다.
+ * 같은 유저의 쓰기가 겹치거나 음수 잔액이 저장되면 세어 둡니다.
+ */
+public class SimulatedUserPointTable extends UserPointTable {
+    private final ConcurrentHashMap<Long, UserPoint> table = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Boolean> writing = new ConcurrentHashMap<>();
+    private final SeededThrottle throttle;
+    public final LongAdder overlappingWrites = new LongAdder();
+    public final LongAdder negativeWrites = new LongAdder();
+
+    public SimulatedUserPointTable(SeededThrottle throttle) {
+        this.throttle = throttle;
+    }
+
+    @Override
+    public UserPoint selectById(Long id) {
+        throttle.pause(200L);
+        return table.getOrDefault(id, UserPoint.empty(id));
+    }
+
+    @Override
+    public UserPoint insertOrUpdate(long id, long amount) {
+        if (writing.putIfAbsent(id, Boolean.TRUE) != null) {
+            overlappingWrites.increment();
+        }
+        try {
+            if (amount < 0) {
+                negativeWrites.increment();
+            }
+            throttle.pause(300L);
+            UserPoint userPoint = new UserPoint(id, amount, System.currentTimeMillis());
+            table.put(id, userPoint);
+            return userPoint;
+        } finally {
+            writing.remove(id);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.UserPoint;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+public class UserPointCacheTest {
+    UserPointTable userPointTable;
+    UserPointCache userPointCache;
+
+    UserPointCacheTest() {
+        this.userPointTable = mock(UserPointTable.class);
+        this.userPointCache = new UserPointCache(userPointTable, 2);
+
+        when(userPointTable.selectById(anyLong()))
+                .thenAnswer(invocation -> new UserPoint(invocation.getArgument(0), 100L, System.currentTimeMillis()));
+        when(userPointTable.insertOrUpdate(anyLong(), anyLong()))
+                .thenAnswer(invocation -> new UserPoint(invocation.getArgument(0), invocation.getArgument(1), System.currentTimeMillis()));
+    }
+
+    // 요구사항 분석
+    // - 한 번 조회한 유저는 테이블을 다시 조회하지 않음
+    // - insertOrUpdate 결과가 캐시에 바로 반영됨
+    // - 용량을 넘으면 가장 오래 사용하지 않은 유저부터 제거
+    // - 조회하는 동안 같은 유저에 쓰기가 있었을 때만 조회 결과를 캐시에 넣지 않음
+    @Test
+    @DisplayName("같은 유저를 다시 조회하면 테이블을 거치지 않는다")
+    void cacheHitTest() {
+        // 실행
+        userPointCache.selectById(1L);
+        UserPoint result = userPointCache.selectById(1L);
+
+        // 검증
+        assertThat(result.point()).isEqualTo(100L);
+        verify(userPointTable, times(1)).selectById(1L);
+        assertThat(userPointCache.stats().hits()).isEqualTo(1L);
+        assertThat(userPointCache.stats().misses()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("insertOrUpdate 결과가 캐시에 반영된다")
+    void writeThroughTest() {
+        // 실행
+        userPointCache.selectById(1L);
+        userPointCache.insertOrUpdate(1L, 300L);
+        UserPoint result = userPointCache.selectById(1L);
+
+        // 검증
+        assertThat(result.point()).isEqualTo(300L);
+        verify(userPointTable, times(1)).selectById(1L);
+    }
+
+    @Test
+    @DisplayName("용량을 넘으면 가장 오래 사용하지 않은 유저가 제거된다")
+    void lruEvictionTest() {
+        // 실행
+        userPointCache.selectById(1L);
+        userPointCache.selectById(2L);
+        userPointCache.selectById(1L);
+        userPointCache.selectById(3L);
+        userPointCache.selectById(2L);
+
+        // 검증
+        verify(userPointTable, times(2)).selectById(2L);
+        verify(userPointTable, times(1)).selectById(1L);
+        assertThat(userPointCache.stats().evictions()).isEqualTo(2L);
+        assertThat(userPointCache.stats().size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("저장에 실패하면 캐시된 값을 버린다")
+    void invalidateOnFailureTest() {
+        // 셋업
+        userPointCache.selectById(1L);
+        doThrow(new RuntimeException("Database connection error")).when(userPointTable).insertOrUpdate(1L, 300L);
+
+        // 실행
+        assertThrows(RuntimeException.class, () -> userPointCache.insertOrUpdate(1L, 300L));
+        userPointCache.selectById(1L);
+
+        // 검증
+        verify(userPointTable, times(2)).selectById(1L);
+    }
+
+    @Test
+    @DisplayName("capacity 가 0 이면 항상 테이블을 조회한다")
+    void disabledCacheTest() {
+        // 셋업
+        UserPointCache disabled = new UserPointCache(userPointTable, 0);
+
+        // 실행
+        disabled.selectById(1L);
+        disabled.selectById(1L);
+
+        // 검증
+        verify(userPointTable, times(2)).selectById(1L);
+    }
+
+    @Test
+    @DisplayName("조회하는 동안 다른 유저에 쓰기가 있었으면 조회 결과를 캐시에 넣고, 같은 유저에 쓰기가 있었으면 넣지 않는다")
+    void concurrentWriteDuringMissTest() {
+        // 셋업
+        UserPointCache cache = new UserPointCache(userPointTable, 10);
+        when(userPointTable.selectById(1L)).thenAnswer(invocation -> {
+            cache.insertOrUpdate(2L, 50L);
+            return new UserPoint(1L, 100L, System.currentTimeMillis());
+        });
+        when(userPointTable.selectById(3L)).thenAnswer(invocation -> {
+            cache.insertOrUpdate(3L, 70L);
+            return new UserPoint(3L, 100L, System.currentTimeMillis());
+        });
+
+        // 실행
+        cache.selectById(1L);
+        cache.selectById(1L);
+        cache.selectById(3L);
+        UserPoint result = cache.selectById(3L);
+
+        // 검증
+        verify(userPointTable, times(1)).selectById(1L);
+        assertThat(result.point()).isEqualTo(70L);
+        verify(userPointTable, times(1)).selectById(3L);
+    }
+}
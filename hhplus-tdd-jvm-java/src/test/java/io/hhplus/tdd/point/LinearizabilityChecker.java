@@ -0,0 +1,203 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.point.PointSimulation.Kind;
+import io.hhplus.tdd.point.PointSimulation.Operation;
+import io.hhplus.tdd.point.PointSimulation.Outcome;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 기록된 충전/사용/조회가 유저 잔액 하나를 순서대로 바꾼 것처럼 설명되는지 확인합니다 (Wing & Gong 탐색).
+ * <p>
+ * 유저마다 잔액은 독립이므로 유저별로 나눠 확인합니다. 아직 순서를 정하지 않은 요청 중 다른 요청이 끝나기 전에 시작한 것을
+ * 하나씩 골라 잔액 모델에 적용해 보고, 막히면 되돌아갑니다. (이미 고른 요청, 잔액) 조합은 한 번만 살펴봅니다.
+ * 결과를 알 수 없는(UNKNOWN) 충전/사용은 끝나는 시각이 없는 것으로 두어, 반영됐거나 반영되지 않은 경우를 모두 허용합니다.
+ */
+final class LinearizabilityChecker {
+    private static final long MAX_STEPS = 50_000_000L;
+    private static final int CONTEXT = 5;
+
+    private LinearizabilityChecker() {
+    }
+
+    /**
+     * 설명되지 않는 유저가 있으면 그 유저와 막힌 지점을 담은 메시지를 반환합니다.
+     */
+    static Optional<String> check(List<Operation> operations) {
+        Map<Long, List<Operation>> byUser = new TreeMap<>();
+        for (Operation operation : operations) {
+            byUser.computeIfAbsent(operation.userId(), id -> new ArrayList<>()).add(operation);
+        }
+        for (Map.Entry<Long, List<Operation>> entry : byUser.entrySet()) {
+            Optional<String> failure = checkUser(entry.getKey(), entry.getValue(), 0L);
+            if (failure.isPresent()) {
+                return failure;
+            }
+        }
+        return Optional.empty();
+    }
+
+    static Optional<String> checkUser(long userId, List<Operation> operations, long initialBalance) {
+        Node head = link(operations);
+        BitSet linearized = new BitSet(operations.size());
+        Set<CacheKey> cache = new HashSet<>();
+        Deque<Frame> stack = new ArrayDeque<>();
+        long balance = initialBalance;
+        int deepest = 0;
+        Operation stuckAt = null;
+        long steps = 0L;
+
+        Node entry = head.next;
+        while (head.next != null) {
+            if (++steps > MAX_STEPS) {
+                return Optional.of("user " + userId + ": gave up after " + MAX_STEPS + " steps");
+            }
+            if (entry.call) {
+                Operation operation = operations.get(entry.index);
+                Long next = apply(balance, operation);
+                if (next != null) {
+                    linearized.set(entry.index);
+                    if (cache.add(new CacheKey((BitSet) linearized.clone(), next))) {
+                        stack.push(new Frame(entry, balance));
+                        balance = next;
+                        entry.lift();
+                        entry = head.next;
+                        continue;
+                    }
+                    linearized.clear(entry.index);
+                }
+                entry = entry.next;
+            } else {
+                // 순서를 정하지 않은 요청이 끝났으므로 더 뒤의 요청을 먼저 고를 수 없다. 되돌아간다.
+                if (stack.size() >= deepest) {
+                    deepest = stack.size();
+                    stuckAt = operations.get(entry.index);
+                }
+                if (stack.isEmpty()) {
+                    return Optional.of("user " + userId + ": not linearizable. linearized " + deepest + " of "
+                            + operations.size() + " operations, then could not place " + stuckAt
+                            + "\noperations around it:\n" + PointSimulation.describe(around(operations, stuckAt)));
+                }
+                Frame frame = stack.pop();
+                balance = frame.balance;
+                linearized.clear(frame.entry.index);
+                frame.entry.unlift();
+                entry = frame.entry.next;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * 막힌 요청과 겹치는 요청, 그리고 그 직전에 끝난 요청 몇 개를 시각 순으로 모읍니다.
+     */
+    private static List<Operation> around(List<Operation> operations, Operation stuckAt) {
+        List<Operation> sorted = new ArrayList<>(operations);
+        sorted.sort(Comparator.comparingLong(Operation::callNanos));
+        List<Operation> before = sorted.stream()
+                .filter(operation -> operation.returnNanos() < stuckAt.callNanos())
+                .sorted(Comparator.comparingLong(Operation::returnNanos))
+                .toList();
+        List<Operation> around = new ArrayList<>(before.subList(Math.max(0, before.size() - CONTEXT), before.size()));
+        for (Operation operation : sorted) {
+            if (operation.returnNanos() >= stuckAt.callNanos() && operation.callNanos() <= stuckAt.returnNanos()) {
+                around.add(operation);
+            }
+        }
+        return around;
+    }
+
+    /**
+     * 잔액 모델. balance 에서 operation 이 기록된 결과를 낼 수 있으면 다음 잔액을, 아니면 null 을 반환합니다.
+     */
+    private static Long apply(long balance, Operation operation) {
+        if (operation.kind() == Kind.GET) {
+            return operation.outcome() != Outcome.OK || operation.value() == balance ? balance : null;
+        }
+        long next = balance + operation.amount();
+        return switch (operation.outcome()) {
+            case OK -> next >= 0 && operation.value() == next ? next : null;
+            case REJECTED -> next < 0 ? balance : null;
+            // 끝나는 시각이 없으므로 맨 뒤에 두면 반영되지 않은 것과 같다.
+            case UNKNOWN -> next >= 0 ? next : balance;
+        };
+    }
+
+    /**
+     * 요청마다 시작/끝 이벤트를 만들어 시각 순으로 잇습니다. 같은 시각이면 시작을 먼저 둡니다.
+     */
+    private static Node link(List<Operation> operations) {
+        List<Node> events = new ArrayList<>(operations.size() * 2);
+        for (int i = 0; i < operations.size(); i++) {
+            Operation operation = operations.get(i);
+            Node call = new Node(i, true, operation.callNanos());
+            long returnNanos = operation.outcome() == Outcome.UNKNOWN ? Long.MAX_VALUE : operation.returnNanos();
+            Node ret = new Node(i, false, returnNanos);
+            call.match = ret;
+            events.add(call);
+            events.add(ret);
+        }
+        events.sort(Comparator.comparingLong((Node node) -> node.time).thenComparing(node -> !node.call));
+
+        Node head = new Node(-1, false, Long.MIN_VALUE);
+        Node previous = head;
+        for (Node event : events) {
+            previous.next = event;
+            event.prev = previous;
+            previous = event;
+        }
+        return head;
+    }
+
+    private static final class Node {
+        private final int index;
+        private final boolean call;
+        private final long time;
+        private Node match;
+        private Node prev;
+        private Node next;
+
+        private Node(int index, boolean call, long time) {
+            this.index = index;
+            this.call = call;
+            this.time = time;
+        }
+
+        /**
+         * 순서를 정한 요청의 시작/끝 이벤트를 목록에서 뺍니다.
+         */
+        private void lift() {
+            prev.next = next;
+            next.prev = prev;
+            match.prev.next = match.next;
+            if (match.next != null) {
+                match.next.prev = match.prev;
+            }
+        }
+
+        private void unlift() {
+            match.prev.next = match;
+            if (match.next != null) {
+                match.next.prev = match;
+            }
+            prev.next = this;
+            next.prev = this;
+        }
+    }
+
+    private record Frame(Node entry, long balance) {
+    }
+
+    private record CacheKey(BitSet linearized, long balance) {
+    }
+}
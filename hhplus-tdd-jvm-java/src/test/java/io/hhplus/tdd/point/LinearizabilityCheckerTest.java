@@ -0,0 +1,105 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.point.PointSimulation.Kind;
+import io.hhplus.tdd.point.PointSimulation.Operation;
+import io.hhplus.tdd.point.PointSimulation.Outcome;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LinearizabilityCheckerTest {
+
+    // 요구사항 분석
+    // - 겹치지 않는 요청은 기록된 시각 순서대로만 설명할 수 있어야 함
+    // - 겹치는 요청은 어느 순서로든 설명되면 통과
+    // - 잔액 모델(충전/사용/잔액 부족 거절/조회)에 맞지 않는 결과는 실패로 보고
+    @Test
+    @DisplayName("순서대로 처리된 충전, 사용, 잔액 부족 거절, 조회 기록은 통과한다")
+    void sequentialTest() {
+        // 셋업
+        List<Operation> operations = List.of(
+                op(Kind.CHARGE, 100L, 0, 10, Outcome.OK, 100L),
+                op(Kind.USE, -30L, 20, 30, Outcome.OK, 70L),
+                op(Kind.USE, -80L, 40, 50, Outcome.REJECTED, 0L),
+                op(Kind.GET, 0L, 60, 70, Outcome.OK, 70L)
+        );
+
+        // 실행 & 검증
+        assertThat(LinearizabilityChecker.check(operations)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("충전이 끝난 뒤 시작한 조회가 충전 전 잔액을 받았다면 실패로 보고한다")
+    void staleReadTest() {
+        // 셋업
+        List<Operation> operations = List.of(
+                op(Kind.CHARGE, 100L, 0, 10, Outcome.OK, 100L),
+                op(Kind.GET, 0L, 20, 30, Outcome.OK, 0L)
+        );
+
+        // 실행 & 검증
+        assertThat(LinearizabilityChecker.check(operations)).hasValueSatisfying(failure -> assertThat(failure).contains("user 1"));
+    }
+
+    @Test
+    @DisplayName("충전과 겹친 조회는 충전 전 잔액과 충전 후 잔액 중 어느 쪽을 받아도 통과한다")
+    void overlappingReadTest() {
+        // 셋업
+        List<Operation> before = List.of(
+                op(Kind.CHARGE, 100L, 0, 50, Outcome.OK, 100L),
+                op(Kind.GET, 0L, 10, 20, Outcome.OK, 0L)
+        );
+        List<Operation> after = List.of(
+                op(Kind.CHARGE, 100L, 0, 50, Outcome.OK, 100L),
+                op(Kind.GET, 0L, 10, 20, Outcome.OK, 100L)
+        );
+
+        // 실행 & 검증
+        assertThat(LinearizabilityChecker.check(before)).isEmpty();
+        assertThat(LinearizabilityChecker.check(after)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("잔액이 충분한데 사용이 거절되었거나, 같은 잔액에서 두 사용이 모두 승인되었다면 실패로 보고한다")
+    void invalidUseTest() {
+        // 셋업
+        List<Operation> wronglyRejected = List.of(
+                op(Kind.CHARGE, 100L, 0, 10, Outcome.OK, 100L),
+                op(Kind.USE, -50L, 20, 30, Outcome.REJECTED, 0L)
+        );
+        List<Operation> doubleSpent = List.of(
+                op(Kind.CHARGE, 100L, 0, 10, Outcome.OK, 100L),
+                op(Kind.USE, -80L, 20, 40, Outcome.OK, 20L),
+                op(Kind.USE, -80L, 25, 45, Outcome.OK, 20L)
+        );
+
+        // 실행 & 검증
+        assertThat(LinearizabilityChecker.check(wronglyRejected)).isPresent();
+        assertThat(LinearizabilityChecker.check(doubleSpent)).isPresent();
+    }
+
+    @Test
+    @DisplayName("결과를 알 수 없는 충전은 반영된 것으로도, 반영되지 않은 것으로도 설명할 수 있다")
+    void unknownOutcomeTest() {
+        // 셋업
+        List<Operation> applied = List.of(
+                op(Kind.CHARGE, 100L, 0, 10, Outcome.UNKNOWN, 0L),
+                op(Kind.GET, 0L, 20, 30, Outcome.OK, 100L)
+        );
+        List<Operation> lost = List.of(
+                op(Kind.CHARGE, 100L, 0, 10, Outcome.UNKNOWN, 0L),
+                op(Kind.GET, 0L, 20, 30, Outcome.OK, 0L)
+        );
+
+        // 실행 & 검증
+        assertThat(LinearizabilityChecker.check(applied)).isEmpty();
+        assertThat(LinearizabilityChecker.check(lost)).isEmpty();
+    }
+
+    private static Operation op(Kind kind, long amount, long callNanos, long returnNanos, Outcome outcome, long value) {
+        return new Operation(0, 1L, kind, amount, callNanos, returnNanos, outcome, value);
+    }
+}
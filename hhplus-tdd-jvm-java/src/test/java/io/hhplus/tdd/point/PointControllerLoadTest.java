@@ -0,0 +1,133 @@
+package io.hhplus.tdd.point;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ./gradlew loadTest 로만 실행되는 부하 테스트입니다.
+ * 클라이언트와 서버가 한 프로세스에서 연결마다 파일 디스크립터를 두 개씩 쓰므로 ulimit -n 이 in-flight 의 두 배보다 커야 합니다.
+ * 동시 요청 수는 -Dload.in-flight, 대상 유저 수는 -Dload.users 로 바꿀 수 있습니다.
+ */
+@Tag("load")
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.threads.virtual.enabled=true",
+                "server.tomcat.max-connections=20000",
+                "server.tomcat.accept-count=10000",
+                "point.lock.timeout=240s",
+        }
+)
+public class PointControllerLoadTest {
+    private static final Logger log = LoggerFactory.getLogger(PointControllerLoadTest.class);
+
+    private static final int IN_FLIGHT = Integer.getInteger("load.in-flight", 10_000);
+    private static final int USERS = Integer.getInteger("load.users", 100);
+    private static final long SEED = 1_000_000L;
+    private static final long CHARGE = 10L;
+    private static final long USE = 3L;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @LocalServerPort
+    int port;
+
+    @Test
+    @DisplayName("가상 스레드 모드에서 소수 유저에게 몰린 10,000 건(기본값)의 조회/충전/사용 요청을 처리하고 잔액이 맞는다")
+    void virtualThreadPointLoadTest() throws Exception {
+        // 요구사항 분석
+        // - 요청 네 건 중 한 건은 조회, 두 건은 충전, 한 건은 사용이다.
+        // - 같은 유저에게 쓰기가 몰려도 모든 요청이 성공한다.
+        // - 끝난 뒤 유저마다 잔액 = 초기 충전 + 충전 합 - 사용 합 이다.
+
+        // 셋업
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        HttpClient client = HttpClient.newBuilder()
+                .executor(executor)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        List<CompletableFuture<HttpResponse<String>>> seeds = IntStream.rangeClosed(1, USERS)
+                .mapToObj(userId -> client.sendAsync(patch(userId, "charge", SEED), HttpResponse.BodyHandlers.ofString()))
+                .toList();
+        CompletableFuture.allOf(seeds.toArray(CompletableFuture[]::new)).get(300, TimeUnit.SECONDS);
+        assertThat(seeds).allSatisfy(seed -> assertThat(seed.join().statusCode()).isEqualTo(200));
+
+        // 실행
+        long started = System.nanoTime();
+        List<CompletableFuture<HttpResponse<String>>> futures = IntStream.range(0, IN_FLIGHT)
+                .mapToObj(i -> client.sendAsync(request(i), HttpResponse.BodyHandlers.ofString()))
+                .toList();
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(300, TimeUnit.SECONDS);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        // 검증
+        long succeeded = futures.stream().map(CompletableFuture::join).filter(response -> response.statusCode() == 200).count();
+        log.info("{} in-flight requests over {} users: {} ms, {} req/s",
+                IN_FLIGHT, USERS, elapsedMillis, Math.round(IN_FLIGHT * 1000.0 / Math.max(1L, elapsedMillis)));
+        assertThat(succeeded).isEqualTo(IN_FLIGHT);
+
+        long[] expected = new long[USERS + 1];
+        for (int i = 0; i < IN_FLIGHT; i++) {
+            expected[userOf(i)] += switch (i % 4) {
+                case 1, 2 -> CHARGE;
+                case 3 -> -USE;
+                default -> 0L;
+            };
+        }
+        for (int userId = 1; userId <= USERS; userId++) {
+            HttpResponse<String> response = client.send(get(userId), HttpResponse.BodyHandlers.ofString());
+            UserPoint userPoint = objectMapper.readValue(response.body(), UserPoint.class);
+            assertThat(userPoint.point()).as("balance of user %d", userId).isEqualTo(SEED + expected[userId]);
+        }
+
+        executor.shutdown();
+    }
+
+    private static int userOf(int i) {
+        return i % USERS + 1;
+    }
+
+    private HttpRequest request(int i) {
+        int userId = userOf(i);
+        return switch (i % 4) {
+            case 1, 2 -> patch(userId, "charge", CHARGE);
+            case 3 -> patch(userId, "use", -USE);
+            default -> get(userId);
+        };
+    }
+
+    private HttpRequest get(long userId) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/point/" + userId))
+                .timeout(Duration.ofSeconds(300))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest patch(long userId, String action, long amount) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/point/" + userId + "/" + action))
+                .timeout(Duration.ofSeconds(300))
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(Long.toString(amount)))
+                .build();
+    }
+}
@@ -0,0 +1,125 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.config.PointProperties;
+import io.hhplus.tdd.database.PointHistoryIndex;
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.database.UserPointCache;
+import io.hhplus.tdd.database.UserPointTable;
+import io.hhplus.tdd.exception.TooManyRequestsException;
+import io.hhplus.tdd.service.LockMapStrategy;
+import io.hhplus.tdd.service.PointService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+public class PointServiceAdmissionTest {
+    UserPointTable userPointTable = mock(UserPointTable.class);
+    PointHistoryTable pointHistoryTable = mock(PointHistoryTable.class);
+
+    // 요구사항 분석
+    // - 한 유저의 락 앞에 줄 선 요청이 유저 한도를 넘으면 락 타임아웃까지 기다리지 않고 바로 거절
+    // - 한 유저가 한도를 채워도 다른 유저의 요청은 처리
+    // - 이미 처리한 멱등 키의 재요청은 한도에 세지 않고 처음 결과를 돌려줌
+    @Test
+    @DisplayName("한 유저의 요청이 락 앞에 한도만큼 줄 서 있으면 다음 요청은 기다리지 않고 거절하고 다른 유저는 처리한다")
+    void perUserQueueDepthTest() throws Exception {
+        // 셋업
+        PointProperties properties = new PointProperties();
+        properties.getAdmission().setEnabled(true);
+        properties.getAdmission().setPerUserLimit(2);
+        PointService pointService = new PointService(new UserPointCache(userPointTable, 0),
+                new PointHistoryIndex(pointHistoryTable, false), new LockMapStrategy(5_000L), properties);
+
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userPointTable.selectById(1L)).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await();
+            return new UserPoint(1L, 100L, 0L);
+        });
+        when(userPointTable.selectById(2L)).thenReturn(new UserPoint(2L, 100L, 0L));
+        when(userPointTable.insertOrUpdate(eq(1L), anyLong()))
+                .thenAnswer(invocation -> new UserPoint(1L, invocation.getArgument(1), 0L));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<UserPoint> holding = executor.submit(() -> pointService.patchCharge(1L, 10L));
+            assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+            executor.submit(() -> pointService.patchCharge(1L, 10L));
+            while (pointService.admissionStats().inFlight() < 2) {
+                Thread.onSpinWait();
+            }
+
+            // 실행
+            long started = System.nanoTime();
+            assertThrows(TooManyRequestsException.class, () -> pointService.patchCharge(1L, 10L));
+            long rejectedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            UserPoint other = pointService.getPoint(2L);
+            release.countDown();
+            holding.get(5, TimeUnit.SECONDS);
+
+            // 검증
+            assertThat(rejectedMillis).isLessThan(1_000L);
+            assertThat(other.point()).isEqualTo(100L);
+            assertThat(pointService.admissionStats().userRejections()).isEqualTo(1L);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("한 유저가 한도를 채우고 있어도 이미 처리한 멱등 키의 재요청은 거절하지 않고 처음 결과를 돌려준다")
+    void replayBypassesLimitTest() throws Exception {
+        // 셋업
+        PointProperties properties = new PointProperties();
+        properties.getAdmission().setEnabled(true);
+        properties.getAdmission().setPerUserLimit(1);
+        PointService pointService = new PointService(new UserPointCache(userPointTable, 0),
+                new PointHistoryIndex(pointHistoryTable, false), new LockMapStrategy(5_000L), properties);
+
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userPointTable.selectById(1L)).thenReturn(new UserPoint(1L, 100L, 0L));
+        when(userPointTable.insertOrUpdate(eq(1L), anyLong()))
+                .thenAnswer(invocation -> new UserPoint(1L, invocation.getArgument(1), 0L));
+        UserPoint first = pointService.patchCharge(1L, 10L, "key-1");
+        doAnswer(invocation -> {
+            entered.countDown();
+            release.await();
+            return new UserPoint(1L, 110L, 0L);
+        }).when(userPointTable).selectById(1L);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<UserPoint> holding = executor.submit(() -> pointService.patchCharge(1L, 10L));
+            assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // 실행
+            UserPoint replayed = pointService.patchCharge(1L, 10L, "key-1");
+            TooManyRequestsException rejected = assertThrows(TooManyRequestsException.class,
+                    () -> pointService.patchCharge(1L, 10L, "key-2"));
+            release.countDown();
+            holding.get(5, TimeUnit.SECONDS);
+
+            // 검증
+            assertThat(replayed).isEqualTo(first);
+            assertThat(rejected).isNotNull();
+            assertThat(pointService.admissionStats().userRejections()).isEqualTo(1L);
+            // 거절된 키는 아무것도 반영하지 않았으므로 다시 보내면 처리된다.
+            assertThat(pointService.patchCharge(1L, 10L, "key-2").point()).isEqualTo(120L);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+}
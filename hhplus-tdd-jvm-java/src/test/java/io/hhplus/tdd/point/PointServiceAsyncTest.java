@@ -0,0 +1,178 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.config.PointProperties;
+import io.hhplus.tdd.database.PointHistoryAppender;
+import io.hhplus.tdd.database.PointHistoryIndex;
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.database.UserPointCache;
+import io.hhplus.tdd.database.UserPointTable;
+import io.hhplus.tdd.exception.RequestTimeoutException;
+import io.hhplus.tdd.exception.TooManyRequestsException;
+import io.hhplus.tdd.exception.UserNotFoundException;
+import io.hhplus.tdd.service.LockMapStrategy;
+import io.hhplus.tdd.service.PointService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+public class PointServiceAsyncTest {
+    UserPointTable userPointTable = mock(UserPointTable.class);
+    PointHistoryTable pointHistoryTable = mock(PointHistoryTable.class);
+    AtomicLong balance = new AtomicLong(100L);
+    CountDownLatch release = new CountDownLatch(1);
+    PointProperties properties = new PointProperties();
+    PointService pointService;
+
+    PointServiceAsyncTest() {
+        when(userPointTable.selectById(anyLong())).thenAnswer(invocation -> {
+            release.await();
+            long userId = invocation.getArgument(0);
+            return userId == 1L ? new UserPoint(userId, balance.get(), System.currentTimeMillis()) : null;
+        });
+        when(userPointTable.insertOrUpdate(anyLong(), anyLong())).thenAnswer(invocation -> {
+            balance.set(invocation.getArgument(1));
+            return new UserPoint(invocation.getArgument(0), invocation.getArgument(1), System.currentTimeMillis());
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        pointService.close();
+    }
+
+    // 비동기 API
+    // 요구사항 분석
+    // - 호출한 스레드는 테이블을 기다리지 않고 바로 돌아가고, 결과와 예외는 future 로 받음
+    // - 처리 스레드와 대기열이 모두 차면 기다리지 않고 거절
+    // - 제한 시간 안에 처리를 시작하지 못한 요청은 반영하지 않고 RequestTimeoutException
+    // - SHARD 엔진이면 shard 의 결과를 그대로 받음
+    // - 가상 스레드를 켜면 처리 스레드도 가상 스레드
+    @Test
+    @DisplayName("테이블이 느려도 바로 future 를 돌려주고 결과와 예외는 future 로 전달된다")
+    void nonBlockingTest() throws Exception {
+        // 셋업
+        pointService = service();
+
+        // 실행
+        CompletableFuture<UserPoint> charged = pointService.chargeAsync(1L, 50L, null);
+        CompletableFuture<UserPoint> missing = pointService.getPointAsync(2L);
+        boolean doneBeforeRelease = charged.isDone();
+        release.countDown();
+
+        // 검증
+        assertThat(doneBeforeRelease).isFalse();
+        assertThat(charged.get(5, TimeUnit.SECONDS).point()).isEqualTo(150L);
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> missing.get(5, TimeUnit.SECONDS));
+        assertThat(exception.getCause()).isInstanceOf(UserNotFoundException.class);
+        List<PointHistory> histories = pointService.getHistoryAsync(1L).get(5, TimeUnit.SECONDS);
+        assertThat(histories).isEmpty();
+        assertThat(pointService.useAsync(1L, 10L, null)).isCompletedExceptionally();
+    }
+
+    @Test
+    @DisplayName("처리 스레드와 대기열이 모두 차면 TooManyRequestsException 으로 바로 거절한다")
+    void queueFullTest() {
+        // 셋업
+        properties.getAsync().setThreads(1);
+        properties.getAsync().setQueueCapacity(1);
+        pointService = service();
+        pointService.getPointAsync(1L);
+        pointService.getPointAsync(1L);
+
+        // 실행
+        CompletableFuture<UserPoint> rejected = pointService.chargeAsync(1L, 10L, null);
+
+        // 검증
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+        assertThat(exception.getCause()).isInstanceOf(TooManyRequestsException.class);
+        assertThat(pointService.asyncStats().rejections()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("제한 시간 안에 처리를 시작하지 못한 충전은 RequestTimeoutException 으로 끝나고 반영되지 않는다")
+    void timeoutTest() throws Exception {
+        // 셋업
+        properties.getAsync().setThreads(1);
+        properties.getAsync().setTimeout(Duration.ofMillis(100));
+        pointService = service();
+        CompletableFuture<UserPoint> blocked = pointService.getPointAsync(1L);
+
+        // 실행
+        CompletableFuture<UserPoint> charged = pointService.chargeAsync(1L, 10L, null);
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> charged.get(5, TimeUnit.SECONDS));
+        release.countDown();
+
+        // 검증
+        assertThat(exception.getCause()).isInstanceOf(RequestTimeoutException.class);
+        assertThat(blocked.get(5, TimeUnit.SECONDS).point()).isEqualTo(100L);
+        assertThat(pointService.getPointAsync(1L).get(5, TimeUnit.SECONDS).point()).isEqualTo(100L);
+        verify(userPointTable, never()).insertOrUpdate(anyLong(), anyLong());
+        assertThat(pointService.asyncStats().timeouts()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("SHARD 엔진이면 충전/사용 결과를 shard 에서 바로 받고, 잔액보다 많이 사용하면 future 가 예외로 끝난다")
+    void shardEngineTest() throws Exception {
+        // 셋업
+        properties.getEngine().setType(PointProperties.EngineType.SHARD);
+        properties.getEngine().setShards(2);
+        pointService = service();
+        release.countDown();
+
+        // 실행
+        UserPoint charged = pointService.chargeAsync(1L, 50L, null).get(5, TimeUnit.SECONDS);
+        CompletableFuture<UserPoint> overdraft = pointService.useAsync(1L, -500L, null);
+        CompletableFuture<UserPoint> missing = pointService.getPointAsync(2L);
+
+        // 검증
+        assertThat(charged.point()).isEqualTo(150L);
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> overdraft.get(5, TimeUnit.SECONDS));
+        assertThat(exception.getCause()).isInstanceOf(IllegalArgumentException.class);
+        exception = assertThrows(ExecutionException.class, () -> missing.get(5, TimeUnit.SECONDS));
+        assertThat(exception.getCause()).isInstanceOf(UserNotFoundException.class);
+        assertThat(pointService.getPointAsync(1L).get(5, TimeUnit.SECONDS).point()).isEqualTo(150L);
+        assertThat(pointService.asyncStats().active()).isZero();
+    }
+
+    @Test
+    @DisplayName("가상 스레드를 켜면 비동기 요청과 여러 유저 조회를 가상 스레드에서 처리한다")
+    void virtualThreadsTest() throws Exception {
+        // 셋업
+        List<Boolean> virtual = new CopyOnWriteArrayList<>();
+        // 생성자의 stub 은 release 를 기다리므로 호출하지 않고 바꾼다.
+        doAnswer(invocation -> {
+            virtual.add(Thread.currentThread().isVirtual());
+            return new UserPoint(invocation.getArgument(0), 100L, 0L);
+        }).when(userPointTable).selectById(anyLong());
+        pointService = new PointService(new UserPointCache(userPointTable, 0), new PointHistoryIndex(pointHistoryTable, false),
+                new PointHistoryAppender(new PointHistoryIndex(pointHistoryTable, false)), new LockMapStrategy(5_000L),
+                properties, true);
+
+        // 실행
+        pointService.getPointAsync(1L).get(5, TimeUnit.SECONDS);
+        pointService.getPoints(List.of(2L, 3L));
+
+        // 검증
+        assertThat(virtual).hasSize(3).containsOnly(true);
+    }
+
+    private PointService service() {
+        return new PointService(new UserPointCache(userPointTable, 0), new PointHistoryIndex(pointHistoryTable, false),
+                new LockMapStrategy(5_000L), properties);
+    }
+}
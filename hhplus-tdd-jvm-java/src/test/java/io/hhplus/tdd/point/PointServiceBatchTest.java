@@ -0,0 +1,116 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.config.PointProperties;
+import io.hhplus.tdd.database.PointHistoryIndex;
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.database.UserPointCache;
+import io.hhplus.tdd.database.UserPointTable;
+import io.hhplus.tdd.service.LockMapStrategy;
+import io.hhplus.tdd.service.PointService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+public class PointServiceBatchTest {
+    UserPointTable userPointTable;
+    PointHistoryTable pointHistoryTable;
+    PointService pointService;
+
+    PointServiceBatchTest() {
+        this.userPointTable = mock(UserPointTable.class);
+        this.pointHistoryTable = mock(PointHistoryTable.class);
+        PointProperties properties = new PointProperties();
+        properties.getBatch().setMaxIds(100);
+        this.pointService = new PointService(new UserPointCache(userPointTable, 100), new PointHistoryIndex(pointHistoryTable, false),
+                new LockMapStrategy(5_000L), properties);
+
+        // 조회마다 200ms 가 걸리는 테이블
+        when(userPointTable.selectById(anyLong())).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            long id = invocation.getArgument(0);
+            return id == 999L ? null : new UserPoint(id, id * 10, System.currentTimeMillis());
+        });
+    }
+
+    // 요구사항 분석
+    // - 여러 유저의 잔액을 한 번에 조회
+    // - 중복 id 는 한 번만 조회하고, 캐시된 잔액은 다시 조회하지 않음
+    // - 테이블 조회를 동시에 수행해 전체 지연이 조회 한 번과 비슷해야 함
+
+    // 실패 TC
+    // - id 목록이 비어 있음
+    // - 허용된 개수보다 많은 id 를 요청함
+    @Test
+    @DisplayName("getPoints() 성공 - 중복 id 는 한 번만 조회하고 테이블 조회를 동시에 수행한다")
+    void 성공() throws InterruptedException {
+        // 셋업
+        List<Long> ids = new ArrayList<>(LongStream.rangeClosed(1, 20).boxed().toList());
+        ids.add(1L);
+        ids.add(2L);
+
+        // 실행
+        long started = System.currentTimeMillis();
+        Map<Long, UserPoint> result = pointService.getPoints(ids);
+        long elapsed = System.currentTimeMillis() - started;
+
+        // 검증
+        assertThat(result).hasSize(20);
+        assertThat(result.keySet()).containsExactlyElementsOf(LongStream.rangeClosed(1, 20).boxed().toList());
+        assertThat(result.get(7L).point()).isEqualTo(70L);
+        verify(userPointTable, times(1)).selectById(1L);
+        // 순차 조회였다면 20 * 200ms = 4초
+        assertThat(elapsed).isLessThan(1_500L);
+    }
+
+    @Test
+    @DisplayName("캐시에 있는 잔액은 테이블을 다시 조회하지 않고, 없는 유저는 결과에서 빠진다")
+    void cachedAndMissingTest() throws InterruptedException {
+        // 셋업
+        pointService.getPoint(1L);
+
+        // 실행
+        Map<Long, UserPoint> result = pointService.getPoints(List.of(1L, 2L, 999L));
+
+        // 검증
+        assertThat(result.keySet()).containsExactly(1L, 2L);
+        verify(userPointTable, times(1)).selectById(1L);
+        verify(userPointTable, times(1)).selectById(2L);
+    }
+
+    @Test
+    @DisplayName("getPoints()를 요청하였을때, ID 목록이 비어 있으면 Bad Request를 던져야 한다.")
+    void emptyIdsTest() {
+        // 실행, 검증
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            pointService.getPoints(List.of());
+        });
+
+        // 추가 검증
+        assertEquals("IDs must be provided", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("getPoints()를 요청하였을때, 허용된 개수보다 많은 ID를 요청하면 Bad Request를 던져야 한다.")
+    void tooManyIdsTest() {
+        // 셋업
+        List<Long> ids = LongStream.rangeClosed(1, 101).boxed().toList();
+
+        // 실행, 검증
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            pointService.getPoints(ids);
+        });
+
+        // 추가 검증
+        assertEquals("Too many IDs. max: 100", exception.getMessage());
+        verifyNoInteractions(userPointTable);
+    }
+}
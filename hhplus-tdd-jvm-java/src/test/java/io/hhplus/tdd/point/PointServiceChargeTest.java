@@ -55,6 +55,7 @@ public class PointServiceChargeTest {
         assertThat(result).isNotNull();
         assertThat(result.id()).isEqualTo(123);
         assertThat(result.point()).isEqualTo(200);
+        verify(pointHistoryTable).insert(eq(userId), eq(amount), eq(TransactionType.CHARGE), anyLong());
     }
     @Test
     @DisplayName("charge()를 사용하였을때, 유저가 존재하지 않아 UserNotFoundException 을 호출하여야 한다.")
@@ -0,0 +1,241 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.config.PointProperties;
+import io.hhplus.tdd.database.PointHistoryAppender;
+import io.hhplus.tdd.database.LockedPointHistoryTable;
+import io.hhplus.tdd.database.LockedUserPointTable;
+import io.hhplus.tdd.database.PointHistoryIndex;
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.database.UserPointCache;
+import io.hhplus.tdd.database.UserPointTable;
+import io.hhplus.tdd.service.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PointServiceConcurrencyTest {
+    private static final int THREAD_COUNT = 16;
+    private static final int OPERATIONS_PER_THREAD = 2_000;
+    private static final int USER_COUNT = 4;
+
+    enum Mode {
+        LOCK_MAP,
+        STRIPED,
+        OPTIMISTIC,
+        GROUP_COMMIT,
+        ASYNC_HISTORY,
+    }
+
+    // 요구사항 분석
+    // - 충전/사용이 동시에 몰려도 잔액은 승인된 변화량의 합과 같아야 함
+    // - 잔액은 한 번도 음수로 저장되지 않아야 함
+    // - 유저의 내역 합계는 최종 잔액과 같아야 함
+    // - 스레드 안전하지 않은 원래 테이블을 써도 다른 유저의 동시 쓰기로 내역이 빠지거나 겹치지 않아야 함
+    @ParameterizedTest
+    @EnumSource(Mode.class)
+    @DisplayName("동시에 여러 스레드에서 충전/사용해도 최종 잔액은 승인된 변화량의 합과 같다")
+    void chargeAndUseStressTest(Mode mode) throws Exception {
+        // 셋업
+        InMemoryUserPointTable userPointTable = new InMemoryUserPointTable();
+        InMemoryPointHistoryTable pointHistoryTable = new InMemoryPointHistoryTable();
+        PointHistoryIndex pointHistoryIndex = new PointHistoryIndex(pointHistoryTable, true);
+        PointHistoryAppender pointHistoryAppender = appender(mode, pointHistoryIndex);
+        PointService pointService = pointService(mode, userPointTable, pointHistoryIndex, pointHistoryAppender);
+        LongAdder[] accepted = new LongAdder[USER_COUNT];
+        for (int i = 0; i < USER_COUNT; i++) {
+            accepted[i] = new LongAdder();
+        }
+        AtomicInteger rejected = new AtomicInteger();
+
+        // 실행
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREAD_COUNT; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    int user = random.nextInt(USER_COUNT);
+                    long amount = random.nextLong(1, 100);
+                    if (random.nextBoolean()) {
+                        pointService.patchCharge((long) user, amount);
+                        accepted[user].add(amount);
+                    } else {
+                        try {
+                            pointService.patchUse((long) user, -amount);
+                            accepted[user].add(-amount);
+                        } catch (IllegalArgumentException e) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        long elapsedNanos = System.nanoTime() - started;
+        executor.shutdown();
+        pointHistoryAppender.stop();
+
+        // 검증
+        double opsPerSecond = (double) THREAD_COUNT * OPERATIONS_PER_THREAD / (elapsedNanos / 1_000_000_000.0);
+        System.out.printf("%s: %.0f ops/s, %d rejected uses%n", mode, opsPerSecond, rejected.get());
+        assertThat(userPointTable.negativeWrites.get()).isZero();
+        for (int user = 0; user < USER_COUNT; user++) {
+            long balance = userPointTable.selectById((long) user).point();
+            long historySum = pointHistoryTable.selectAllByUserId(user).stream().mapToLong(PointHistory::amount).sum();
+            assertThat(balance).isEqualTo(accepted[user].sum());
+            assertThat(historySum).isEqualTo(balance);
+        }
+        assertThat(opsPerSecond).isGreaterThan(1_000);
+    }
+
+    @Test
+    @DisplayName("기본 설정처럼 원래 테이블을 쓰고 내역을 요청 스레드에서 기록해도, 여러 유저의 동시 충전/사용 내역이 빠지거나 겹치지 않는다")
+    void productionTableStressTest() throws Exception {
+        // 셋업
+        int threadCount = 16;
+        int operationsPerThread = 3;
+        int userCount = 8;
+        UserPointTable userPointTable = new LockedUserPointTable(new UserPointTable());
+        PointHistoryTable pointHistoryTable = new LockedPointHistoryTable(new PointHistoryTable());
+        PointHistoryIndex pointHistoryIndex = new PointHistoryIndex(pointHistoryTable, true);
+        PointService pointService = new PointService(new UserPointCache(userPointTable, 100), pointHistoryIndex,
+                new StripedStampedLockStrategy(1024, 5_000L), new PointProperties());
+        LongAdder[] accepted = new LongAdder[userCount];
+        for (int i = 0; i < userCount; i++) {
+            accepted[i] = new LongAdder();
+        }
+        AtomicInteger writes = new AtomicInteger();
+
+        // 실행
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < operationsPerThread; i++) {
+                    int user = (thread + i) % userCount;
+                    if (i == 1) {
+                        try {
+                            pointService.patchUse((long) user, -10L);
+                            accepted[user].add(-10L);
+                            writes.incrementAndGet();
+                        } catch (IllegalArgumentException ignored) {
+                        }
+                    } else {
+                        pointService.patchCharge((long) user, 20L);
+                        accepted[user].add(20L);
+                        writes.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(120, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        pointService.close();
+
+        // 검증
+        List<PointHistory> histories = new ArrayList<>();
+        for (int user = 0; user < userCount; user++) {
+            List<PointHistory> userHistories = pointHistoryTable.selectAllByUserId(user);
+            histories.addAll(userHistories);
+            long balance = userPointTable.selectById((long) user).point();
+            assertThat(balance).isEqualTo(accepted[user].sum());
+            assertThat(userHistories.stream().mapToLong(PointHistory::amount).sum()).isEqualTo(balance);
+        }
+        assertThat(histories).hasSize(writes.get());
+        assertThat(histories).extracting(PointHistory::id).doesNotHaveDuplicates();
+    }
+
+    private PointHistoryAppender appender(Mode mode, PointHistoryIndex pointHistoryIndex) {
+        PointHistoryAppender appender = new PointHistoryAppender(pointHistoryIndex, mode == Mode.ASYNC_HISTORY, 1_000, 256,
+                PointProperties.HistoryOverflowPolicy.BLOCK, 5_000L, 5_000L);
+        appender.start();
+        return appender;
+    }
+
+    private PointService pointService(Mode mode,
+                                      UserPointTable userPointTable,
+                                      PointHistoryIndex pointHistoryIndex,
+                                      PointHistoryAppender pointHistoryAppender) {
+        PointProperties properties = new PointProperties();
+        PointLockStrategy lockStrategy = switch (mode) {
+            case LOCK_MAP -> new LockMapStrategy(5_000L);
+            case STRIPED, GROUP_COMMIT, ASYNC_HISTORY -> new StripedStampedLockStrategy(64, 5_000L);
+            case OPTIMISTIC -> new OptimisticVersionStrategy(64, 5_000L);
+        };
+        properties.getGroupCommit().setEnabled(mode == Mode.GROUP_COMMIT);
+        return new PointService(
+                new UserPointCache(userPointTable, 100),
+                pointHistoryIndex,
+                pointHistoryAppender,
+                lockStrategy,
+                properties
+        );
+    }
+
+    /**
+     * 지연 없이 여러 스레드에서 호출할 수 있는 UserPointTable
+     */
+    static class InMemoryUserPointTable extends UserPointTable {
+        private final ConcurrentHashMap<Long, UserPoint> table = new ConcurrentHashMap<>();
+        final AtomicLong negativeWrites = new AtomicLong();
+
+        @Override
+        public UserPoint selectById(Long id) {
+            return table.getOrDefault(id, UserPoint.empty(id));
+        }
+
+        @Override
+        public UserPoint insertOrUpdate(long id, long amount) {
+            if (amount < 0) {
+                negativeWrites.incrementAndGet();
+            }
+            UserPoint userPoint = new UserPoint(id, amount, System.currentTimeMillis());
+            table.put(id, userPoint);
+            return userPoint;
+        }
+    }
+
+    /**
+     * 지연 없이 여러 스레드에서 호출할 수 있는 PointHistoryTable
+     */
+    static class InMemoryPointHistoryTable extends PointHistoryTable {
+        private final ConcurrentLinkedQueue<PointHistory> table = new ConcurrentLinkedQueue<>();
+        private final AtomicLong cursor = new AtomicLong(1);
+
+        @Override
+        public PointHistory insert(long userId, long amount, TransactionType type, long updateMillis) {
+            PointHistory pointHistory = new PointHistory(cursor.getAndIncrement(), userId, amount, type, updateMillis);
+            table.add(pointHistory);
+            return pointHistory;
+        }
+
+        @Override
+        public List<PointHistory> selectAllByUserId(long userId) {
+            return table.stream().filter(pointHistory -> pointHistory.userId() == userId).toList();
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.config.PointProperties;
+import io.hhplus.tdd.database.PointHistoryIndex;
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.database.UserPointCache;
+import io.hhplus.tdd.database.UserPointTable;
+import io.hhplus.tdd.exception.LockTimeoutException;
+import io.hhplus.tdd.service.LockMapStrategy;
+import io.hhplus.tdd.service.PointService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class PointServiceGroupCommitTest {
+    UserPointTable userPointTable;
+    PointHistoryTable pointHistoryTable;
+    PointService pointService;
+    AtomicLong balance = new AtomicLong();
+
+    PointServiceGroupCommitTest() {
+        this.userPointTable = mock(UserPointTable.class);
+        this.pointHistoryTable = mock(PointHistoryTable.class);
+        this.pointService = service(new PointProperties());
+
+        // 조회가 느린 테이블을 흉내내 그 사이에 들어온 요청이 큐에 쌓이도록 한다.
+        when(userPointTable.selectById(anyLong())).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return new UserPoint(invocation.getArgument(0), balance.get(), System.currentTimeMillis());
+        });
+        when(userPointTable.insertOrUpdate(anyLong(), anyLong())).thenAnswer(invocation -> {
+            balance.set(invocation.getArgument(1));
+            return new UserPoint(invocation.getArgument(0), invocation.getArgument(1), System.currentTimeMillis());
+        });
+    }
+
+    // group commit 모드
+    // 요구사항 분석
+    // - 같은 유저의 동시 요청은 하나의 배치로 묶어 조회/저장 한 번으로 반영
+    // - 호출자마다 자신의 요청이 반영된 시점의 잔액을 받음
+    // - 배치 안에서도 잔액이 음수가 되는 사용 요청은 거절
+    // - 리더는 자신의 배치만 처리하고 다음 요청에게 리더를 넘긴 뒤 돌아감
+    // - lock.timeout 안에 배치에 들어가지 못한 요청은 반영하지 않고 LockTimeoutException
+    // - 배치 처리 중 Error 가 나도 그 유저의 다음 요청이 멈추지 않음
+    // - applyAll 로 모아 온 요청은 group commit 설정과 관계없이 한 배치로 반영
+    @Test
+    @DisplayName("동시에 들어온 충전 요청을 배치로 묶어 저장 횟수를 줄인다")
+    void groupCommitChargeTest() throws Exception {
+        // 셋업
+        long userId = 123L;
+        int threadCount = 10;
+
+        // 실행
+        List<UserPoint> results = runConcurrently(threadCount, () -> pointService.patchCharge(userId, 10L));
+
+        // 검증
+        assertThat(balance.get()).isEqualTo(100L);
+        assertThat(results).extracting(UserPoint::point)
+                .containsExactlyInAnyOrder(10L, 20L, 30L, 40L, 50L, 60L, 70L, 80L, 90L, 100L);
+        verify(userPointTable, atMost(threadCount - 1)).insertOrUpdate(eq(userId), anyLong());
+        verify(pointHistoryTable, times(threadCount)).insert(eq(userId), eq(10L), eq(TransactionType.CHARGE), anyLong());
+    }
+
+    @Test
+    @DisplayName("배치 안에서 잔액보다 많이 사용하려는 요청만 거절된다")
+    void groupCommitUseRejectTest() throws Exception {
+        // 셋업
+        long userId = 123L;
+        int threadCount = 5;
+        balance.set(100L);
+
+        // 실행
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        List<Future<UserPoint>> futures = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            futures.add(executor.submit(() -> pointService.patchUse(userId, -30L)));
+        }
+        int rejected = 0;
+        for (Future<UserPoint> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(IllegalArgumentException.class)
+                        .hasMessage("You can't deduct more points than you own.");
+                rejected++;
+            }
+        }
+        executor.shutdown();
+
+        // 검증
+        assertThat(rejected).isEqualTo(2);
+        assertThat(balance.get()).isEqualTo(10L);
+        verify(pointHistoryTable, times(3)).insert(eq(userId), eq(-30L), eq(TransactionType.USE), anyLong());
+    }
+
+    @Test
+    @DisplayName("리더는 자신의 배치만 처리하고 돌아가며, 뒤에 쌓인 요청은 넘겨받은 리더가 이어서 처리한다")
+    void handOffTest() throws Exception {
+        // 셋업
+        long userId = 123L;
+        PointProperties properties = new PointProperties();
+        properties.getGroupCommit().setMaxBatchSize(1);
+        pointService = service(properties);
+        CountDownLatch selecting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userPointTable.selectById(anyLong())).thenAnswer(invocation -> {
+            selecting.countDown();
+            release.await();
+            Thread.sleep(100);
+            return new UserPoint(invocation.getArgument(0), balance.get(), System.currentTimeMillis());
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+
+        // 실행
+        Future<UserPoint> leader = executor.submit(() -> pointService.patchCharge(userId, 10L));
+        selecting.await();
+        List<Future<UserPoint>> followers = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            followers.add(executor.submit(() -> pointService.patchCharge(userId, 10L)));
+        }
+        Thread.sleep(100);
+        release.countDown();
+        UserPoint leaderResult = leader.get(5, TimeUnit.SECONDS);
+        long doneWhenLeaderReturned = followers.stream().filter(Future::isDone).count();
+        for (Future<UserPoint> follower : followers) {
+            follower.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // 검증
+        assertThat(leaderResult.point()).isEqualTo(10L);
+        assertThat(doneWhenLeaderReturned).isLessThan(9L);
+        assertThat(balance.get()).isEqualTo(100L);
+    }
+
+    @Test
+    @DisplayName("lock.timeout 안에 배치에 들어가지 못한 요청은 LockTimeoutException 으로 거절되고 반영되지 않는다")
+    void timeoutTest() throws Exception {
+        // 셋업
+        long userId = 123L;
+        PointProperties properties = new PointProperties();
+        properties.getLock().setTimeout(Duration.ofMillis(200));
+        pointService = service(properties);
+        CountDownLatch selecting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userPointTable.selectById(anyLong())).thenAnswer(invocation -> {
+            selecting.countDown();
+            release.await();
+            return new UserPoint(invocation.getArgument(0), balance.get(), System.currentTimeMillis());
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        // 실행
+        Future<UserPoint> leader = executor.submit(() -> pointService.patchCharge(userId, 10L));
+        selecting.await();
+        Future<UserPoint> follower = executor.submit(() -> pointService.patchCharge(userId, 20L));
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+        release.countDown();
+        UserPoint leaderResult = leader.get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // 검증
+        assertThat(exception.getCause()).isInstanceOf(LockTimeoutException.class);
+        assertThat(leaderResult.point()).isEqualTo(10L);
+        assertThat(pointService.patchCharge(userId, 5L).point()).isEqualTo(15L);
+        verify(pointHistoryTable, never()).insert(eq(userId), eq(20L), any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("배치 처리 중 Error 가 나도 그 요청만 실패하고 같은 유저의 다음 요청은 처리된다")
+    void errorTest() throws Exception {
+        // 셋업
+        long userId = 123L;
+        when(userPointTable.selectById(anyLong()))
+                .thenThrow(new StackOverflowError())
+                .thenAnswer(invocation -> new UserPoint(invocation.getArgument(0), balance.get(), System.currentTimeMillis()));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        // 실행
+        assertThrows(StackOverflowError.class, () -> pointService.patchCharge(userId, 10L));
+        Future<UserPoint> next = executor.submit(() -> pointService.patchCharge(userId, 20L));
+
+        // 검증
+        assertThat(next.get(5, TimeUnit.SECONDS).point()).isEqualTo(20L);
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("applyAll 은 group commit 을 끈 락 모드에서도 한 유저의 요청들을 조회/저장 한 번으로 반영한다")
+    void applyAllTest() throws Exception {
+        // 셋업
+        long userId = 123L;
+        balance.set(100L);
+        PointService lockService = new PointService(new UserPointCache(userPointTable, 0), new PointHistoryIndex(pointHistoryTable, false),
+                new LockMapStrategy(5_000L), new PointProperties());
+        List<PointBulkRow> rows = List.of(
+                new PointBulkRow(userId, 50L, TransactionType.CHARGE),
+                new PointBulkRow(userId, -200L, TransactionType.USE),
+                new PointBulkRow(userId, -120L, TransactionType.USE),
+                new PointBulkRow(userId, -10L, TransactionType.CHARGE)
+        );
+
+        // 실행
+        List<CompletableFuture<UserPoint>> results = lockService.applyAll(userId, rows);
+
+        // 검증
+        assertThat(results.get(0).join().point()).isEqualTo(150L);
+        assertThat(results.get(1)).isCompletedExceptionally();
+        assertThat(results.get(2).join().point()).isEqualTo(30L);
+        assertThat(results.get(3)).isCompletedExceptionally();
+        assertThat(balance.get()).isEqualTo(30L);
+        verify(userPointTable, times(1)).selectById(userId);
+        verify(userPointTable, times(1)).insertOrUpdate(userId, 30L);
+        verify(pointHistoryTable, times(2)).insert(eq(userId), anyLong(), any(), anyLong());
+        lockService.close();
+    }
+
+    private PointService service(PointProperties properties) {
+        properties.getGroupCommit().setEnabled(true);
+        return new PointService(new UserPointCache(userPointTable, 0), new PointHistoryIndex(pointHistoryTable, false),
+                new LockMapStrategy(5_000L), properties);
+    }
+
+    private List<UserPoint> runConcurrently(int threadCount, Callable<UserPoint> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        List<Future<UserPoint>> futures = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            futures.add(executor.submit(task));
+        }
+        List<UserPoint> results = new ArrayList<>();
+        for (Future<UserPoint> future : futures) {
+            results.add(future.get());
+        }
+        executor.shutdown();
+        return results;
+    }
+}
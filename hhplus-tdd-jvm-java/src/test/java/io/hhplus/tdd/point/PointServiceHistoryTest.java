@@ -138,4 +138,31 @@ public class PointServiceHistoryTest {
 
         executor.shutdown();
     }
+
+    @Test
+    @DisplayName("history()에 조건을 주면 조건에 맞는 내역만 반환한다")
+    void historyWithQueryTest() throws InterruptedException {
+        // 셋업
+        Long userId = 123L;
+
+        // 실행
+        List<PointHistory> result = pointService.getHistory(userId, new PointHistoryQuery(null, null, null, TransactionType.USE, null)).toList();
+
+        // 검증
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).id()).isEqualTo(2L);
+        assertThat(result.get(0).type()).isEqualTo(TransactionType.USE);
+    }
+
+    @Test
+    @DisplayName("history()에 0 이하의 size 를 주면 IllegalArgumentException")
+    void historyWithInvalidSizeTest() {
+        // 실행, 검증
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            new PointHistoryQuery(null, null, null, null, 0);
+        });
+
+        // 추가 검증
+        assertEquals("Size must be a positive number.", exception.getMessage());
+    }
 }
@@ -0,0 +1,75 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.database.UserPointTable;
+import io.hhplus.tdd.exception.LockTimeoutException;
+import io.hhplus.tdd.service.PointService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+public class PointServiceIdempotencyTest {
+    UserPointTable userPointTable;
+    PointHistoryTable pointHistoryTable;
+    PointService pointService;
+
+    PointServiceIdempotencyTest() {
+        this.userPointTable = mock(UserPointTable.class);
+        this.pointHistoryTable = mock(PointHistoryTable.class);
+        this.pointService = new PointService(userPointTable, pointHistoryTable);
+
+        when(userPointTable.selectById(1L)).thenReturn(new UserPoint(1L, 100L, 0L));
+        when(userPointTable.insertOrUpdate(eq(1L), anyLong()))
+                .thenAnswer(invocation -> new UserPoint(1L, invocation.getArgument(1), 0L));
+    }
+
+    // 요구사항 분석
+    // - Idempotency-Key 가 같은 재시도는 잔액과 내역에 다시 반영하지 않음
+    // - 처음 요청이 실패했다면 재시도를 그대로 수행
+    @Test
+    @DisplayName("같은 키로 다시 충전하면 테이블을 거치지 않고 처음 결과를 반환한다")
+    void chargeReplayTest() throws InterruptedException {
+        // 실행
+        UserPoint first = pointService.patchCharge(1L, 50L, "retry-1");
+        UserPoint replayed = pointService.patchCharge(1L, 50L, "retry-1");
+
+        // 검증
+        assertThat(replayed).isEqualTo(first);
+        assertThat(replayed.point()).isEqualTo(150L);
+        verify(userPointTable, times(1)).selectById(1L);
+        verify(userPointTable, times(1)).insertOrUpdate(1L, 150L);
+        verify(pointHistoryTable, times(1)).insert(eq(1L), eq(50L), eq(TransactionType.CHARGE), anyLong());
+    }
+
+    @Test
+    @DisplayName("키가 없거나 다른 키로 사용하면 매번 반영한다")
+    void distinctKeyTest() throws InterruptedException {
+        // 실행
+        pointService.patchUse(1L, -10L, "use-1");
+        pointService.patchUse(1L, -10L, "use-2");
+        pointService.patchUse(1L, -10L);
+
+        // 검증
+        verify(userPointTable, times(3)).insertOrUpdate(1L, 90L);
+    }
+
+    @Test
+    @DisplayName("처음 요청이 락을 얻지 못해 실패했다면 같은 키의 재시도는 다시 반영한다")
+    void retryAfterTimeoutTest() throws InterruptedException {
+        // 셋업
+        when(userPointTable.selectById(1L))
+                .thenThrow(new LockTimeoutException(1L))
+                .thenReturn(new UserPoint(1L, 100L, 0L));
+
+        // 실행
+        assertThrows(LockTimeoutException.class, () -> pointService.patchCharge(1L, 50L, "retry-1"));
+        UserPoint retried = pointService.patchCharge(1L, 50L, "retry-1");
+
+        // 검증
+        assertThat(retried.point()).isEqualTo(150L);
+        verify(userPointTable, times(1)).insertOrUpdate(1L, 150L);
+    }
+}
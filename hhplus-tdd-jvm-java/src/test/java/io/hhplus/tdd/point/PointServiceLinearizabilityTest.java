@@ -0,0 +1,146 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.config.PointProperties;
+import io.hhplus.tdd.database.PointHistoryAppender;
+import io.hhplus.tdd.database.PointHistoryIndex;
+import io.hhplus.tdd.database.SeededThrottle;
+import io.hhplus.tdd.database.SimulatedPointHistoryTable;
+import io.hhplus.tdd.database.SimulatedUserPointTable;
+import io.hhplus.tdd.database.UserPointCache;
+import io.hhplus.tdd.point.PointSimulation.Kind;
+import io.hhplus.tdd.point.PointSimulation.Operation;
+import io.hhplus.tdd.point.PointSimulation.Outcome;
+import io.hhplus.tdd.service.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 시드로 재현할 수 있는 부하를 실제 서비스 구성에 흘려 보내고, 기록한 결과가 잔액 하나를 순서대로 바꾼 것처럼 설명되는지 확인합니다.
+ * 실패하면 -Dsimulation.seed=&lt;출력된 seed&gt; 로 같은 요청 순서와 지연을 다시 만들 수 있습니다.
+ */
+public class PointServiceLinearizabilityTest {
+    private static final long SEED = Long.getLong("simulation.seed", 20_240_419L);
+    private static final int THREAD_COUNT = Integer.getInteger("simulation.threads", 16);
+    private static final int OPERATIONS_PER_THREAD = Integer.getInteger("simulation.operations", 300);
+    private static final int USER_COUNT = Integer.getInteger("simulation.users", 8);
+    private static final double SCALE = Double.parseDouble(System.getProperty("simulation.scale", "0.01"));
+
+    enum Mode {
+        LOCK_MAP,
+        STRIPED,
+        OPTIMISTIC,
+        GROUP_COMMIT,
+        ASYNC_HISTORY,
+        SINGLE_FLIGHT,
+        SHARD,
+    }
+
+    // 요구사항 분석
+    // - 충전/사용/조회가 섞여 몰려도 모든 결과가 유저별로 한 줄로 세운 순서로 설명되어야 함
+    // - 같은 유저의 잔액 쓰기는 겹치지 않고, 음수 잔액은 저장되지 않아야 함
+    // - 내역은 승인된 충전/사용과 하나씩 대응하고, id 순으로 더한 잔액이 승인 때 돌려준 잔액과 같아야 함
+    // - 처리량과 지연 백분위를 출력
+    @ParameterizedTest
+    @EnumSource(Mode.class)
+    @DisplayName("시드로 만든 동시 충전/사용/조회 기록은 선형화 가능하고 내역과 잔액이 맞다")
+    void linearizabilityTest(Mode mode) throws Exception {
+        // 셋업
+        SimulatedUserPointTable userPointTable = new SimulatedUserPointTable(new SeededThrottle(SEED, SCALE));
+        SimulatedPointHistoryTable pointHistoryTable = new SimulatedPointHistoryTable(new SeededThrottle(~SEED, SCALE));
+        PointHistoryIndex pointHistoryIndex = new PointHistoryIndex(pointHistoryTable, true);
+        PointHistoryAppender pointHistoryAppender = new PointHistoryAppender(pointHistoryIndex, mode == Mode.ASYNC_HISTORY, 1_000, 256,
+                PointProperties.HistoryOverflowPolicy.BLOCK, 5_000L, 5_000L);
+        pointHistoryAppender.start();
+        PointService pointService = pointService(mode, userPointTable, pointHistoryIndex, pointHistoryAppender);
+
+        // 실행
+        PointSimulation.Result result;
+        try {
+            result = PointSimulation.run(pointService, SEED, THREAD_COUNT, OPERATIONS_PER_THREAD, USER_COUNT);
+        } finally {
+            pointService.close();
+            pointHistoryAppender.stop();
+        }
+        System.out.print(mode + " " + result.report());
+
+        // 검증
+        assertThat(result.count(Outcome.UNKNOWN)).as("seed %d", SEED).isZero();
+        Optional<String> failure = LinearizabilityChecker.check(result.operations());
+        assertThat(failure).as("seed %d: %s", SEED, failure.orElse("")).isEmpty();
+        assertThat(userPointTable.overlappingWrites.sum()).isZero();
+        assertThat(userPointTable.negativeWrites.sum()).isZero();
+        assertHistoryConsistent(result.operations(), userPointTable, pointHistoryTable);
+    }
+
+    /**
+     * 유저마다 승인된 충전/사용과 내역이 하나씩 대응하고, 내역을 id 순으로 더한 잔액이 승인 때 돌려준 잔액과 같은지 확인합니다.
+     */
+    private void assertHistoryConsistent(List<Operation> operations,
+                                         SimulatedUserPointTable userPointTable,
+                                         SimulatedPointHistoryTable pointHistoryTable) {
+        List<PointHistory> histories = pointHistoryTable.selectAll();
+        assertThat(histories).extracting(PointHistory::id).doesNotHaveDuplicates();
+        Map<Long, List<Operation>> writesByUser = operations.stream()
+                .filter(operation -> operation.kind() != Kind.GET && operation.outcome() == Outcome.OK)
+                .collect(Collectors.groupingBy(Operation::userId));
+
+        for (int user = 0; user < USER_COUNT; user++) {
+            long userId = user;
+            List<Operation> writes = writesByUser.getOrDefault(userId, List.of());
+            List<PointHistory> userHistories = histories.stream()
+                    .filter(history -> history.userId() == userId)
+                    .sorted(Comparator.comparingLong(PointHistory::id))
+                    .toList();
+
+            assertThat(userHistories).extracting(history -> history.type() + ":" + history.amount())
+                    .containsExactlyInAnyOrderElementsOf(writes.stream()
+                            .map(write -> (write.kind() == Kind.CHARGE ? TransactionType.CHARGE : TransactionType.USE) + ":" + write.amount())
+                            .toList());
+
+            List<Long> balances = new ArrayList<>();
+            long balance = 0L;
+            for (PointHistory history : userHistories) {
+                balance += history.amount();
+                assertThat(balance).as("user %d after history %d", userId, history.id()).isNotNegative();
+                balances.add(balance);
+            }
+            assertThat(balances).containsExactlyInAnyOrderElementsOf(writes.stream().map(Operation::value).toList());
+            assertThat(userPointTable.selectById(userId).point()).isEqualTo(balance);
+        }
+    }
+
+    private PointService pointService(Mode mode,
+                                      SimulatedUserPointTable userPointTable,
+                                      PointHistoryIndex pointHistoryIndex,
+                                      PointHistoryAppender pointHistoryAppender) {
+        PointProperties properties = new PointProperties();
+        PointLockStrategy lockStrategy = switch (mode) {
+            case LOCK_MAP, SHARD -> new LockMapStrategy(5_000L);
+            case STRIPED, GROUP_COMMIT, ASYNC_HISTORY, SINGLE_FLIGHT -> new StripedStampedLockStrategy(64, 5_000L);
+            case OPTIMISTIC -> new OptimisticVersionStrategy(64, 5_000L);
+        };
+        properties.getGroupCommit().setEnabled(mode == Mode.GROUP_COMMIT);
+        properties.getSingleFlight().setEnabled(mode == Mode.SINGLE_FLIGHT);
+        if (mode == Mode.SHARD) {
+            properties.getEngine().setType(PointProperties.EngineType.SHARD);
+            properties.getEngine().setShards(4);
+        }
+        return new PointService(
+                new UserPointCache(userPointTable, 100),
+                pointHistoryIndex,
+                pointHistoryAppender,
+                lockStrategy,
+                properties
+        );
+    }
+}
@@ -0,0 +1,161 @@
+package io.hhplus.tdd.point;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.hhplus.tdd.config.PointProperties;
+import io.hhplus.tdd.database.PointHistoryIndex;
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.database.UserPointCache;
+import io.hhplus.tdd.database.UserPointTable;
+import io.hhplus.tdd.exception.LockTimeoutException;
+import io.hhplus.tdd.exception.UserNotFoundException;
+import io.hhplus.tdd.service.LockMapStrategy;
+import io.hhplus.tdd.service.PointBulkIngester;
+import io.hhplus.tdd.service.PointService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class PointServiceShardEngineTest {
+    UserPointTable userPointTable = mock(UserPointTable.class);
+    PointHistoryTable pointHistoryTable = mock(PointHistoryTable.class);
+    AtomicLong balance = new AtomicLong();
+    CountDownLatch release = new CountDownLatch(0);
+    PointProperties properties = new PointProperties();
+    PointService pointService;
+
+    PointServiceShardEngineTest() {
+        properties.getEngine().setType(PointProperties.EngineType.SHARD);
+        properties.getEngine().setShards(2);
+        properties.getLock().setTimeout(Duration.ofMillis(200));
+        this.pointService = new PointService(new UserPointCache(userPointTable, 0), new PointHistoryIndex(pointHistoryTable, false),
+                new LockMapStrategy(5_000L), properties);
+
+        when(userPointTable.selectById(anyLong())).thenAnswer(invocation -> {
+            release.await();
+            long userId = invocation.getArgument(0);
+            return userId == 123L ? new UserPoint(userId, balance.get(), System.currentTimeMillis()) : null;
+        });
+        when(userPointTable.insertOrUpdate(anyLong(), anyLong())).thenAnswer(invocation -> {
+            balance.set(invocation.getArgument(1));
+            return new UserPoint(invocation.getArgument(0), invocation.getArgument(1), System.currentTimeMillis());
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        pointService.close();
+    }
+
+    // SHARD 엔진 모드
+    // 요구사항 분석
+    // - 락 없이 shard 스레드가 처리해도 동시 충전/사용의 결과 잔액이 맞음
+    // - 없는 유저는 락 모드와 같이 UserNotFoundException
+    // - shard 가 lock.timeout 안에 처리하지 못한 요청은 반영하지 않고 LockTimeoutException
+    // - 대량 반영도 shard 를 거치므로 shard 가 들고 있는 잔액과 어긋나지 않음
+    @Test
+    @DisplayName("동시에 들어온 충전/사용을 shard 가 처리해도 잔액과 내역이 맞다")
+    void concurrentChargeUseTest() throws Exception {
+        // 셋업
+        long userId = 123L;
+        balance.set(1_000L);
+        int threadCount = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+
+        // 실행
+        List<Future<UserPoint>> futures = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            futures.add(executor.submit(i % 2 == 0
+                    ? () -> pointService.patchCharge(userId, 10L)
+                    : () -> pointService.patchUse(userId, -20L)));
+        }
+        for (Future<UserPoint> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // 검증
+        assertThat(balance.get()).isEqualTo(900L);
+        assertThat(pointService.getPoint(userId).point()).isEqualTo(900L);
+        verify(pointHistoryTable, times(threadCount)).insert(eq(userId), anyLong(), any(), anyLong());
+        assertThat(pointService.shardEngineStats().shards()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("없는 유저를 조회하거나 충전하면 UserNotFoundException 이 발생한다")
+    void userNotFoundTest() {
+        // 실행 & 검증
+        assertThrows(UserNotFoundException.class, () -> pointService.getPoint(9L));
+        assertThrows(UserNotFoundException.class, () -> pointService.patchCharge(9L, 10L));
+        assertThrows(UserNotFoundException.class, () -> pointService.getHistory(9L));
+    }
+
+    @Test
+    @DisplayName("shard 가 lock.timeout 안에 처리하지 못한 충전은 LockTimeoutException 으로 거절되고 반영되지 않는다")
+    void timeoutTest() throws Exception {
+        // 셋업
+        long userId = 123L;
+        release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        // 같은 shard 의 테이블 조회가 멈춰 있는 동안 뒤에 들어온 메시지는 처리되지 못한다.
+        Future<UserPoint> blocked = executor.submit(() -> pointService.getPoint(userId));
+        Thread.sleep(50);
+
+        // 실행
+        assertThrows(LockTimeoutException.class, () -> pointService.patchCharge(userId, 10L));
+        release.countDown();
+
+        // 검증
+        // 이미 처리를 시작한 조회는 취소하지 않고 끝날 때까지 기다린다.
+        assertThat(blocked.get(5, TimeUnit.SECONDS).point()).isZero();
+        assertThat(pointService.getPoint(userId).point()).isZero();
+        verify(userPointTable, never()).insertOrUpdate(anyLong(), anyLong());
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("대량 반영도 shard 를 거치므로 그 뒤의 조회와 충전이 반영된 잔액 위에서 이어진다")
+    void bulkIngestTest() throws Exception {
+        // 셋업
+        long userId = 123L;
+        assertThat(pointService.getPoint(userId).point()).isZero();
+        PointBulkIngester ingester = new PointBulkIngester(pointService, new ObjectMapper(), properties);
+        String csv = "userId,amount,type\n123,100,CHARGE\n123,-30,USE\n123,50,CHARGE\n";
+
+        // 실행
+        PointBulkIngester.BulkSummary summary;
+        try {
+            summary = ingester.ingest(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+                    PointBulkIngester.Format.CSV, result -> { });
+        } finally {
+            ingester.close();
+        }
+        UserPoint read = pointService.getPoint(userId);
+        UserPoint charged = pointService.patchCharge(userId, 10L);
+
+        // 검증
+        assertThat(summary.succeeded()).isEqualTo(3L);
+        assertThat(read.point()).isEqualTo(120L);
+        assertThat(charged.point()).isEqualTo(130L);
+        assertThat(balance.get()).isEqualTo(130L);
+        assertThat(pointService.shardEngineStats().messages()).isEqualTo(6L);
+    }
+}
@@ -0,0 +1,131 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.config.PointProperties;
+import io.hhplus.tdd.database.PointHistoryIndex;
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.database.UserPointCache;
+import io.hhplus.tdd.database.UserPointTable;
+import io.hhplus.tdd.service.PointService;
+import io.hhplus.tdd.service.StripedStampedLockStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+public class PointServiceSingleFlightTest {
+    UserPointTable userPointTable = mock(UserPointTable.class);
+    PointHistoryTable pointHistoryTable = mock(PointHistoryTable.class);
+    AtomicLong balance = new AtomicLong(100L);
+    ExecutorService executor = Executors.newFixedThreadPool(50);
+    PointService pointService;
+
+    PointServiceSingleFlightTest() {
+        PointProperties properties = new PointProperties();
+        properties.getSingleFlight().setEnabled(true);
+        this.pointService = new PointService(new UserPointCache(userPointTable, 0), new PointHistoryIndex(pointHistoryTable, false),
+                new StripedStampedLockStrategy(1024, 5_000L), properties);
+
+        // 조회가 느린 테이블을 흉내내 그 사이에 들어온 조회가 합류하도록 한다.
+        when(userPointTable.selectById(anyLong())).thenAnswer(invocation -> {
+            Thread.sleep(100);
+            return new UserPoint(invocation.getArgument(0), balance.get(), System.currentTimeMillis());
+        });
+        when(userPointTable.insertOrUpdate(anyLong(), anyLong())).thenAnswer(invocation -> {
+            balance.set(invocation.getArgument(1));
+            return new UserPoint(invocation.getArgument(0), invocation.getArgument(1), System.currentTimeMillis());
+        });
+        when(pointHistoryTable.selectAllByUserId(anyLong())).thenReturn(List.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        pointService.close();
+    }
+
+    // single-flight 모드
+    // 요구사항 분석
+    // - 같은 유저의 동시 잔액/내역 조회는 테이블 조회 한 번을 나눠 씀
+    // - 묶인 조회 수와 실제 조회 수를 확인할 수 있음
+    // - 충전이 끝난 뒤 시작한 조회는 묶이더라도 그 충전이 반영된 잔액을 받음
+    @Test
+    @DisplayName("같은 유저의 잔액 조회 50 건이 동시에 들어오면 테이블 조회는 몇 번만 하고 모두 같은 잔액을 받는다")
+    void coalescePointTest() throws Exception {
+        // 셋업
+        long userId = 123L;
+
+        // 실행
+        List<Future<UserPoint>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            futures.add(executor.submit(() -> pointService.getPoint(userId)));
+        }
+
+        // 검증
+        for (Future<UserPoint> future : futures) {
+            assertThat(future.get(10, TimeUnit.SECONDS).point()).isEqualTo(100L);
+        }
+        verify(userPointTable, atMost(5)).selectById(userId);
+        assertThat(pointService.pointReadStats().issued() + pointService.pointReadStats().coalesced()).isEqualTo(50L);
+        assertThat(pointService.pointReadStats().coalesced()).isGreaterThanOrEqualTo(45L);
+    }
+
+    @Test
+    @DisplayName("같은 유저의 내역 조회도 동시에 들어오면 유저 확인과 내역 조회를 한 번만 한다")
+    void coalesceHistoryTest() throws Exception {
+        // 셋업
+        long userId = 123L;
+
+        // 실행
+        List<Future<List<PointHistory>>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(executor.submit(() -> pointService.getHistory(userId)));
+        }
+        for (Future<List<PointHistory>> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+
+        // 검증
+        verify(pointHistoryTable, atMost(3)).selectAllByUserId(userId);
+        assertThat(pointService.historyReadStats().coalesced()).isGreaterThanOrEqualTo(17L);
+    }
+
+    @Test
+    @DisplayName("충전이 끝난 뒤 시작한 조회는 진행 중인 조회에 묶이더라도 그 충전이 반영된 잔액을 받는다")
+    void readAfterWriteTest() throws Exception {
+        // 셋업
+        long userId = 123L;
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Future<?>> readers = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            readers.add(executor.submit(() -> {
+                while (running.get()) {
+                    pointService.getPoint(userId);
+                }
+                return null;
+            }));
+        }
+
+        // 실행 & 검증
+        for (int i = 0; i < 10; i++) {
+            UserPoint charged = pointService.patchCharge(userId, 10L);
+            assertThat(pointService.getPoint(userId).point()).isGreaterThanOrEqualTo(charged.point());
+        }
+        running.set(false);
+        for (Future<?> reader : readers) {
+            reader.get(10, TimeUnit.SECONDS);
+        }
+        assertThat(balance.get()).isEqualTo(200L);
+    }
+}
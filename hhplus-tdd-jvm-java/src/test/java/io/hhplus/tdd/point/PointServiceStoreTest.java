@@ -0,0 +1,75 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.BalanceStore;
+import io.hhplus.tdd.database.HistoryStore;
+import io.hhplus.tdd.exception.PointWriteIncompleteException;
+import io.hhplus.tdd.service.PointService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+public class PointServiceStoreTest {
+    BalanceStore balanceStore;
+    HistoryStore historyStore;
+    PointService pointService;
+
+    PointServiceStoreTest() {
+        this.balanceStore = mock(BalanceStore.class);
+        this.historyStore = mock(HistoryStore.class);
+        this.pointService = new PointService(balanceStore, historyStore);
+
+        when(balanceStore.find(1L)).thenReturn(new UserPoint(1L, 100L, 0L));
+        when(balanceStore.save(eq(1L), anyLong()))
+                .thenAnswer(invocation -> new UserPoint(1L, invocation.getArgument(1), 10L));
+    }
+
+    // 요구사항 분석
+    // - 잔액은 유저 락 안에서 한 번 읽고 BalanceStore 의 save 로 씀
+    // - 내역을 남기지 못하면 잔액을 되돌리고, 되돌리지도 못하면 반영된 채 끝나지 않은 쓰기로 알림
+    @Test
+    @DisplayName("잔액을 한 번 읽고 save 로 쓴 뒤 내역을 남긴다")
+    void saveTest() throws InterruptedException {
+        // 실행
+        UserPoint result = pointService.patchCharge(1L, 50L);
+
+        // 검증
+        assertThat(result.point()).isEqualTo(150L);
+        verify(balanceStore, times(1)).find(1L);
+        verify(balanceStore, never()).compareAndSet(anyLong(), anyLong(), anyLong());
+        verify(historyStore, times(1)).append(1L, 50L, TransactionType.CHARGE, 10L);
+    }
+
+    @Test
+    @DisplayName("내역을 남기지 못하면 잔액을 되돌린다")
+    void rollbackTest() {
+        // 셋업
+        when(historyStore.append(anyLong(), anyLong(), any(), anyLong())).thenThrow(new RuntimeException("boom"));
+
+        // 실행
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> pointService.patchCharge(1L, 50L));
+
+        // 검증
+        assertThat(exception).isNotInstanceOf(PointWriteIncompleteException.class);
+        verify(balanceStore).save(1L, 150L);
+        verify(balanceStore).save(1L, 100L);
+    }
+
+    @Test
+    @DisplayName("잔액도 되돌리지 못하면 같은 키의 재시도가 다시 반영하지 않는다")
+    void incompleteReplayTest() {
+        // 셋업
+        when(historyStore.append(anyLong(), anyLong(), any(), anyLong())).thenThrow(new RuntimeException("boom"));
+        when(balanceStore.save(1L, 100L)).thenThrow(new RuntimeException("boom"));
+
+        // 실행
+        assertThrows(PointWriteIncompleteException.class, () -> pointService.patchCharge(1L, 50L, "retry-1"));
+        assertThrows(PointWriteIncompleteException.class, () -> pointService.patchCharge(1L, 50L, "retry-1"));
+
+        // 검증
+        verify(balanceStore, times(1)).save(1L, 150L);
+        verify(historyStore, times(1)).append(anyLong(), anyLong(), any(), anyLong());
+    }
+}
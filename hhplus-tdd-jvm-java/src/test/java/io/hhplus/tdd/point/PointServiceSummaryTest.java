@@ -0,0 +1,73 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.database.UserPointTable;
+import io.hhplus.tdd.exception.UserNotFoundException;
+import io.hhplus.tdd.service.PointService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+public class PointServiceSummaryTest {
+    UserPointTable userPointTable;
+    PointHistoryTable pointHistoryTable;
+    PointService pointService;
+    AtomicLong cursor = new AtomicLong();
+
+    PointServiceSummaryTest() {
+        this.userPointTable = mock(UserPointTable.class);
+        this.pointHistoryTable = mock(PointHistoryTable.class);
+        this.pointService = new PointService(userPointTable, pointHistoryTable);
+
+        when(userPointTable.selectById(1L)).thenReturn(new UserPoint(1L, 100L, 0L));
+        when(userPointTable.insertOrUpdate(eq(1L), anyLong()))
+                .thenAnswer(invocation -> new UserPoint(1L, invocation.getArgument(1), 0L));
+        when(pointHistoryTable.insert(eq(1L), anyLong(), any(), anyLong())).thenAnswer(invocation -> new PointHistory(
+                cursor.incrementAndGet(), 1L, invocation.getArgument(1), invocation.getArgument(2), invocation.getArgument(3)));
+    }
+
+    // 요구사항 분석
+    // - 충전/사용 후 요약에 바로 반영되고, 요약을 위해 테이블을 읽지 않음
+    // - 존재하지 않는 유저나 잘못된 기간은 거절
+    @Test
+    @DisplayName("충전/사용한 만큼 요약이 갱신된다")
+    void summaryTest() throws InterruptedException {
+        // 셋업
+        pointService.getSummary(1L, null, null);
+
+        // 실행
+        pointService.patchCharge(1L, 50L);
+        pointService.patchUse(1L, -20L);
+        PointSummary summary = pointService.getSummary(1L, null, null);
+
+        // 검증
+        assertThat(summary.charged()).isEqualTo(50L);
+        assertThat(summary.used()).isEqualTo(20L);
+        assertThat(summary.count()).isEqualTo(2L);
+        verify(pointHistoryTable, never()).selectAllByUserId(anyLong());
+    }
+
+    @Test
+    @DisplayName("존재하지 않는 유저의 요약은 UserNotFoundException 이 발생한다")
+    void notFoundTest() {
+        // 셋업
+        when(userPointTable.selectById(999L)).thenReturn(null);
+
+        // 실행 & 검증
+        assertThrows(UserNotFoundException.class, () -> pointService.getSummary(999L, null, null));
+    }
+
+    @Test
+    @DisplayName("from 이 to 보다 늦으면 IllegalArgumentException 이 발생한다")
+    void invalidRangeTest() {
+        // 실행 & 검증
+        assertThrows(IllegalArgumentException.class, () ->
+                pointService.getSummary(1L, LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 1)));
+    }
+}
@@ -34,21 +34,19 @@ public class PointServiceUseTest {
     // - amount가 양수 일때
     // - 소유 포인트보다 더 많은 포인트를 차감하려 할 때
     // - 유저를 조회하다 DB 예외 발생
-    // - 업데이트하다 DB 예외 발생 -> x
+    // - 업데이트하다 DB 예외 발생
 
     @Test
     @DisplayName("use() 성공")
-    void 성공(){
+    void 성공() throws InterruptedException {
         // 셋업
         long userId = 123;
         long initialPoint = 100L;
         long amount = -30;
 
-        PointHistory updatedHistory = new PointHistory(1L, userId, initialPoint + amount, TransactionType.USE, System.currentTimeMillis());
-        when(pointHistoryTable.insert(userId, amount, TransactionType.USE, System.currentTimeMillis())).thenReturn(updatedHistory);
-
-        UserPoint resultUserPoint = new UserPoint(userId, initialPoint + amount, System.currentTimeMillis());
-        when(userPointTable.selectById(userId)).thenReturn(resultUserPoint);
+        when(userPointTable.selectById(userId)).thenReturn(new UserPoint(userId, initialPoint, System.currentTimeMillis()));
+        when(userPointTable.insertOrUpdate(userId, initialPoint + amount))
+                .thenReturn(new UserPoint(userId, initialPoint + amount, System.currentTimeMillis()));
         // 실행
         UserPoint result = pointService.patchUse(userId, amount);
 
@@ -56,6 +54,8 @@ public class PointServiceUseTest {
         assertThat(result).isNotNull();
         assertThat(result.id()).isEqualTo(123);
         assertThat(result.point()).isEqualTo(70);
+        verify(userPointTable).insertOrUpdate(userId, 70L);
+        verify(pointHistoryTable).insert(eq(userId), eq(amount), eq(TransactionType.USE), anyLong());
     }
 
     @Test
@@ -121,4 +121,21 @@ public class PointServiceUseTest {
         assertEquals("Database connection error", exception.getMessage());
     }
 
+    @Test
+    @DisplayName("잔액을 업데이트하다 DB 예외 발생")
+    void useInsertOrUpdateDatabaseExceptionTest() {
+        // 셋업
+        long userId = 123L;
+        when(userPointTable.selectById(userId)).thenReturn(new UserPoint(userId, 100L, System.currentTimeMillis()));
+        doThrow(new RuntimeException("Database connection error")).when(userPointTable).insertOrUpdate(userId, 70L);
+
+        // 실행, 검증
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            pointService.patchUse(userId, -30L);
+        });
+
+        // 추가 검증
+        assertEquals("Database connection error", exception.getMessage());
+        verify(pointHistoryTable, never()).insert(anyLong(), anyLong(), any(), anyLong());
+    }
 }
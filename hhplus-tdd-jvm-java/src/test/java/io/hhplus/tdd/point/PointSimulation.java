@@ -0,0 +1,151 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.service.PointService;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 여러 스레드에서 충전/사용/조회를 섞어 호출하고, 호출마다 시작/끝 시각과 결과를 기록합니다.
+ * <p>
+ * 스레드마다 seed 에서 갈라낸 난수로 요청을 만들므로 같은 seed 면 스레드별 요청 순서가 같습니다.
+ * 스레드 스케줄링까지 고정할 수는 없으므로, 실패하면 seed 와 기록을 함께 남겨 같은 조건으로 다시 돌려봅니다.
+ */
+class PointSimulation {
+    enum Kind {
+        CHARGE,
+        USE,
+        GET,
+    }
+
+    enum Outcome {
+        // 정상 처리. value 는 반환된 잔액
+        OK,
+        // 잔액이 모자라 거절
+        REJECTED,
+        // 그 밖의 예외. 반영됐는지 알 수 없다.
+        UNKNOWN,
+    }
+
+    /**
+     * amount 는 서비스에 넘긴 값 그대로이므로 사용은 음수입니다.
+     */
+    record Operation(int thread, long userId, Kind kind, long amount, long callNanos, long returnNanos, Outcome outcome, long value) {
+        @Override
+        public String toString() {
+            return "t" + thread + " " + kind + "(" + userId + (kind == Kind.GET ? "" : ", " + amount) + ") -> "
+                    + (outcome == Outcome.OK ? value : outcome) + " [" + callNanos + ", " + returnNanos + "]";
+        }
+    }
+
+    record Result(long seed, List<Operation> operations, long elapsedNanos) {
+        double opsPerSecond() {
+            return operations.size() / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        long count(Outcome outcome) {
+            return operations.stream().filter(operation -> operation.outcome() == outcome).count();
+        }
+
+        /**
+         * 처리량과 종류별 지연 백분위(마이크로초)를 한 줄씩 정리합니다.
+         */
+        String report() {
+            Map<Kind, List<Long>> latencies = new EnumMap<>(Kind.class);
+            for (Operation operation : operations) {
+                latencies.computeIfAbsent(operation.kind(), kind -> new ArrayList<>())
+                        .add(operation.returnNanos() - operation.callNanos());
+            }
+            StringBuilder report = new StringBuilder(String.format("seed=%d ops=%d %.0f ops/s rejected=%d unknown=%d%n",
+                    seed, operations.size(), opsPerSecond(), count(Outcome.REJECTED), count(Outcome.UNKNOWN)));
+            for (Map.Entry<Kind, List<Long>> entry : latencies.entrySet()) {
+                long[] sorted = entry.getValue().stream().mapToLong(Long::longValue).sorted().toArray();
+                report.append(String.format("  %-6s n=%-6d p50=%dus p95=%dus p99=%dus max=%dus%n", entry.getKey(), sorted.length,
+                        percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99), sorted[sorted.length - 1] / 1_000L));
+            }
+            return report.toString();
+        }
+
+        private static long percentile(long[] sorted, double percentile) {
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1_000L;
+        }
+    }
+
+    static Result run(PointService pointService, long seed, int threads, int operationsPerThread, int users) throws Exception {
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] randoms = new SplittableRandom[threads];
+        for (int t = 0; t < threads; t++) {
+            randoms[t] = root.split();
+        }
+
+        List<List<Operation>> recorded = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Operation>>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                List<Operation> operations = new ArrayList<>(operationsPerThread);
+                for (int i = 0; i < operationsPerThread; i++) {
+                    operations.add(invoke(pointService, thread, randoms[thread], users));
+                }
+                return operations;
+            }));
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        try {
+            for (Future<List<Operation>> future : futures) {
+                recorded.add(future.get(5, TimeUnit.MINUTES));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        long elapsedNanos = System.nanoTime() - started;
+        return new Result(seed, recorded.stream().flatMap(List::stream).toList(), elapsedNanos);
+    }
+
+    private static Operation invoke(PointService pointService, int thread, SplittableRandom random, int users) throws InterruptedException {
+        long userId = random.nextInt(users);
+        int dice = random.nextInt(10);
+        Kind kind = dice < 4 ? Kind.CHARGE : dice < 8 ? Kind.USE : Kind.GET;
+        long amount = switch (kind) {
+            case CHARGE -> random.nextLong(1, 100);
+            case USE -> -random.nextLong(1, 100);
+            case GET -> 0L;
+        };
+
+        long callNanos = System.nanoTime();
+        Outcome outcome;
+        long value = 0L;
+        try {
+            UserPoint userPoint = switch (kind) {
+                case CHARGE -> pointService.patchCharge(userId, amount);
+                case USE -> pointService.patchUse(userId, amount);
+                case GET -> pointService.getPoint(userId);
+            };
+            outcome = Outcome.OK;
+            value = userPoint.point();
+        } catch (IllegalArgumentException e) {
+            outcome = kind == Kind.USE ? Outcome.REJECTED : Outcome.UNKNOWN;
+        } catch (RuntimeException e) {
+            outcome = Outcome.UNKNOWN;
+        }
+        return new Operation(thread, userId, kind, amount, callNanos, System.nanoTime(), outcome, value);
+    }
+
+    static String describe(List<Operation> operations) {
+        return operations.stream().map(Operation::toString).collect(Collectors.joining("\n"));
+    }
+}
@@ -0,0 +1,193 @@
+package io.hhplus.tdd.service;
+
+import io.hhplus.tdd.exception.IdempotencyKeyReusedException;
+import io.hhplus.tdd.exception.PointWriteIncompleteException;
+import io.hhplus.tdd.exception.TooManyRequestsException;
+import io.hhplus.tdd.point.TransactionType;
+import io.hhplus.tdd.point.UserPoint;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class IdempotencyStoreTest {
+    AtomicLong now = new AtomicLong(1_000L);
+    AtomicInteger runs = new AtomicInteger();
+    IdempotencyStore store = new IdempotencyStore(2, 100L, 1_000L, now::get);
+
+    // 요구사항 분석
+    // - 같은 키로 다시 온 요청은 작업을 다시 하지 않고 처음 결과를 반환
+    // - 같은 키로 다른 요청이 오면 거절
+    // - 처음 요청이 실패하면 같은 키로 다시 시도 가능
+    // - 잔액이 바뀐 뒤 실패했으면 키를 남겨 두고 재시도에 같은 실패를 반환
+    // - 보관 기간이 지나거나 capacity 를 넘은 키는 잊음
+    // - 작업 중인 키는 버리지 않고, 모든 키가 작업 중이면 새 키를 거절
+    @Test
+    @DisplayName("같은 키로 다시 온 요청은 작업을 다시 수행하지 않고 처음 결과를 반환한다")
+    void replayTest() throws InterruptedException {
+        // 실행
+        UserPoint first = charge(1L, "a", 100L);
+        UserPoint second = charge(1L, "a", 100L);
+        UserPoint otherUser = charge(2L, "a", 100L);
+
+        // 검증
+        assertThat(second).isSameAs(first);
+        assertThat(otherUser).isNotSameAs(first);
+        assertThat(runs.get()).isEqualTo(2);
+        assertThat(store.stats().replays()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("같은 키로 금액이 다른 요청이 오면 IdempotencyKeyReusedException 이 발생한다")
+    void reusedKeyTest() throws InterruptedException {
+        // 셋업
+        charge(1L, "a", 100L);
+
+        // 실행 & 검증
+        assertThrows(IdempotencyKeyReusedException.class, () -> charge(1L, "a", 200L));
+        assertThrows(IdempotencyKeyReusedException.class, () ->
+                store.execute(1L, "a", 100L, TransactionType.USE, () -> new UserPoint(1L, 0L, 0L)));
+    }
+
+    @Test
+    @DisplayName("처음 요청이 실패하면 같은 키로 다시 수행할 수 있다")
+    void retryAfterFailureTest() throws InterruptedException {
+        // 셋업
+        assertThrows(IllegalStateException.class, () -> store.execute(1L, "a", 100L, TransactionType.CHARGE, () -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        // 실행
+        UserPoint retried = charge(1L, "a", 100L);
+
+        // 검증
+        assertThat(retried.point()).isEqualTo(100L);
+        assertThat(runs.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("잔액이 바뀐 뒤 실패한 요청은 같은 키로 다시 수행하지 않고 같은 실패를 반환한다")
+    void incompleteFailureTest() {
+        // 셋업
+        PointWriteIncompleteException failure = new PointWriteIncompleteException(1L, new RuntimeException("boom"));
+        assertThrows(PointWriteIncompleteException.class, () -> store.execute(1L, "a", 100L, TransactionType.CHARGE, () -> {
+            throw failure;
+        }));
+
+        // 실행
+        PointWriteIncompleteException replayed = assertThrows(PointWriteIncompleteException.class, () -> charge(1L, "a", 100L));
+
+        // 검증
+        assertThat(replayed).isSameAs(failure);
+        assertThat(runs.get()).isZero();
+    }
+
+    @Test
+    @DisplayName("보관 기간이 지나거나 capacity 를 넘은 키는 다시 수행한다")
+    void expireAndEvictTest() throws InterruptedException {
+        // 셋업
+        charge(1L, "a", 100L);
+        now.addAndGet(50L);
+        charge(1L, "b", 100L);
+
+        // 실행
+        now.addAndGet(60L);
+        charge(1L, "a", 100L);
+        charge(1L, "c", 100L);
+        charge(1L, "d", 100L);
+        charge(1L, "b", 100L);
+
+        // 검증
+        assertThat(runs.get()).isEqualTo(6);
+        assertThat(store.stats().expirations()).isEqualTo(1L);
+        assertThat(store.stats().evictions()).isEqualTo(3L);
+        assertThat(store.stats().size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("capacity 가 작업 중인 키로 차 있으면 새 키는 TooManyRequestsException 으로 거절하고, 작업 중인 키의 재시도는 다시 수행하지 않는다")
+    void inFlightEvictionTest() throws Exception {
+        // 셋업
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        List<Future<UserPoint>> inFlight = new ArrayList<>();
+        try {
+            for (String key : List.of("a", "b")) {
+                inFlight.add(executor.submit(() -> store.execute(1L, key, 100L, TransactionType.CHARGE, () -> {
+                    runs.incrementAndGet();
+                    started.countDown();
+                    release.await();
+                    return new UserPoint(1L, 100L, 0L);
+                })));
+            }
+            started.await();
+
+            // 실행
+            assertThrows(TooManyRequestsException.class, () -> charge(1L, "c", 100L));
+            Future<UserPoint> retry = executor.submit(() -> charge(1L, "a", 100L));
+            release.countDown();
+
+            // 검증
+            assertThat(retry.get()).isSameAs(inFlight.get(0).get());
+            assertThat(inFlight.get(1).get().point()).isEqualTo(100L);
+            charge(1L, "c", 100L);
+            assertThat(runs.get()).isEqualTo(3);
+            assertThat(store.stats().rejections()).isEqualTo(1L);
+            assertThat(store.stats().evictions()).isEqualTo(1L);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("같은 키로 동시에 온 요청은 한 번만 수행하고 모두 같은 결과를 받는다")
+    void concurrentSameKeyTest() throws Exception {
+        // 셋업
+        int threadCount = 8;
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+
+        // 실행
+        List<Future<UserPoint>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < threadCount; i++) {
+                futures.add(executor.submit(() -> store.execute(1L, "a", 100L, TransactionType.CHARGE, () -> {
+                    runs.incrementAndGet();
+                    started.countDown();
+                    release.await();
+                    return new UserPoint(1L, 100L, 0L);
+                })));
+            }
+            started.await();
+            release.countDown();
+
+            // 검증
+            UserPoint first = futures.get(0).get();
+            for (Future<UserPoint> future : futures) {
+                assertThat(future.get()).isSameAs(first);
+            }
+            assertThat(runs.get()).isEqualTo(1);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private UserPoint charge(long userId, String key, long amount) throws InterruptedException {
+        return store.execute(userId, key, amount, TransactionType.CHARGE, () -> {
+            runs.incrementAndGet();
+            return new UserPoint(userId, amount, now.get());
+        });
+    }
+}
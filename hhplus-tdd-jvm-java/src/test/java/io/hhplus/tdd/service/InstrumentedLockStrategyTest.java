@@ -0,0 +1,79 @@
+package io.hhplus.tdd.service;
+
+import io.hhplus.tdd.exception.LockTimeoutException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class InstrumentedLockStrategyTest {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    PointLockStrategy lockStrategy = new InstrumentedLockStrategy(new LockMapStrategy(100L), registry, "lock_map");
+
+    // 요구사항 분석
+    // - 락 대기 시간과 보유 시간을 operation 별로 기록
+    // - 락을 얻지 못한 경우 타임아웃 횟수를 기록
+    @Test
+    @DisplayName("write 작업의 락 보유 시간을 기록한다")
+    void holdTimeTest() throws InterruptedException {
+        // 실행
+        lockStrategy.write(1L, () -> {
+            sleep(50L);
+            return null;
+        });
+
+        // 검증
+        assertThat(registry.get("point.lock.hold").tag("operation", "write").timer().count()).isEqualTo(1L);
+        assertThat(registry.get("point.lock.hold").tag("operation", "write").timer().totalTime(TimeUnit.MILLISECONDS))
+                .isGreaterThanOrEqualTo(50.0);
+        assertThat(registry.get("point.lock.wait").tag("operation", "write").timer().count()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("다른 스레드가 락을 잡고 있으면 대기 시간과 타임아웃을 기록한다")
+    void timeoutTest() throws Exception {
+        // 셋업
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.submit(() -> lockStrategy.write(1L, () -> {
+            holding.countDown();
+            await(release);
+            return null;
+        }));
+        holding.await();
+
+        // 실행
+        assertThrows(LockTimeoutException.class, () -> lockStrategy.write(1L, () -> null));
+        release.countDown();
+        executor.shutdown();
+
+        // 검증
+        assertThat(registry.get("point.lock.timeouts").tag("operation", "write").counter().count()).isEqualTo(1.0);
+        assertThat(registry.get("point.lock.wait").tag("operation", "write").timer().max(TimeUnit.MILLISECONDS))
+                .isGreaterThanOrEqualTo(100.0);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
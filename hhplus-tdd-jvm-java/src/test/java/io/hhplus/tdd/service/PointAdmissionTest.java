@@ -0,0 +1,111 @@
+package io.hhplus.tdd.service;
+
+import io.hhplus.tdd.exception.TooManyRequestsException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PointAdmissionTest {
+
+    // 요구사항 분석
+    // - 유저별 한도를 넘는 요청은 기다리지 않고 거절
+    // - 전체 한도를 넘는 요청은 유저와 상관없이 거절
+    // - 처리가 끝난 요청의 자리는 다시 쓸 수 있고, 요청이 없는 유저는 남지 않음
+    // - 같은 Permit 을 여러 번 닫아도 자리는 한 번만 돌려줌
+    @Test
+    @DisplayName("한 유저의 동시 요청이 유저 한도를 넘으면 TooManyRequestsException 이 발생하고 다른 유저는 받아들인다")
+    void perUserLimitTest() {
+        // 셋업
+        PointAdmission admission = new PointAdmission(true, 10, 2);
+        PointAdmission.Permit first = admission.admit(1L);
+        PointAdmission.Permit second = admission.admit(1L);
+
+        // 실행
+        TooManyRequestsException exception = assertThrows(TooManyRequestsException.class, () -> admission.admit(1L));
+        PointAdmission.Permit other = admission.admit(2L);
+
+        // 검증
+        assertThat(exception.getMessage()).isEqualTo("Too many requests for user: 1. limit: 2");
+        PointAdmission.AdmissionStats stats = admission.stats();
+        assertThat(stats.inFlight()).isEqualTo(3);
+        assertThat(stats.users()).isEqualTo(2);
+        assertThat(stats.userRejections()).isEqualTo(1L);
+        assertThat(stats.globalRejections()).isZero();
+        first.close();
+        second.close();
+        other.close();
+    }
+
+    @Test
+    @DisplayName("전체 동시 요청이 전체 한도를 넘으면 처음 보는 유저도 거절한다")
+    void globalLimitTest() {
+        // 셋업
+        PointAdmission admission = new PointAdmission(true, 2, 2);
+        admission.admit(1L);
+        admission.admit(2L);
+
+        // 실행 & 검증
+        assertThrows(TooManyRequestsException.class, () -> admission.admit(3L));
+        assertThat(admission.stats().globalRejections()).isEqualTo(1L);
+        assertThat(admission.stats().inFlight()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("끝난 요청의 자리는 다시 받아들이고, 요청이 남지 않은 유저는 지운다")
+    void releaseTest() {
+        // 셋업
+        PointAdmission admission = new PointAdmission(true, 1, 1);
+        PointAdmission.Permit first = admission.admit(1L);
+        assertThrows(TooManyRequestsException.class, () -> admission.admit(1L));
+        first.close();
+
+        // 실행
+        PointAdmission.Permit second = admission.admit(1L);
+        assertThat(admission.stats().inFlight()).isEqualTo(1);
+        second.close();
+
+        // 검증
+        assertThat(admission.stats().inFlight()).isZero();
+        assertThat(admission.stats().users()).isZero();
+    }
+
+    @Test
+    @DisplayName("같은 Permit 을 두 번 닫아도 다른 요청의 자리까지 돌려주지 않는다")
+    void doubleCloseTest() {
+        // 셋업
+        PointAdmission admission = new PointAdmission(true, 10, 2);
+        PointAdmission.Permit first = admission.admit(1L);
+        PointAdmission.Permit second = admission.admit(1L);
+
+        // 실행
+        first.close();
+        first.close();
+
+        // 검증
+        assertThat(admission.stats().inFlight()).isEqualTo(1);
+        assertThat(admission.stats().users()).isEqualTo(1);
+        PointAdmission.Permit third = admission.admit(1L);
+        assertThrows(TooManyRequestsException.class, () -> admission.admit(1L));
+        second.close();
+        third.close();
+        assertThat(admission.stats().inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("꺼져 있으면 한도와 상관없이 모두 받아들인다")
+    void disabledTest() {
+        // 셋업
+        PointAdmission admission = new PointAdmission(false, 0, 0);
+
+        // 실행
+        for (int i = 0; i < 100; i++) {
+            admission.admit(1L);
+        }
+
+        // 검증
+        assertThat(admission.stats().inFlight()).isZero();
+        assertThat(admission.stats().userRejections()).isZero();
+    }
+}
@@ -0,0 +1,184 @@
+package io.hhplus.tdd.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.hhplus.tdd.config.PointProperties;
+import io.hhplus.tdd.point.PointBulkResult;
+import io.hhplus.tdd.point.PointBulkRow;
+import io.hhplus.tdd.point.TransactionType;
+import io.hhplus.tdd.point.UserPoint;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class PointBulkIngesterTest {
+    PointService pointService;
+    PointBulkIngester pointBulkIngester;
+    Map<Long, List<Long>> applied = new ConcurrentHashMap<>();
+
+    List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    CountDownLatch blocked = new CountDownLatch(1);
+
+    PointBulkIngesterTest() {
+        this.pointService = mock(PointService.class);
+        this.pointBulkIngester = new PointBulkIngester(pointService, new ObjectMapper(), properties(4, 2));
+
+        // 묶음 하나에 50ms 가 걸리고, 유저별로 반영된 순서를 기록한다. 사용은 모두 잔액 부족으로 거절하고, 99번 유저는 blocked 가 풀릴 때까지 멈춘다.
+        when(pointService.applyAll(anyLong(), anyList())).thenAnswer(invocation -> {
+            long userId = invocation.getArgument(0);
+            List<PointBulkRow> rows = invocation.getArgument(1);
+            if (userId == 99L) {
+                blocked.await();
+            }
+            Thread.sleep(50);
+            batchSizes.add(rows.size());
+            List<CompletableFuture<UserPoint>> results = new ArrayList<>();
+            for (PointBulkRow row : rows) {
+                if (row.type() == TransactionType.USE) {
+                    results.add(CompletableFuture.failedFuture(new IllegalArgumentException("You can't deduct more points than you own.")));
+                    continue;
+                }
+                applied.computeIfAbsent(userId, id -> new CopyOnWriteArrayList<>()).add(row.amount());
+                results.add(CompletableFuture.completedFuture(new UserPoint(userId, row.amount(), System.currentTimeMillis())));
+            }
+            return results;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        blocked.countDown();
+        pointBulkIngester.close();
+    }
+
+    // 요구사항 분석
+    // - NDJSON/CSV 본문을 한 줄씩 읽어 반영하고 줄마다 결과를 반환
+    // - 같은 유저의 줄은 들어온 순서대로 반영
+    // - 다른 유저의 줄은 worker 수만큼 동시에 반영
+    // - worker 큐에 쌓인 같은 유저의 줄은 applyAll 한 번으로 묶어 반영
+    // - 요청마다 worker 를 따로 쓰므로 먼저 온 요청이 오래 걸려도 다음 요청이 기다리지 않음
+    // - 해석할 수 없거나 반영에 실패한 줄은 ERROR 로 남기고 나머지를 계속 처리
+    @Test
+    @DisplayName("CSV 본문을 유저별 순서를 지키면서 여러 worker 로 나눠 반영한다")
+    void csvIngestTest() throws Exception {
+        // 셋업
+        StringBuilder csv = new StringBuilder("userId,amount,type\n");
+        for (int i = 1; i <= 40; i++) {
+            csv.append(i % 8).append(',').append(i).append(",CHARGE\n");
+        }
+        List<PointBulkResult> results = new ArrayList<>();
+
+        // 실행
+        long started = System.currentTimeMillis();
+        PointBulkIngester.BulkSummary summary = pointBulkIngester.ingest(body(csv.toString()), PointBulkIngester.Format.CSV, results::add);
+        long elapsed = System.currentTimeMillis() - started;
+
+        // 검증
+        assertThat(summary.succeeded()).isEqualTo(40L);
+        assertThat(results).hasSize(40).allMatch(result -> result.status() == PointBulkResult.Status.OK);
+        applied.values().forEach(amounts -> assertThat(amounts).isSorted());
+        // 순차 처리였다면 40 * 50ms = 2초
+        assertThat(elapsed).isLessThan(1_500L);
+    }
+
+    @Test
+    @DisplayName("NDJSON 본문에서 잘못된 줄과 실패한 줄은 ERROR 결과로 남기고 나머지를 반영한다")
+    void ndjsonErrorRowTest() throws Exception {
+        // 셋업
+        String ndjson = """
+                {"userId":1,"amount":100,"type":"CHARGE"}
+                {"userId":1,"amount":-500,"type":"USE"}
+                not json
+
+                {"userId":2}
+                """;
+        List<PointBulkResult> results = new ArrayList<>();
+
+        // 실행
+        PointBulkIngester.BulkSummary summary = pointBulkIngester.ingest(body(ndjson), PointBulkIngester.Format.NDJSON, results::add);
+
+        // 검증
+        assertThat(summary).isEqualTo(new PointBulkIngester.BulkSummary(4L, 1L, 3L));
+        assertThat(results).filteredOn(result -> result.line() == 1L).singleElement()
+                .satisfies(result -> assertThat(result.point()).isEqualTo(100L));
+        assertThat(results).filteredOn(result -> result.line() == 2L).singleElement()
+                .satisfies(result -> assertThat(result.message()).isEqualTo("You can't deduct more points than you own."));
+        assertThat(results).extracting(PointBulkResult::line).containsExactlyInAnyOrder(1L, 2L, 3L, 5L);
+    }
+
+    @Test
+    @DisplayName("worker 큐에 쌓인 같은 유저의 줄은 한 번의 applyAll 로 묶어 반영한다")
+    void foldTest() throws Exception {
+        // 셋업
+        PointBulkIngester ingester = new PointBulkIngester(pointService, new ObjectMapper(), properties(1, 64));
+        StringBuilder csv = new StringBuilder();
+        for (int i = 1; i <= 20; i++) {
+            csv.append("7,").append(i).append(",CHARGE\n");
+        }
+        List<PointBulkResult> results = new ArrayList<>();
+
+        // 실행
+        PointBulkIngester.BulkSummary summary;
+        try {
+            summary = ingester.ingest(body(csv.toString()), PointBulkIngester.Format.CSV, results::add);
+        } finally {
+            ingester.close();
+        }
+
+        // 검증
+        assertThat(summary.succeeded()).isEqualTo(20L);
+        assertThat(applied.get(7L)).isSorted().hasSize(20);
+        // 첫 묶음을 반영하는 50ms 동안 나머지 줄이 큐에 쌓인다.
+        assertThat(batchSizes).hasSizeLessThanOrEqualTo(3);
+        assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("먼저 온 요청이 멈춰 있어도 다음 요청은 자기 worker 로 끝난다")
+    void perRequestWorkersTest() throws Exception {
+        // 셋업
+        String stuck = "99,1,CHARGE\n".repeat(8) + "1,1,CHARGE\n2,1,CHARGE\n3,1,CHARGE\n4,1,CHARGE\n";
+        String next = "5,1,CHARGE\n6,1,CHARGE\n";
+        ExecutorService client = Executors.newSingleThreadExecutor();
+
+        // 실행
+        Future<PointBulkIngester.BulkSummary> first = client.submit(() ->
+                pointBulkIngester.ingest(body(stuck), PointBulkIngester.Format.CSV, result -> { }));
+        Thread.sleep(100);
+        PointBulkIngester.BulkSummary summary = pointBulkIngester.ingest(body(next), PointBulkIngester.Format.CSV, result -> { });
+
+        // 검증
+        assertThat(summary.succeeded()).isEqualTo(2L);
+        assertThat(first.isDone()).isFalse();
+        blocked.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS).succeeded()).isEqualTo(12L);
+        client.shutdown();
+    }
+
+    private static PointProperties properties(int workers, int queueCapacity) {
+        PointProperties properties = new PointProperties();
+        properties.getBulk().setWorkers(workers);
+        properties.getBulk().setQueueCapacity(queueCapacity);
+        return properties;
+    }
+
+    private static ByteArrayInputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
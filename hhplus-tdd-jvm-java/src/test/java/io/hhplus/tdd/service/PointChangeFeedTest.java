@@ -0,0 +1,198 @@
+package io.hhplus.tdd.service;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PointChangeFeedTest {
+    AtomicLong now = new AtomicLong(1_000L);
+    PointChangeFeed feed = new PointChangeFeed(4, 16, 50L, 60_000L, now::get, false);
+
+    @AfterEach
+    void tearDown() {
+        feed.close();
+    }
+
+    // 요구사항 분석
+    // - 기록된 내역을 id 순서대로 구독자에게 전달
+    // - 유저별로 골라 받을 수 있고, 마지막으로 받은 id 다음부터 이어 받을 수 있음
+    // - 느린 구독자가 있어도 publish 는 기다리지 않고, 밀린 구독자는 끊음
+    @Test
+    @DisplayName("순서가 어긋나게 기록된 내역도 id 순서대로 전달하고, 오지 않는 id 는 reorderWindow 가 지나면 건너뛴다")
+    void reorderTest() throws InterruptedException {
+        // 셋업
+        RecordingSink sink = new RecordingSink();
+        feed.subscribe(null, null, null, sink);
+
+        // 실행
+        feed.publish(history(1L, 1L));
+        feed.publish(history(3L, 2L));
+        feed.publish(history(2L, 1L));
+        feed.publish(history(5L, 1L));
+        feed.skipExpiredGaps();
+        List<Long> beforeWindow = sink.ids(3);
+        now.addAndGet(50L);
+        feed.skipExpiredGaps();
+
+        // 검증
+        assertThat(beforeWindow).containsExactly(1L, 2L, 3L);
+        assertThat(sink.ids(1)).containsExactly(5L);
+        assertThat(feed.stats().skippedIds()).isEqualTo(1L);
+        assertThat(feed.stats().published()).isEqualTo(4L);
+    }
+
+    @Test
+    @DisplayName("유저 구독은 그 유저의 내역만 받는다")
+    void userFilterTest() throws InterruptedException {
+        // 셋업
+        RecordingSink sink = new RecordingSink();
+        feed.subscribe(2L, null, null, sink);
+
+        // 실행
+        for (long id = 1; id <= 6; id++) {
+            feed.publish(history(id, id % 3));
+        }
+
+        // 검증
+        assertThat(sink.ids(2)).containsExactly(2L, 5L);
+        assertThat(sink.events).isEmpty();
+    }
+
+    @Test
+    @DisplayName("전체 구독은 버퍼에 남은 내역에서 이어 받고, 이미 밀려난 내역이 있으면 gap 으로 알린다")
+    void resumeFromBufferTest() throws InterruptedException {
+        // 셋업
+        for (long id = 1; id <= 6; id++) {
+            feed.publish(history(id, 1L));
+        }
+
+        // 실행
+        RecordingSink resumed = new RecordingSink();
+        feed.subscribe(null, 4L, null, resumed);
+        RecordingSink behind = new RecordingSink();
+        feed.subscribe(null, 1L, null, behind);
+
+        // 검증
+        assertThat(resumed.ids(2)).containsExactly(5L, 6L);
+        assertThat(behind.events.poll(5, TimeUnit.SECONDS)).isEqualTo("gap:3");
+        assertThat(behind.ids(4)).containsExactly(3L, 4L, 5L, 6L);
+    }
+
+    @Test
+    @DisplayName("유저 구독은 저장된 내역에서 이어 받고, 그 사이 들어온 내역과 겹치는 것은 한 번만 받는다")
+    void resumeFromBackfillTest() throws InterruptedException {
+        // 셋업
+        CountDownLatch backfilling = new CountDownLatch(1);
+        CountDownLatch published = new CountDownLatch(1);
+        List<PointHistory> stored = new ArrayList<>(List.of(history(1L, 1L), history(2L, 1L), history(3L, 1L)));
+        PointChangeFeed.Backfill backfill = afterId -> {
+            backfilling.countDown();
+            published.await();
+            return stored.stream().filter(row -> row.id() > afterId);
+        };
+        RecordingSink sink = new RecordingSink();
+
+        // 실행
+        feed.subscribe(1L, 1L, backfill, sink);
+        backfilling.await();
+        stored.add(history(4L, 1L));
+        feed.publish(history(4L, 1L));
+        published.countDown();
+        feed.publish(history(5L, 1L));
+
+        // 검증
+        assertThat(sink.ids(4)).containsExactly(2L, 3L, 4L, 5L);
+        assertThat(sink.events.poll(100, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    @DisplayName("느린 구독자가 있어도 publish 는 기다리지 않고, 큐가 가득 찬 구독자는 끊는다")
+    void slowSubscriberTest() throws InterruptedException {
+        // 셋업
+        PointChangeFeed small = new PointChangeFeed(16, 2, 0L, 60_000L, now::get, false);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSink slow = new RecordingSink() {
+            @Override
+            public void send(PointHistory pointHistory) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.send(pointHistory);
+            }
+        };
+        RecordingSink fast = new RecordingSink();
+        small.subscribe(null, null, null, slow);
+        small.subscribe(null, null, null, fast);
+
+        // 실행
+        long started = System.nanoTime();
+        for (long id = 1; id <= 10; id++) {
+            small.publish(history(id, 1L));
+            fast.ids(1);
+        }
+        long publishMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        release.countDown();
+
+        // 검증
+        assertThat(publishMillis).isLessThan(5_000L);
+        assertThat(slow.closed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(slow.overflowed).isTrue();
+        assertThat(small.stats().overflows()).isEqualTo(1L);
+        assertThat(small.stats().subscribers()).isEqualTo(1);
+        small.close();
+    }
+
+    private static PointHistory history(long id, long userId) {
+        return new PointHistory(id, userId, 100L, TransactionType.CHARGE, id);
+    }
+
+    static class RecordingSink implements PointChangeFeed.Sink {
+        final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        final CountDownLatch closed = new CountDownLatch(1);
+        volatile boolean overflowed;
+
+        @Override
+        public void send(PointHistory pointHistory) {
+            events.add(Long.toString(pointHistory.id()));
+        }
+
+        @Override
+        public void heartbeat() {
+        }
+
+        @Override
+        public void gap(long oldestId) {
+            events.add("gap:" + oldestId);
+        }
+
+        @Override
+        public void close(boolean overflowed) {
+            this.overflowed = overflowed;
+            closed.countDown();
+        }
+
+        List<Long> ids(int count) throws InterruptedException {
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                String event = events.poll(5, TimeUnit.SECONDS);
+                assertThat(event).isNotNull();
+                ids.add(Long.parseLong(event));
+            }
+            return ids;
+        }
+    }
+}
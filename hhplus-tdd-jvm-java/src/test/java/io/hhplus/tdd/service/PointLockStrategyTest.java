@@ -0,0 +1,132 @@
+package io.hhplus.tdd.service;
+
+import io.hhplus.tdd.exception.LockTimeoutException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PointLockStrategyTest {
+
+    static Stream<Arguments> strategies() {
+        return Stream.of(
+                Arguments.of(new LockMapStrategy(200L)),
+                Arguments.of(new StripedStampedLockStrategy(16, 200L)),
+                Arguments.of(new OptimisticVersionStrategy(16, 200L))
+        );
+    }
+
+    // 요구사항 분석
+    // - 같은 유저의 write 는 서로 겹치지 않음
+    // - 락을 기다리다 시간이 지나면 LockTimeoutException
+    // - read 는 검증된 값만 돌려주므로 진행 중인 write 와 겹치면 write 가 끝난 뒤의 값을 읽음
+    @ParameterizedTest
+    @MethodSource("strategies")
+    @DisplayName("같은 유저에 대한 write 는 직렬화된다")
+    void writeMutualExclusionTest(PointLockStrategy strategy) throws Exception {
+        // 셋업
+        int threadCount = 8;
+        int iterations = 500;
+        long[] counter = {0L};
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+
+        // 실행
+        for (int i = 0; i < threadCount; i++) {
+            executor.execute(() -> {
+                try {
+                    for (int j = 0; j < iterations; j++) {
+                        strategy.write(1L, () -> counter[0]++);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executor.shutdown();
+
+        // 검증
+        assertThat(counter[0]).isEqualTo((long) threadCount * iterations);
+    }
+
+    @ParameterizedTest
+    @MethodSource("strategies")
+    @DisplayName("락을 제한 시간 안에 얻지 못하면 LockTimeoutException")
+    void writeTimeoutTest(PointLockStrategy strategy) throws Exception {
+        // 셋업
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.submit(() -> strategy.write(1L, () -> {
+            holding.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        holding.await();
+
+        // 실행, 검증
+        LockTimeoutException exception = assertThrows(LockTimeoutException.class, () -> strategy.write(1L, () -> null));
+        assertThat(exception.getMessage()).isEqualTo("TimeOut! Failed to acquire lock for user: 1");
+
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @ParameterizedTest
+    @MethodSource("strategies")
+    @DisplayName("write 와 겹친 read 는 write 가 끝난 뒤의 값을 돌려준다")
+    void validatedReadTest(PointLockStrategy strategy) throws Exception {
+        // 셋업
+        AtomicReference<String> value = new AtomicReference<>("before");
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        executor.submit(() -> strategy.write(1L, () -> {
+            holding.countDown();
+            value.set("during");
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            value.set("after");
+            return null;
+        }));
+        holding.await();
+
+        // 실행
+        Future<String> read = executor.submit(() -> strategy.read(1L, value::get));
+        Thread.sleep(100);
+        boolean doneWhileWriting = read.isDone();
+        release.countDown();
+
+        // 검증
+        assertThat(doneWhileWriting).isFalse();
+        assertThat(read.get(5, TimeUnit.SECONDS)).isEqualTo("after");
+        assertThat(strategy.read(2L, () -> "idle")).isEqualTo("idle");
+
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("stripe 개수는 2의 거듭제곱으로 올림된다")
+    void stripeCountTest() {
+        assertThat(new StripedStampedLockStrategy(1000, 100L).stripeCount()).isEqualTo(1024);
+        assertThat(new StripedStampedLockStrategy(1024, 100L).stripeCount()).isEqualTo(1024);
+    }
+}
@@ -0,0 +1,240 @@
+package io.hhplus.tdd.service;
+
+import io.hhplus.tdd.database.PointHistoryAppender;
+import io.hhplus.tdd.database.PointHistoryIndex;
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.database.UserPointCache;
+import io.hhplus.tdd.database.UserPointTable;
+import io.hhplus.tdd.exception.TooManyRequestsException;
+import io.hhplus.tdd.exception.UserNotFoundException;
+import io.hhplus.tdd.point.TransactionType;
+import io.hhplus.tdd.point.UserPoint;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class PointShardEngineTest {
+    UserPointTable userPointTable = mock(UserPointTable.class);
+    PointHistoryTable pointHistoryTable = mock(PointHistoryTable.class);
+    Map<Long, Long> balances = new ConcurrentHashMap<>();
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(0);
+    UserPointCache userPointCache = new UserPointCache(userPointTable, 0);
+    PointShardEngine engine;
+
+    PointShardEngineTest() {
+        when(userPointTable.selectById(anyLong())).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await();
+            Long balance = balances.get(invocation.<Long>getArgument(0));
+            return balance == null ? null : new UserPoint(invocation.getArgument(0), balance, 1L);
+        });
+        when(userPointTable.insertOrUpdate(anyLong(), anyLong())).thenAnswer(invocation -> {
+            balances.put(invocation.getArgument(0), invocation.getArgument(1));
+            return new UserPoint(invocation.getArgument(0), invocation.getArgument(1), System.currentTimeMillis());
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (engine != null) {
+            engine.close();
+        }
+    }
+
+    // 요구사항 분석
+    // - 같은 유저의 메시지는 한 shard 가 도착 순서대로 처리하고, 큐에 쌓인 만큼 묶어서 저장 한 번으로 반영
+    // - 잔액이 음수가 되는 사용만 거절하고, 조회는 앞서 들어온 충전/사용이 반영된 잔액을 받음
+    // - shard 큐가 가득 차면 기다리지 않고 거절하고, 처리 전에 취소한 메시지는 반영하지 않음
+    // - 여러 shard 가 동시에 돌아도 유저마다 잔액이 맞음
+    // - shard 밖에서 캐시에 쓴 유저는 shard 가 들고 있던 잔액을 버리고 다시 읽음
+    @Test
+    @DisplayName("shard 가 테이블을 기다리는 동안 쌓인 같은 유저의 충전은 저장 한 번으로 반영하고 도착 순서대로 잔액을 돌려준다")
+    void coalesceTest() throws Exception {
+        // 셋업
+        engine = engine(1, 100);
+        balances.put(1L, 0L);
+        release = new CountDownLatch(1);
+        CompletableFuture<UserPoint> first = engine.get(2L);
+        loading.await();
+
+        // 실행
+        List<CompletableFuture<UserPoint>> charges = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            charges.add(engine.apply(1L, 10L, TransactionType.CHARGE));
+        }
+        release.countDown();
+
+        // 검증
+        assertThat(first.get(5, TimeUnit.SECONDS)).isNull();
+        for (int i = 0; i < charges.size(); i++) {
+            assertThat(charges.get(i).get(5, TimeUnit.SECONDS).point()).isEqualTo(10L * (i + 1));
+        }
+        assertThat(balances.get(1L)).isEqualTo(100L);
+        verify(userPointTable, times(1)).insertOrUpdate(eq(1L), anyLong());
+        verify(pointHistoryTable, times(10)).insert(eq(1L), eq(10L), eq(TransactionType.CHARGE), anyLong());
+        assertThat(engine.stats().messages()).isEqualTo(11L);
+    }
+
+    @Test
+    @DisplayName("잔액보다 많이 사용하려는 메시지만 거절되고, 조회는 앞서 들어온 메시지가 반영된 잔액을 받는다")
+    void orderTest() throws Exception {
+        // 셋업
+        engine = engine(1, 100);
+        balances.put(1L, 50L);
+        release = new CountDownLatch(1);
+        engine.get(2L);
+        loading.await();
+
+        // 실행
+        CompletableFuture<UserPoint> before = engine.get(1L);
+        CompletableFuture<UserPoint> use = engine.apply(1L, -30L, TransactionType.USE);
+        CompletableFuture<UserPoint> overdraft = engine.apply(1L, -30L, TransactionType.USE);
+        CompletableFuture<UserPoint> after = engine.get(1L);
+        release.countDown();
+
+        // 검증
+        assertThat(before.get(5, TimeUnit.SECONDS).point()).isEqualTo(50L);
+        assertThat(use.get(5, TimeUnit.SECONDS).point()).isEqualTo(20L);
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> overdraft.get(5, TimeUnit.SECONDS));
+        assertThat(exception.getCause()).isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("You can't deduct more points than you own.");
+        assertThat(after.get(5, TimeUnit.SECONDS).point()).isEqualTo(20L);
+        assertThat(balances.get(1L)).isEqualTo(20L);
+    }
+
+    @Test
+    @DisplayName("없는 유저는 조회하면 null 을 받고 충전하면 UserNotFoundException 으로 끝난다")
+    void userNotFoundTest() {
+        // 셋업
+        engine = engine(2, 100);
+
+        // 실행
+        CompletableFuture<UserPoint> get = engine.get(9L);
+        CompletableFuture<UserPoint> charge = engine.apply(9L, 10L, TransactionType.CHARGE);
+
+        // 검증
+        assertThat(get.join()).isNull();
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> charge.get(5, TimeUnit.SECONDS));
+        assertThat(exception.getCause()).isInstanceOf(UserNotFoundException.class);
+        verify(userPointTable, never()).insertOrUpdate(anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("큐가 가득 찬 shard 로 보낸 메시지는 바로 거절되고, 처리 전에 취소한 메시지는 반영되지 않는다")
+    void queueFullAndCancelTest() throws Exception {
+        // 셋업
+        engine = engine(1, 2);
+        balances.put(1L, 0L);
+        release = new CountDownLatch(1);
+        engine.get(2L);
+        loading.await();
+
+        // 실행
+        CompletableFuture<UserPoint> cancelled = engine.apply(1L, 10L, TransactionType.CHARGE);
+        CompletableFuture<UserPoint> charged = engine.apply(1L, 20L, TransactionType.CHARGE);
+        CompletableFuture<UserPoint> rejected = engine.apply(1L, 30L, TransactionType.CHARGE);
+        boolean cancel = cancelled.cancel(false);
+        release.countDown();
+
+        // 검증
+        assertThat(cancel).isTrue();
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+        assertThat(exception.getCause()).isInstanceOf(TooManyRequestsException.class);
+        assertThat(charged.get(5, TimeUnit.SECONDS).point()).isEqualTo(20L);
+        assertThat(charged.cancel(false)).isFalse();
+        assertThat(balances.get(1L)).isEqualTo(20L);
+        assertThat(engine.stats().rejections()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("여러 shard 에서 여러 유저의 충전/사용을 동시에 처리해도 유저마다 잔액이 맞다")
+    void concurrentShardsTest() throws Exception {
+        // 셋업
+        engine = engine(4, 10_000);
+        int users = 32;
+        int requestsPerUser = 200;
+        for (long userId = 1; userId <= users; userId++) {
+            balances.put(userId, 1_000L);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+
+        // 실행
+        List<CompletableFuture<UserPoint>> results = new ArrayList<>();
+        List<Future<?>> submits = new ArrayList<>();
+        for (int t = 0; t < 16; t++) {
+            int thread = t;
+            submits.add(executor.submit(() -> {
+                List<CompletableFuture<UserPoint>> mine = new ArrayList<>();
+                for (int i = thread; i < users * requestsPerUser; i += 16) {
+                    long userId = i % users + 1;
+                    mine.add(i / users % 4 == 3
+                            ? engine.apply(userId, -1L, TransactionType.USE)
+                            : engine.apply(userId, 2L, TransactionType.CHARGE));
+                }
+                synchronized (results) {
+                    results.addAll(mine);
+                }
+            }));
+        }
+        for (Future<?> submit : submits) {
+            submit.get(30, TimeUnit.SECONDS);
+        }
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // 검증
+        for (long userId = 1; userId <= users; userId++) {
+            assertThat(balances.get(userId)).isEqualTo(1_000L + requestsPerUser / 4 * (3 * 2L - 1L));
+            assertThat(engine.get(userId).join().point()).isEqualTo(balances.get(userId));
+        }
+        PointShardEngine.EngineStats stats = engine.stats();
+        assertThat(stats.shards()).isEqualTo(4);
+        assertThat(stats.users()).isEqualTo(users);
+        assertThat(stats.rejections()).isZero();
+    }
+
+    @Test
+    @DisplayName("shard 밖에서 캐시에 쓴 유저는 들고 있던 잔액을 버리고 다시 읽어 그 위에 반영한다")
+    void outsideWriteTest() throws Exception {
+        // 셋업
+        engine = engine(2, 100);
+        balances.put(1L, 100L);
+        assertThat(engine.apply(1L, 10L, TransactionType.CHARGE).get(5, TimeUnit.SECONDS).point()).isEqualTo(110L);
+
+        // 실행
+        userPointCache.insertOrUpdate(1L, 500L);
+        UserPoint read = engine.get(1L).get(5, TimeUnit.SECONDS);
+        UserPoint charged = engine.apply(1L, 10L, TransactionType.CHARGE).get(5, TimeUnit.SECONDS);
+
+        // 검증
+        assertThat(read.point()).isEqualTo(500L);
+        assertThat(charged.point()).isEqualTo(510L);
+        assertThat(balances.get(1L)).isEqualTo(510L);
+        // shard 자신의 저장은 잔액을 버리지 않으므로 처음과 밖에서 쓴 뒤에만 읽는다.
+        verify(userPointTable, times(2)).selectById(1L);
+    }
+
+    private PointShardEngine engine(int shards, int queueCapacity) {
+        PointHistoryAppender appender = new PointHistoryAppender(new PointHistoryIndex(pointHistoryTable, false));
+        return new PointShardEngine(userPointCache, appender, shards, queueCapacity, 256, 1_000);
+    }
+}
@@ -0,0 +1,116 @@
+package io.hhplus.tdd.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SingleFlightTest {
+    SingleFlight<String> singleFlight = new SingleFlight<>();
+    ExecutorService executor = Executors.newFixedThreadPool(20);
+    AtomicInteger loads = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    // 요구사항 분석
+    // - 같은 키의 동시 조회는 한 번만 읽고 결과를 나눠 받음
+    // - 리더의 예외도 나눠 받고, 끝난 뒤 온 조회는 새로 읽음
+    // - 리더가 인터럽트되면 합류한 조회는 다시 시도
+    @Test
+    @DisplayName("같은 키의 동시 조회는 한 번만 읽고 모두 같은 결과를 받는다")
+    void coalesceTest() throws Exception {
+        // 셋업
+        SingleFlight.Loader<String> loader = closeFlight -> {
+            loads.incrementAndGet();
+            release.await();
+            closeFlight.run();
+            return "balance";
+        };
+
+        // 실행
+        List<Future<String>> futures = submit(20, () -> singleFlight.execute(1L, loader));
+        Thread.sleep(200);
+        release.countDown();
+
+        // 검증
+        for (Future<String> future : futures) {
+            assertThat(future.get(5, TimeUnit.SECONDS)).isEqualTo("balance");
+        }
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(singleFlight.stats()).isEqualTo(new SingleFlight.FlightStats(0, 1L, 19L));
+        assertThat(singleFlight.execute(2L, closeFlight -> "other")).isEqualTo("other");
+        assertThat(singleFlight.stats().issued()).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("리더의 예외는 합류한 조회도 그대로 받고, 끝난 뒤 온 조회는 새로 읽는다")
+    void failureTest() throws Exception {
+        // 셋업
+        SingleFlight.Loader<String> failing = closeFlight -> {
+            loads.incrementAndGet();
+            release.await();
+            throw new IllegalStateException("Database connection error");
+        };
+
+        // 실행
+        List<Future<String>> futures = submit(5, () -> singleFlight.execute(1L, failing));
+        Thread.sleep(200);
+        release.countDown();
+
+        // 검증
+        for (Future<String> future : futures) {
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+            assertThat(exception.getCause()).isInstanceOf(IllegalStateException.class);
+        }
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(singleFlight.execute(1L, closeFlight -> "recovered")).isEqualTo("recovered");
+        assertThat(singleFlight.stats().inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("리더가 인터럽트되면 합류한 조회는 인터럽트되지 않고 다시 읽는다")
+    void leaderInterruptedTest() throws Exception {
+        // 셋업
+        CountDownLatch leading = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> singleFlight.execute(1L, closeFlight -> {
+            leading.countDown();
+            new CountDownLatch(1).await();
+            return "never";
+        }));
+        leading.await();
+        Future<String> follower = executor.submit(() -> singleFlight.execute(1L, closeFlight -> "reloaded"));
+        Thread.sleep(100);
+
+        // 실행
+        leader.cancel(true);
+
+        // 검증
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("reloaded");
+        assertThat(singleFlight.stats().issued()).isEqualTo(2L);
+    }
+
+    private List<Future<String>> submit(int count, Callable<String> task) {
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            futures.add(executor.submit(task));
+        }
+        return futures;
+    }
+}